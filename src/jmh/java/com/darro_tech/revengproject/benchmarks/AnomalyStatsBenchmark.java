@@ -0,0 +1,128 @@
+package com.darro_tech.revengproject.benchmarks;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.darro_tech.revengproject.utils.RunningStats;
+
+/**
+ * Baseline statistics for the anomaly detectors on a 10-year hourly series
+ * (87,600 points): the old boxed two-pass stream code against the Welford
+ * kernel, for both a whole-range and a rolling baseline.
+ *
+ * Run with: gradle jmh -PjmhArgs="AnomalyStatsBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnomalyStatsBenchmark {
+
+    private static final int HOURS_IN_10_YEARS = 10 * 365 * 24;
+
+    @Param({"30", "168"})
+    public int window;
+
+    private List<Double> boxedValues;
+    private double[] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new double[HOURS_IN_10_YEARS];
+        boxedValues = new ArrayList<>(HOURS_IN_10_YEARS);
+        for (int i = 0; i < HOURS_IN_10_YEARS; i++) {
+            // Daily cycle plus noise, like a temperature or CH4 reading
+            values[i] = 60 + 10 * Math.sin(i * 2 * Math.PI / 24) + random.nextGaussian() * 2;
+            boxedValues.add(values[i]);
+        }
+    }
+
+    /**
+     * The detectors before the change: summarizingDouble, then a second
+     * stream with Math.pow, then a z-score pass
+     */
+    @Benchmark
+    public void legacyWholeRange(Blackhole blackhole) {
+        DoubleSummaryStatistics stats = boxedValues.stream()
+                .collect(Collectors.summarizingDouble(Double::doubleValue));
+        double mean = stats.getAverage();
+        double stdDev = Math.sqrt(boxedValues.stream()
+                .collect(Collectors.toList())
+                .stream()
+                .mapToDouble(value -> Math.pow(value - mean, 2))
+                .average()
+                .orElse(0.0));
+
+        int flagged = 0;
+        for (Double value : boxedValues) {
+            if (Math.abs((value - mean) / stdDev) > 2.0) {
+                flagged++;
+            }
+        }
+        blackhole.consume(flagged);
+    }
+
+    @Benchmark
+    public void welfordWholeRange(Blackhole blackhole) {
+        RunningStats stats = RunningStats.of(values, 0, values.length);
+        int flagged = 0;
+        for (double value : values) {
+            if (Math.abs(stats.zScore(value)) > 2.0) {
+                flagged++;
+            }
+        }
+        blackhole.consume(flagged);
+    }
+
+    @Benchmark
+    public void welfordRolling(Blackhole blackhole) {
+        RunningStats.Baseline baseline = RunningStats.rolling(values, values.length, window);
+        int flagged = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (Math.abs(baseline.zScore(i)) > 2.0) {
+                flagged++;
+            }
+        }
+        blackhole.consume(flagged);
+    }
+
+    /**
+     * A rolling baseline done the old way, re-summarizing each window
+     */
+    @Benchmark
+    public void legacyRolling(Blackhole blackhole) {
+        int flagged = 0;
+        for (int i = window; i < boxedValues.size(); i++) {
+            List<Double> slice = boxedValues.subList(i - window, i);
+            double mean = slice.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            double stdDev = Math.sqrt(slice.stream()
+                    .mapToDouble(value -> Math.pow(value - mean, 2))
+                    .average()
+                    .orElse(0.0));
+            if (Math.abs((boxedValues.get(i) - mean) / stdDev) > 2.0) {
+                flagged++;
+            }
+        }
+        blackhole.consume(flagged);
+    }
+}
@@ -0,0 +1,34 @@
+package com.darro_tech.revengproject.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.darro_tech.revengproject.dto.ReportBatchStatus;
+import com.darro_tech.revengproject.services.ReportBatchService;
+
+/**
+ * Actuator endpoint (/actuator/reportbatch) with the progress of the
+ * current or last bulk report run and the timing of each report in it.
+ * Admins only (see SecurityConfig), as it lists company ids and errors.
+ */
+@Component
+@Endpoint(id = "reportbatch")
+public class ReportBatchEndpoint {
+
+    @Autowired
+    private ReportBatchService reportBatchService;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> response = new HashMap<>();
+        ReportBatchStatus status = reportBatchService.getStatus().orElse(null);
+        response.put("running", status != null && ReportBatchService.State.RUNNING.name().equals(status.getState()));
+        response.put("batch", status);
+        return response;
+    }
+}
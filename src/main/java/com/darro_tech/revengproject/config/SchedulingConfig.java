@@ -0,0 +1,14 @@
+package com.darro_tech.revengproject.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class to enable Spring's scheduled task execution.
+ * This allows the use of @Scheduled annotations throughout the application.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // No additional configuration needed - @EnableScheduling does all the work
+}
@@ -11,20 +11,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.darro_tech.revengproject.models.User;
 import com.darro_tech.revengproject.models.dto.AnomalyDTO;
 import com.darro_tech.revengproject.models.dto.ForecastDTO;
 import com.darro_tech.revengproject.models.dto.TrendDTO;
 import com.darro_tech.revengproject.models.dto.TimeSeriesPointDTO;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
 import com.darro_tech.revengproject.services.AnomalyDetectionService;
+import com.darro_tech.revengproject.services.AnomalySweepService;
+import com.darro_tech.revengproject.services.CompanyAccessService;
 import com.darro_tech.revengproject.services.ForecastingService;
+import com.darro_tech.revengproject.services.ReferenceDataService;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
 import com.darro_tech.revengproject.services.TrendAnalysisService;
 
+import jakarta.servlet.http.HttpSession;
+
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
@@ -34,12 +44,24 @@ public class AnalyticsController {
     @Autowired
     private AnomalyDetectionService anomalyService;
 
+    @Autowired
+    private AnomalySweepService anomalySweepService;
+
     @Autowired
     private TrendAnalysisService trendService;
 
     @Autowired
     private ForecastingService forecastService;
 
+    @Autowired
+    private AuthenticationController authenticationController;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     @GetMapping("/anomalies/ch4-recovery")
     public ResponseEntity<?> getCh4RecoveryAnomalies(
             @RequestParam String farmId,
@@ -118,6 +140,84 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Anomalies stored by the background sweep. covered is false while the
+     * sweep has not yet reached back to startDate, in which case callers
+     * should fall back to the live detection endpoints. Only for users with
+     * access to one of the farm's companies.
+     */
+    @GetMapping("/anomalies/stored")
+    public ResponseEntity<?> getStoredAnomalies(
+            @RequestParam String farmId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            HttpSession session) {
+
+        logger.info("🔍 Stored anomalies request - farmId: {}, startDate: {}, endDate: {}", farmId, startDate, endDate);
+
+        User user = authenticationController.getUserFromSession(session);
+        CompanyAccessGrant grant = companyAccessService.getGrant(session, user);
+        if (grant == null || !(grant.isSuperAdmin()
+                || referenceDataService.getCompanyIdsForFarm(farmId).stream().anyMatch(grant::canAccess))) {
+            logger.warn("⛔ Stored anomalies denied for farm {}", farmId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                    "success", false,
+                    "error", "Access denied to this farm"));
+        }
+
+        List<String> farmIds = List.of(farmId);
+        boolean covered = anomalySweepService.isCovered(farmIds, startDate);
+        List<AnomalyDTO> anomalies = covered
+                ? anomalySweepService.findStoredAnomalies(farmIds, startDate, endDate)
+                : new ArrayList<>();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("covered", covered);
+        response.put("anomalies", anomalies);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Scan every farm of a company for anomalies in all metrics at once
+     */
+    @GetMapping("/anomalies/company/{companyId}")
+    public ResponseEntity<?> getCompanyAnomalies(
+            @PathVariable String companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            HttpSession session) {
+
+        logger.info("🔍 Company anomaly scan request - companyId: {}, startDate: {}, endDate: {}",
+                companyId, startDate, endDate);
+
+        User user = authenticationController.getUserFromSession(session);
+        CompanyAccessGrant grant = companyAccessService.getGrant(session, user);
+        if (grant == null || !grant.canAccess(companyId)) {
+            logger.warn("⛔ Company anomaly scan denied for company {}", companyId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                    "success", false,
+                    "error", "Access denied to this company"));
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            List<AnomalyDTO> anomalies = anomalyService.scanCompany(companyId, startDate, endDate);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("companyId", companyId);
+            response.put("anomalies", anomalies);
+            response.put("elapsedMs", System.currentTimeMillis() - start);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("❌ Error in company anomaly scan", e);
+            throw e;
+        }
+    }
+
     @GetMapping("/trends/ch4-recovery")
     public ResponseEntity<?> getCh4RecoveryTrend(
             @RequestParam String farmId,
@@ -145,6 +245,62 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Trend of any farm metric (ch4-recovery, temperature, mass-balance,
+     * lagoon-level, population) over a window
+     */
+    @GetMapping("/trends/{metric}")
+    public ResponseEntity<?> getMetricTrend(
+            @PathVariable String metric,
+            @RequestParam String farmId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate) {
+
+        logger.info("📈 Trend request - metric: {}, farmId: {}, startDate: {}, endDate: {}", metric, farmId, startDate, endDate);
+
+        Metric parsed = parseMetric(metric);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", "Unknown metric: " + metric));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("trend", trendService.analyzeTrend(farmId, parsed, startDate, endDate));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Slopes of a farm metric over the last 7, 30, 90 and 365 days
+     */
+    @GetMapping("/trends/{metric}/windows")
+    public ResponseEntity<?> getMetricTrendWindows(
+            @PathVariable String metric,
+            @RequestParam String farmId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate) {
+
+        Instant end = endDate != null ? endDate : Instant.now();
+        logger.info("📈 Trend window comparison request - metric: {}, farmId: {}, endDate: {}", metric, farmId, end);
+
+        Metric parsed = parseMetric(metric);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", "Unknown metric: " + metric));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("endDate", end);
+        response.put("trends", trendService.compareWindows(farmId, parsed, end));
+        return ResponseEntity.ok(response);
+    }
+
+    private static Metric parseMetric(String metric) {
+        try {
+            return Metric.valueOf(metric.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @GetMapping("/forecasts/ch4-recovery")
     public ResponseEntity<?> getCh4RecoveryForecast(
             @RequestParam String farmId,
@@ -157,7 +313,7 @@ public class AnalyticsController {
                 farmId, startDate, endDate, forecastDays, confidenceLevel);
 
         try {
-            ForecastDTO forecast = forecastService.forecastCh4Recovery(farmId, startDate, endDate);
+            ForecastDTO forecast = forecastService.forecastCh4Recovery(farmId, startDate, endDate, forecastDays, confidenceLevel);
 
             logger.info("[DEBUG_LOG] CH4 Recovery Production Forecasting completed with {} forecast points",
                     forecast != null && forecast.getForecastData() != null ? forecast.getForecastData().size() : 0);
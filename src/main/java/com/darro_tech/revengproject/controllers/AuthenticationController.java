@@ -25,6 +25,7 @@ import com.darro_tech.revengproject.repositories.UserContactTypeRepository;
 import com.darro_tech.revengproject.repositories.UserRepository;
 import com.darro_tech.revengproject.repositories.UserRoleRepository;
 import com.darro_tech.revengproject.services.CompanySelectionService;
+import com.darro_tech.revengproject.services.SessionManagementService;
 import com.darro_tech.revengproject.util.LoggerUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -57,25 +58,14 @@ public class AuthenticationController {
     @Autowired
     private CompanySelectionService companySelectionService;
 
+    @Autowired
+    private SessionManagementService sessionManagementService;
+
     private static final String userSessionKey = "user";
 
     public User getUserFromSession(HttpSession session) {
-        String userId = (String) session.getAttribute(userSessionKey);
-        if (userId == null) {
-            logger.debug("🔍 No user ID found in session");
-            return null;
-        }
-
-        logger.debug("🔍 Looking up user with ID: {}", userId);
-        Optional<User> user = userRepository.findById(userId);
-
-        if (user.isEmpty()) {
-            logger.warn("⚠️ User with ID {} found in session but not in database", userId);
-            return null;
-        }
-
-        logger.debug("✅ User found in database: {}", user.get().getUsername());
-        return user.get();
+        // Served from SessionManagementService's version-checked user cache
+        return sessionManagementService.getUserFromSession(session);
     }
 
     public static void setUserInSession(HttpSession session, User user) {
@@ -334,6 +324,7 @@ public class AuthenticationController {
             // Store user info in session
             setUserInSession(session, theUser);
             logger.debug("🔐 User stored in session: {}", theUser.getUsername());
+            sessionManagementService.getPrincipal(session);
 
             // Automatically select the first alphabetical company for the user
             logger.debug("🏢 Attempting to auto-select company for user");
@@ -11,9 +11,9 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import com.darro_tech.revengproject.models.Company;
 import com.darro_tech.revengproject.models.Farm;
 import com.darro_tech.revengproject.models.User;
-import com.darro_tech.revengproject.services.CompanyService;
-import com.darro_tech.revengproject.services.FarmService;
-import com.darro_tech.revengproject.services.UserRoleService;
+import com.darro_tech.revengproject.security.SessionPrincipal;
+import com.darro_tech.revengproject.services.ReferenceDataService;
+import com.darro_tech.revengproject.services.SessionManagementService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -22,44 +22,25 @@ public abstract class BaseController {
     protected static final Logger logger = LoggerFactory.getLogger(BaseController.class);
 
     @Autowired
-    private AuthenticationController authenticationController;
+    private SessionManagementService sessionManagementService;
 
     @Autowired
-    private UserRoleService userRoleService;
-
-    @Autowired
-    private CompanyService companyService;
-
-    @Autowired
-    private FarmService farmService;
+    private ReferenceDataService referenceDataService;
 
     @ModelAttribute
     public void addCommonAttributes(Model model, HttpSession session) {
-        User user = authenticationController.getUserFromSession(session);
-        if (user != null) {
+        // The principal is cached in the session, so this does not query users or roles
+        SessionPrincipal principal = sessionManagementService.getPrincipal(session);
+        if (principal != null) {
+            User user = sessionManagementService.getUserFromSession(session);
             model.addAttribute("user", user);
 
             // Get user name for display
-            String wholeName = "User";
-            try {
-                String firstName = (String) getFieldValueSafely(user, "firstName", "");
-                String lastName = (String) getFieldValueSafely(user, "lastName", "");
-                String username = (String) getFieldValueSafely(user, "username", "User");
-
-                wholeName = (firstName + " " + lastName).trim();
-                if (wholeName.isEmpty()) {
-                    wholeName = username;
-                }
-            } catch (Exception e) {
-                // In case of any errors, use a default name
-                wholeName = "User";
-            }
-
-            model.addAttribute("wholeName", wholeName);
+            model.addAttribute("wholeName", principal.getWholeName());
 
             // Add role-based attributes
-            boolean isAdmin = userRoleService.isAdmin(user);
-            boolean isSuperAdmin = userRoleService.isSuperAdmin(user);
+            boolean isAdmin = principal.isAdmin();
+            boolean isSuperAdmin = principal.isSuperAdmin();
 
             model.addAttribute("isAdmin", isAdmin ? Boolean.TRUE : Boolean.FALSE);
             model.addAttribute("isSuperAdmin", isSuperAdmin ? Boolean.TRUE : Boolean.FALSE);
@@ -68,7 +49,7 @@ public abstract class BaseController {
             String selectedCompanyId = (String) session.getAttribute("selectedCompanyId");
             if (selectedCompanyId != null) {
                 try {
-                    companyService.getCompanyById(selectedCompanyId).ifPresentOrElse(
+                    referenceDataService.getCompanyById(selectedCompanyId).ifPresentOrElse(
                             company -> {
                                 model.addAttribute("selectedCompany", company);
                                 // Add the company ID for Thymeleaf templates
@@ -95,7 +76,7 @@ public abstract class BaseController {
             // Add farms and selected farm key
             try {
                 String selectedFarmId = (String) session.getAttribute("selectedFarmKey");
-                List<Farm> userFarms = farmService.getFarmsByCompanyId(selectedCompanyId);
+                List<Farm> userFarms = referenceDataService.getFarmsForCompany(selectedCompanyId);
                 model.addAttribute("farms", userFarms);
 
                 if (selectedFarmId != null) {
@@ -124,8 +105,7 @@ public abstract class BaseController {
                 logger.error("❌ Failed to load farms: {}", e.getMessage(), e);
             }
 
-            logger.debug("👤 Adding role attributes for user: {}",
-                    getFieldValueSafely(user, "username", "unknown"));
+            logger.debug("👤 Adding role attributes for user: {}", principal.getUsername());
             logger.debug("👮 isAdmin: {}", isAdmin);
             logger.debug("🔑 isSuperAdmin: {}", isSuperAdmin);
         } else {
@@ -136,26 +116,12 @@ public abstract class BaseController {
         }
     }
 
-    /**
-     * Safely get field value using reflection
-     */
-    private Object getFieldValueSafely(Object obj, String fieldName, Object defaultValue) {
-        try {
-            java.lang.reflect.Field field = obj.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            Object value = field.get(obj);
-            return value != null ? value : defaultValue;
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
     /**
      * Helper method to select the first available company
      */
     private void selectFirstAvailableCompany(HttpSession session, Model model) {
         try {
-            List<Company> companies = companyService.getAllCompanies();
+            List<Company> companies = referenceDataService.getAllCompanies();
             if (!companies.isEmpty()) {
                 Company firstCompany = companies.get(0);
                 session.setAttribute("selectedCompanyId", firstCompany.getId());
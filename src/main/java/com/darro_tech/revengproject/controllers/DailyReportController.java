@@ -2,12 +2,19 @@ package com.darro_tech.revengproject.controllers;
 
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.Optional;
 
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.StoredReport;
 import com.darro_tech.revengproject.services.DailyReportService;
-import com.darro_tech.revengproject.services.PdfGenerationService;
+import com.darro_tech.revengproject.services.PdfRenderService;
+import com.darro_tech.revengproject.services.ReportBlobStore;
+import com.darro_tech.revengproject.utils.ConditionalRequests;
 import com.itextpdf.text.DocumentException;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -15,6 +22,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class DailyReportController {
 
-    private final PdfGenerationService pdfGenerationService;
+    private final PdfRenderService pdfRenderService;
     private final DailyReportService dailyReportService;
 
     /**
@@ -49,8 +57,8 @@ public class DailyReportController {
         LocalDate reportDate = date != null ? date : LocalDate.now();
 
         try {
-            // Generate PDF
-            byte[] pdfContent = pdfGenerationService.generateDailyReportPdf(companyId, reportDate);
+            // Served from the rendered PDF cache unless the company's data changed
+            byte[] pdfContent = pdfRenderService.getPdf(ReportBlobStore.Kind.DAILY, companyId, reportDate);
 
             // Set up response headers
             String filename = String.format("daily-report-%s-%s.pdf",
@@ -95,24 +103,36 @@ public class DailyReportController {
      * @param companyName The name of the company
      * @param company_id The ID of the company
      * @param date The date for the report
-     * @return PDF file as response
+     * @param webRequest The request, for the conditional request headers
+     * @return PDF file streamed from the database (206 for a Range request),
+     * 404 if there is none, or 304 if the client's copy is current
      */
     @GetMapping("/api/daily-reports/pdf/{companyName}")
-    public ResponseEntity<byte[]> getDailyPdf(
+    public ResponseEntity<Resource> getDailyPdf(
             @PathVariable String companyName,
             @RequestParam(required = false) String company_id,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            ServletWebRequest webRequest) {
 
         log.info("📊 Getting PDF for daily report - companyName: {}, companyId: {}, date: {}", companyName, company_id, date);
 
         // Use current date if not provided
         LocalDate reportDate = date != null ? date : LocalDate.now();
 
-        // Get PDF data
-        byte[] pdfData = dailyReportService.getPdfData(company_id, reportDate);
+        // Answer polling clients from the report count and timestamp before loading the PDF
+        DataStamp stamp = dailyReportService.getReportStamp(company_id, reportDate);
+        if (ConditionalRequests.checkNotModified(webRequest, "daily-report|" + company_id + "|" + reportDate, stamp)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        // Look the report up without its PDF, then stream the PDF to the response
+        Optional<StoredReport> report = dailyReportService.findPdf(company_id, reportDate);
+        if (report.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfData);
+                .body(dailyReportService.getPdfResource(report.get()));
     }
 }
@@ -3,7 +3,6 @@ package com.darro_tech.revengproject.controllers;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -21,16 +20,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
 import com.darro_tech.revengproject.dto.BudgetComparison;
+import com.darro_tech.revengproject.dto.StoredReport;
 import com.darro_tech.revengproject.models.Company;
-import com.darro_tech.revengproject.models.DailyReportCompany;
 import com.darro_tech.revengproject.models.Farm;
 import com.darro_tech.revengproject.models.User;
-import com.darro_tech.revengproject.models.WeeklyReportCompany;
-import com.darro_tech.revengproject.repositories.DailyReportCompanyRepository;
-import com.darro_tech.revengproject.repositories.WeeklyReportCompanyRepository;
 import com.darro_tech.revengproject.services.CompanyService;
 import com.darro_tech.revengproject.services.DailyReportService;
 import com.darro_tech.revengproject.services.FarmService;
+import com.darro_tech.revengproject.services.ReportBlobStore;
+import com.darro_tech.revengproject.services.ReportCatalogService;
 import com.darro_tech.revengproject.services.UserRoleService;
 import com.darro_tech.revengproject.services.WeeklyReportService;
 
@@ -68,10 +66,7 @@ public class RoutingController extends BaseController {
     private WeeklyReportService weeklyReportService;
 
     @Autowired
-    private DailyReportCompanyRepository dailyReportRepository;
-
-    @Autowired
-    private WeeklyReportCompanyRepository weeklyReportRepository;
+    private ReportCatalogService reportCatalogService;
 
     /**
      * Dashboard main entry - redirects to default dashboard view IMPORTANT:
@@ -639,13 +634,11 @@ public class RoutingController extends BaseController {
 
             // Check if report exists for this date
             try {
-                List<WeeklyReportCompany> reports = weeklyReportRepository.findByCompanyIdAndDateBetween(
-                        company.getId(),
-                        selectedDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
-                        selectedDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()
-                );
+                // Answered from the report catalog, without reading the PDF
+                Optional<StoredReport> report = reportCatalogService.findLatest(
+                        ReportBlobStore.Kind.WEEKLY, company.getId(), selectedDate);
 
-                if (reports.isEmpty()) {
+                if (report.isEmpty()) {
                     model.addAttribute("errorMessage", "No Report Available");
                     model.addAttribute("errorDetails",
                             String.format("No weekly report was generated for %s on %s. Please try a different date.",
@@ -653,8 +646,7 @@ public class RoutingController extends BaseController {
                                     selectedDate.format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))));
                     pdfUrl = null;
                 } else {
-                    WeeklyReportCompany report = reports.get(0);
-                    if (report.getPdf() == null || report.getPdf().length == 0) {
+                    if (report.get().isEmpty()) {
                         model.addAttribute("errorMessage", "Report Data Error");
                         model.addAttribute("errorDetails",
                                 "The report exists but contains no data. This may indicate a system error. Please contact support.");
@@ -758,13 +750,11 @@ public class RoutingController extends BaseController {
 
             // Check if report exists for this date
             try {
-                List<DailyReportCompany> reports = dailyReportRepository.findByCompanyIdAndDateBetween(
-                        company.getId(),
-                        selectedDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
-                        selectedDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()
-                );
+                // Answered from the report catalog, without reading the PDF
+                Optional<StoredReport> report = reportCatalogService.findLatest(
+                        ReportBlobStore.Kind.DAILY, company.getId(), selectedDate);
 
-                if (reports.isEmpty()) {
+                if (report.isEmpty()) {
                     model.addAttribute("errorMessage", "No Report Available");
                     model.addAttribute("errorDetails",
                             String.format("No daily report was generated for %s on %s. Please try a different date.",
@@ -772,8 +762,7 @@ public class RoutingController extends BaseController {
                                     selectedDate.format(DateTimeFormatter.ofPattern("MMMM d, yyyy"))));
                     pdfUrl = null;
                 } else {
-                    DailyReportCompany report = reports.get(0);
-                    if (report.getPdf() == null || report.getPdf().length == 0) {
+                    if (report.get().isEmpty()) {
                         model.addAttribute("errorMessage", "Report Data Error");
                         model.addAttribute("errorDetails",
                                 "The report exists but contains no data. This may indicate a system error. Please contact support.");
@@ -2,6 +2,7 @@ package com.darro_tech.revengproject.controllers;
 
 import com.darro_tech.revengproject.models.User;
 import com.darro_tech.revengproject.repositories.UserRepository;
+import com.darro_tech.revengproject.services.SessionManagementService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
@@ -39,6 +40,9 @@ public class WebAuthnController {
     @Autowired
     private AuthenticationController authenticationController;
 
+    @Autowired
+    private SessionManagementService sessionManagementService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -421,6 +425,7 @@ public class WebAuthnController {
             // Log the user in
             HttpSession session = request.getSession();
             authenticationController.setUserInSession(session, user);
+            sessionManagementService.getPrincipal(session);
             logger.debug("User set in session: {}", username);
 
             // Clean up the challenge
@@ -4,6 +4,7 @@ import com.darro_tech.revengproject.controllers.AuthenticationController;
 import com.darro_tech.revengproject.controllers.BaseController;
 import com.darro_tech.revengproject.models.User;
 import com.darro_tech.revengproject.repositories.UserRepository;
+import com.darro_tech.revengproject.services.UserVersionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +35,9 @@ public class AccountController extends BaseController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserVersionService userVersionService;
+
     @GetMapping("/change-password")
     public String changePassword(Model model) {
         model.addAttribute("title", "Biometric Authentication");
@@ -54,8 +58,9 @@ public class AccountController extends BaseController {
         boolean isAjaxRequest = "XMLHttpRequest".equals(request.getHeader("X-Requested-With"));
         Map<String, Object> response = new HashMap<>();
 
-        // Get the current user
-        User user = authenticationController.getUserFromSession(session);
+        // Get the current user, reloaded so the password check never uses a cached copy
+        User sessionUser = authenticationController.getUserFromSession(session);
+        User user = sessionUser != null ? userRepository.findById(sessionUser.getId()).orElse(null) : null;
         if (user == null) {
             logger.warn("No user found in session when attempting to change password");
             if (isAjaxRequest) {
@@ -115,6 +120,7 @@ public class AccountController extends BaseController {
             user.setPassword(newPassword);
             // Save the user with the updated password
             userRepository.save(user);
+            userVersionService.invalidate(user.getId());
 
             logger.info("Password successfully changed for user: {}", user.getUsername());
             if (isAjaxRequest) {
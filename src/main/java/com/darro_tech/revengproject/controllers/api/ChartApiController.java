@@ -10,13 +10,22 @@ import com.darro_tech.revengproject.dto.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.darro_tech.revengproject.services.ChartCacheService;
 import com.darro_tech.revengproject.services.ChartService;
+import com.darro_tech.revengproject.services.MeterHourlyRollupService;
+import com.darro_tech.revengproject.utils.Downsampler;
+import com.darro_tech.revengproject.utils.Downsampler.Mode;
 
 @RestController
 @RequestMapping({"/api/charts", "/align/api/charts"})
@@ -27,11 +36,24 @@ public class ChartApiController {
     @Autowired
     private ChartService chartService;
 
+    @Autowired
+    private ChartCacheService chartCacheService;
+
     @PostMapping("/multi-farm/mtd-farm-volumes-for-years")
-    public ResponseEntity<Map<String, List<Map<String, Object>>>> getMTDVolumeByFarmForYears(@RequestBody CompanyMTDVolumeRequest request) {
-        logger.info("📊 Processing MTD farm volumes for years - companyId: {}, date: {}", request.getCompanyId(), request.getDate());
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getMTDVolumeByFarmForYears(@RequestBody CompanyMTDVolumeRequest request, ServletWebRequest webRequest) {
+        logger.info("📊 Processing MTD farm volumes for years - companyId: {}, date: {}, years: {}",
+                request.getCompanyId(), request.getDate(), request.getYears());
+
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("multi-farm/mtd-farm-volumes-for-years",
+                request.getCompanyId(), request.getDate(), request.getYears());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
-            Map<String, List<FarmVolumeData>> result = chartService.getMTDVolumeByFarmForYears(request.getCompanyId(), request.getDate());
+            Map<String, List<FarmVolumeData>> result = request.getYears() != null
+                    ? chartCacheService.get(cacheKey, () -> chartService.getMTDVolumeByFarmForYears(request.getCompanyId(), request.getDate(), request.getYears()))
+                    : chartCacheService.get(cacheKey, () -> chartService.getMTDVolumeByFarmForYears(request.getCompanyId(), request.getDate()));
             logger.info("📈 MTD farm volumes map size: {}", result.size());
 
             Map<String, List<Map<String, Object>>> convertedResult = new HashMap<>();
@@ -54,18 +76,24 @@ public class ChartApiController {
     }
 
     @PostMapping("/multi-farm/farm-volumes-for-date")
-    public ResponseEntity<Map<String, Object>> getMultiFarmVolumesForDate(@RequestBody ChartDateRequest request) {
+    public ResponseEntity<Map<String, Object>> getMultiFarmVolumesForDate(@RequestBody ChartDateRequest request, ServletWebRequest webRequest) {
         logger.info("📊 Processing multi-farm volumes request - companyId: {}, date: {}", request.getCompany_id(), request.getDate());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("multi-farm/farm-volumes-for-date",
+                request.getCompany_id(), request.getDate());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Parse the date string to LocalDate
             LocalDate date = LocalDate.parse(request.getDate());
 
             // Get volume data from service
-            List<FarmVolumeData> volumeData = chartService.getDailyVolumeByFarmForDate(
+            List<FarmVolumeData> volumeData = chartCacheService.get(cacheKey, () -> chartService.getDailyVolumeByFarmForDate(
                     request.getCompany_id(),
                     date
-            );
+            ));
 
             logger.info("📈 Found {} farm volume records", volumeData.size());
 
@@ -100,14 +128,20 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/volumes-for-date")
-    public ResponseEntity<Map<String, Object>> getFarmVolumesForDate(@RequestBody CompanyDateRequest request) {
+    public ResponseEntity<Map<String, Object>> getFarmVolumesForDate(@RequestBody CompanyDateRequest request, ServletWebRequest webRequest) {
         logger.info("📊 Processing farm volumes request - companyId: {}, date: {}", request.getCompany_id(), request.getDate());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("single-farm/volumes-for-date",
+                request.getCompany_id(), request.getDate());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
-            List<FarmVolumeData> volumeData = chartService.getDailyVolumeByFarmForDate(
+            List<FarmVolumeData> volumeData = chartCacheService.get(cacheKey, () -> chartService.getDailyVolumeByFarmForDate(
                     request.getCompany_id(),
                     request.getDate()
-            );
+            ));
 
             logger.info("📈 Found {} farm volume records", volumeData.size());
 
@@ -138,17 +172,23 @@ public class ChartApiController {
         }
     }
     @PostMapping("/multi-farm/farm-volumes-for-range")
-    public ResponseEntity<Map<String, Object>> getMultiFarmVolumesForRange(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getMultiFarmVolumesForRange(@RequestBody CompanyDateRangeRequest request, ServletWebRequest webRequest) {
         logger.info("📊 Processing multi-farm volumes for range - companyId: {}, from: {}, to: {}",
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("multi-farm/farm-volumes-for-range",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get volume data from service
-            List<FarmVolumeData> volumeData = chartService.getVolumeByFarmForDateRange(
+            List<FarmVolumeData> volumeData = chartCacheService.get(cacheKey, () -> chartService.getVolumeByFarmForDateRange(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} farm volume records", volumeData.size());
 
@@ -183,23 +223,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/multi-farm/production-population-52week-timeline")
-    public ResponseEntity<Map<String, Object>> getProductionPopulation52WeekTimeline(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getProductionPopulation52WeekTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing production population 52-week timeline - companyId: {}, from: {}, to: {}",
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("multi-farm/production-population-52week-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get production population data from service
-            List<Map<String, Object>> populationData = chartService.getProductionPopulationTimeline(
+            List<Map<String, Object>> populationData = chartCacheService.get(cacheKey, () -> chartService.getProductionPopulationTimeline(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} production population records", populationData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", populationData);
+            response.put("data", Downsampler.downsample(populationData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -216,23 +264,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/company/population-timeline")
-    public ResponseEntity<Map<String, Object>> getCompanyPopulationTimeline(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getCompanyPopulationTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing company population timeline - companyId: {}, from: {}, to: {}",
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/population-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get company population data from service
-            List<Map<String, Object>> populationData = chartService.getCompanyPopulationTimeline(
+            List<Map<String, Object>> populationData = chartCacheService.get(cacheKey, () -> chartService.getCompanyPopulationTimeline(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} company population records", populationData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", populationData);
+            response.put("data", Downsampler.downsample(populationData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -249,23 +305,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/company/population-forecast-timeline")
-    public ResponseEntity<Map<String, Object>> getCompanyPopulationForecastTimeline(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getCompanyPopulationForecastTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing company population forecast timeline - companyId: {}, from: {}, to: {}",
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/population-forecast-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get company population forecast data from service
-            List<Map<String, Object>> forecastData = chartService.getCompanyPopulationForecastTimeline(
+            List<Map<String, Object>> forecastData = chartCacheService.get(cacheKey, () -> chartService.getCompanyPopulationForecastTimeline(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} company population forecast records", forecastData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", forecastData);
+            response.put("data", Downsampler.downsample(forecastData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -282,23 +346,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/company/population-budget-timeline")
-    public ResponseEntity<Map<String, Object>> getCompanyPopulationBudgetTimeline(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getCompanyPopulationBudgetTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing company population budget timeline - companyId: {}, from: {}, to: {}",
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/population-budget-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get company population budget data from service
-            List<Map<String, Object>> budgetData = chartService.getCompanyPopulationBudgetTimeline(
+            List<Map<String, Object>> budgetData = chartCacheService.get(cacheKey, () -> chartService.getCompanyPopulationBudgetTimeline(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} company population budget records", budgetData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", budgetData);
+            response.put("data", Downsampler.downsample(budgetData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -315,23 +387,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/meter-monthly-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmMeterMonthlyTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmMeterMonthlyTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm meter monthly timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/meter-monthly-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get monthly meter data from service
-            List<Map<String, Object>> monthlyData = chartService.getSingleFarmMeterMonthlyTimeline(
+            List<Map<String, Object>> monthlyData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmMeterMonthlyTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} monthly meter records", monthlyData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", monthlyData);
+            response.put("data", Downsampler.downsample(monthlyData, maxPoints, Mode.MIN_MAX));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -348,23 +428,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/production-forecast-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmProductionForecastTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmProductionForecastTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm production forecast timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/production-forecast-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get production forecast data from service
-            List<Map<String, Object>> forecastData = chartService.getSingleFarmProductionForecastTimeline(
+            List<Map<String, Object>> forecastData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmProductionForecastTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} production forecast records", forecastData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", forecastData);
+            response.put("data", Downsampler.downsample(forecastData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -381,23 +469,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/production-budget-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmProductionBudgetTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmProductionBudgetTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm production budget timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/production-budget-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get production budget data from service
-            List<Map<String, Object>> budgetData = chartService.getSingleFarmProductionBudgetTimeline(
+            List<Map<String, Object>> budgetData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmProductionBudgetTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} production budget records", budgetData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", budgetData);
+            response.put("data", Downsampler.downsample(budgetData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -414,23 +510,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/population-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm population timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/population-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get population data from service
-            List<Map<String, Object>> populationData = chartService.getSingleFarmPopulationTimeline(
+            List<Map<String, Object>> populationData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmPopulationTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} population records", populationData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", populationData);
+            response.put("data", Downsampler.downsample(populationData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -447,23 +551,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/population-forecast-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationForecastTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationForecastTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm population forecast timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/population-forecast-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get population forecast data from service
-            List<Map<String, Object>> forecastData = chartService.getSingleFarmPopulationForecastTimeline(
+            List<Map<String, Object>> forecastData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmPopulationForecastTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} population forecast records", forecastData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", forecastData);
+            response.put("data", Downsampler.downsample(forecastData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -480,23 +592,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/population-budget-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationBudgetTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmPopulationBudgetTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm population budget timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/population-budget-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get population budget data from service
-            List<Map<String, Object>> budgetData = chartService.getSingleFarmPopulationBudgetTimeline(
+            List<Map<String, Object>> budgetData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmPopulationBudgetTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} population budget records", budgetData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", budgetData);
+            response.put("data", Downsampler.downsample(budgetData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -513,23 +633,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/population-52week-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmPopulation52WeekTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmPopulation52WeekTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm population 52-week timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/population-52week-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get population 52-week data from service
-            List<Map<String, Object>> populationData = chartService.getSingleFarmPopulation52WeekTimeline(
+            List<Map<String, Object>> populationData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmPopulation52WeekTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} population 52-week records", populationData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", populationData);
+            response.put("data", Downsampler.downsample(populationData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -546,23 +674,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/lagoon-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmLagoonTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmLagoonTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm lagoon timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/lagoon-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get lagoon levels data from service
-            List<Map<String, Object>> lagoonData = chartService.getSingleFarmLagoonLevels(
+            List<Map<String, Object>> lagoonData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmLagoonLevels(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} lagoon level records", lagoonData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", lagoonData);
+            response.put("data", Downsampler.downsample(lagoonData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -579,23 +715,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/mass-balance-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmMassBalanceTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmMassBalanceTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm mass balance timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/mass-balance-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get mass balance data from service
-            List<Map<String, Object>> massBalanceData = chartService.getSingleFarmMassBalanceTimeline(
+            List<Map<String, Object>> massBalanceData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmMassBalanceTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} mass balance records", massBalanceData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", massBalanceData);
+            response.put("data", Downsampler.downsample(massBalanceData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -645,23 +789,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/methane-recovery-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmMethaneRecoveryTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmMethaneRecoveryTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm methane recovery timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/methane-recovery-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get methane recovery data from service
-            List<Map<String, Object>> methaneRecoveryData = chartService.getSingleFarmCh4RecoveryTimeline(
+            List<Map<String, Object>> methaneRecoveryData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmCh4RecoveryTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} methane recovery records", methaneRecoveryData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", methaneRecoveryData);
+            response.put("data", Downsampler.downsample(methaneRecoveryData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -678,23 +830,31 @@ public class ChartApiController {
     }
 
     @PostMapping("/single-farm/temperature-timeline")
-    public ResponseEntity<Map<String, Object>> getSingleFarmTemperatureTimeline(@RequestBody FarmDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getSingleFarmTemperatureTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing single farm temperature timeline - farmId: {}, from: {}, to: {}",
                 request.getFarm_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/temperature-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get temperature data from service
-            List<Map<String, Object>> temperatureData = chartService.getSingleFarmTemperatureTimeline(
+            List<Map<String, Object>> temperatureData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmTemperatureTimeline(
                     request.getFarm_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} temperature records", temperatureData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", temperatureData);
+            response.put("data", Downsampler.downsample(temperatureData, maxPoints, Mode.LTTB));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -711,20 +871,36 @@ public class ChartApiController {
     }
 
     @PostMapping("/market/market-prices-monthly-timeline")
-    public ResponseEntity<Map<String, Object>> getMarketPricesMonthlyTimeline(@RequestBody DateRangeRequest request) {
+    public ResponseEntity<?> getMarketPricesMonthlyTimeline(@RequestBody DateRangeRequest request,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing market prices monthly timeline - from: {}, to: {}", 
                 request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.market("market/market-prices-monthly-timeline",
+                request.getFrom(), request.getTo(), isColumnar(format, accept), maxPoints);
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
+            if (isColumnar(format, accept)) {
+                return ResponseEntity.ok(chartCacheService.get(cacheKey,
+                        () -> maxPoints != null
+                                ? chartService.getMarketPricesMonthlyTimelineColumnar(request.getFrom(), request.getTo(), maxPoints)
+                                : chartService.getMarketPricesMonthlyTimelineColumnar(request.getFrom(), request.getTo())));
+            }
+
             // Parse date strings to LocalDate
             LocalDate fromDate = request.getFrom();
             LocalDate toDate = request.getTo();
 
             // Get market prices data from service
-            List<Map<String, Object>> pricesData = chartService.getMarketPricesMonthlyTimeline(
-                    fromDate, 
-                    toDate
-            );
+            List<Map<String, Object>> pricesData = chartCacheService.get(cacheKey, () -> maxPoints != null
+                    ? chartService.getMarketPricesMonthlyTimeline(fromDate, toDate, maxPoints)
+                    : chartService.getMarketPricesMonthlyTimeline(fromDate, toDate));
 
             logger.info("📈 Found {} monthly market price records", pricesData.size());
 
@@ -747,20 +923,36 @@ public class ChartApiController {
     }
 
     @PostMapping("/market/market-prices-daily-timeline")
-    public ResponseEntity<Map<String, Object>> getMarketPricesDailyTimeline(@RequestBody DateRangeRequest request) {
+    public ResponseEntity<?> getMarketPricesDailyTimeline(@RequestBody DateRangeRequest request,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing market prices daily timeline - from: {}, to: {}", 
                 request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.market("market/market-prices-daily-timeline",
+                request.getFrom(), request.getTo(), isColumnar(format, accept), maxPoints);
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
+            if (isColumnar(format, accept)) {
+                return ResponseEntity.ok(chartCacheService.get(cacheKey,
+                        () -> maxPoints != null
+                                ? chartService.getMarketPricesDailyTimelineColumnar(request.getFrom(), request.getTo(), maxPoints)
+                                : chartService.getMarketPricesDailyTimelineColumnar(request.getFrom(), request.getTo())));
+            }
+
             // Parse date strings to LocalDate
             LocalDate fromDate = request.getFrom();
             LocalDate toDate = request.getTo();
 
             // Get market prices data from service
-            List<Map<String, Object>> pricesData = chartService.getMarketPricesDailyTimeline(
-                    fromDate, 
-                    toDate
-            );
+            List<Map<String, Object>> pricesData = chartCacheService.get(cacheKey, () -> maxPoints != null
+                    ? chartService.getMarketPricesDailyTimeline(fromDate, toDate, maxPoints)
+                    : chartService.getMarketPricesDailyTimeline(fromDate, toDate));
 
             logger.info("📈 Found {} daily market price records", pricesData.size());
 
@@ -783,23 +975,40 @@ public class ChartApiController {
     }
 
     @PostMapping("/company/production-timeline")
-    public ResponseEntity<Map<String, Object>> getCompanyProductionTimeline(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<?> getCompanyProductionTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest webRequest) {
         logger.info("📊 Processing company production timeline - companyId: {}, from: {}, to: {}", 
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/production-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo(), isColumnar(format, accept));
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
+            if (isColumnar(format, accept)) {
+                return ResponseEntity.ok(Downsampler.downsample(chartCacheService.get(cacheKey,
+                        () -> chartService.getCompanyProductionTimelineColumnar(
+                                request.getCompany_id(), request.getFrom(), request.getTo())),
+                        maxPoints, Mode.MIN_MAX));
+            }
+
             // Get production data from service
-            List<Map<String, Object>> productionData = chartService.getCompanyProductionTimeline(
+            List<Map<String, Object>> productionData = chartCacheService.get(cacheKey, () -> chartService.getCompanyProductionTimeline(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Found {} production records", productionData.size());
 
             // Create response with data array
             Map<String, Object> response = new HashMap<>();
-            response.put("data", productionData);
+            response.put("data", Downsampler.downsample(productionData, maxPoints, Mode.MIN_MAX));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -815,18 +1024,140 @@ public class ChartApiController {
         }
     }
 
+    /**
+     * Production in hourly or daily buckets; resolution is hour (the
+     * default) or day
+     */
+    @PostMapping("/single-farm/meter-intraday-timeline")
+    public ResponseEntity<Map<String, Object>> getSingleFarmIntradayTimeline(@RequestBody FarmDateRangeRequest request,
+            @RequestParam(value = "resolution", required = false) String resolution,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
+        logger.info("📊 Processing single farm intraday timeline - farmId: {}, from: {}, to: {}, resolution: {}",
+                request.getFarm_id(), request.getFrom(), request.getTo(), resolution);
+
+        MeterHourlyRollupService.Resolution bucket;
+        try {
+            bucket = MeterHourlyRollupService.Resolution.parse(resolution);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("data", new ArrayList<>());
+            errorResponse.put("error", true);
+            errorResponse.put("errorMessage", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.farm("single-farm/meter-intraday-timeline",
+                request.getFarm_id(), request.getFrom(), request.getTo(), bucket);
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        try {
+            List<Map<String, Object>> intradayData = chartCacheService.get(cacheKey, () -> chartService.getSingleFarmIntradayTimeline(
+                    request.getFarm_id(),
+                    request.getFrom(),
+                    request.getTo(),
+                    bucket
+            ));
+
+            logger.info("📈 Found {} intraday production buckets", intradayData.size());
+
+            // Create response with data array
+            Map<String, Object> response = new HashMap<>();
+            response.put("data", Downsampler.downsample(intradayData, maxPoints, Mode.MIN_MAX));
+            response.put("resolution", bucket.name());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("❌ Error processing single farm intraday timeline: {}", e.getMessage(), e);
+
+            // Return error response
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("data", new ArrayList<>());
+            errorResponse.put("error", true);
+            errorResponse.put("errorMessage", e.getMessage());
+
+            return ResponseEntity.ok(errorResponse);
+        }
+    }
+
+    /**
+     * Production in hourly or daily buckets; resolution is hour (the
+     * default) or day
+     */
+    @PostMapping("/company/production-intraday-timeline")
+    public ResponseEntity<Map<String, Object>> getCompanyIntradayTimeline(@RequestBody CompanyDateRangeRequest request,
+            @RequestParam(value = "resolution", required = false) String resolution,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints,
+            ServletWebRequest webRequest) {
+        logger.info("📊 Processing company intraday timeline - companyId: {}, from: {}, to: {}, resolution: {}",
+                request.getCompany_id(), request.getFrom(), request.getTo(), resolution);
+
+        MeterHourlyRollupService.Resolution bucket;
+        try {
+            bucket = MeterHourlyRollupService.Resolution.parse(resolution);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("data", new ArrayList<>());
+            errorResponse.put("error", true);
+            errorResponse.put("errorMessage", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/production-intraday-timeline",
+                request.getCompany_id(), request.getFrom(), request.getTo(), bucket);
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        try {
+            List<Map<String, Object>> intradayData = chartCacheService.get(cacheKey, () -> chartService.getCompanyIntradayTimeline(
+                    request.getCompany_id(),
+                    request.getFrom(),
+                    request.getTo(),
+                    bucket
+            ));
+
+            logger.info("📈 Found {} intraday production buckets", intradayData.size());
+
+            // Create response with data array
+            Map<String, Object> response = new HashMap<>();
+            response.put("data", Downsampler.downsample(intradayData, maxPoints, Mode.MIN_MAX));
+            response.put("resolution", bucket.name());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("❌ Error processing company intraday timeline: {}", e.getMessage(), e);
+
+            // Return error response
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("data", new ArrayList<>());
+            errorResponse.put("error", true);
+            errorResponse.put("errorMessage", e.getMessage());
+
+            return ResponseEntity.ok(errorResponse);
+        }
+    }
+
     @PostMapping("/multi-farm/production-budget-summary")
-    public ResponseEntity<Map<String, Object>> getProductionBudgetSummary(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getProductionBudgetSummary(@RequestBody CompanyDateRangeRequest request, ServletWebRequest webRequest) {
         logger.info("📊 Processing production budget summary - companyId: {}, from: {}, to: {}", 
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("multi-farm/production-budget-summary",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get production vs budget data from service
-            Map<String, Object> budgetData = chartService.getProductionVsBudgetByFarm(
+            Map<String, Object> budgetData = chartCacheService.get(cacheKey, () -> chartService.getProductionVsBudgetByFarm(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Successfully retrieved production budget summary");
 
@@ -845,17 +1176,23 @@ public class ChartApiController {
     }
 
     @PostMapping("/company/production-budget-summary")
-    public ResponseEntity<Map<String, Object>> getCompanyProductionBudgetSummary(@RequestBody CompanyDateRangeRequest request) {
+    public ResponseEntity<Map<String, Object>> getCompanyProductionBudgetSummary(@RequestBody CompanyDateRangeRequest request, ServletWebRequest webRequest) {
         logger.info("📊 Processing company production budget summary - companyId: {}, from: {}, to: {}", 
                 request.getCompany_id(), request.getFrom(), request.getTo());
 
+        ChartCacheService.Key cacheKey = ChartCacheService.Key.company("company/production-budget-summary",
+                request.getCompany_id(), request.getFrom(), request.getTo());
+        if (chartCacheService.checkNotModified(cacheKey, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         try {
             // Get company production budget summary data from service
-            List<Map<String, Object>> budgetData = chartService.getCompanyProductionBudgetSummary(
+            List<Map<String, Object>> budgetData = chartCacheService.get(cacheKey, () -> chartService.getCompanyProductionBudgetSummary(
                     request.getCompany_id(),
                     request.getFrom(),
                     request.getTo()
-            );
+            ));
 
             logger.info("📈 Successfully retrieved company production budget summary");
 
@@ -876,4 +1213,13 @@ public class ChartApiController {
             return ResponseEntity.ok(errorResponse);
         }
     }
+
+    /**
+     * Timeline endpoints answer with a ColumnarTimeline instead of a row per
+     * data point when asked with ?format=columnar or the columnar media type
+     */
+    private static boolean isColumnar(String format, String accept) {
+        return ColumnarTimeline.FORMAT.equalsIgnoreCase(format)
+                || (accept != null && accept.contains(ColumnarTimeline.MEDIA_TYPE));
+    }
 }
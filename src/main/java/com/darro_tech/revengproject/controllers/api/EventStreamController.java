@@ -0,0 +1,68 @@
+package com.darro_tech.revengproject.controllers.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.darro_tech.revengproject.controllers.AuthenticationController;
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
+import com.darro_tech.revengproject.services.CompanyAccessService;
+import com.darro_tech.revengproject.services.EventStreamService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Server-Sent Events for dashboards, so pages reload their data when it
+ * changes instead of polling on a timer
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class EventStreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamController.class);
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private AuthenticationController authenticationController;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    /**
+     * Subscribe to data-changed and website-alert events for a company
+     *
+     * @param companyId The ID of the company
+     * @param session The user's session
+     * @return An open event stream, or 401/403 when the user may not read the company
+     */
+    @GetMapping(value = "/company/{companyId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCompany(@PathVariable String companyId, HttpSession session) {
+        User user = authenticationController.getUserFromSession(session);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        CompanyAccessGrant grant = companyAccessService.getGrant(session, user);
+        if (grant == null || !grant.canAccess(companyId)) {
+            logger.warn("⛔ Event stream denied for user {} to company {}", user.getUsername(), companyId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        logger.info("📡 Opening event stream for user {} on company {}", user.getUsername(), companyId);
+        return ResponseEntity.ok()
+                // Stop nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(eventStreamService.subscribe(companyId));
+    }
+}
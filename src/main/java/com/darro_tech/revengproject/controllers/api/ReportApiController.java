@@ -1,26 +1,41 @@
 package com.darro_tech.revengproject.controllers.api;
 
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.darro_tech.revengproject.controllers.AuthenticationController;
 import com.darro_tech.revengproject.controllers.BaseController;
-import com.darro_tech.revengproject.models.DailyReportCompany;
-import com.darro_tech.revengproject.repositories.DailyReportCompanyRepository;
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.PdfRenderJob;
+import com.darro_tech.revengproject.dto.StoredReport;
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
+import com.darro_tech.revengproject.services.CompanyAccessService;
+import com.darro_tech.revengproject.services.PdfRenderService;
+import com.darro_tech.revengproject.services.ReportBlobStore;
+import com.darro_tech.revengproject.services.ReportCatalogService;
+import com.darro_tech.revengproject.utils.ConditionalRequests;
+
+import jakarta.servlet.http.HttpSession;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -29,13 +44,26 @@ public class ReportApiController extends BaseController {
     private static final Logger logger = LoggerFactory.getLogger(ReportApiController.class);
 
     @Autowired
-    private DailyReportCompanyRepository dailyReportRepository;
+    private ReportBlobStore reportBlobStore;
+
+    @Autowired
+    private ReportCatalogService reportCatalogService;
+
+    @Autowired
+    private PdfRenderService pdfRenderService;
+
+    @Autowired
+    private AuthenticationController authenticationController;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
 
     @GetMapping("/daily-pdf/{companyName}")
     public ResponseEntity<?> getDailyPdf(
             @PathVariable String companyName,
             @RequestParam("company_id") String companyId,
-            @RequestParam("date") String date) {
+            @RequestParam("date") String date,
+            ServletWebRequest webRequest) {
 
         logger.info("📊 Processing daily PDF request - companyName: {}, companyId: {}, date: {}",
                 companyName, companyId, date);
@@ -60,39 +88,39 @@ public class ReportApiController extends BaseController {
                         .body("{\"error\": \"Cannot request reports for future dates.\"}");
             }
 
-            Instant startOfDay = localDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant startOfNextDay = localDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            // Auto-refresh polls this endpoint; answer from the report catalog
+            // before touching the PDF
+            DataStamp stamp = reportCatalogService.getStamp(ReportBlobStore.Kind.DAILY, companyId, localDate);
+            if (ConditionalRequests.checkNotModified(webRequest, "daily-pdf|" + companyId + "|" + localDate, stamp)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
 
-            // Find reports for the given date range
-            List<DailyReportCompany> reports = dailyReportRepository.findByCompanyIdAndDateBetween(
-                    companyId, startOfDay, startOfNextDay);
+            // Find the report without its PDF
+            Optional<StoredReport> report = reportCatalogService.findLatest(
+                    ReportBlobStore.Kind.DAILY, companyId, localDate);
 
-            if (reports.isEmpty()) {
+            if (report.isEmpty()) {
                 logger.info("❌ No reports found for company {} on date {}", companyId, date);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .contentType(MediaType.APPLICATION_JSON)
                         .body("{\"error\": \"No report available for the selected date.\"}");
             }
 
-            // Get the first report's PDF data
-            DailyReportCompany report = reports.get(0);
-            byte[] pdfData = report.getPdf();
-
-            if (pdfData == null || pdfData.length == 0) {
-                logger.warn("❌ PDF data is null or empty for report ID: {}", report.getId());
+            if (report.get().isEmpty()) {
+                logger.warn("❌ PDF data is empty for report ID: {}", report.get().getId());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .contentType(MediaType.APPLICATION_JSON)
                         .body("{\"error\": \"Report data is not available for the selected date.\"}");
             }
 
-            // Set headers for PDF response
+            // Stream the PDF; Spring adds Content-Length and answers Range requests with 206
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "daily-report.pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-            logger.info("✅ Successfully retrieved PDF data for company {} on date {}", companyId, date);
-            return new ResponseEntity<>(pdfData, headers, HttpStatus.OK);
+            logger.info("✅ Streaming {} byte PDF for company {} on date {}", report.get().getSize(), companyId, date);
+            return new ResponseEntity<>(reportBlobStore.resource(ReportBlobStore.Kind.DAILY, report.get()),
+                    headers, HttpStatus.OK);
 
         } catch (Exception e) {
             logger.error("❌ Error getting PDF data", e);
@@ -101,4 +129,189 @@ public class ReportApiController extends BaseController {
                     .body("{\"error\": \"An error occurred while retrieving the report. Please try again later.\"}");
         }
     }
+
+    /**
+     * Days with a stored report for a company, for the report date pickers.
+     * Read from the report catalog; no PDF is touched.
+     *
+     * @param type daily (default) or weekly
+     * @param from first day, inclusive; defaults to 90 days before to
+     * @param to last day, inclusive; defaults to today
+     */
+    @GetMapping("/dates")
+    public ResponseEntity<Map<String, Object>> getReportDates(
+            @RequestParam("company_id") String companyId,
+            @RequestParam(value = "type", defaultValue = "daily") String type,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpSession session) {
+
+        Map<String, Object> response = new HashMap<>();
+        HttpStatus denied = checkAccess(session, companyId);
+        if (denied != null) {
+            response.put("success", false);
+            response.put("message", "Access denied to this company");
+            return ResponseEntity.status(denied).body(response);
+        }
+
+        ReportBlobStore.Kind kind = parseKind(type);
+        if (kind == null) {
+            response.put("success", false);
+            response.put("message", "Unknown report type '" + type + "', expected daily or weekly");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        LocalDate toDate = to != null ? to : LocalDate.now();
+        LocalDate fromDate = from != null ? from : toDate.minusDays(90);
+        logger.info("📅 Getting {} report dates for company {} from {} to {}", type, companyId, fromDate, toDate);
+
+        try {
+            List<LocalDate> dates = reportCatalogService.findReportDates(kind, companyId, fromDate, toDate);
+            response.put("success", true);
+            response.put("dates", dates.stream().map(LocalDate::toString).toList());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("❌ Error getting report dates", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Queue a report PDF for rendering in the background. Poll the returned
+     * job's id until it is DONE, then download it; a report already rendered
+     * for the company's current data comes back DONE right away.
+     *
+     * @param type daily (default) or weekly
+     * @param date report day; defaults to today
+     */
+    @PostMapping("/render")
+    public ResponseEntity<Map<String, Object>> submitRender(
+            @RequestParam(value = "company_id", required = false) String companyId,
+            @RequestParam(value = "type", defaultValue = "daily") String type,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpSession session) {
+
+        Map<String, Object> response = new HashMap<>();
+        HttpStatus denied = checkAccess(session, companyId);
+        if (denied != null) {
+            response.put("success", false);
+            response.put("message", "Access denied to this company");
+            return ResponseEntity.status(denied).body(response);
+        }
+
+        ReportBlobStore.Kind kind = parseKind(type);
+        if (kind == null) {
+            response.put("success", false);
+            response.put("message", "Unknown report type '" + type + "', expected daily or weekly");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        LocalDate reportDate = date != null ? date : LocalDate.now();
+        logger.info("📑 Queueing {} report render for company {} on {}", type, companyId, reportDate);
+
+        try {
+            PdfRenderJob job = pdfRenderService.submit(kind, companyId, reportDate);
+            response.put("success", true);
+            response.put("job", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            logger.error("❌ Error queueing report render", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Status of a render job
+     */
+    @GetMapping("/render/{jobId}")
+    public ResponseEntity<Map<String, Object>> getRenderJob(@PathVariable String jobId, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<PdfRenderJob> job = pdfRenderService.getJob(jobId);
+        if (job.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Unknown or expired render job " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        HttpStatus denied = checkAccess(session, job.get().getCompanyId());
+        if (denied != null) {
+            response.put("success", false);
+            response.put("message", "Access denied to this company");
+            return ResponseEntity.status(denied).body(response);
+        }
+        response.put("success", true);
+        response.put("job", job.get());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The PDF a render job produced: 409 while it is still queued or
+     * running, 404 if it failed or its PDF has left the cache
+     */
+    @GetMapping("/render/{jobId}/pdf")
+    public ResponseEntity<?> getRenderedPdf(@PathVariable String jobId, HttpSession session) {
+        Optional<PdfRenderJob> job = pdfRenderService.getJob(jobId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        if (job.isEmpty()) {
+            response.put("message", "Unknown or expired render job " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        HttpStatus denied = checkAccess(session, job.get().getCompanyId());
+        if (denied != null) {
+            response.put("message", "Access denied to this company");
+            return ResponseEntity.status(denied).body(response);
+        }
+
+        String status = job.get().getStatus();
+        if (PdfRenderService.Status.QUEUED.name().equals(status) || PdfRenderService.Status.RUNNING.name().equals(status)) {
+            response.put("message", "Render job " + jobId + " is " + status);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        Optional<byte[]> pdf = pdfRenderService.getJobPdf(jobId);
+        if (pdf.isEmpty()) {
+            response.put("message", job.get().getError() != null ? job.get().getError()
+                    : "The rendered PDF is no longer cached; submit the job again");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", String.format("%s-report-%s-%s.pdf",
+                job.get().getType(), job.get().getCompanyId() != null ? job.get().getCompanyId() : "all",
+                job.get().getReportDate()));
+        return new ResponseEntity<>(pdf.get(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * 401 without a signed-in user, 403 when the user may not read the
+     * company's reports, null when they may. A report without a company
+     * covers every company and is for super admins only.
+     */
+    private HttpStatus checkAccess(HttpSession session, String companyId) {
+        User user = authenticationController.getUserFromSession(session);
+        if (user == null) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        CompanyAccessGrant grant = companyAccessService.getGrant(session, user);
+        if (grant == null || !(companyId != null ? grant.canAccess(companyId) : grant.isSuperAdmin())) {
+            logger.warn("⛔ Report access denied for user {} to company {}", user.getUsername(), companyId);
+            return HttpStatus.FORBIDDEN;
+        }
+        return null;
+    }
+
+    private static ReportBlobStore.Kind parseKind(String type) {
+        if ("daily".equalsIgnoreCase(type)) {
+            return ReportBlobStore.Kind.DAILY;
+        }
+        if ("weekly".equalsIgnoreCase(type)) {
+            return ReportBlobStore.Kind.WEEKLY;
+        }
+        return null;
+    }
 }
@@ -5,16 +5,19 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.darro_tech.revengproject.dto.ApiResponse;
 import com.darro_tech.revengproject.dto.ListActiveAlertsRequest;
 import com.darro_tech.revengproject.dto.WebsiteAlertDTO;
 import com.darro_tech.revengproject.services.WebsiteAlertService;
+import com.darro_tech.revengproject.utils.ConditionalRequests;
 
 /**
  * Public API controller for website alerts
@@ -35,10 +38,13 @@ public class WebsiteAlertPublicApiController {
      * Get active alerts for a company
      *
      * @param request Request with company ID
-     * @return List of active alerts for the company
+     * @param webRequest The request, for the conditional request headers
+     * @return List of active alerts for the company, or 304 if the client's
+     * copy is current
      */
     @PostMapping("/list-active")
-    public ResponseEntity<ApiResponse<List<WebsiteAlertDTO>>> listActiveAlerts(@RequestBody ListActiveAlertsRequest request) {
+    public ResponseEntity<ApiResponse<List<WebsiteAlertDTO>>> listActiveAlerts(@RequestBody ListActiveAlertsRequest request,
+            ServletWebRequest webRequest) {
         String companyId = request.getCompanyId();
         if (companyId == null || companyId.trim().isEmpty()) {
             return ResponseEntity.ok(ApiResponse.error("No company ID provided"));
@@ -46,6 +52,12 @@ public class WebsiteAlertPublicApiController {
 
         logger.info("📢 API - List active alerts for company ID: {}", companyId);
         try {
+            // Any alert change moves the table's count or latest update time
+            if (ConditionalRequests.checkNotModified(webRequest, "website-alerts|" + companyId,
+                    websiteAlertService.getAlertStamp())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             List<WebsiteAlertDTO> alerts = websiteAlertService.getActiveAlertsByCompanyId(companyId);
 
             // Debug log for date values
@@ -0,0 +1,108 @@
+package com.darro_tech.revengproject.controllers.api.admin;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.darro_tech.revengproject.dto.MeterIngestResult;
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.services.MeterIngestService;
+import com.darro_tech.revengproject.services.MeterIngestService.Format;
+import com.darro_tech.revengproject.services.MeterIngestService.Target;
+import com.darro_tech.revengproject.services.UserRoleService;
+import com.darro_tech.revengproject.services.UserService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * REST API controller for bulk meter reading uploads
+ */
+@RestController
+@RequestMapping("/api/admin/meter-readings")
+public class MeterIngestApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterIngestApiController.class);
+
+    @Autowired
+    private MeterIngestService meterIngestService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    /**
+     * Write a CSV (text/csv) or NDJSON (application/x-ndjson) body of
+     * meter_id, timestamp, value readings into meter_daily or meter_hourly.
+     * The body is read as a stream, so it is not bound to a request object.
+     *
+     * @param target daily (default) or hourly
+     * @param format csv or ndjson, taken from the content type when omitted
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> ingest(
+            @RequestParam(value = "target", defaultValue = "daily") String target,
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+
+        User user = getUserFromSession(session);
+        if (user == null || !userRoleService.isAdmin(user)) {
+            logger.warn("⛔ Meter reading ingest denied for user {}", user != null ? user.getId() : null);
+            response.put("success", false);
+            response.put("message", "Admin access required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        try {
+            Target ingestTarget = Target.parse(target);
+            Format ingestFormat = Format.parse(format != null ? format : request.getContentType());
+            logger.info("📥 API - Meter reading ingest by {} into {} as {}", user.getId(),
+                    ingestTarget.getTable(), ingestFormat);
+
+            MeterIngestResult result = meterIngestService.ingest(request.getInputStream(), ingestFormat, ingestTarget);
+            response.put("success", true);
+            response.put("result", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            logger.error("❌ Error reading meter reading upload", e);
+            response.put("success", false);
+            response.put("message", "Error reading upload: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("❌ Error ingesting meter readings", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Helper method to get the user from session
+     */
+    private User getUserFromSession(HttpSession session) {
+        String userId = (String) session.getAttribute("user");
+        if (userId == null) {
+            return null;
+        }
+
+        return userService.getUserById(userId).orElse(null);
+    }
+}
@@ -0,0 +1,133 @@
+package com.darro_tech.revengproject.controllers.api.admin;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.darro_tech.revengproject.dto.ReportBatchStatus;
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.services.ReportBatchService;
+import com.darro_tech.revengproject.services.ReportBlobStore;
+import com.darro_tech.revengproject.services.UserRoleService;
+import com.darro_tech.revengproject.services.UserService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * REST API controller for generating the reports of all companies at once
+ */
+@RestController
+@RequestMapping("/api/admin/reports/batch")
+public class ReportBatchApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportBatchApiController.class);
+
+    @Autowired
+    private ReportBatchService reportBatchService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    /**
+     * Start generating and storing every company's report in the background.
+     * Follow progress with GET on this path or /actuator/reportbatch.
+     *
+     * @param type daily (default) or weekly
+     * @param date report day; defaults to today
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(
+            @RequestParam(value = "type", defaultValue = "daily") String type,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+
+        User user = getUserFromSession(session);
+        if (user == null || !userRoleService.isAdmin(user)) {
+            logger.warn("⛔ Report batch run denied for user {}", user != null ? user.getId() : null);
+            response.put("success", false);
+            response.put("message", "Admin access required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        ReportBlobStore.Kind kind;
+        if ("daily".equalsIgnoreCase(type)) {
+            kind = ReportBlobStore.Kind.DAILY;
+        } else if ("weekly".equalsIgnoreCase(type)) {
+            kind = ReportBlobStore.Kind.WEEKLY;
+        } else {
+            response.put("success", false);
+            response.put("message", "Unknown report type '" + type + "', expected daily or weekly");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        LocalDate reportDate = date != null ? date : LocalDate.now();
+        logger.info("📚 API - {} report batch run for {} started by {}", type, reportDate, user.getId());
+
+        try {
+            ReportBatchStatus status = reportBatchService.start(kind, reportDate);
+            response.put("success", true);
+            response.put("batch", status);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            logger.error("❌ Error starting report batch run", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Progress of the current or last run
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status(HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+
+        User user = getUserFromSession(session);
+        if (user == null || !userRoleService.isAdmin(user)) {
+            response.put("success", false);
+            response.put("message", "Admin access required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        response.put("success", true);
+        response.put("batch", reportBatchService.getStatus().orElse(null));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Helper method to get the user from session
+     */
+    private User getUserFromSession(HttpSession session) {
+        String userId = (String) session.getAttribute("user");
+        if (userId == null) {
+            return null;
+        }
+
+        return userService.getUserById(userId).orElse(null);
+    }
+}
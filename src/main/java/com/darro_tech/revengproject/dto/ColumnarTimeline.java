@@ -0,0 +1,161 @@
+package com.darro_tech.revengproject.dto;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Timeline chart data held as parallel primitive arrays: one epoch-millis
+ * timestamp per row and one double per row for each named series.
+ *
+ * Serializes itself through Jackson's streaming generator as
+ * {"format":"columnar","count":n,"timestamps":[...],"series":{"name":[...]}},
+ * so a long series never becomes a map per data point. Missing values are
+ * stored as NaN and written as null.
+ */
+public class ColumnarTimeline implements JsonSerializable {
+
+    /**
+     * Media type a client can send in its Accept header to ask for this format
+     */
+    public static final String MEDIA_TYPE = "application/vnd.revengproject.columnar+json";
+
+    public static final String FORMAT = "columnar";
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final String[] seriesNames;
+    private long[] timestamps;
+    private final double[][] values;
+    private int size;
+
+    public ColumnarTimeline(String... seriesNames) {
+        this(DEFAULT_CAPACITY, seriesNames);
+    }
+
+    public ColumnarTimeline(int expectedRows, String... seriesNames) {
+        int capacity = Math.max(expectedRows, 1);
+        this.seriesNames = seriesNames.clone();
+        this.timestamps = new long[capacity];
+        this.values = new double[seriesNames.length][capacity];
+    }
+
+    /**
+     * Append a row with every series value missing
+     *
+     * @return the index of the new row, for {@link #setValue(int, int, double)}
+     */
+    public int addRow(long timestampMillis) {
+        if (size == timestamps.length) {
+            int capacity = timestamps.length * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            for (int s = 0; s < values.length; s++) {
+                values[s] = Arrays.copyOf(values[s], capacity);
+            }
+        }
+        timestamps[size] = timestampMillis;
+        for (double[] series : values) {
+            series[size] = Double.NaN;
+        }
+        return size++;
+    }
+
+    public void setValue(int series, int row, double value) {
+        values[series][row] = value;
+    }
+
+    /**
+     * Set a value that may be null, leaving the row missing when it is
+     */
+    public void setValue(int series, int row, Number value) {
+        if (value != null) {
+            values[series][row] = value.doubleValue();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int row) {
+        return timestamps[row];
+    }
+
+    public double getValue(int series, int row) {
+        return values[series][row];
+    }
+
+    public int getSeriesCount() {
+        return seriesNames.length;
+    }
+
+    /**
+     * A new timeline holding only the given rows, in the order given
+     */
+    public ColumnarTimeline select(int[] rows) {
+        ColumnarTimeline selected = new ColumnarTimeline(rows.length, seriesNames);
+        for (int row : rows) {
+            int copy = selected.addRow(timestamps[row]);
+            for (int s = 0; s < values.length; s++) {
+                selected.values[s][copy] = values[s][row];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Sum of the present values of one series
+     */
+    public double sum(int series) {
+        double total = 0;
+        for (int row = 0; row < size; row++) {
+            double value = values[series][row];
+            if (!Double.isNaN(value)) {
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("format", FORMAT);
+        gen.writeNumberField("count", size);
+
+        gen.writeFieldName("timestamps");
+        gen.writeArray(timestamps, 0, size);
+
+        gen.writeObjectFieldStart("series");
+        for (int s = 0; s < seriesNames.length; s++) {
+            gen.writeFieldName(seriesNames[s]);
+            gen.writeStartArray();
+            double[] series = values[s];
+            for (int row = 0; row < size; row++) {
+                if (Double.isNaN(series[row])) {
+                    gen.writeNull();
+                } else {
+                    gen.writeNumber(series[row]);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
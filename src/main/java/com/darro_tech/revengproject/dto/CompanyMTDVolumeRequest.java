@@ -5,6 +5,7 @@ import java.time.LocalDate;
 public class CompanyMTDVolumeRequest {
     private String companyId;
     private LocalDate date;
+    private Integer years;
 
     public String getCompanyId() {
         return companyId;
@@ -21,4 +22,12 @@ public class CompanyMTDVolumeRequest {
     public void setDate(LocalDate date) {
         this.date = date;
     }
-} 
\ No newline at end of file
+
+    public Integer getYears() {
+        return years;
+    }
+
+    public void setYears(Integer years) {
+        this.years = years;
+    }
+}
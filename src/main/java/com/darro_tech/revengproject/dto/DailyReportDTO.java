@@ -14,6 +14,7 @@ public class DailyReportDTO {
     private double dailyTotal;
     private double mtdTotal;
     private double ytdTotal;
+    private BudgetComparison budgetComparison;
 
     // Default constructor
     public DailyReportDTO() {
@@ -50,6 +51,7 @@ public class DailyReportDTO {
         private double dailyTotal;
         private double mtdTotal;
         private double ytdTotal;
+        private BudgetComparison budgetComparison;
 
         public Builder companyId(String companyId) {
             this.companyId = companyId;
@@ -96,8 +98,15 @@ public class DailyReportDTO {
             return this;
         }
 
+        public Builder budgetComparison(BudgetComparison budgetComparison) {
+            this.budgetComparison = budgetComparison;
+            return this;
+        }
+
         public DailyReportDTO build() {
-            return new DailyReportDTO(companyId, reportDate, companyName, dailyProduction, mtdProduction, farmPerformance, dailyTotal, mtdTotal, ytdTotal);
+            DailyReportDTO report = new DailyReportDTO(companyId, reportDate, companyName, dailyProduction, mtdProduction, farmPerformance, dailyTotal, mtdTotal, ytdTotal);
+            report.setBudgetComparison(budgetComparison);
+            return report;
         }
     }
 
@@ -174,6 +183,14 @@ public class DailyReportDTO {
         this.ytdTotal = ytdTotal;
     }
 
+    public BudgetComparison getBudgetComparison() {
+        return budgetComparison;
+    }
+
+    public void setBudgetComparison(BudgetComparison budgetComparison) {
+        this.budgetComparison = budgetComparison;
+    }
+
     public static class FarmProduction {
 
         private String farmName;
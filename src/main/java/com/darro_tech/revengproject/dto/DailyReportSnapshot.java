@@ -0,0 +1,47 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Production and budget of every company for one report date, read once
+ * and shared by the daily reports of all companies. Volumes are per
+ * company and farm, budgets per company, each as one value per window.
+ */
+public class DailyReportSnapshot {
+    private final LocalDate reportDate;
+    private final List<DateWindow> windows;
+    private final Map<String, Map<String, double[]>> volumes;
+    private final Map<String, double[]> budgets;
+
+    public DailyReportSnapshot(LocalDate reportDate, List<DateWindow> windows,
+            Map<String, Map<String, double[]>> volumes, Map<String, double[]> budgets) {
+        this.reportDate = reportDate;
+        this.windows = windows;
+        this.volumes = volumes;
+        this.budgets = budgets;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    public List<DateWindow> getWindows() {
+        return windows;
+    }
+
+    /**
+     * Each farm's volume per window for the company
+     */
+    public Map<String, double[]> getVolumes(String companyId) {
+        return volumes.getOrDefault(companyId, Map.of());
+    }
+
+    /**
+     * The company's budget per window
+     */
+    public double[] getBudgets(String companyId) {
+        return budgets.getOrDefault(companyId, new double[windows.size()]);
+    }
+}
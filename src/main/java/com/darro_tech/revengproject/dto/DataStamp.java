@@ -0,0 +1,46 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.Instant;
+
+/**
+ * Row count and latest timestamp of the data behind a response, read
+ * without loading the rows themselves. Any insert, delete or update that
+ * touches the timestamp changes one of the two, so together they work as
+ * HTTP validators.
+ */
+public class DataStamp {
+    private final long rowCount;
+    private final Instant latestTimestamp;
+
+    public DataStamp(long rowCount, Instant latestTimestamp) {
+        this.rowCount = rowCount;
+        this.latestTimestamp = latestTimestamp;
+    }
+
+    /**
+     * Build from a [COUNT(...), MAX(timestamp)] query row
+     */
+    public static DataStamp fromRow(Object[] row) {
+        if (row == null || row.length < 2) {
+            return new DataStamp(0, null);
+        }
+        long count = row[0] != null ? ((Number) row[0]).longValue() : 0;
+        return new DataStamp(count, (Instant) row[1]);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public Instant getLatestTimestamp() {
+        return latestTimestamp;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    public long getLastModifiedMillis() {
+        return latestTimestamp != null ? latestTimestamp.toEpochMilli() : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A labelled, inclusive date range used by the multi-window volume queries.
+ */
+public class DateWindow {
+    private String label;
+    private LocalDate from;
+    private LocalDate to;
+
+    public DateWindow() {
+    }
+
+    public DateWindow(String label, LocalDate from, LocalDate to) {
+        this.label = label;
+        this.from = from;
+        this.to = to;
+    }
+
+    // Getters and setters
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,101 @@
+package com.darro_tech.revengproject.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one bulk meter reading upload: how many rows were written,
+ * how many were rejected and why, and how long the writes took.
+ */
+public class MeterIngestResult {
+    private String target;
+    private long accepted;
+    private long rejected;
+    private int batches;
+    private int days;
+    private int companiesInvalidated;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private List<String> unknownMeterIds = new ArrayList<>();
+    private List<String> errors = new ArrayList<>();
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public void setBatches(int batches) {
+        this.batches = batches;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public int getCompaniesInvalidated() {
+        return companiesInvalidated;
+    }
+
+    public void setCompaniesInvalidated(int companiesInvalidated) {
+        this.companiesInvalidated = companiesInvalidated;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<String> getUnknownMeterIds() {
+        return unknownMeterIds;
+    }
+
+    public void setUnknownMeterIds(List<String> unknownMeterIds) {
+        this.unknownMeterIds = unknownMeterIds;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,125 @@
+package com.darro_tech.revengproject.dto;
+
+/**
+ * Status of one PDF render job: which report it renders, where it is in
+ * the render queue, and the rendered PDF's size and checksum once done.
+ */
+public class PdfRenderJob {
+    private String id;
+    private String type;
+    private String companyId;
+    private String reportDate;
+    private long dataVersion;
+    private String status;
+    private boolean cached;
+    private long waitMs;
+    private long renderMs;
+    private long size;
+    private String checksum;
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getReportDate() {
+        return reportDate;
+    }
+
+    public void setReportDate(String reportDate) {
+        this.reportDate = reportDate;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * True when the PDF came from the rendered-artifact cache without rendering
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * Time spent queued before a worker picked the job up
+     */
+    public long getWaitMs() {
+        return waitMs;
+    }
+
+    public void setWaitMs(long waitMs) {
+        this.waitMs = waitMs;
+    }
+
+    public long getRenderMs() {
+        return renderMs;
+    }
+
+    public void setRenderMs(long renderMs) {
+        this.renderMs = renderMs;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * Hex SHA-256 of the rendered PDF, its key in the artifact cache
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
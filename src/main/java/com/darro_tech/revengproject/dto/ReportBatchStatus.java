@@ -0,0 +1,199 @@
+package com.darro_tech.revengproject.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of one bulk report generation run over all companies, with the
+ * time each company's report took to assemble and render.
+ */
+public class ReportBatchStatus {
+    private String id;
+    private String type;
+    private String reportDate;
+    private String state;
+    private String startedAt;
+    private String finishedAt;
+    private int total;
+    private int completed;
+    private int failed;
+    private int written;
+    private long snapshotMs;
+    private long elapsedMs;
+    private String error;
+    private List<ReportTiming> reports = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getReportDate() {
+        return reportDate;
+    }
+
+    public void setReportDate(String reportDate) {
+        this.reportDate = reportDate;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * Companies in the batch
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Reports rendered so far, including failed ones
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * Reports inserted into the report table
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    public void setWritten(int written) {
+        this.written = written;
+    }
+
+    /**
+     * Time spent loading the shared data snapshot
+     */
+    public long getSnapshotMs() {
+        return snapshotMs;
+    }
+
+    public void setSnapshotMs(long snapshotMs) {
+        this.snapshotMs = snapshotMs;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Timings of each report rendered so far
+     */
+    public List<ReportTiming> getReports() {
+        return reports;
+    }
+
+    public void setReports(List<ReportTiming> reports) {
+        this.reports = reports;
+    }
+
+    /**
+     * One company's report in the run
+     */
+    public static class ReportTiming {
+
+        private final String companyId;
+        private final boolean success;
+        private final long assembleMs;
+        private final long renderMs;
+        private final long size;
+        private final String error;
+
+        public ReportTiming(String companyId, boolean success, long assembleMs,
+                long renderMs, long size, String error) {
+            this.companyId = companyId;
+            this.success = success;
+            this.assembleMs = assembleMs;
+            this.renderMs = renderMs;
+            this.size = size;
+            this.error = error;
+        }
+
+        public String getCompanyId() {
+            return companyId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public long getAssembleMs() {
+            return assembleMs;
+        }
+
+        public long getRenderMs() {
+            return renderMs;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A stored report as listed in the report catalog: the report's metadata
+ * plus the day it covers and the SHA-256 of its PDF.
+ */
+public class ReportCatalogEntry extends StoredReport {
+    private final LocalDate reportDate;
+    private final String checksum;
+
+    public ReportCatalogEntry(int id, String companyId, LocalDate reportDate, Instant timestamp, long size,
+            String checksum) {
+        super(id, companyId, timestamp, size);
+        this.reportDate = reportDate;
+        this.checksum = checksum;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    /**
+     * Hex SHA-256 of the PDF
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,44 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.Instant;
+
+/**
+ * Row of daily_report_companies or weekly_report_companies without the PDF
+ * itself: enough to decide whether a report exists and to stream it.
+ */
+public class StoredReport {
+    private final int id;
+    private final String companyId;
+    private final Instant timestamp;
+    private final long size;
+
+    public StoredReport(int id, String companyId, Instant timestamp, long size) {
+        this.id = id;
+        this.companyId = companyId;
+        this.timestamp = timestamp;
+        this.size = size;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Length of the PDF in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size <= 0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.darro_tech.revengproject.dto;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * One metric of one farm as parallel primitive arrays: an epoch-millis
+ * timestamp and a double value per reading, in timestamp order.
+ *
+ * The backing arrays grow as readings are added and may be longer than
+ * {@link #size()}; code handing them to numeric kernels such as
+ * {@code RunningStats.rolling} should pass the size along with them.
+ */
+public class TimeSeries {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    public TimeSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TimeSeries(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    public void add(long timestampMillis, double value) {
+        if (size == values.length) {
+            int capacity = values.length * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        timestamps[size] = timestampMillis;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int i) {
+        return timestamps[i];
+    }
+
+    public Instant getInstant(int i) {
+        return Instant.ofEpochMilli(timestamps[i]);
+    }
+
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * Backing timestamp array; only the first {@link #size()} entries are set
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Backing value array; only the first {@link #size()} entries are set
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
@@ -11,9 +11,11 @@ import org.springframework.web.servlet.ModelAndView;
 
 import com.darro_tech.revengproject.models.Company;
 import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
+import com.darro_tech.revengproject.services.CompanyAccessService;
 import com.darro_tech.revengproject.services.CompanyService;
+import com.darro_tech.revengproject.services.ReferenceDataService;
 import com.darro_tech.revengproject.services.SessionManagementService;
-import com.darro_tech.revengproject.services.UserRoleService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -40,7 +42,10 @@ public class CompanyUrlInterceptor implements HandlerInterceptor {
     private CompanyService companyService;
     
     @Autowired
-    private UserRoleService userRoleService;
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
     
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -75,17 +80,17 @@ public class CompanyUrlInterceptor implements HandlerInterceptor {
                 return true;
             }
             
-            // Check if user has access to this company
-            boolean hasAccess = companyService.userHasCompanyAccess(user.getId(), urlCompany.getId()) 
-                            || userRoleService.isSuperAdmin(user);
+            // Check if user has access to this company using the session's cached grant
+            CompanyAccessGrant grant = companyAccessService.getGrant(session, user);
+            boolean hasAccess = grant.canAccess(urlCompany.getId());
                             
             if (!hasAccess) {
                 logger.warning("⛔️ User " + user.getUsername() + " attempted to access company without permission: " + companySlug);
                 
                 // Get a company the user does have access to
-                List<Company> accessibleCompanies = companyService.getUserCompanies(user.getId(), userRoleService.isSuperAdmin(user))
+                List<Company> accessibleCompanies = grant.getCompanyIds()
                     .stream()
-                    .map(dto -> companyService.getCompanyById(dto.getCompanyId()).orElse(null))
+                    .map(companyId -> referenceDataService.getCompanyById(companyId).orElse(null))
                     .filter(c -> c != null)
                     .toList();
                 
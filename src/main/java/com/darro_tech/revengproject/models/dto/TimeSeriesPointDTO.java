@@ -6,6 +6,9 @@ public class TimeSeriesPointDTO {
 
     private Instant timestamp;
     private Double value;
+    // Prediction interval of a forecast point, null for observed points
+    private Double lower;
+    private Double upper;
 
     // Getters
     public Instant getTimestamp() {
@@ -16,6 +19,14 @@ public class TimeSeriesPointDTO {
         return value;
     }
 
+    public Double getLower() {
+        return lower;
+    }
+
+    public Double getUpper() {
+        return upper;
+    }
+
     // Setters
     public void setTimestamp(Instant timestamp) {
         this.timestamp = timestamp;
@@ -24,4 +35,12 @@ public class TimeSeriesPointDTO {
     public void setValue(Double value) {
         this.value = value;
     }
+
+    public void setLower(Double lower) {
+        this.lower = lower;
+    }
+
+    public void setUpper(Double upper) {
+        this.upper = upper;
+    }
 }
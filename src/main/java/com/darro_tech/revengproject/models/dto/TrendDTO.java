@@ -9,6 +9,8 @@ public class TrendDTO {
     private String direction;
     private Double r2Value;
     private String interpretation;
+    // Length of the window for multi-window comparisons, null otherwise
+    private Integer windowDays;
 
     // Getters
     public String getFarmId() {
@@ -67,4 +69,12 @@ public class TrendDTO {
     public void setInterpretation(String interpretation) {
         this.interpretation = interpretation;
     }
+
+    public Integer getWindowDays() {
+        return windowDays;
+    }
+
+    public void setWindowDays(Integer windowDays) {
+        this.windowDays = windowDays;
+    }
 }
@@ -45,4 +45,16 @@ public interface DailyReportCompanyRepository extends JpaRepository<DailyReportC
      */
     @Query(value = "SELECT DISTINCT d FROM DailyReportCompany d JOIN FETCH d.company c WHERE c.id = :companyId AND d.timestamp >= :startDate AND d.timestamp < :endDate ORDER BY d.timestamp DESC", nativeQuery = false)
     List<DailyReportCompany> findByCompanyIdAndDateBetween(@Param("companyId") String companyId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
+
+    /**
+     * Count and latest timestamp of a company's daily reports within a date
+     * range, without loading the PDFs
+     * 
+     * @param companyId The ID of the company
+     * @param startDate The start date of the range
+     * @param endDate The end date of the range
+     * @return A single [count, max timestamp] row
+     */
+    @Query("SELECT COUNT(d), MAX(d.timestamp) FROM DailyReportCompany d WHERE d.company.id = :companyId AND d.timestamp >= :startDate AND d.timestamp < :endDate")
+    List<Object[]> findStampByCompanyIdAndDateBetween(@Param("companyId") String companyId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
 }
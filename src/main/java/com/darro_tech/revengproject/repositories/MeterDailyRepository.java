@@ -0,0 +1,64 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.darro_tech.revengproject.models.MeterDaily;
+
+/**
+ * Chart queries over meter_daily that filter on half-open timestamp ranges
+ * ({@code timestamp >= :fromTime AND timestamp < :toTime}) so MySQL can
+ * range-scan the (meter_id, timestamp) indexes instead of evaluating
+ * DATE(timestamp) for every row. Callers pass the start of the first day and
+ * the start of the day after the last day.
+ *
+ * MeterDailyRepositoryExplainTest checks the plans of these queries, keep it
+ * passing when adding or changing one.
+ */
+@Repository
+public interface MeterDailyRepository extends JpaRepository<MeterDaily, Integer>, MeterDailyRepositoryCustom {
+
+    /**
+     * Total volume per farm for a company within [fromTime, toTime), without
+     * filtering by include_website flag
+     */
+    @Query(value
+            = "SELECT m.farm_id as farmId, SUM(md.value) as totalValue "
+            + "FROM company_meters cm "
+            + "JOIN meters m ON m.id = cm.meter_id "
+            + "JOIN meter_daily md ON md.meter_id = m.id "
+            + "WHERE cm.company_id = :companyId "
+            + "AND md.timestamp >= :fromTime "
+            + "AND md.timestamp < :toTime "
+            + "GROUP BY m.farm_id",
+            nativeQuery = true)
+    List<Object[]> findTotalVolumeByFarmForTimeRange(
+            @Param("companyId") String companyId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime);
+
+    /**
+     * Daily total production for a company within [fromTime, toTime),
+     * without filtering by include_website flag
+     */
+    @Query(value
+            = "SELECT DATE(md.timestamp) as date, SUM(md.value) as totalValue "
+            + "FROM company_meters cm "
+            + "JOIN meters m ON m.id = cm.meter_id "
+            + "JOIN meter_daily md ON md.meter_id = m.id "
+            + "WHERE cm.company_id = :companyId "
+            + "AND md.timestamp >= :fromTime "
+            + "AND md.timestamp < :toTime "
+            + "GROUP BY DATE(md.timestamp) "
+            + "ORDER BY DATE(md.timestamp)",
+            nativeQuery = true)
+    List<Object[]> findDailyProductionForCompanyTimeRange(
+            @Param("companyId") String companyId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime);
+}
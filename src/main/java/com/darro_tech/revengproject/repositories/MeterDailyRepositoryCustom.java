@@ -0,0 +1,20 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * meter_daily queries whose SQL depends on the number of arguments and so
+ * cannot be declared with @Query.
+ */
+public interface MeterDailyRepositoryCustom {
+
+    /**
+     * Total volume per farm for a company in each of several non-overlapping
+     * [from, to) time windows, in a single query.
+     *
+     * @param windows pairs of [fromTime, toTime]
+     * @return rows of [farmId (String), windowIndex (Integer), totalValue (Double)]
+     */
+    List<Object[]> findTotalVolumeByFarmForTimeWindows(String companyId, List<LocalDateTime[]> windows);
+}
@@ -0,0 +1,64 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JdbcTemplate-backed implementation of {@link MeterDailyRepositoryCustom},
+ * picked up by Spring Data through the Impl suffix.
+ */
+public class MeterDailyRepositoryImpl implements MeterDailyRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Object[]> findTotalVolumeByFarmForTimeWindows(String companyId, List<LocalDateTime[]> windows) {
+        if (windows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Object> params = new ArrayList<>();
+        for (LocalDateTime[] window : windows) {
+            params.add(window[0]);
+            params.add(window[1]);
+        }
+        params.add(companyId);
+        for (LocalDateTime[] window : windows) {
+            params.add(window[0]);
+            params.add(window[1]);
+        }
+
+        return jdbcTemplate.query(buildTimeWindowSql(windows.size()),
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getInt(2), rs.getDouble(3)},
+                params.toArray());
+    }
+
+    /**
+     * Each window is both a CASE branch that labels the row and an OR'd
+     * half-open range in the WHERE clause, so MySQL reads only the windows'
+     * slices of the (meter_id, timestamp) index rather than the span between
+     * the first and last window.
+     */
+    static String buildTimeWindowSql(int windowCount) {
+        StringBuilder caseExpression = new StringBuilder("CASE");
+        StringBuilder ranges = new StringBuilder();
+        for (int i = 0; i < windowCount; i++) {
+            caseExpression.append(" WHEN md.timestamp >= ? AND md.timestamp < ? THEN ").append(i);
+            ranges.append(i == 0 ? "" : " OR ").append("(md.timestamp >= ? AND md.timestamp < ?)");
+        }
+        caseExpression.append(" END");
+
+        return "SELECT m.farm_id, " + caseExpression + " AS window_index, SUM(md.value) "
+                + "FROM company_meters cm "
+                + "JOIN meters m ON m.id = cm.meter_id "
+                + "JOIN meter_daily md ON md.meter_id = m.id "
+                + "WHERE cm.company_id = ? "
+                + "AND (" + ranges + ") "
+                + "GROUP BY m.farm_id, window_index";
+    }
+}
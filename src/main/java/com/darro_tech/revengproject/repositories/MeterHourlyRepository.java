@@ -0,0 +1,15 @@
+package com.darro_tech.revengproject.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.darro_tech.revengproject.models.MeterHourly;
+
+/**
+ * meter_hourly readings. Chart and rollup code reads them through the
+ * streaming methods of {@link MeterHourlyRepositoryCustom} rather than as
+ * entities, since a month of a farm's hourly readings is thousands of rows.
+ */
+@Repository
+public interface MeterHourlyRepository extends JpaRepository<MeterHourly, Integer>, MeterHourlyRepositoryCustom {
+}
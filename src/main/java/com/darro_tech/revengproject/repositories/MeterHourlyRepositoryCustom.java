@@ -0,0 +1,37 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * meter_hourly queries that hand each reading to a callback as it is read
+ * from the result set, so a long range is never held in memory.
+ */
+public interface MeterHourlyRepositoryCustom {
+
+    /**
+     * Receives one hourly reading; the timestamp is the stored date-time as
+     * epoch millis read in UTC
+     */
+    @FunctionalInterface
+    interface ReadingHandler {
+
+        void accept(String meterId, long timestampMillis, double value);
+    }
+
+    /**
+     * Readings of one meter within [fromTime, toTime), oldest first
+     */
+    void streamByMeter(String meterId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler);
+
+    /**
+     * Readings of every meter of a farm within [fromTime, toTime), ordered
+     * by meter and then time
+     */
+    void streamByFarm(String farmId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler);
+
+    /**
+     * Readings of every meter a company is assigned within [fromTime,
+     * toTime), ordered by meter and then time
+     */
+    void streamByCompany(String companyId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler);
+}
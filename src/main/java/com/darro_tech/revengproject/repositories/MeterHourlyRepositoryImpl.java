@@ -0,0 +1,67 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JdbcTemplate-backed implementation of {@link MeterHourlyRepositoryCustom},
+ * picked up by Spring Data through the Impl suffix. Rows are fetched
+ * timeseries.fetch-size at a time and read through the
+ * (meter_id, timestamp, value) covering index.
+ */
+public class MeterHourlyRepositoryImpl implements MeterHourlyRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${timeseries.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Override
+    public void streamByMeter(String meterId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler) {
+        stream("SELECT mh.meter_id, mh.timestamp, mh.value FROM meter_hourly mh "
+                + "WHERE mh.meter_id = ? AND mh.timestamp >= ? AND mh.timestamp < ? "
+                + "ORDER BY mh.timestamp",
+                meterId, fromTime, toTime, handler);
+    }
+
+    @Override
+    public void streamByFarm(String farmId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler) {
+        stream("SELECT mh.meter_id, mh.timestamp, mh.value FROM meters m "
+                + "JOIN meter_hourly mh ON mh.meter_id = m.id "
+                + "WHERE m.farm_id = ? AND mh.timestamp >= ? AND mh.timestamp < ? "
+                + "ORDER BY mh.meter_id, mh.timestamp",
+                farmId, fromTime, toTime, handler);
+    }
+
+    @Override
+    public void streamByCompany(String companyId, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler) {
+        stream("SELECT mh.meter_id, mh.timestamp, mh.value FROM company_meters cm "
+                + "JOIN meter_hourly mh ON mh.meter_id = cm.meter_id "
+                + "WHERE cm.company_id = ? AND mh.timestamp >= ? AND mh.timestamp < ? "
+                + "ORDER BY mh.meter_id, mh.timestamp",
+                companyId, fromTime, toTime, handler);
+    }
+
+    // Date-times are bound and read in UTC so wall-clock values round-trip unchanged
+    private void stream(String sql, String id, LocalDateTime fromTime, LocalDateTime toTime, ReadingHandler handler) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.query(sql,
+                ps -> {
+                    ps.setFetchSize(fetchSize);
+                    ps.setString(1, id);
+                    ps.setTimestamp(2, Timestamp.from(fromTime.toInstant(ZoneOffset.UTC)), utc);
+                    ps.setTimestamp(3, Timestamp.from(toTime.toInstant(ZoneOffset.UTC)), utc);
+                },
+                rs -> {
+                    handler.accept(rs.getString(1), rs.getTimestamp(2, utc).getTime(), rs.getDouble(3));
+                });
+    }
+}
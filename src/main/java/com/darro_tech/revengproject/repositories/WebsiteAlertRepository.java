@@ -30,4 +30,13 @@ public interface WebsiteAlertRepository extends JpaRepository<WebsiteAlert, Inte
      * @return List of all active website alerts
      */
     List<WebsiteAlert> findByIsActiveTrue();
+
+    /**
+     * Count and latest update time of all alerts, used as a cheap validator
+     * for the alert lists
+     *
+     * @return A single [count, max updatedAt] row
+     */
+    @Query("SELECT COUNT(w), MAX(w.updatedAt) FROM WebsiteAlert w")
+    List<Object[]> findStamp();
 }
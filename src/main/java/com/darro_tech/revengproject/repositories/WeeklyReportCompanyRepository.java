@@ -45,4 +45,16 @@ public interface WeeklyReportCompanyRepository extends JpaRepository<WeeklyRepor
      */
     @Query(value = "SELECT DISTINCT w FROM WeeklyReportCompany w JOIN FETCH w.company c WHERE c.id = :companyId AND w.timestamp >= :startDate AND w.timestamp < :endDate ORDER BY w.timestamp DESC", nativeQuery = false)
     List<WeeklyReportCompany> findByCompanyIdAndDateBetween(@Param("companyId") String companyId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
+
+    /**
+     * Count and latest timestamp of a company's weekly reports within a date
+     * range, without loading the PDFs
+     * 
+     * @param companyId The ID of the company
+     * @param startDate The start date of the range
+     * @param endDate The end date of the range
+     * @return A single [count, max timestamp] row
+     */
+    @Query("SELECT COUNT(w), MAX(w.timestamp) FROM WeeklyReportCompany w WHERE w.company.id = :companyId AND w.timestamp >= :startDate AND w.timestamp < :endDate")
+    List<Object[]> findStampByCompanyIdAndDateBetween(@Param("companyId") String companyId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
 }
@@ -0,0 +1,62 @@
+package com.darro_tech.revengproject.security;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable record of which companies a user may open, computed once and
+ * kept in the user's session by CompanyAccessService.
+ *
+ * The grant carries the access version it was built at; the service
+ * discards it when the user's roles or company memberships change.
+ */
+public final class CompanyAccessGrant implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+    private final boolean superAdmin;
+    private final List<String> companyIds;
+    private final Set<String> companyIdSet;
+    private final long version;
+
+    /**
+     * @param companyIds companies the user is a member of, ordered by company name
+     */
+    public CompanyAccessGrant(String userId, boolean superAdmin, List<String> companyIds, long version) {
+        this.userId = userId;
+        this.superAdmin = superAdmin;
+        this.companyIds = List.copyOf(companyIds);
+        this.companyIdSet = Set.copyOf(companyIds);
+        this.version = version;
+    }
+
+    /**
+     * Whether the user may open the given company, either as a member or as
+     * a super admin
+     */
+    public boolean canAccess(String companyId) {
+        return superAdmin || companyIdSet.contains(companyId);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public boolean isSuperAdmin() {
+        return superAdmin;
+    }
+
+    /**
+     * Member company IDs ordered by company name. Does not list every
+     * company for super admins.
+     */
+    public List<String> getCompanyIds() {
+        return companyIds;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
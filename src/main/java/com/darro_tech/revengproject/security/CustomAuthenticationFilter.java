@@ -1,7 +1,6 @@
 package com.darro_tech.revengproject.security;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -9,9 +8,7 @@ import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.darro_tech.revengproject.controllers.AuthenticationController;
-import com.darro_tech.revengproject.models.User;
-import com.darro_tech.revengproject.services.UserRoleService;
+import com.darro_tech.revengproject.services.SessionManagementService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,14 +21,10 @@ import jakarta.servlet.http.HttpSession;
  */
 public class CustomAuthenticationFilter extends OncePerRequestFilter {
 
-    private final AuthenticationController authenticationController;
-    private final UserRoleService userRoleService;
+    private final SessionManagementService sessionManagementService;
 
-    public CustomAuthenticationFilter(
-            AuthenticationController authenticationController,
-            UserRoleService userRoleService) {
-        this.authenticationController = authenticationController;
-        this.userRoleService = userRoleService;
+    public CustomAuthenticationFilter(SessionManagementService sessionManagementService) {
+        this.sessionManagementService = sessionManagementService;
     }
 
     @Override
@@ -40,41 +33,30 @@ public class CustomAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
         
-        // Get user from session
+        // Get the cached principal from session
         HttpSession session = request.getSession(false);
-        User user = null;
+        SessionPrincipal principal = null;
         
         if (session != null) {
-            user = authenticationController.getUserFromSession(session);
+            principal = sessionManagementService.getPrincipal(session);
         }
         
         // If we have a user in session, set up Spring Security authentication
-        if (user != null) {
+        if (principal != null) {
             // Determine user authorities
             String[] authorities = {"ROLE_USER"};
             
-            if (userRoleService.isAdmin(user)) {
+            if (principal.isAdmin()) {
                 authorities = new String[]{"ROLE_USER", "ROLE_ADMIN"};
             }
             
-            if (userRoleService.isSuperAdmin(user)) {
+            if (principal.isSuperAdmin()) {
                 authorities = new String[]{"ROLE_USER", "ROLE_ADMIN", "ROLE_SUPER_ADMIN"};
             }
             
-            // Get user ID safely
-            String userId;
-            try {
-                Field idField = user.getClass().getDeclaredField("id");
-                idField.setAccessible(true);
-                userId = (String) idField.get(user);
-            } catch (Exception e) {
-                // Fallback to toString if we can't get the ID
-                userId = user.toString();
-            }
-            
             // Create authentication token and set it in the security context
             Authentication auth = new UsernamePasswordAuthenticationToken(
-                userId, 
+                principal.getId(), 
                 null,  // No credentials needed as user is already authenticated
                 AuthorityUtils.createAuthorityList(authorities)
             );
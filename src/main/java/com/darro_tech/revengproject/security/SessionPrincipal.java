@@ -0,0 +1,86 @@
+package com.darro_tech.revengproject.security;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable summary of the logged-in user kept in the session by
+ * SessionManagementService, so pages and filters can read the user's name,
+ * roles and company access without touching the users or user_roles
+ * tables.
+ *
+ * Built at the user's current version (see UserVersionService) and replaced
+ * once that version moves on.
+ */
+public final class SessionPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final String username;
+    private final String firstName;
+    private final String lastName;
+    private final List<String> roleNames;
+    private final boolean admin;
+    private final CompanyAccessGrant companyAccess;
+    private final long version;
+
+    public SessionPrincipal(String id, String username, String firstName, String lastName,
+            List<String> roleNames, boolean admin, CompanyAccessGrant companyAccess, long version) {
+        this.id = id;
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.roleNames = List.copyOf(roleNames);
+        this.admin = admin;
+        this.companyAccess = companyAccess;
+        this.version = version;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * "First Last", falling back to the username when both are blank
+     */
+    public String getWholeName() {
+        String wholeName = ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+        return wholeName.isEmpty() ? username : wholeName;
+    }
+
+    public List<String> getRoleNames() {
+        return roleNames;
+    }
+
+    /**
+     * Admin or super admin
+     */
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public boolean isSuperAdmin() {
+        return companyAccess.isSuperAdmin();
+    }
+
+    public CompanyAccessGrant getCompanyAccess() {
+        return companyAccess;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -2,24 +2,34 @@ package com.darro_tech.revengproject.services;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.DoubleSummaryStatistics;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.darro_tech.revengproject.models.Ch4Recovery;
+import com.darro_tech.revengproject.dto.TimeSeries;
 import com.darro_tech.revengproject.models.Farm;
-import com.darro_tech.revengproject.models.Temperature;
-import com.darro_tech.revengproject.models.MassBalance;
 import com.darro_tech.revengproject.models.dto.AnomalyDTO;
-import com.darro_tech.revengproject.repositories.Ch4RecoveryRepository;
 import com.darro_tech.revengproject.repositories.FarmRepository;
-import com.darro_tech.revengproject.repositories.TemperatureRepository;
-import com.darro_tech.revengproject.repositories.MassBalanceRepository;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+import com.darro_tech.revengproject.utils.RunningStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class AnomalyDetectionService {
@@ -27,20 +37,117 @@ public class AnomalyDetectionService {
     private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class);
 
     @Autowired
-    private Ch4RecoveryRepository ch4RecoveryRepository;
-
-    @Autowired
-    private TemperatureRepository temperatureRepository;
+    private FarmRepository farmRepository;
 
     @Autowired
-    private MassBalanceRepository massBalanceRepository;
+    private TimeSeriesReader timeSeriesReader;
 
     @Autowired
-    private FarmRepository farmRepository;
+    private ReferenceDataService referenceDataService;
 
     // Configurable threshold for what constitutes a "significant" change
     private static final double SIGNIFICANT_CHANGE_THRESHOLD = 15.0; // percent
 
+    // Number of preceding points each reading is compared against
+    @Value("${anomaly.rolling-window:30}")
+    private int rollingWindow = 30;
+
+    @Value("${anomaly.scan-threads:4}")
+    private int scanThreads = 4;
+
+    @Value("${anomaly.scan-timeout-ms:30000}")
+    private long scanTimeoutMillis = 30_000;
+
+    private static final Comparator<AnomalyDTO> MOST_SEVERE_FIRST = Comparator
+            .comparing((AnomalyDTO anomaly) -> "Critical".equals(anomaly.getSeverity()) ? 0 : 1)
+            .thenComparing(anomaly -> -deviationSize(anomaly))
+            .thenComparing(AnomalyDTO::getTimestamp, Comparator.reverseOrder());
+
+    private ThreadPoolExecutor scanExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: a fixed set of workers and queue; overflow runs on the caller
+        scanExecutor = new ThreadPoolExecutor(scanThreads, scanThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), runnable -> {
+                    Thread thread = new Thread(runnable, "anomaly-scan-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanExecutor.shutdownNow();
+    }
+
+    /**
+     * Scan every farm of a company for CH4 recovery, temperature, mass
+     * balance and lagoon level anomalies.
+     *
+     * Each metric is read for all of the company's farms in one query, and
+     * the metrics are loaded and analysed in parallel on the bounded scan
+     * executor. A metric that fails or times out is logged and left out.
+     *
+     * @return Anomalies from all farms and metrics, Critical first, then by
+     * size of the deviation, then newest first
+     */
+    public List<AnomalyDTO> scanCompany(String companyId, Instant startDate, Instant endDate) {
+        List<Farm> farms = referenceDataService.getFarmsForCompany(companyId);
+        if (farms.isEmpty()) {
+            logger.info("🔍 No farms to scan for company {}", companyId);
+            return new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, String> farmNames = new LinkedHashMap<>();
+        for (Farm farm : farms) {
+            farmNames.put(farm.getId(), farm.getName());
+        }
+
+        Map<Metric, Future<List<AnomalyDTO>>> futures = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            futures.put(metric, scanExecutor.submit(() -> scanMetric(metric, farmNames, startDate, endDate)));
+        }
+
+        List<AnomalyDTO> anomalies = new ArrayList<>();
+        long deadline = start + scanTimeoutMillis;
+        for (Map.Entry<Metric, Future<List<AnomalyDTO>>> entry : futures.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                anomalies.addAll(entry.getValue().get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                logger.error("❌ Timed out scanning {} for company {}", entry.getKey().getLabel(), companyId);
+            } catch (ExecutionException e) {
+                logger.error("❌ Error scanning {} for company {}: {}", entry.getKey().getLabel(), companyId,
+                        e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("❌ Interrupted scanning company {}", companyId);
+                break;
+            }
+        }
+
+        anomalies.sort(MOST_SEVERE_FIRST);
+        logger.info("✅ Scanned {} farms for company {} in {} ms - Found {} anomalies",
+                farms.size(), companyId, System.currentTimeMillis() - start, anomalies.size());
+        return anomalies;
+    }
+
+    private List<AnomalyDTO> scanMetric(Metric metric, Map<String, String> farmNames, Instant startDate, Instant endDate) {
+        // One query for the metric across all the farms
+        Map<String, TimeSeries> seriesByFarm = timeSeriesReader.readForFarms(metric, farmNames.keySet(), startDate, endDate);
+
+        List<AnomalyDTO> anomalies = new ArrayList<>();
+        for (Map.Entry<String, TimeSeries> entry : seriesByFarm.entrySet()) {
+            String farmId = entry.getKey();
+            anomalies.addAll(detectAnomalies(farmId, farmNames.get(farmId), metric.getLabel(), entry.getValue()));
+        }
+        return anomalies;
+    }
+
     /**
      * Detects significant drops or increases in CH4 recovery values
      */
@@ -57,8 +164,7 @@ public class AnomalyDetectionService {
         }
 
         // Get CH4 recovery data for the specified period
-        List<Ch4Recovery> ch4Data = ch4RecoveryRepository.findByFarmIdAndTimestampBetweenOrderByTimestampAsc(
-                farmId, startDate, endDate);
+        TimeSeries ch4Data = timeSeriesReader.read(Metric.CH4_RECOVERY, farmId, startDate, endDate);
 
         System.out.println("📊 Retrieved " + ch4Data.size() + " CH4 recovery data points for analysis");
 
@@ -67,44 +173,7 @@ public class AnomalyDetectionService {
             return anomalies; // Not enough data for anomaly detection
         }
 
-        // Calculate baseline statistics (mean and standard deviation)
-        DoubleSummaryStatistics stats = ch4Data.stream()
-                .map(Ch4Recovery::getValue)
-                .collect(Collectors.summarizingDouble(Double::doubleValue));
-
-        double mean = stats.getAverage();
-        double stdDev = calculateStandardDeviation(ch4Data.stream()
-                .map(Ch4Recovery::getValue)
-                .collect(Collectors.toList()), mean);
-
-        System.out.println("📈 Statistical baseline - Mean: " + String.format("%.2f", mean) + ", StdDev: " + String.format("%.2f", stdDev));
-
-        // Detect anomalies (values outside of 2 standard deviations)
-        for (Ch4Recovery dataPoint : ch4Data) {
-            double value = dataPoint.getValue();
-            double zScore = (value - mean) / stdDev;
-
-            if (Math.abs(zScore) > 2.0) {
-                AnomalyDTO anomaly = new AnomalyDTO();
-                anomaly.setFarmId(farmId);
-                anomaly.setFarmName(farm.getName());
-                anomaly.setMetricType("CH4 Recovery");
-                anomaly.setValue(value);
-                anomaly.setExpectedValue(mean);
-                anomaly.setDeviationPercent((value - mean) / mean * 100);
-                anomaly.setTimestamp(dataPoint.getTimestamp());
-
-                // Determine severity
-                if (Math.abs(zScore) > 3.0) {
-                    anomaly.setSeverity("Critical");
-                } else {
-                    anomaly.setSeverity("Warning");
-                }
-
-                anomalies.add(anomaly);
-                System.out.println("🚨 Anomaly detected - Value: " + String.format("%.2f", value) + ", Z-Score: " + String.format("%.2f", zScore) + ", Severity: " + anomaly.getSeverity());
-            }
-        }
+        anomalies.addAll(detectAnomalies(farmId, farm.getName(), Metric.CH4_RECOVERY.getLabel(), ch4Data));
 
         System.out.println("✅ CH4 Recovery anomaly detection completed - Found " + anomalies.size() + " anomalies");
         return anomalies;
@@ -123,48 +192,13 @@ public class AnomalyDetectionService {
         }
 
         // Get temperature data for the specified period
-        List<Temperature> tempData = temperatureRepository.findByFarmIdAndTimestampBetweenOrderByTimestampAsc(
-                farmId, startDate, endDate);
+        TimeSeries tempData = timeSeriesReader.read(Metric.TEMPERATURE, farmId, startDate, endDate);
 
         if (tempData.size() < 2) {
             return anomalies; // Not enough data for anomaly detection
         }
 
-        // Calculate baseline statistics (mean and standard deviation)
-        DoubleSummaryStatistics stats = tempData.stream()
-                .map(Temperature::getValue)
-                .collect(Collectors.summarizingDouble(Double::doubleValue));
-
-        double mean = stats.getAverage();
-        double stdDev = calculateStandardDeviation(tempData.stream()
-                .map(Temperature::getValue)
-                .collect(Collectors.toList()), mean);
-
-        // Detect anomalies (values outside of 2 standard deviations)
-        for (Temperature dataPoint : tempData) {
-            double value = dataPoint.getValue();
-            double zScore = (value - mean) / stdDev;
-
-            if (Math.abs(zScore) > 2.0) {
-                AnomalyDTO anomaly = new AnomalyDTO();
-                anomaly.setFarmId(farmId);
-                anomaly.setFarmName(farm.getName());
-                anomaly.setMetricType("Temperature");
-                anomaly.setValue(value);
-                anomaly.setExpectedValue(mean);
-                anomaly.setDeviationPercent((value - mean) / mean * 100);
-                anomaly.setTimestamp(dataPoint.getTimestamp());
-
-                // Determine severity
-                if (Math.abs(zScore) > 3.0) {
-                    anomaly.setSeverity("Critical");
-                } else {
-                    anomaly.setSeverity("Warning");
-                }
-
-                anomalies.add(anomaly);
-            }
-        }
+        anomalies.addAll(detectAnomalies(farmId, farm.getName(), Metric.TEMPERATURE.getLabel(), tempData));
 
         return anomalies;
     }
@@ -185,8 +219,8 @@ public class AnomalyDetectionService {
         }
 
         // Get mass balance data for the specified period
-        List<MassBalance> massBalanceData = massBalanceRepository.findByFarmIdAndTimestampBetweenOrderByTimestampAsc(
-                farmId, startDate, endDate);
+        // Null readings are skipped by the reader
+        TimeSeries massBalanceData = timeSeriesReader.read(Metric.MASS_BALANCE, farmId, startDate, endDate);
 
         System.out.println("📊 Retrieved " + massBalanceData.size() + " mass balance data points for analysis");
 
@@ -195,65 +229,91 @@ public class AnomalyDetectionService {
             return anomalies; // Not enough data for anomaly detection
         }
 
-        // Calculate baseline statistics (mean and standard deviation)
-        DoubleSummaryStatistics stats = massBalanceData.stream()
-                .map(MassBalance::getValue)
-                .filter(value -> value != null)  // Filter out null values
-                .collect(Collectors.summarizingDouble(Double::doubleValue));
-
-        double mean = stats.getAverage();
-        double stdDev = calculateStandardDeviation(massBalanceData.stream()
-                .map(MassBalance::getValue)
-                .filter(value -> value != null)  // Filter out null values
-                .collect(Collectors.toList()), mean);
-
-        System.out.println("📈 Statistical baseline - Mean: " + String.format("%.2f", mean) + ", StdDev: " + String.format("%.2f", stdDev));
-
-        // Detect anomalies (values outside of 2 standard deviations)
-        for (MassBalance dataPoint : massBalanceData) {
-            Double valueObj = dataPoint.getValue();
-            // Skip null values
-            if (valueObj == null) {
+        anomalies.addAll(detectAnomalies(farmId, farm.getName(), Metric.MASS_BALANCE.getLabel(), massBalanceData));
+
+        System.out.println("✅ Mass Balance anomaly detection completed - Found " + anomalies.size() + " anomalies");
+        return anomalies;
+    }
+
+    /**
+     * Anomalies among the readings of a series from index firstNew on; the
+     * readings before it only serve as baseline context. Used by the
+     * background sweep, which passes the last anomaly.rolling-window
+     * readings it has already scanned followed by the new ones.
+     */
+    public List<AnomalyDTO> detectNewAnomalies(String farmId, String farmName, Metric metric,
+            TimeSeries series, int firstNew) {
+        return detectAnomalies(farmId, farmName, metric.getLabel(), series, firstNew);
+    }
+
+    public int getRollingWindow() {
+        return rollingWindow;
+    }
+
+    private List<AnomalyDTO> detectAnomalies(String farmId, String farmName, String metricType, TimeSeries series) {
+        return detectAnomalies(farmId, farmName, metricType, series, 0);
+    }
+
+    /**
+     * Flag points more than 2 standard deviations from their rolling baseline
+     * (the previous anomaly.rolling-window points), Critical beyond 3
+     */
+    private List<AnomalyDTO> detectAnomalies(String farmId, String farmName, String metricType, TimeSeries series,
+            int firstIndex) {
+        List<AnomalyDTO> anomalies = new ArrayList<>();
+        if (series.size() < 2) {
+            return anomalies;
+        }
+
+        RunningStats.Baseline baseline = RunningStats.rolling(series.getValues(), series.size(), rollingWindow);
+        logger.debug("📈 {} baseline for farm {} over {} points, window {}", metricType, farmId, series.size(), rollingWindow);
+
+        for (int i = Math.max(firstIndex, 0); i < series.size(); i++) {
+            double zScore = baseline.zScore(i);
+            if (!(Math.abs(zScore) > 2.0)) {
                 continue;
             }
-            double value = valueObj;
-            double zScore = (value - mean) / stdDev;
-
-            if (Math.abs(zScore) > 2.0) {
-                AnomalyDTO anomaly = new AnomalyDTO();
-                anomaly.setFarmId(farmId);
-                anomaly.setFarmName(farm.getName());
-                anomaly.setMetricType("Mass Balance");
-                anomaly.setValue(value);
-                anomaly.setExpectedValue(mean);
-                anomaly.setDeviationPercent((value - mean) / mean * 100);
-                anomaly.setTimestamp(dataPoint.getTimestamp());
-
-                // Determine severity
-                if (Math.abs(zScore) > 3.0) {
-                    anomaly.setSeverity("Critical");
-                } else {
-                    anomaly.setSeverity("Warning");
-                }
-
-                anomalies.add(anomaly);
-                System.out.println("🚨 Anomaly detected - Value: " + String.format("%.2f", value) + ", Z-Score: " + String.format("%.2f", zScore) + ", Severity: " + anomaly.getSeverity());
+
+            double value = series.getValue(i);
+            double mean = baseline.mean(i);
+            AnomalyDTO anomaly = new AnomalyDTO();
+            anomaly.setFarmId(farmId);
+            anomaly.setFarmName(farmName);
+            anomaly.setMetricType(metricType);
+            anomaly.setValue(value);
+            anomaly.setExpectedValue(mean);
+            anomaly.setDeviationPercent(deviationPercent(value, mean));
+            anomaly.setTimestamp(series.getInstant(i));
+
+            // Determine severity
+            if (Math.abs(zScore) > 3.0) {
+                anomaly.setSeverity("Critical");
+            } else {
+                anomaly.setSeverity("Warning");
             }
-        }
 
-        System.out.println("✅ Mass Balance anomaly detection completed - Found " + anomalies.size() + " anomalies");
+            anomalies.add(anomaly);
+            logger.debug("🚨 {} anomaly - Value: {}, Z-Score: {}, Severity: {}",
+                    metricType, String.format("%.2f", value), String.format("%.2f", zScore), anomaly.getSeverity());
+        }
         return anomalies;
     }
 
     /**
-     * Calculate standard deviation for a list of values
+     * Deviation from the baseline mean in percent, or null when the mean is
+     * zero and no percentage exists
      */
-    private double calculateStandardDeviation(List<Double> values, double mean) {
-        double variance = values.stream()
-                .mapToDouble(value -> Math.pow(value - mean, 2))
-                .average()
-                .orElse(0.0);
+    static Double deviationPercent(double value, double mean) {
+        double percent = (value - mean) / mean * 100;
+        return Double.isFinite(percent) ? percent : null;
+    }
 
-        return Math.sqrt(variance);
+    /**
+     * Size of an anomaly's deviation for ranking; one without a percentage
+     * left a flat zero baseline and ranks above all others
+     */
+    static double deviationSize(AnomalyDTO anomaly) {
+        Double percent = anomaly.getDeviationPercent();
+        return percent != null ? Math.abs(percent) : Double.POSITIVE_INFINITY;
     }
 }
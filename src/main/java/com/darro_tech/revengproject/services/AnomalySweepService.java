@@ -0,0 +1,374 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.TimeSeries;
+import com.darro_tech.revengproject.dto.WebsiteAlertDTO;
+import com.darro_tech.revengproject.dto.WebsiteAlertRequest;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.models.dto.AnomalyDTO;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+
+/**
+ * Sweeps every farm metric for anomalies in the background and stores the
+ * findings in the anomalies table (see V10__create_anomaly_tables.sql), so
+ * the analytics pages can read them instead of recomputing.
+ *
+ * Each farm and metric keeps a watermark, the newest reading already swept.
+ * A sweep only reads the readings after it, preceded by the last
+ * anomaly.rolling-window readings before it as baseline context, and a
+ * farm seen for the first time is swept over its last
+ * anomaly.sweep.initial-days of readings. Findings are keyed by farm, metric
+ * and timestamp, so a sweep that is interrupted and repeated stores nothing
+ * twice. Critical findings raise a website alert for the farm's companies;
+ * while that alert is active, later findings of the same farm metric update
+ * it rather than raising another.
+ */
+@Service
+public class AnomalySweepService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalySweepService.class);
+
+    // Metrics with a rolling baseline worth sweeping; population counts change in steps
+    private static final Metric[] SWEPT_METRICS = {
+        Metric.CH4_RECOVERY, Metric.TEMPERATURE, Metric.MASS_BALANCE, Metric.LAGOON_LEVEL
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TimeSeriesReader timeSeriesReader;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private WebsiteAlertService websiteAlertService;
+
+    @Value("${anomaly.sweep.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${anomaly.sweep.initial-days:90}")
+    private int initialDays = 90;
+
+    @Value("${anomaly.sweep.alerts-enabled:true}")
+    private boolean alertsEnabled = true;
+
+    /**
+     * Sweep all farm metrics that received readings since the last sweep.
+     *
+     * @return the number of anomalies stored
+     */
+    @Scheduled(fixedDelayString = "${anomaly.sweep.interval-ms:900000}",
+            initialDelayString = "${anomaly.sweep.initial-delay-ms:60000}")
+    public int sweep() {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int stored = 0;
+        int swept = 0;
+        for (Metric metric : SWEPT_METRICS) {
+            Map<String, Instant> latest;
+            Map<String, Instant> watermarks;
+            try {
+                latest = timeSeriesReader.readLatestTimestamps(metric);
+                watermarks = readWatermarks(metric);
+            } catch (DataAccessException e) {
+                logger.debug("Skipping anomaly sweep of {}: {}", metric.getLabel(), e.getMessage());
+                continue;
+            }
+
+            for (Map.Entry<String, Instant> entry : latest.entrySet()) {
+                String farmId = entry.getKey();
+                Instant watermark = watermarks.get(farmId);
+                if (watermark != null && !entry.getValue().isAfter(watermark)) {
+                    continue;
+                }
+                try {
+                    stored += sweepFarm(metric, farmId, watermark, entry.getValue());
+                    swept++;
+                } catch (Exception e) {
+                    logger.error("❌ Error sweeping {} for farm {}: {}", metric.getLabel(), farmId, e.getMessage(), e);
+                }
+            }
+        }
+
+        if (swept > 0) {
+            logger.info("🔍 Anomaly sweep covered {} farm metrics in {} ms - Stored {} anomalies",
+                    swept, System.currentTimeMillis() - start, stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Sweep one farm metric from its watermark (exclusive) to newest
+     * (inclusive) and move the watermark to newest
+     */
+    private int sweepFarm(Metric metric, String farmId, Instant watermark, Instant newest) {
+        Instant firstSwept = watermark != null
+                ? watermark.plusMillis(1)
+                : newest.minus(initialDays, ChronoUnit.DAYS);
+
+        // Baseline context: readings before the swept range
+        TimeSeries series = timeSeriesReader.readLast(metric, farmId, firstSwept.minusMillis(1),
+                anomalyDetectionService.getRollingWindow());
+        int firstNew = series.size();
+        TimeSeries fresh = timeSeriesReader.read(metric, farmId, firstSwept, newest);
+        for (int i = 0; i < fresh.size(); i++) {
+            series.add(fresh.getTimestamp(i), fresh.getValue(i));
+        }
+
+        String farmName = referenceDataService.getFarmById(farmId).map(Farm::getName).orElse(farmId);
+        List<AnomalyDTO> anomalies = anomalyDetectionService.detectNewAnomalies(farmId, farmName, metric, series, firstNew);
+
+        storeAnomalies(metric, anomalies);
+        saveWatermark(metric, farmId, firstSwept, newest);
+
+        List<AnomalyDTO> critical = anomalies.stream()
+                .filter(anomaly -> "Critical".equals(anomaly.getSeverity()))
+                .collect(Collectors.toList());
+        if (!critical.isEmpty()) {
+            raiseAlert(metric, farmId, farmName, critical);
+        }
+
+        logger.debug("🔍 Swept {} readings of {} for farm {} - {} anomalies",
+                fresh.size(), metric.getLabel(), farmId, anomalies.size());
+        return anomalies.size();
+    }
+
+    private void storeAnomalies(Metric metric, List<AnomalyDTO> anomalies) {
+        if (anomalies.isEmpty()) {
+            return;
+        }
+        Calendar utc = utcCalendar();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO anomalies (farm_id, metric_type, timestamp, value, expected_value, "
+                + "deviation_percent, severity, detected_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                anomalies, 500, (ps, anomaly) -> {
+                    ps.setString(1, anomaly.getFarmId());
+                    ps.setString(2, metric.name());
+                    ps.setTimestamp(3, Timestamp.from(anomaly.getTimestamp()), utc);
+                    ps.setDouble(4, anomaly.getValue());
+                    ps.setDouble(5, anomaly.getExpectedValue());
+                    if (anomaly.getDeviationPercent() != null) {
+                        ps.setDouble(6, anomaly.getDeviationPercent());
+                    } else {
+                        ps.setNull(6, Types.DOUBLE);
+                    }
+                    ps.setString(7, anomaly.getSeverity());
+                    ps.setTimestamp(8, now, utc);
+                });
+    }
+
+    private Map<String, Instant> readWatermarks(Metric metric) {
+        Calendar utc = utcCalendar();
+        Map<String, Instant> watermarks = new HashMap<>();
+        jdbcTemplate.query("SELECT farm_id, last_timestamp FROM anomaly_sweep_state WHERE metric_type = ?",
+                rs -> {
+                    watermarks.put(rs.getString(1), rs.getTimestamp(2, utc).toInstant());
+                }, metric.name());
+        return watermarks;
+    }
+
+    /**
+     * Record the swept range; the first swept timestamp is only set once
+     */
+    private void saveWatermark(Metric metric, String farmId, Instant firstSwept, Instant lastSwept) {
+        Calendar utc = utcCalendar();
+        jdbcTemplate.update(
+                "INSERT INTO anomaly_sweep_state (farm_id, metric_type, first_timestamp, last_timestamp, timestamp) "
+                + "VALUES (?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE last_timestamp = VALUES(last_timestamp), timestamp = VALUES(timestamp)",
+                ps -> {
+                    ps.setString(1, farmId);
+                    ps.setString(2, metric.name());
+                    ps.setTimestamp(3, Timestamp.from(firstSwept), utc);
+                    ps.setTimestamp(4, Timestamp.from(lastSwept), utc);
+                    ps.setTimestamp(5, Timestamp.from(Instant.now()), utc);
+                });
+    }
+
+    /**
+     * One alert per farm metric, naming the largest deviation of the sweep:
+     * the metric's active alert is updated, or a new one raised when it has
+     * none or it was deactivated
+     */
+    private void raiseAlert(Metric metric, String farmId, String farmName, List<AnomalyDTO> critical) {
+        if (!alertsEnabled) {
+            return;
+        }
+        List<String> companyIds = new ArrayList<>(referenceDataService.getCompanyIdsForFarm(farmId));
+        if (companyIds.isEmpty()) {
+            return;
+        }
+
+        AnomalyDTO worst = critical.get(0);
+        for (AnomalyDTO anomaly : critical) {
+            if (AnomalyDetectionService.deviationSize(anomaly) > AnomalyDetectionService.deviationSize(worst)) {
+                worst = anomaly;
+            }
+        }
+
+        String message = String.format("⚠️ Critical %s anomaly at %s on %s: %.2f against an expected %.2f",
+                metric.getLabel(), farmName, worst.getTimestamp().atZone(ZoneOffset.UTC).toLocalDate(),
+                worst.getValue(), worst.getExpectedValue());
+        if (worst.getDeviationPercent() != null) {
+            message += String.format(" (%+.1f%%)", worst.getDeviationPercent());
+        }
+        if (critical.size() > 1) {
+            message += String.format(" and %d more critical readings", critical.size() - 1);
+        }
+
+        WebsiteAlertRequest request = new WebsiteAlertRequest();
+        request.setMessage(message);
+        request.setIsActive(true);
+        request.setCompanyIds(companyIds);
+        try {
+            Integer openAlertId = findOpenAlertId(metric, farmId);
+            request.setId(openAlertId);
+            WebsiteAlertDTO alert = websiteAlertService.upsertAlert(request);
+            if (openAlertId == null && alert != null) {
+                jdbcTemplate.update("UPDATE anomaly_sweep_state SET alert_id = ? WHERE farm_id = ? AND metric_type = ?",
+                        alert.getId(), farmId, metric.name());
+            }
+            logger.info("🚨 {} website alert for {} critical {} anomalies at farm {}",
+                    openAlertId != null ? "Updated" : "Raised", critical.size(), metric.getLabel(), farmId);
+        } catch (Exception e) {
+            logger.error("❌ Error raising anomaly alert for farm {}: {}", farmId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The alert last raised for the farm metric, if it is still active
+     */
+    private Integer findOpenAlertId(Metric metric, String farmId) {
+        List<Integer> alertIds = jdbcTemplate.queryForList(
+                "SELECT alert_id FROM anomaly_sweep_state WHERE farm_id = ? AND metric_type = ? AND alert_id IS NOT NULL",
+                Integer.class, farmId, metric.name());
+        if (alertIds.isEmpty()) {
+            return null;
+        }
+        return websiteAlertService.getAlertById(alertIds.get(0))
+                .filter(alert -> Boolean.TRUE.equals(alert.getIsActive()))
+                .map(WebsiteAlertDTO::getId)
+                .orElse(null);
+    }
+
+    /**
+     * Stored anomalies of the farms between two instants, Critical first,
+     * then by size of the deviation, then newest first
+     */
+    public List<AnomalyDTO> findStoredAnomalies(Collection<String> farmIds, Instant startDate, Instant endDate) {
+        List<AnomalyDTO> anomalies = new ArrayList<>();
+        if (farmIds.isEmpty()) {
+            return anomalies;
+        }
+
+        try {
+            Calendar utc = utcCalendar();
+            List<String> ids = new ArrayList<>(farmIds);
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+            jdbcTemplate.query(
+                    "SELECT farm_id, metric_type, timestamp, value, expected_value, deviation_percent, severity "
+                    + "FROM anomalies WHERE farm_id IN (" + placeholders + ") AND timestamp >= ? AND timestamp <= ? "
+                    + "ORDER BY CASE WHEN severity = 'Critical' THEN 0 ELSE 1 END, "
+                    + "deviation_percent IS NULL DESC, ABS(deviation_percent) DESC, timestamp DESC",
+                    ps -> {
+                        int index = 1;
+                        for (String farmId : ids) {
+                            ps.setString(index++, farmId);
+                        }
+                        ps.setTimestamp(index++, Timestamp.from(startDate), utc);
+                        ps.setTimestamp(index, Timestamp.from(endDate), utc);
+                    },
+                    rs -> {
+                        AnomalyDTO anomaly = new AnomalyDTO();
+                        String farmId = rs.getString(1);
+                        anomaly.setFarmId(farmId);
+                        anomaly.setFarmName(referenceDataService.getFarmById(farmId).map(Farm::getName).orElse(farmId));
+                        anomaly.setMetricType(metricLabel(rs.getString(2)));
+                        anomaly.setTimestamp(rs.getTimestamp(3, utc).toInstant());
+                        anomaly.setValue(rs.getDouble(4));
+                        anomaly.setExpectedValue(rs.getDouble(5));
+                        double deviationPercent = rs.getDouble(6);
+                        anomaly.setDeviationPercent(rs.wasNull() ? null : deviationPercent);
+                        anomaly.setSeverity(rs.getString(7));
+                        anomalies.add(anomaly);
+                    });
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading stored anomalies: {}", e.getMessage(), e);
+        }
+        return anomalies;
+    }
+
+    /**
+     * Whether the sweep has covered the farms from startDate on, so their
+     * stored anomalies are complete for a range starting there
+     */
+    public boolean isCovered(Collection<String> farmIds, Instant startDate) {
+        if (farmIds.isEmpty()) {
+            return false;
+        }
+        try {
+            List<String> ids = new ArrayList<>(farmIds);
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+            Calendar utc = utcCalendar();
+            Optional<Timestamp> firstSwept = Optional.ofNullable(jdbcTemplate.query(
+                    "SELECT MAX(first_timestamp) FROM anomaly_sweep_state WHERE farm_id IN (" + placeholders + ")",
+                    ps -> {
+                        for (int i = 0; i < ids.size(); i++) {
+                            ps.setString(i + 1, ids.get(i));
+                        }
+                    },
+                    rs -> rs.next() ? rs.getTimestamp(1, utc) : null));
+            return firstSwept.map(timestamp -> !timestamp.toInstant().isAfter(startDate)).orElse(false);
+        } catch (DataAccessException e) {
+            logger.debug("Anomaly sweep state unavailable: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static String metricLabel(String metricType) {
+        try {
+            return Metric.valueOf(metricType).getLabel();
+        } catch (IllegalArgumentException e) {
+            return metricType;
+        }
+    }
+
+    /**
+     * Instants are stored in UTC, as Hibernate writes them
+     */
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
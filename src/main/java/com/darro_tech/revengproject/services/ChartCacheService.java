@@ -0,0 +1,191 @@
+package com.darro_tech.revengproject.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
+import com.darro_tech.revengproject.utils.ConditionalRequests;
+
+/**
+ * Caches chart API results keyed by endpoint, company or farm and request
+ * parameters, so dashboards that poll the same charts do not re-run the
+ * queries until the data changes.
+ *
+ * Entries are evicted least-recently-used beyond chart-cache.max-size,
+ * expire after chart-cache.ttl-ms, and are ignored once DataVersionService
+ * moves the company (or market data) to a new version. The same version
+ * drives the ETag and Last-Modified headers set by
+ * {@link #checkNotModified(Key, ServletWebRequest)}.
+ *
+ * Cached values are shared between requests: read them, do not modify them.
+ */
+@Service
+public class ChartCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartCacheService.class);
+
+    private final DataVersionService dataVersionService;
+
+    private final long ttlMillis;
+
+    private final Map<Key, Entry> cache;
+
+    public ChartCacheService(DataVersionService dataVersionService,
+            @Value("${chart-cache.max-size:1000}") int maxSize,
+            @Value("${chart-cache.ttl-ms:600000}") long ttlMillis) {
+        this.dataVersionService = dataVersionService;
+        this.ttlMillis = ttlMillis;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Return the cached result for the key if it is still current, otherwise
+     * run the loader and cache what it returns. Empty results are not cached,
+     * since the chart services also return empty results on errors.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        // Read the version first so a change that lands while loading makes this entry stale
+        long version = currentVersion(key);
+        long now = System.currentTimeMillis();
+
+        Entry entry = cache.get(key);
+        if (entry != null && entry.version == version && now - entry.createdAt < ttlMillis) {
+            logger.debug("Chart cache hit for {}", key);
+            return (T) entry.value;
+        }
+
+        T value = loader.get();
+        if (isCacheable(value)) {
+            cache.put(key, new Entry(value, version, now));
+        }
+        return value;
+    }
+
+    /**
+     * Set ETag, Last-Modified and Cache-Control for the key's current data
+     * version and check the request's conditional headers against them
+     *
+     * @return true if the client's copy is current and a 304 should be sent
+     */
+    public boolean checkNotModified(Key key, ServletWebRequest webRequest) {
+        long version = currentVersion(key);
+        return ConditionalRequests.checkNotModified(webRequest,
+                ConditionalRequests.etag(key.value, version), version);
+    }
+
+    public void clear() {
+        cache.clear();
+        logger.info("🧹 Chart cache cleared");
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private long currentVersion(Key key) {
+        switch (key.scope) {
+            case COMPANY:
+                return dataVersionService.companyVersion(key.scopeId);
+            case FARM:
+                return dataVersionService.farmVersion(key.scopeId);
+            default:
+                return dataVersionService.marketVersion();
+        }
+    }
+
+    private static boolean isCacheable(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return !map.isEmpty();
+        }
+        if (value instanceof ColumnarTimeline timeline) {
+            return !timeline.isEmpty();
+        }
+        return true;
+    }
+
+    private enum Scope {
+        COMPANY, FARM, MARKET
+    }
+
+    /**
+     * Identifies one chart result: the endpoint, the company or farm whose
+     * data version it depends on, and the remaining request parameters
+     */
+    public static final class Key {
+
+        private final Scope scope;
+        private final String scopeId;
+        private final String value;
+
+        private Key(Scope scope, String scopeId, String endpoint, Object... params) {
+            this.scope = scope;
+            this.scopeId = scopeId;
+            StringBuilder builder = new StringBuilder(endpoint).append('|').append(scopeId);
+            for (Object param : params) {
+                builder.append('|').append(param);
+            }
+            this.value = builder.toString();
+        }
+
+        public static Key company(String endpoint, String companyId, Object... params) {
+            return new Key(Scope.COMPANY, companyId, endpoint, params);
+        }
+
+        public static Key farm(String endpoint, String farmId, Object... params) {
+            return new Key(Scope.FARM, farmId, endpoint, params);
+        }
+
+        public static Key market(String endpoint, Object... params) {
+            return new Key(Scope.MARKET, null, endpoint, params);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && value.equals(key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final long version;
+        final long createdAt;
+
+        Entry(Object value, long version, long createdAt) {
+            this.value = value;
+            this.version = version;
+            this.createdAt = createdAt;
+        }
+    }
+}
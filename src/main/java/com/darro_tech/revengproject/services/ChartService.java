@@ -2,24 +2,31 @@ package com.darro_tech.revengproject.services;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Year;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
+import com.darro_tech.revengproject.dto.DateWindow;
 import com.darro_tech.revengproject.dto.FarmVolumeData;
-import com.darro_tech.revengproject.models.CompanyFarm;
+import com.darro_tech.revengproject.dto.TimeSeries;
 import com.darro_tech.revengproject.models.Farm;
-import com.darro_tech.revengproject.models.MarketPrice;
-import com.darro_tech.revengproject.models.MarketPricesMonthly;
+import com.darro_tech.revengproject.models.dto.TimeSeriesPointDTO;
 import com.darro_tech.revengproject.repositories.*;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -27,23 +34,39 @@ public class ChartService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChartService.class);
 
+    private static final int DEFAULT_MTD_YEARS = 3;
+
+    private static final int MAX_MTD_YEARS = 10;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     @Autowired
-    private ChartMeterDailyViewRepository chartMeterDailyViewRepository;
+    private MeterDailyRepository meterDailyRepository;
 
     @Autowired
-    private FarmRepository farmRepository;
+    private MarketPriceStore marketPriceStore;
 
     @Autowired
-    private CompanyFarmRepository companyFarmRepository;
+    private MeterHourlyRollupService meterHourlyRollupService;
 
     @Autowired
-    private MarketPriceRepository marketPriceRepository;
+    private BudgetRepository budgetRepository;
 
     @Autowired
-    private MarketPricesMonthlyRepository marketPricesMonthlyRepository;
+    private ProductionRollupService productionRollupService;
 
     @Autowired
-    private BudgetRepository budgetRepository;
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private TimeSeriesReader timeSeriesReader;
+
+    @Autowired
+    private ForecastingService forecastingService;
+
+    // Days of history behind the forecast timelines
+    @Value("${forecast.history-days:730}")
+    private int forecastHistoryDays = 730;
 
     /**
      * Get daily volume data for all farms in a company for a specific date
@@ -55,7 +78,14 @@ public class ChartService {
             // Get volume data grouped by farm using the method that ignores include_website flag
             logger.info("🔍 Using custom query that ignores include_website flag");
             logger.debug("Querying database for farm volumes...");
-            List<Object[]> results = chartMeterDailyViewRepository.findTotalVolumeByFarmForDateIgnoringIncludeWebsite(companyId, date);
+            List<Object[]> results;
+            if (productionRollupService.isAvailable()) {
+                logger.debug("Reading farm volumes from production rollups");
+                results = productionRollupService.findTotalVolumeByFarmForDateRange(companyId, date, date);
+            } else {
+                results = meterDailyRepository.findTotalVolumeByFarmForTimeRange(
+                        companyId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+            }
             logger.info("Query returned {} results", results != null ? results.size() : 0);
 
             if (results == null || results.isEmpty()) {
@@ -63,13 +93,8 @@ public class ChartService {
                 return new ArrayList<>();
             }
 
-            // Create a map of farm IDs to their names
-            logger.debug("Loading farm names from database...");
-            List<Farm> allFarms = farmRepository.findAll();
-            logger.debug("Found {} farms in database", allFarms.size());
-
-            Map<String, String> farmNames = allFarms.stream()
-                    .collect(Collectors.toMap(Farm::getId, Farm::getName));
+            // Map of farm IDs to their names
+            Map<String, String> farmNames = referenceDataService.getFarmNames();
 
             // Convert results to DTOs
             List<FarmVolumeData> farmVolumeDataList = new ArrayList<>();
@@ -123,8 +148,14 @@ public class ChartService {
             // Get volume data grouped by farm using the method that ignores include_website flag
             logger.info("🔍 Using custom query that ignores include_website flag");
             logger.debug("Querying database for farm volumes...");
-            List<Object[]> results = chartMeterDailyViewRepository.findTotalVolumeByFarmForDateRangeIgnoringIncludeWebsite(
-                    companyId, fromDate, toDate);
+            List<Object[]> results;
+            if (productionRollupService.isAvailable()) {
+                logger.debug("Reading farm volumes from production rollups");
+                results = productionRollupService.findTotalVolumeByFarmForDateRange(companyId, fromDate, toDate);
+            } else {
+                results = meterDailyRepository.findTotalVolumeByFarmForTimeRange(
+                        companyId, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay());
+            }
             logger.info("Query returned {} results", results != null ? results.size() : 0);
 
             if (results == null || results.isEmpty()) {
@@ -132,13 +163,8 @@ public class ChartService {
                 return new ArrayList<>();
             }
 
-            // Create a map of farm IDs to their names
-            logger.debug("Loading farm names from database...");
-            List<Farm> allFarms = farmRepository.findAll();
-            logger.debug("Found {} farms in database", allFarms.size());
-
-            Map<String, String> farmNames = allFarms.stream()
-                    .collect(Collectors.toMap(Farm::getId, Farm::getName));
+            // Map of farm IDs to their names
+            Map<String, String> farmNames = referenceDataService.getFarmNames();
 
             // Convert results to DTOs
             List<FarmVolumeData> farmVolumeDataList = new ArrayList<>();
@@ -190,10 +216,7 @@ public class ChartService {
         try {
             // Get farms for the specified company
             logger.debug("Loading farms for company ID: {}", companyId);
-            List<CompanyFarm> companyFarms = companyFarmRepository.findByCompanyId(companyId);
-            List<Farm> companyFarmsList = companyFarms.stream()
-                    .map(CompanyFarm::getFarm)
-                    .collect(Collectors.toList());
+            List<Farm> companyFarmsList = referenceDataService.getFarmsForCompany(companyId);
             logger.debug("Found {} farms for company ID: {}", companyFarmsList.size(), companyId);
 
             // In a real implementation, we would query the database for production population data
@@ -240,13 +263,30 @@ public class ChartService {
         logger.info("🔍 Fetching company population forecast timeline for company: {} from {} to {}", companyId, fromDate, toDate);
 
         try {
-            // In a real implementation, we would query the database for company population forecast data
-            // For now, return an empty list as sample data has been removed
-            List<Map<String, Object>> forecastDataList = new ArrayList<>();
+            List<String> farmIds = new ArrayList<>();
+            for (Farm farm : referenceDataService.getFarmsForCompany(companyId)) {
+                farmIds.add(farm.getId());
+            }
+            LocalDate historyEnd = forecastHistoryEnd(toDate);
+            Map<String, TimeSeries> byFarm = timeSeriesReader.readForFarms(Metric.POPULATION, farmIds,
+                    historyEnd.minusDays(forecastHistoryDays).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                    historyEnd.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1));
+
+            // Company headcount per day is the sum over its farms
+            TreeMap<Long, Double> totals = new TreeMap<>();
+            for (TimeSeries series : byFarm.values()) {
+                for (int i = 0; i < series.size(); i++) {
+                    long day = Math.floorDiv(series.getTimestamp(i), MILLIS_PER_DAY) * MILLIS_PER_DAY;
+                    totals.merge(day, series.getValue(i), Double::sum);
+                }
+            }
+            TimeSeries history = new TimeSeries(totals.size());
+            totals.forEach(history::add);
 
-            logger.info("No company population forecast data available for company: {} from {} to {}", 
-                    companyId, fromDate, toDate);
-            logger.info("Sample data generation has been removed. Returning empty list.");
+            List<Map<String, Object>> forecastDataList = forecastTimeline("company:" + companyId,
+                    Metric.POPULATION.name(), history, fromDate, toDate);
+            logger.info("✓ Company population forecast: {} points from {} days of history",
+                    forecastDataList.size(), history.size());
 
             return forecastDataList;
         } catch (Exception e) {
@@ -255,6 +295,41 @@ public class ChartService {
         }
     }
 
+    /**
+     * Forecast points of a history that fall in [fromDate, toDate], as
+     * timestamp (day), value, lower and upper maps
+     */
+    private List<Map<String, Object>> forecastTimeline(String scopeId, String metric, TimeSeries history,
+            LocalDate fromDate, LocalDate toDate) {
+        List<Map<String, Object>> forecastData = new ArrayList<>();
+        Instant horizonEnd = toDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1);
+        List<TimeSeriesPointDTO> points = forecastingService.forecast(scopeId, metric, history, horizonEnd,
+                ForecastingService.DEFAULT_CONFIDENCE_LEVEL);
+
+        for (TimeSeriesPointDTO point : points) {
+            LocalDate day = point.getTimestamp().atZone(ZoneOffset.UTC).toLocalDate();
+            if (day.isBefore(fromDate)) {
+                continue;
+            }
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("timestamp", day.toString());
+            dataPoint.put("value", point.getValue());
+            dataPoint.put("lower", point.getLower());
+            dataPoint.put("upper", point.getUpper());
+            forecastData.add(dataPoint);
+        }
+        return forecastData;
+    }
+
+    /**
+     * Forecasts are fitted on history up to the end of the range, or today
+     * when the range runs into the future
+     */
+    private static LocalDate forecastHistoryEnd(LocalDate toDate) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return toDate.isAfter(today) ? today : toDate;
+    }
+
     /**
      * Get company population budget timeline data for a date range
      */
@@ -281,86 +356,95 @@ public class ChartService {
      * Get market prices monthly timeline data for a date range
      */
     public List<Map<String, Object>> getMarketPricesMonthlyTimeline(LocalDate fromDate, LocalDate toDate) {
+        return getMarketPricesMonthlyTimeline(fromDate, toDate, 0);
+    }
+
+    /**
+     * Get market prices monthly timeline data for a date range, reduced to
+     * at most maxPoints rows when maxPoints is above zero
+     */
+    public List<Map<String, Object>> getMarketPricesMonthlyTimeline(LocalDate fromDate, LocalDate toDate, int maxPoints) {
         logger.info("🔍 Fetching market prices monthly timeline from {} to {}", fromDate, toDate);
+        return toPriceMaps(getMarketPricesTimelineColumnar(MarketPriceStore.Frequency.MONTHLY, fromDate, toDate, maxPoints));
+    }
 
-        try {
-            // Convert LocalDate to Instant
-            Instant fromInstant = fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant toInstant = toDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
+    /**
+     * Get market prices daily timeline data for a date range
+     */
+    public List<Map<String, Object>> getMarketPricesDailyTimeline(LocalDate fromDate, LocalDate toDate) {
+        return getMarketPricesDailyTimeline(fromDate, toDate, 0);
+    }
 
-            // Query the database for market prices monthly data
-            List<MarketPricesMonthly> pricesData = marketPricesMonthlyRepository.findByTimestampBetweenOrderByTimestampAsc(
-                    fromInstant, toInstant);
+    /**
+     * Get market prices daily timeline data for a date range, reduced to at
+     * most maxPoints rows when maxPoints is above zero
+     */
+    public List<Map<String, Object>> getMarketPricesDailyTimeline(LocalDate fromDate, LocalDate toDate, int maxPoints) {
+        logger.info("🔍 Fetching market prices daily timeline from {} to {}", fromDate, toDate);
+        return toPriceMaps(getMarketPricesTimelineColumnar(MarketPriceStore.Frequency.DAILY, fromDate, toDate, maxPoints));
+    }
 
-            logger.info("Found {} market prices monthly records", pricesData.size());
+    /**
+     * Get market prices monthly timeline data for a date range as parallel
+     * arrays, one series per price
+     */
+    public ColumnarTimeline getMarketPricesMonthlyTimelineColumnar(LocalDate fromDate, LocalDate toDate) {
+        return getMarketPricesMonthlyTimelineColumnar(fromDate, toDate, 0);
+    }
 
-            // If no data is found, return an empty list
-            if (pricesData.isEmpty()) {
-                logger.info("No market prices monthly data found, returning empty list");
-                return new ArrayList<>();
-            }
+    public ColumnarTimeline getMarketPricesMonthlyTimelineColumnar(LocalDate fromDate, LocalDate toDate, int maxPoints) {
+        logger.info("🔍 Fetching columnar market prices monthly timeline from {} to {}", fromDate, toDate);
+        return getMarketPricesTimelineColumnar(MarketPriceStore.Frequency.MONTHLY, fromDate, toDate, maxPoints);
+    }
 
-            // Convert to the format expected by the frontend
-            List<Map<String, Object>> result = new ArrayList<>();
-            for (MarketPricesMonthly price : pricesData) {
-                Map<String, Object> priceData = new HashMap<>();
-                priceData.put("timestamp", price.getTimestamp().toString());
-                priceData.put("lcfs", price.getLcfs());
-                priceData.put("d3", price.getD3());
-                priceData.put("d5", price.getD5());
-                priceData.put("natural_gas", price.getNaturalGas());
-                result.add(priceData);
-            }
+    /**
+     * Get market prices daily timeline data for a date range as parallel
+     * arrays, one series per price
+     */
+    public ColumnarTimeline getMarketPricesDailyTimelineColumnar(LocalDate fromDate, LocalDate toDate) {
+        return getMarketPricesDailyTimelineColumnar(fromDate, toDate, 0);
+    }
 
-            return result;
-        } catch (Exception e) {
-            logger.error("❌ Error in getMarketPricesMonthlyTimeline: {}", e.getMessage(), e);
-            // Return empty list
-            return new ArrayList<>();
-        }
+    public ColumnarTimeline getMarketPricesDailyTimelineColumnar(LocalDate fromDate, LocalDate toDate, int maxPoints) {
+        logger.info("🔍 Fetching columnar market prices daily timeline from {} to {}", fromDate, toDate);
+        return getMarketPricesTimelineColumnar(MarketPriceStore.Frequency.DAILY, fromDate, toDate, maxPoints);
     }
 
     /**
-     * Get market prices daily timeline data for a date range
+     * Market prices from the in-memory store; they are the same for every
+     * company, so no query runs per request
      */
-    public List<Map<String, Object>> getMarketPricesDailyTimeline(LocalDate fromDate, LocalDate toDate) {
-        logger.info("🔍 Fetching market prices daily timeline from {} to {}", fromDate, toDate);
-
+    private ColumnarTimeline getMarketPricesTimelineColumnar(MarketPriceStore.Frequency frequency,
+            LocalDate fromDate, LocalDate toDate, int maxPoints) {
         try {
-            // Convert LocalDate to Instant
             Instant fromInstant = fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
             Instant toInstant = toDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
 
-            // Query the database for market prices daily data
-            List<MarketPrice> pricesData = marketPriceRepository.findByTimestampBetweenOrderByTimestampAsc(
-                    fromInstant, toInstant);
-
-            logger.info("Found {} market prices daily records", pricesData.size());
-
-            // If no data is found, return an empty list
-            if (pricesData.isEmpty()) {
-                logger.info("No market prices daily data found, returning empty list");
-                return new ArrayList<>();
-            }
+            ColumnarTimeline timeline = marketPriceStore.range(frequency, fromInstant, toInstant, maxPoints);
+            logger.info("Found {} market prices {} records", timeline.size(), frequency.name().toLowerCase());
+            return timeline;
+        } catch (Exception e) {
+            logger.error("❌ Error in getMarketPricesTimelineColumnar: {}", e.getMessage(), e);
+            return new ColumnarTimeline(0, MarketPriceStore.SERIES);
+        }
+    }
 
-            // Convert to the format expected by the frontend
-            List<Map<String, Object>> result = new ArrayList<>();
-            for (MarketPrice price : pricesData) {
-                Map<String, Object> priceData = new HashMap<>();
-                priceData.put("timestamp", price.getTimestamp().toString());
-                priceData.put("lcfs", price.getLcfs());
-                priceData.put("d3", price.getD3());
-                priceData.put("d5", price.getD5());
-                priceData.put("natural_gas", price.getNaturalGas());
-                result.add(priceData);
+    /**
+     * One map per row in the format expected by the frontend, missing
+     * prices as null
+     */
+    private static List<Map<String, Object>> toPriceMaps(ColumnarTimeline timeline) {
+        List<Map<String, Object>> result = new ArrayList<>(timeline.size());
+        for (int row = 0; row < timeline.size(); row++) {
+            Map<String, Object> priceData = new HashMap<>();
+            priceData.put("timestamp", Instant.ofEpochMilli(timeline.getTimestamp(row)).toString());
+            for (int s = 0; s < MarketPriceStore.SERIES.length; s++) {
+                double value = timeline.getValue(s, row);
+                priceData.put(MarketPriceStore.SERIES[s], Double.isNaN(value) ? null : value);
             }
-
-            return result;
-        } catch (Exception e) {
-            logger.error("❌ Error in getMarketPricesDailyTimeline: {}", e.getMessage(), e);
-            // Return empty list
-            return new ArrayList<>();
+            result.add(priceData);
         }
+        return result;
     }
 
     /**
@@ -371,9 +455,7 @@ public class ChartService {
 
         try {
             // Query the database for daily production data
-            logger.debug("Querying database for daily production data...");
-            List<Object[]> results = chartMeterDailyViewRepository.findDailyProductionForCompanyDateRange(
-                    companyId, fromDate, toDate);
+            List<Object[]> results = findDailyProduction(companyId, fromDate, toDate);
             logger.info("Query returned {} results", results != null ? results.size() : 0);
 
             if (results == null || results.isEmpty()) {
@@ -414,6 +496,98 @@ public class ChartService {
         }
     }
 
+    /**
+     * Get company production timeline data for a date range as parallel
+     * arrays, with one "value" series and a UTC-midnight timestamp per day
+     */
+    public ColumnarTimeline getCompanyProductionTimelineColumnar(String companyId, LocalDate fromDate, LocalDate toDate) {
+        logger.info("🔍 Fetching columnar company production timeline for company: {} from {} to {}", companyId, fromDate, toDate);
+
+        try {
+            List<Object[]> results = findDailyProduction(companyId, fromDate, toDate);
+            if (results == null || results.isEmpty()) {
+                logger.warn("No production data found in database for the given parameters");
+                return new ColumnarTimeline(0, "value");
+            }
+
+            ColumnarTimeline timeline = new ColumnarTimeline(results.size(), "value");
+            for (Object[] result : results) {
+                LocalDate date = ((java.sql.Date) result[0]).toLocalDate();
+                int row = timeline.addRow(date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+                timeline.setValue(0, row, (Number) result[1]);
+            }
+
+            logger.info("✓ Columnar production timeline: {} records, total {}", timeline.size(), timeline.sum(0));
+            return timeline;
+        } catch (Exception e) {
+            logger.error("❌ Error in getCompanyProductionTimelineColumnar: {}", e.getMessage(), e);
+            return new ColumnarTimeline(0, "value");
+        }
+    }
+
+    /**
+     * Get intraday production of all meters of a farm in hourly or daily
+     * buckets, timestamped with the bucket's start
+     */
+    public List<Map<String, Object>> getSingleFarmIntradayTimeline(String farmId, LocalDate fromDate, LocalDate toDate,
+            MeterHourlyRollupService.Resolution resolution) {
+        logger.info("🔍 Fetching {} intraday production for farm: {} from {} to {}", resolution, farmId, fromDate, toDate);
+
+        try {
+            List<Map<String, Object>> intradayData = toIntradayPoints(
+                    meterHourlyRollupService.findFarmProduction(farmId, fromDate, toDate, resolution));
+            logger.info("✓ Intraday production: {} buckets", intradayData.size());
+            return intradayData;
+        } catch (Exception e) {
+            logger.error("❌ Error in getSingleFarmIntradayTimeline: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Get intraday production of a company in hourly or daily buckets,
+     * timestamped with the bucket's start
+     */
+    public List<Map<String, Object>> getCompanyIntradayTimeline(String companyId, LocalDate fromDate, LocalDate toDate,
+            MeterHourlyRollupService.Resolution resolution) {
+        logger.info("🔍 Fetching {} intraday production for company: {} from {} to {}", resolution, companyId, fromDate, toDate);
+
+        try {
+            List<Map<String, Object>> intradayData = toIntradayPoints(
+                    meterHourlyRollupService.findCompanyProduction(companyId, fromDate, toDate, resolution));
+            logger.info("✓ Intraday production: {} buckets", intradayData.size());
+            return intradayData;
+        } catch (Exception e) {
+            logger.error("❌ Error in getCompanyIntradayTimeline: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<Map<String, Object>> toIntradayPoints(List<Object[]> rows) {
+        List<Map<String, Object>> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("timestamp", row[0].toString());
+            dataPoint.put("value", ((Number) row[1]).doubleValue());
+            points.add(dataPoint);
+        }
+        return points;
+    }
+
+    /**
+     * Rows of [java.sql.Date day, Number volume] for a company, from the
+     * rollups when they are available
+     */
+    private List<Object[]> findDailyProduction(String companyId, LocalDate fromDate, LocalDate toDate) {
+        logger.debug("Querying database for daily production data...");
+        if (productionRollupService.isAvailable()) {
+            logger.debug("Reading daily production from production rollups");
+            return productionRollupService.findDailyProductionForCompanyDateRange(companyId, fromDate, toDate);
+        }
+        return meterDailyRepository.findDailyProductionForCompanyTimeRange(
+                companyId, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay());
+    }
+
     /**
      * Get production vs budget data by farm for a company within a date range
      */
@@ -435,11 +609,8 @@ public class ChartService {
                     companyId, fromInstant, toInstant);
             logger.info("Query returned {} budget results", budgetResults != null ? budgetResults.size() : 0);
 
-            // Create a map of farm IDs to their names
-            logger.debug("Loading farm names from database...");
-            List<Farm> allFarms = farmRepository.findAll();
-            Map<String, String> farmNames = allFarms.stream()
-                    .collect(Collectors.toMap(Farm::getId, Farm::getName));
+            // Map of farm IDs to their names
+            Map<String, String> farmNames = referenceDataService.getFarmNames();
 
             // Create Ds to their budget values
             Map<String, Double> farmBudgets = new HashMap<>();
@@ -507,7 +678,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -534,7 +705,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -561,17 +732,16 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
-            // In a real implementation, we would query the database for production forecast data
-            // For now, return an empty list as sample data has been removed
-            List<Map<String, Object>> forecastData = new ArrayList<>();
+            LocalDate historyEnd = forecastHistoryEnd(toDate);
+            TimeSeries history = timeSeriesReader.readDailyProduction(farmId,
+                    historyEnd.minusDays(forecastHistoryDays), historyEnd);
 
-            logger.info("No production forecast data available for farm: {} from {} to {}", 
-                    farmName, fromDate, toDate);
-            logger.info("Sample data generation has been removed. Returning empty list.");
+            List<Map<String, Object>> forecastData = forecastTimeline(farmId, "PRODUCTION", history, fromDate, toDate);
+            logger.info("✓ Production forecast: {} points from {} days of history", forecastData.size(), history.size());
 
             return forecastData;
         } catch (Exception e) {
@@ -588,7 +758,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -615,7 +785,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -642,7 +812,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -669,17 +839,17 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
-            // In a real implementation, we would query the database for population forecast data
-            // For now, return an empty list as sample data has been removed
-            List<Map<String, Object>> forecastData = new ArrayList<>();
+            LocalDate historyEnd = forecastHistoryEnd(toDate);
+            TimeSeries history = timeSeriesReader.read(Metric.POPULATION, farmId,
+                    historyEnd.minusDays(forecastHistoryDays).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                    historyEnd.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1));
 
-            logger.info("No population forecast data available for farm: {} from {} to {}", 
-                    farmName, fromDate, toDate);
-            logger.info("Sample data generation has been removed. Returning empty list.");
+            List<Map<String, Object>> forecastData = forecastTimeline(farmId, Metric.POPULATION.name(), history, fromDate, toDate);
+            logger.info("✓ Population forecast: {} points from {} readings", forecastData.size(), history.size());
 
             return forecastData;
         } catch (Exception e) {
@@ -696,7 +866,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -723,7 +893,7 @@ public class ChartService {
 
         try {
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -754,7 +924,7 @@ public class ChartService {
             List<Map<String, Object>> lagoonData = new ArrayList<>();
 
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -806,7 +976,7 @@ public class ChartService {
             List<Map<String, Object>> massBalanceData = new ArrayList<>();
 
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -851,10 +1021,7 @@ public class ChartService {
 
         try {
             // Get farms for the specified company
-            List<CompanyFarm> companyFarms = companyFarmRepository.findByCompanyId(companyId);
-            List<Farm> farms = companyFarms.stream()
-                    .map(CompanyFarm::getFarm)
-                    .collect(Collectors.toList());
+            List<Farm> farms = referenceDataService.getFarmsForCompany(companyId);
 
             logger.info("Found {} farms for company ID: {}", farms.size(), companyId);
 
@@ -905,6 +1072,36 @@ public class ChartService {
         }
     }
 
+    /**
+     * Stored readings of one farm metric averaged per month, as points with
+     * the first day of the month as timestamp (the shape of the sample
+     * data), read through the primitive time-series path rather than
+     * entity loads
+     */
+    private List<Map<String, Object>> readMonthlyTimeline(Metric metric, String farmId, LocalDate fromDate, LocalDate toDate) {
+        Instant fromInstant = fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        Instant toInstant = toDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
+        TimeSeries series = timeSeriesReader.read(metric, farmId, fromInstant, toInstant);
+
+        // Sum and count of the readings per month
+        TreeMap<YearMonth, double[]> months = new TreeMap<>();
+        for (int i = 0; i < series.size(); i++) {
+            double[] month = months.computeIfAbsent(
+                    YearMonth.from(series.getInstant(i).atZone(ZoneId.systemDefault())), m -> new double[2]);
+            month[0] += series.getValue(i);
+            month[1]++;
+        }
+
+        List<Map<String, Object>> points = new ArrayList<>(months.size());
+        for (Map.Entry<YearMonth, double[]> month : months.entrySet()) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("timestamp", month.getKey().atDay(1).toString());
+            dataPoint.put("value", month.getValue()[0] / month.getValue()[1]);
+            points.add(dataPoint);
+        }
+        return points;
+    }
+
     /**
      * Get CH4 recovery timeline data for a specific farm within a date range
      */
@@ -912,12 +1109,19 @@ public class ChartService {
         logger.info("🔍 Fetching CH4 recovery timeline data for farm: {} from {} to {}", farmId, fromDate, toDate);
 
         try {
+            // Monthly averages of the stored readings when the farm has any in the range
+            List<Map<String, Object>> storedData = readMonthlyTimeline(Metric.CH4_RECOVERY, farmId, fromDate, toDate);
+            if (!storedData.isEmpty()) {
+                logger.info("✓ Total stored records: {}", storedData.size());
+                return storedData;
+            }
+
             // In a real implementation, we would query the database for CH4 recovery data
             // For now, we'll generate sample data for demonstration purposes
             List<Map<String, Object>> ch4RecoveryData = new ArrayList<>();
 
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -956,12 +1160,19 @@ public class ChartService {
         logger.info("🔍 Fetching temperature timeline data for farm: {} from {} to {}", farmId, fromDate, toDate);
 
         try {
+            // Monthly averages of the stored readings when the farm has any in the range
+            List<Map<String, Object>> storedData = readMonthlyTimeline(Metric.TEMPERATURE, farmId, fromDate, toDate);
+            if (!storedData.isEmpty()) {
+                logger.info("✓ Total stored records: {}", storedData.size());
+                return storedData;
+            }
+
             // In a real implementation, we would query the database for temperature data
             // For now, we'll generate sample data for demonstration purposes
             List<Map<String, Object>> temperatureData = new ArrayList<>();
 
             // Get farm name
-            Farm farm = farmRepository.findById(farmId).orElse(null);
+            Farm farm = referenceDataService.getFarmById(farmId).orElse(null);
             String farmName = farm != null ? farm.getName() : farmId;
             logger.info("Farm name: {}", farmName);
 
@@ -1005,20 +1216,89 @@ public class ChartService {
     }
 
     public Map<String, List<FarmVolumeData>> getMTDVolumeByFarmForYears(String companyId, LocalDate date) {
-        logger.info("🔄 Calculating MTD volume by farm for 3 years for company: {} and date: {}", companyId, date);
-        Map<String, List<FarmVolumeData>> results = new LinkedHashMap<>();
-        for (int i = 0; i < 3; i++) {
-            int year = Year.now().minusYears(i).getValue();
-            LocalDate from = LocalDate.of(year, date.getMonth(), 1);
-            LocalDate to = LocalDate.of(year, date.getMonth(), date.getDayOfMonth());
-            logger.info("🔢 Year: {}, From: {}, To: {}", year, from, to);
-            List<FarmVolumeData> volumes = getVolumeByFarmForDateRange(companyId, from, to);
-            results.put(String.valueOf(year), volumes);
-            logger.info("📅 Year {}: {} records", year, volumes.size());
+        return getMTDVolumeByFarmForYears(companyId, date, DEFAULT_MTD_YEARS);
+    }
+
+    /**
+     * Get month-to-date volume by farm for the given month and day in each of
+     * the last {@code years} years, fetched with a single query
+     */
+    public Map<String, List<FarmVolumeData>> getMTDVolumeByFarmForYears(String companyId, LocalDate date, int years) {
+        int yearCount = Math.max(1, Math.min(years, MAX_MTD_YEARS));
+        logger.info("🔄 Calculating MTD volume by farm for {} years for company: {} and date: {}", yearCount, companyId, date);
+
+        List<DateWindow> windows = new ArrayList<>();
+        for (int i = 0; i < yearCount; i++) {
+            YearMonth month = YearMonth.of(Year.now().minusYears(i).getValue(), date.getMonth());
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.atDay(Math.min(date.getDayOfMonth(), month.lengthOfMonth()));
+            logger.info("🔢 Year: {}, From: {}, To: {}", month.getYear(), from, to);
+            windows.add(new DateWindow(String.valueOf(month.getYear()), from, to));
         }
+
+        Map<String, List<FarmVolumeData>> results = getVolumeByFarmForDateWindows(companyId, windows);
+        results.forEach((year, volumes) -> logger.info("📅 Year {}: {} records", year, volumes.size()));
         return results;
     }
 
+    /**
+     * Get volume data for all farms in a company for several non-overlapping
+     * date windows with one query, keyed by window label in window order
+     */
+    public Map<String, List<FarmVolumeData>> getVolumeByFarmForDateWindows(String companyId, List<DateWindow> windows) {
+        List<DateWindow> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparing(DateWindow::getFrom));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (!sorted.get(i).getFrom().isAfter(sorted.get(i - 1).getTo())) {
+                throw new IllegalArgumentException("Date windows must not overlap: "
+                        + sorted.get(i - 1).getLabel() + " and " + sorted.get(i).getLabel());
+            }
+        }
+
+        Map<String, List<FarmVolumeData>> results = new LinkedHashMap<>();
+        for (DateWindow window : windows) {
+            results.put(window.getLabel(), new ArrayList<>());
+        }
+
+        try {
+            List<Object[]> rows;
+            if (productionRollupService.isAvailable()) {
+                logger.debug("Reading windowed farm volumes from production rollups");
+                rows = productionRollupService.findTotalVolumeByFarmForWindows(companyId, windows);
+            } else {
+                List<LocalDateTime[]> timeWindows = new ArrayList<>();
+                for (DateWindow window : windows) {
+                    timeWindows.add(new LocalDateTime[]{
+                        window.getFrom().atStartOfDay(), window.getTo().plusDays(1).atStartOfDay()});
+                }
+                rows = meterDailyRepository.findTotalVolumeByFarmForTimeWindows(companyId, timeWindows);
+            }
+            logger.info("Windowed query returned {} results for {} windows", rows.size(), windows.size());
+
+            if (rows.isEmpty()) {
+                return results;
+            }
+
+            Map<String, String> farmNames = referenceDataService.getFarmNames();
+
+            for (Object[] row : rows) {
+                String farmId = (String) row[0];
+                int windowIndex = ((Number) row[1]).intValue();
+
+                FarmVolumeData farmVolumeData = new FarmVolumeData();
+                farmVolumeData.setFarm_id(farmId);
+                farmVolumeData.setFarmName(farmNames.getOrDefault(farmId, farmId));
+                farmVolumeData.setVolume(((Number) row[2]).doubleValue());
+                results.get(windows.get(windowIndex).getLabel()).add(farmVolumeData);
+            }
+
+            return results;
+        } catch (Exception e) {
+            logger.error("❌ Error in getVolumeByFarmForDateWindows: {}", e.getMessage(), e);
+            return results;
+        }
+    }
+
     /**
      * Get company-level production and budget summary for a date range
      */
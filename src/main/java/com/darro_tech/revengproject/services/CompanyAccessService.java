@@ -0,0 +1,77 @@
+package com.darro_tech.revengproject.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Builds and caches per-session company access grants so that checking
+ * whether a user may open a company is an in-memory lookup.
+ *
+ * A grant is built at login, as part of the session principal, and kept in
+ * the session. It is rebuilt on the next request after UserVersionService
+ * moves the user to a new version.
+ */
+@Service
+public class CompanyAccessService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyAccessService.class);
+
+    private static final String GRANT_SESSION_KEY = "companyAccessGrant";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private UserVersionService userVersionService;
+
+    /**
+     * Get the user's grant from the session, building and storing a new one
+     * if there is none or it is out of date
+     */
+    public CompanyAccessGrant getGrant(HttpSession session, User user) {
+        if (session == null || user == null) {
+            return null;
+        }
+
+        Object attribute = session.getAttribute(GRANT_SESSION_KEY);
+        if (attribute instanceof CompanyAccessGrant grant
+                && grant.getUserId().equals(user.getId())
+                && grant.getVersion() == userVersionService.currentVersion(user.getId())) {
+            return grant;
+        }
+
+        CompanyAccessGrant grant = buildGrant(user);
+        session.setAttribute(GRANT_SESSION_KEY, grant);
+        return grant;
+    }
+
+    private CompanyAccessGrant buildGrant(User user) {
+        // Read the version first so a change that lands while building makes this grant stale
+        long version = userVersionService.currentVersion(user.getId());
+
+        boolean superAdmin = userRoleService.isSuperAdmin(user);
+        List<String> companyIds = jdbcTemplate.queryForList(
+                "SELECT c.id FROM companies c "
+                + "INNER JOIN company_users cu ON cu.company_id = c.id "
+                + "WHERE cu.user_id = ? "
+                + "ORDER BY c.name",
+                String.class, user.getId());
+
+        logger.info("🔐 Built company access grant for user {}: {} companies (superAdmin: {})",
+                user.getUsername(), companyIds.size(), superAdmin);
+        return new CompanyAccessGrant(user.getId(), superAdmin, companyIds, version);
+    }
+}
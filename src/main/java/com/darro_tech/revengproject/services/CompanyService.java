@@ -1,7 +1,6 @@
 package com.darro_tech.revengproject.services;
 
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,15 +21,15 @@ public class CompanyService {
 
     private static final Logger logger = LoggerFactory.getLogger(CompanyService.class);
 
-    // Special company names that need custom handling
-    private static final List<String> SPECIAL_COMPANIES = Arrays.asList("tuls", "texhoma", "vendor");
-
     @Autowired
     private CompanyRepository companyRepository;
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     public List<Company> getAllCompanies() {
         return companyRepository.findAll();
     }
@@ -124,7 +123,7 @@ public class CompanyService {
 
         try {
             // Find by exact name match
-            return companyRepository.findByNameIgnoreCase(name);
+            return referenceDataService.getCompanyByName(name);
         } catch (Exception e) {
             logger.error("❌ Error finding company by name: {}", e.getMessage());
             return Optional.empty();
@@ -141,51 +140,11 @@ public class CompanyService {
         logger.info("🔍 Looking up company by key: {}", key);
 
         try {
-            // First check if we have an exact match by name
-            Optional<Company> companyByName = companyRepository.findByNameIgnoreCase(key);
-            if (companyByName.isPresent()) {
-                logger.info("✅ Found company by exact name match: {}", key);
-                return companyByName;
-            }
-
-            // Handle special cases
-            String lowercaseKey = key.toLowerCase();
-            if (SPECIAL_COMPANIES.contains(lowercaseKey)) {
-                logger.info("⚠️ Special case handling for company key: {}", key);
-
-                // Try to find all special companies and match by lowercase name
-                List<Company> specialNameCompanies = companyRepository.findByNameIgnoreCaseIn(SPECIAL_COMPANIES);
-                for (Company company : specialNameCompanies) {
-                    if (company.getName().equalsIgnoreCase(key)) {
-                        logger.info("✅ Found special company: {}", company.getName());
-                        return Optional.of(company);
-                    }
-                }
-            }
-
-            // Look through all companies for more complex key matching
-            List<Company> allCompanies = companyRepository.findAll();
-
-            // First try a simple replacement of space with dash in company name
-            for (Company company : allCompanies) {
-                if (company.getName() != null) {
-                    String companyNameLower = company.getName().toLowerCase();
-                    String simpleDashKey = companyNameLower.replace(" ", "-");
-
-                    if (simpleDashKey.equals(lowercaseKey)) {
-                        logger.info("✅ Found company by simple key match: {} -> {}", company.getName(), key);
-                        return Optional.of(company);
-                    }
-                }
-            }
-
-            // Next try to find by our normalizeCompanyName method
-            for (Company company : allCompanies) {
-                String normalizedName = normalizeCompanyName(company.getName());
-                if (normalizedName.equalsIgnoreCase(lowercaseKey)) {
-                    logger.info("✅ Found company by normalized name: {} -> {}", company.getName(), key);
-                    return Optional.of(company);
-                }
+            // Exact name, then all-spaces-dashed name, then normalized slug
+            Optional<Company> company = referenceDataService.getCompanyByKey(key);
+            if (company.isPresent()) {
+                logger.info("✅ Found company by key: {} -> {}", company.get().getName(), key);
+                return company;
             }
 
             logger.info("❌ No company found with key: {}", key);
@@ -239,25 +198,8 @@ public class CompanyService {
             return "";
         }
 
-        // First, check for exact matches for known problematic companies
-        if (name.equalsIgnoreCase("Tuls")) {
-            return "tuls";
-        }
-        if (name.equalsIgnoreCase("Texhoma")) {
-            return "texhoma";
-        }
-        if (name.equalsIgnoreCase("Vendor")) {
-            return "vendor";
-        }
-
         // Replace only the first space with a dash to match NextJS behavior
-        String result = name.toLowerCase();
-        int firstSpaceIndex = result.indexOf(' ');
-        if (firstSpaceIndex >= 0) {
-            result = result.substring(0, firstSpaceIndex)
-                    + "-"
-                    + result.substring(firstSpaceIndex + 1);
-        }
+        String result = ReferenceDataService.companySlug(name);
 
         // Log for debugging problematic companies
         logger.debug("🔄 Normalized company name: '{}' -> '{}'", name, result);
@@ -272,7 +214,9 @@ public class CompanyService {
         company.setName(name);
         company.setDisplayName(displayName);
         company.setTimestamp(Instant.now());
-        return companyRepository.save(company);
+        Company saved = companyRepository.save(company);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     @Transactional
@@ -282,7 +226,9 @@ public class CompanyService {
         company.setName(name);
         company.setDisplayName(displayName);
         company.setTimestamp(Instant.now());
-        return companyRepository.save(company);
+        Company saved = companyRepository.save(company);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     @Transactional
@@ -291,6 +237,7 @@ public class CompanyService {
                 .orElseThrow(() -> new RuntimeException("Company not found"));
         company.setLogoUrl(logoUrl);
         companyRepository.save(company);
+        referenceDataService.requestRefresh();
     }
 
     @Transactional
@@ -299,6 +246,7 @@ public class CompanyService {
                 .orElseThrow(() -> new RuntimeException("Company not found"));
         company.setLogoUrl(null);
         companyRepository.save(company);
+        referenceDataService.requestRefresh();
     }
 
     @Transactional
@@ -306,6 +254,7 @@ public class CompanyService {
         // Check if company exists first
         if (companyRepository.existsById(companyId)) {
             companyRepository.deleteById(companyId);
+            referenceDataService.requestRefresh();
         } else {
             throw new RuntimeException("Company not found");
         }
@@ -1,21 +1,41 @@
 package com.darro_tech.revengproject.services;
 
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import com.darro_tech.revengproject.dto.BudgetComparison;
 import com.darro_tech.revengproject.dto.DailyReportDTO;
-import com.darro_tech.revengproject.models.DailyReportCompany;
-import com.darro_tech.revengproject.repositories.DailyReportCompanyRepository;
+import com.darro_tech.revengproject.dto.DailyReportSnapshot;
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.DateWindow;
+import com.darro_tech.revengproject.dto.FarmVolumeData;
+import com.darro_tech.revengproject.dto.StoredReport;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
 
 @Service
 public class DailyReportService {
@@ -23,7 +43,22 @@ public class DailyReportService {
     private static final Logger logger = LoggerFactory.getLogger(DailyReportService.class);
 
     @Autowired
-    private DailyReportCompanyRepository dailyReportRepository;
+    private ReportBlobStore reportBlobStore;
+
+    @Autowired
+    private ReportCatalogService reportCatalogService;
+
+    @Autowired
+    private ChartService chartService;
+
+    @Autowired
+    private ProductionRollupService productionRollupService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * Get the latest timestamp for a daily report
@@ -35,150 +70,328 @@ public class DailyReportService {
     public Date getLatestTimestamp(String companyId, LocalDate date) {
         logger.info("🕒 Getting latest timestamp for company {} on date {}", companyId, date);
 
-        try {
-            // Convert LocalDate to Instant for the start of the day
-            Instant startOfDay = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant startOfNextDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
-
-            // Find reports for the given date range
-            List<DailyReportCompany> reports = dailyReportRepository.findByCompanyIdAndDateBetween(
-                    companyId, startOfDay, startOfNextDay);
-
-            if (reports.isEmpty()) {
-                logger.info("❌ No reports found for company {} on date {}", companyId, date);
-                return null;
-            }
+        DataStamp stamp = getReportStamp(companyId, date);
+        if (stamp.isEmpty()) {
+            logger.info("❌ No reports found for company {} on date {}", companyId, date);
+            return null;
+        }
 
-            // Get the first report's timestamp
-            DailyReportCompany report = reports.get(0);
-            Instant timestamp = report.getTimestamp();
+        logger.info("✅ Successfully retrieved timestamp for company {} on date {}: {}", companyId, date, stamp.getLatestTimestamp());
+        return Date.from(stamp.getLatestTimestamp());
+    }
 
-            logger.info("✅ Successfully retrieved timestamp for company {} on date {}: {}", companyId, date, timestamp);
-            return Date.from(timestamp);
+    /**
+     * Get the number of reports and the latest report timestamp for a date,
+     * without loading the PDFs. Used as the validator for conditional requests.
+     * 
+     * @param companyId The ID of the company
+     * @param date The date to find the reports for
+     * @return The report stamp, empty if no report is found or on error
+     */
+    public DataStamp getReportStamp(String companyId, LocalDate date) {
+        try {
+            return reportCatalogService.getStamp(Kind.DAILY, companyId, date);
         } catch (Exception e) {
-            logger.error("❌ Error getting timestamp", e);
-            return null;
+            logger.error("❌ Error getting report stamp", e);
+            return new DataStamp(0, null);
         }
     }
 
     /**
-     * Get a daily report DTO
+     * Assemble a company's daily report from the production rollups.
+     *
+     * The year to date is cut into non-overlapping windows at the week,
+     * month and year starts, so one grouped query over the farm-day rollup
+     * gives every farm's daily, week-, month- and year-to-date volume. The
+     * budgets for the same periods come from one grouped query on budget.
+     * Farm and company names come from ReferenceDataService, so a report
+     * costs two queries.
      * 
      * @param companyId The ID of the company
      * @param reportDate The date for the report
-     * @return A DailyReportDTO object
+     * @return A DailyReportDTO object, without production or budget data if
+     * they could not be read
      */
     public DailyReportDTO getDailyReport(String companyId, LocalDate reportDate) {
         logger.info("📊 Generating daily report for company {} on date {}", companyId, reportDate);
-
-        // TODO: Implement actual data fetching from database
-        return DailyReportDTO.builder()
-                .companyId(companyId)
-                .reportDate(reportDate)
-                .companyName("Sample Company")
-                .dailyProduction(generateSampleDailyProduction())
-                .mtdProduction(generateSampleMtdProduction())
-                .farmPerformance(generateSampleFarmPerformance())
-                .dailyTotal(1250.0)
-                .mtdTotal(28750.0)
-                .ytdTotal(345000.0)
-                .build();
+        long start = System.currentTimeMillis();
+
+        List<DateWindow> windows = reportWindows(reportDate);
+        Map<String, double[]> volumes = new HashMap<>();
+        Map<String, List<FarmVolumeData>> byWindow = chartService.getVolumeByFarmForDateWindows(companyId, windows);
+        for (int i = 0; i < windows.size(); i++) {
+            for (FarmVolumeData farm : byWindow.getOrDefault(windows.get(i).getLabel(), List.of())) {
+                volumes.computeIfAbsent(farm.getFarm_id(), id -> new double[windows.size()])[i] += farm.getVolume();
+            }
+        }
+        double[] budgets = companyId != null
+                ? findBudgets(companyId, windows).getOrDefault(companyId, new double[windows.size()])
+                : new double[windows.size()];
+
+        DailyReportDTO report = assemble(companyId, reportDate, windows, volumes, budgets);
+        logger.info("✅ Daily report for company {} on {} assembled from {} farms in {} ms",
+                companyId, reportDate, volumes.size(), System.currentTimeMillis() - start);
+        return report;
     }
 
-    private List<DailyReportDTO.FarmProduction> generateSampleDailyProduction() {
-        List<DailyReportDTO.FarmProduction> production = new ArrayList<>();
-
-        DailyReportDTO.FarmProduction farm1 = new DailyReportDTO.FarmProduction();
-        farm1.setFarmName("Farm A");
-        farm1.setVolume(500.0);
-        farm1.setPercentOfTotal(40.0);
-        production.add(farm1);
+    /**
+     * Read the production and budgets of every company for a report date,
+     * with one query each, for building many companies' reports at once
+     *
+     * @return the snapshot, or empty if the production rollups are not
+     * available (build the reports one company at a time then) or on error
+     */
+    public Optional<DailyReportSnapshot> loadSnapshot(LocalDate reportDate) {
+        if (!productionRollupService.isAvailable()) {
+            logger.info("📊 Production rollups not available; no daily report snapshot for {}", reportDate);
+            return Optional.empty();
+        }
 
-        DailyReportDTO.FarmProduction farm2 = new DailyReportDTO.FarmProduction();
-        farm2.setFarmName("Farm B");
-        farm2.setVolume(750.0);
-        farm2.setPercentOfTotal(60.0);
-        production.add(farm2);
+        long start = System.currentTimeMillis();
+        try {
+            List<DateWindow> windows = reportWindows(reportDate);
+            Map<String, Map<String, double[]>> volumes = new HashMap<>();
+            for (Object[] row : productionRollupService.findTotalVolumeByCompanyFarmForWindows(windows)) {
+                volumes.computeIfAbsent((String) row[0], id -> new HashMap<>())
+                        .computeIfAbsent((String) row[1], id -> new double[windows.size()])[(Integer) row[2]]
+                        += (Double) row[3];
+            }
+            DailyReportSnapshot snapshot = new DailyReportSnapshot(reportDate, windows, volumes,
+                    findBudgets(null, windows));
+            logger.info("✅ Daily report snapshot for {} loaded for {} companies in {} ms",
+                    reportDate, volumes.size(), System.currentTimeMillis() - start);
+            return Optional.of(snapshot);
+        } catch (Exception e) {
+            logger.error("❌ Error loading daily report snapshot for {}: {}", reportDate, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
 
-        return production;
+    /**
+     * A company's daily report built from a shared snapshot, without queries
+     */
+    public DailyReportDTO getDailyReport(String companyId, DailyReportSnapshot snapshot) {
+        return assemble(companyId, snapshot.getReportDate(), snapshot.getWindows(),
+                snapshot.getVolumes(companyId), snapshot.getBudgets(companyId));
     }
 
-    private List<DailyReportDTO.FarmProduction> generateSampleMtdProduction() {
-        List<DailyReportDTO.FarmProduction> production = new ArrayList<>();
+    /**
+     * Build the report from each farm's volume and the company's budget per
+     * window of {@link #reportWindows(LocalDate)}
+     */
+    DailyReportDTO assemble(String companyId, LocalDate reportDate, List<DateWindow> windows,
+            Map<String, double[]> volumes, double[] budgets) {
+        LocalDate weekStart = reportDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate monthStart = reportDate.withDayOfMonth(1);
+        LocalDate yearStart = reportDate.withDayOfYear(1);
+
+        // Every farm of the company, with or without production, by name
+        Map<String, String> farmNames = referenceDataService.getFarmNames();
+        Map<String, String> farms = new TreeMap<>();
+        if (companyId != null) {
+            for (Farm farm : referenceDataService.getFarmsForCompany(companyId)) {
+                farms.put(farm.getId(), farm.getName());
+            }
+        }
+        for (String farmId : volumes.keySet()) {
+            farms.putIfAbsent(farmId, farmNames.getOrDefault(farmId, farmId));
+        }
+        List<Map.Entry<String, String>> farmsByName = new ArrayList<>(farms.entrySet());
+        farmsByName.sort(Map.Entry.comparingByValue(Comparator.nullsLast(Comparator.naturalOrder())));
+
+        double[] empty = new double[windows.size()];
+        double dailyTotal = 0;
+        double wtdTotal = 0;
+        double mtdTotal = 0;
+        double ytdTotal = 0;
+        for (double[] farmVolumes : volumes.values()) {
+            dailyTotal += sumSince(windows, farmVolumes, reportDate);
+            wtdTotal += sumSince(windows, farmVolumes, weekStart);
+            mtdTotal += sumSince(windows, farmVolumes, monthStart);
+            ytdTotal += sumSince(windows, farmVolumes, yearStart);
+        }
 
-        DailyReportDTO.FarmProduction farm1 = new DailyReportDTO.FarmProduction();
-        farm1.setFarmName("Farm A");
-        farm1.setVolume(11500.0);
-        farm1.setPercentOfTotal(40.0);
-        production.add(farm1);
+        List<DailyReportDTO.FarmProduction> dailyProduction = new ArrayList<>();
+        List<DailyReportDTO.FarmProduction> mtdProduction = new ArrayList<>();
+        List<DailyReportDTO.FarmPerformance> farmPerformance = new ArrayList<>();
+        for (Map.Entry<String, String> farm : farmsByName) {
+            double[] farmVolumes = volumes.getOrDefault(farm.getKey(), empty);
+            double daily = sumSince(windows, farmVolumes, reportDate);
+            double mtd = sumSince(windows, farmVolumes, monthStart);
+            double ytd = sumSince(windows, farmVolumes, yearStart);
+            dailyProduction.add(new DailyReportDTO.FarmProduction(farm.getValue(), daily, percentOf(daily, dailyTotal)));
+            mtdProduction.add(new DailyReportDTO.FarmProduction(farm.getValue(), mtd, percentOf(mtd, mtdTotal)));
+            farmPerformance.add(new DailyReportDTO.FarmPerformance(farm.getValue(), daily, mtd, ytd));
+        }
 
-        DailyReportDTO.FarmProduction farm2 = new DailyReportDTO.FarmProduction();
-        farm2.setFarmName("Farm B");
-        farm2.setVolume(17250.0);
-        farm2.setPercentOfTotal(60.0);
-        production.add(farm2);
+        BudgetComparison budget = new BudgetComparison();
+        double wtdBudget = sumSince(windows, budgets, weekStart);
+        budget.setWeeklyActual(wtdTotal);
+        budget.setWeeklyBudget(wtdBudget);
+        budget.setWeeklyVariance(wtdTotal - wtdBudget);
+        budget.setWeeklyVariancePercent(percentOf(wtdTotal - wtdBudget, wtdBudget));
+        budget.setWeeklyForecast(runRate(wtdTotal, weekStart, reportDate, 7));
+
+        double mtdBudget = sumSince(windows, budgets, monthStart);
+        budget.setMonthlyActual(mtdTotal);
+        budget.setMonthlyBudget(mtdBudget);
+        budget.setMonthlyVariance(mtdTotal - mtdBudget);
+        budget.setMonthlyVariancePercent(percentOf(mtdTotal - mtdBudget, mtdBudget));
+        budget.setMonthlyForecast(runRate(mtdTotal, monthStart, reportDate, reportDate.lengthOfMonth()));
+
+        double ytdBudget = sumSince(windows, budgets, yearStart);
+        budget.setYearlyActual(ytdTotal);
+        budget.setYearlyBudget(ytdBudget);
+        budget.setYearlyVariance(ytdTotal - ytdBudget);
+        budget.setYearlyVariancePercent(percentOf(ytdTotal - ytdBudget, ytdBudget));
+        budget.setYearlyForecast(runRate(ytdTotal, yearStart, reportDate, reportDate.lengthOfYear()));
 
-        return production;
+        return DailyReportDTO.builder()
+                .companyId(companyId)
+                .reportDate(reportDate)
+                .companyName(companyId != null
+                        ? referenceDataService.getCompanyById(companyId).map(Company::getName).orElse(null)
+                        : null)
+                .dailyProduction(dailyProduction)
+                .mtdProduction(mtdProduction)
+                .farmPerformance(farmPerformance)
+                .dailyTotal(dailyTotal)
+                .mtdTotal(mtdTotal)
+                .ytdTotal(ytdTotal)
+                .budgetComparison(budget)
+                .build();
     }
 
-    private List<DailyReportDTO.FarmPerformance> generateSampleFarmPerformance() {
-        List<DailyReportDTO.FarmPerformance> performance = new ArrayList<>();
+    /**
+     * The year to date split at the week, month and year starts into
+     * non-overlapping windows, newest first; the first is the report day.
+     * Each period's total is the sum of the windows starting on or after
+     * the period's start.
+     */
+    static List<DateWindow> reportWindows(LocalDate reportDate) {
+        TreeSet<LocalDate> starts = new TreeSet<>(List.of(
+                reportDate,
+                reportDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                reportDate.withDayOfMonth(1),
+                reportDate.withDayOfYear(1)));
+        List<DateWindow> windows = new ArrayList<>();
+        LocalDate to = reportDate;
+        for (LocalDate from : starts.descendingSet()) {
+            windows.add(new DateWindow(from.toString(), from, to));
+            to = from.minusDays(1);
+        }
+        return windows;
+    }
 
-        DailyReportDTO.FarmPerformance farm1 = new DailyReportDTO.FarmPerformance();
-        farm1.setFarmName("Farm A");
-        farm1.setDailyVolume(500.0);
-        farm1.setMtdVolume(11500.0);
-        farm1.setYtdVolume(138000.0);
-        performance.add(farm1);
+    /**
+     * Budget summed per company and window, in one query; for one company,
+     * or every company when companyId is null
+     */
+    private Map<String, double[]> findBudgets(String companyId, List<DateWindow> windows) {
+        Map<String, double[]> budgets = new HashMap<>();
+        try {
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            StringBuilder caseExpression = new StringBuilder("CASE");
+            for (int i = 0; i < windows.size(); i++) {
+                caseExpression.append(" WHEN b.timestamp >= ? AND b.timestamp < ? THEN ").append(i);
+            }
+            caseExpression.append(" END");
+
+            jdbcTemplate.query(
+                    "SELECT cf.company_id, " + caseExpression + " AS window_index, SUM(b.value) "
+                    + "FROM budget b JOIN company_farms cf ON b.farm_id = cf.farm_id "
+                    + "WHERE b.timestamp >= ? AND b.timestamp < ?"
+                    + (companyId != null ? " AND cf.company_id = ?" : "") + " "
+                    + "GROUP BY cf.company_id, window_index",
+                    ps -> {
+                        int index = 1;
+                        for (DateWindow window : windows) {
+                            ps.setTimestamp(index++, Timestamp.from(startOf(window.getFrom())), utc);
+                            ps.setTimestamp(index++, Timestamp.from(startOf(window.getTo().plusDays(1))), utc);
+                        }
+                        // The windows are contiguous: oldest start to the end of the report day
+                        ps.setTimestamp(index++, Timestamp.from(startOf(windows.get(windows.size() - 1).getFrom())), utc);
+                        ps.setTimestamp(index++, Timestamp.from(startOf(windows.get(0).getTo().plusDays(1))), utc);
+                        if (companyId != null) {
+                            ps.setString(index, companyId);
+                        }
+                    },
+                    rs -> {
+                        budgets.computeIfAbsent(rs.getString(1), id -> new double[windows.size()])[rs.getInt(2)]
+                                += rs.getDouble(3);
+                    });
+        } catch (Exception e) {
+            logger.error("❌ Error reading budgets for company {}: {}", companyId != null ? companyId : "all",
+                    e.getMessage(), e);
+        }
+        return budgets;
+    }
+
+    private static double sumSince(List<DateWindow> windows, double[] values, LocalDate periodStart) {
+        double sum = 0;
+        for (int i = 0; i < windows.size(); i++) {
+            if (!windows.get(i).getFrom().isBefore(periodStart)) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
 
-        DailyReportDTO.FarmPerformance farm2 = new DailyReportDTO.FarmPerformance();
-        farm2.setFarmName("Farm B");
-        farm2.setDailyVolume(750.0);
-        farm2.setMtdVolume(17250.0);
-        farm2.setYtdVolume(207000.0);
-        performance.add(farm2);
+    private static double percentOf(double value, double total) {
+        return total != 0 ? value / total * 100.0 : 0.0;
+    }
+
+    /**
+     * Period total projected from the average day so far
+     */
+    private static double runRate(double actual, LocalDate periodStart, LocalDate reportDate, int periodDays) {
+        long elapsedDays = ChronoUnit.DAYS.between(periodStart, reportDate) + 1;
+        return actual / elapsedDays * periodDays;
+    }
 
-        return performance;
+    /**
+     * Budget days are UTC days, like the production rollups, which date
+     * each reading by its UTC timestamp; the default zone of the server
+     * must not move budgets into another window than the volumes
+     */
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
     }
 
     /**
-     * Get the PDF data for a daily report
+     * Find the stored PDF of a daily report without loading it
      * 
      * @param companyId The ID of the company
      * @param date The date to find the report for
-     * @return The PDF data as a byte array, or an empty array if no report is found
+     * @return The newest report of that day with a non-empty PDF, or empty if
+     * there is none or on error
      */
-    public byte[] getPdfData(String companyId, LocalDate date) {
-        logger.info("📊 Getting PDF data for company {} on date {}", companyId, date);
+    public Optional<StoredReport> findPdf(String companyId, LocalDate date) {
+        logger.info("📊 Finding PDF for company {} on date {}", companyId, date);
 
         try {
-            // Convert LocalDate to Instant for the start of the day
-            Instant startOfDay = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant startOfNextDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
-
-            // Find reports for the given date range
-            List<DailyReportCompany> reports = dailyReportRepository.findByCompanyIdAndDateBetween(
-                    companyId, startOfDay, startOfNextDay);
-
-            if (reports.isEmpty()) {
+            Optional<StoredReport> report = reportCatalogService.findLatest(Kind.DAILY, companyId, date);
+            if (report.isEmpty()) {
                 logger.info("❌ No reports found for company {} on date {}", companyId, date);
-                return new byte[0];
+                return Optional.empty();
             }
-
-            // Get the first report's PDF data
-            DailyReportCompany report = reports.get(0);
-            byte[] pdfData = report.getPdf();
-
-            if (pdfData == null || pdfData.length == 0) {
-                logger.warn("❌ PDF data is null or empty for report ID: {}", report.getId());
-                return new byte[0];
+            if (report.get().isEmpty()) {
+                logger.warn("❌ PDF data is empty for report ID: {}", report.get().getId());
+                return Optional.empty();
             }
 
-            logger.info("✅ Successfully retrieved PDF data for company {} on date {}", companyId, date);
-            return pdfData;
+            logger.info("✅ Found {} byte PDF for company {} on date {}", report.get().getSize(), companyId, date);
+            return report;
         } catch (Exception e) {
-            logger.error("❌ Error getting PDF data", e);
-            return new byte[0];
+            logger.error("❌ Error finding PDF", e);
+            return Optional.empty();
         }
     }
+
+    /**
+     * The stored PDF as a Resource that streams from the database
+     */
+    public Resource getPdfResource(StoredReport report) {
+        return reportBlobStore.resource(Kind.DAILY, report);
+    }
 }
@@ -0,0 +1,264 @@
+package com.darro_tech.revengproject.services;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tracks a data version per company, plus one for market prices, that moves
+ * whenever the chart data behind it changes. Cached chart results and HTTP
+ * validators record the version they were built at.
+ *
+ * Versions are millisecond timestamps of the change (kept strictly
+ * increasing), so they double as Last-Modified values.
+ *
+ * Rows added by the external ingest are picked up by polling each source
+ * table's id watermark. Code that changes existing rows should call one of
+ * the invalidate methods. Either way, registered ChangeListeners hear about
+ * every new version, so this one watcher serves all connected dashboards.
+ * In-memory copies of the data register a RefreshHook instead, which runs
+ * before the new version is published, so nothing can be cached under the
+ * new version from a copy that has not caught up yet.
+ */
+@Service
+public class DataVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionService.class);
+
+    private static final String MARKET_SCOPE = "market";
+
+    // Farm-keyed tables that feed the charts
+    private static final List<String> FARM_TABLES = List.of(
+            "budget", "population", "population_forecast", "population_budget",
+            "population_52week", "population_104week", "lagoon_levels", "mass_balance",
+            "temperature", "ch4_recovery", "ci_scores");
+
+    private static final List<String> MARKET_TABLES = List.of("market_prices", "market_prices_monthly");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    // Versions start at the boot time so validators from a previous run never match
+    private final long initialVersion = System.currentTimeMillis();
+
+    private final AtomicLong versionCounter = new AtomicLong(initialVersion);
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> watermarks = new ConcurrentHashMap<>();
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final List<RefreshHook> refreshHooks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notified after versions move, on the thread that moved them
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+
+        void onChange(Set<String> companyIds, boolean marketChanged, long version);
+    }
+
+    /**
+     * Run before versions move, on the thread that moves them
+     */
+    @FunctionalInterface
+    public interface RefreshHook {
+
+        void refresh(Set<String> companyIds, boolean marketChanged);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void addRefreshHook(RefreshHook hook) {
+        refreshHooks.add(hook);
+    }
+
+    public long companyVersion(String companyId) {
+        if (companyId == null) {
+            return initialVersion;
+        }
+        return versions.getOrDefault(companyId, initialVersion);
+    }
+
+    /**
+     * Version of a farm's data: the newest version of any company it belongs to
+     */
+    public long farmVersion(String farmId) {
+        long version = initialVersion;
+        if (farmId == null) {
+            return version;
+        }
+        for (String companyId : referenceDataService.getCompanyIdsForFarm(farmId)) {
+            version = Math.max(version, companyVersion(companyId));
+        }
+        return version;
+    }
+
+    public long marketVersion() {
+        return versions.getOrDefault(MARKET_SCOPE, initialVersion);
+    }
+
+    /**
+     * Move the companies to a new version once the current transaction
+     * commits, or right away outside a transaction
+     */
+    public void invalidateCompanies(Collection<String> companyIds) {
+        if (companyIds == null || companyIds.isEmpty()) {
+            return;
+        }
+        Set<String> scopes = new HashSet<>(companyIds);
+        scopes.remove(null);
+        if (!scopes.isEmpty()) {
+            afterCommit(scopes);
+        }
+    }
+
+    public void invalidateCompany(String companyId) {
+        if (companyId != null) {
+            invalidateCompanies(List.of(companyId));
+        }
+    }
+
+    public void invalidateFarm(String farmId) {
+        invalidateCompanies(referenceDataService.getCompanyIdsForFarm(farmId));
+    }
+
+    public void invalidateMarketData() {
+        afterCommit(Set.of(MARKET_SCOPE));
+    }
+
+    /**
+     * Bump the versions of whatever received new rows since the last poll.
+     * The first poll only records the watermarks.
+     */
+    @Scheduled(fixedDelayString = "${data-version.poll-interval-ms:30000}")
+    public void detectChanges() {
+        try {
+            Set<String> companyIds = new HashSet<>();
+
+            long[] meterRange = advanceWatermark("meter_daily");
+            if (meterRange != null) {
+                companyIds.addAll(jdbcTemplate.queryForList(
+                        "SELECT DISTINCT cm.company_id FROM meter_daily md "
+                        + "JOIN company_meters cm ON cm.meter_id = md.meter_id "
+                        + "WHERE md.id > ? AND md.id <= ?",
+                        String.class, meterRange[0], meterRange[1]));
+            }
+
+            for (String table : FARM_TABLES) {
+                long[] range = advanceWatermark(table);
+                if (range == null) {
+                    continue;
+                }
+                List<String> farmIds = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT farm_id FROM " + table + " WHERE id > ? AND id <= ?",
+                        String.class, range[0], range[1]);
+                for (String farmId : farmIds) {
+                    companyIds.addAll(referenceDataService.getCompanyIdsForFarm(farmId));
+                }
+            }
+
+            boolean marketChanged = false;
+            for (String table : MARKET_TABLES) {
+                marketChanged |= advanceWatermark(table) != null;
+            }
+
+            if (!companyIds.isEmpty()) {
+                logger.info("🔄 New chart data detected for {} companies", companyIds.size());
+                invalidateCompanies(companyIds);
+            }
+            if (marketChanged) {
+                logger.info("🔄 New market price data detected");
+                invalidateMarketData();
+            }
+        } catch (Exception e) {
+            logger.error("❌ Error detecting chart data changes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the table's current max id and record it
+     *
+     * @return the [previous, current] id range when rows were added since the
+     * last poll, otherwise null
+     */
+    private long[] advanceWatermark(String table) {
+        Integer maxId;
+        try {
+            maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Integer.class);
+        } catch (DataAccessException e) {
+            logger.debug("Skipping change detection for {}: {}", table, e.getMessage());
+            return null;
+        }
+        if (maxId == null) {
+            return null;
+        }
+        Integer previous = watermarks.put(table, maxId);
+        if (previous == null || maxId <= previous) {
+            return null;
+        }
+        return new long[]{previous, maxId};
+    }
+
+    private void afterCommit(Set<String> scopes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(scopes);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(scopes);
+            }
+        });
+    }
+
+    private void bump(Set<String> scopes) {
+        Set<String> companyIds = new HashSet<>(scopes);
+        boolean marketChanged = companyIds.remove(MARKET_SCOPE);
+        for (RefreshHook hook : refreshHooks) {
+            try {
+                hook.refresh(companyIds, marketChanged);
+            } catch (Exception e) {
+                logger.error("❌ Error running data refresh hook: {}", e.getMessage(), e);
+            }
+        }
+
+        long version = versionCounter.updateAndGet(current -> Math.max(current + 1, System.currentTimeMillis()));
+        for (String scope : scopes) {
+            versions.put(scope, version);
+        }
+        logger.debug("Data version {} for {}", version, scopes);
+
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChange(companyIds, marketChanged, version);
+            } catch (Exception e) {
+                logger.error("❌ Error notifying data change listener: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
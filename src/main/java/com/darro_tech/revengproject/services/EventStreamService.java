@@ -0,0 +1,209 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fan-out hub for the dashboard event streams (/api/stream/company/{id}).
+ *
+ * Each subscriber is an SseEmitter on an async servlet request, so an idle
+ * connection holds a socket and a few small objects but no thread. Events
+ * come from DataVersionService, which is the single change watcher for all
+ * companies, and from website alert edits. Sends run on a small broadcast
+ * pool so a slow client never holds up the thread that changed the data.
+ *
+ * Events:
+ * - connected: sent once on subscribe, with the company's current version
+ * - data-changed: the company's chart data (or the shared market data) moved
+ *   to a new version
+ * - website-alert: an alert was created, edited or deleted
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    public static final String CONNECTED = "connected";
+    public static final String DATA_CHANGED = "data-changed";
+    public static final String WEBSITE_ALERT = "website-alert";
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${event-stream.timeout-ms:1800000}")
+    private long timeoutMillis = 1_800_000;
+
+    @Value("${event-stream.broadcast-threads:4}")
+    private int broadcastThreads = 4;
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService broadcaster;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        broadcaster = Executors.newFixedThreadPool(broadcastThreads, runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dataVersionService.addChangeListener(this::onDataChanged);
+        logger.info("📡 Event stream hub started with {} broadcast threads", broadcastThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    /**
+     * Open a stream for a company. Access must be checked by the caller.
+     */
+    public SseEmitter subscribe(String companyId) {
+        SseEmitter emitter = createEmitter();
+        subscribers.compute(companyId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+
+        Runnable remove = () -> unsubscribe(companyId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        long version = dataVersionService.companyVersion(companyId);
+        send(companyId, emitter, CONNECTED, version, eventData(companyId, version, "company"));
+        logger.debug("📡 Stream opened for company {} ({} subscribers)", companyId, getSubscriberCount());
+        return emitter;
+    }
+
+    /**
+     * Tell every open stream that website alerts changed. Alerts are few and
+     * admins see all of them, so the event goes to everyone, with the
+     * affected company IDs for information.
+     */
+    public void publishWebsiteAlertChange(Collection<String> companyIds) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("companyIds", companyIds != null ? List.copyOf(companyIds) : List.of());
+        long eventId = System.currentTimeMillis();
+        for (String companyId : subscribers.keySet()) {
+            broadcast(companyId, WEBSITE_ALERT, eventId, data);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public int getCompanyCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Comment line to every stream so proxies keep idle connections open and
+     * closed clients are noticed and dropped
+     */
+    @Scheduled(fixedDelayString = "${event-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Map.Entry<String, Set<SseEmitter>> entry : subscribers.entrySet()) {
+            String companyId = entry.getKey();
+            List<SseEmitter> emitters = new ArrayList<>(entry.getValue());
+            broadcaster.execute(() -> {
+                for (SseEmitter emitter : emitters) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } catch (IOException | IllegalStateException e) {
+                        unsubscribe(companyId, emitter);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Emitter for a new subscriber; overridden by the load test to record
+     * deliveries without a servlet container
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void onDataChanged(Set<String> companyIds, boolean marketChanged, long version) {
+        if (marketChanged) {
+            for (String companyId : subscribers.keySet()) {
+                broadcast(companyId, DATA_CHANGED, version, eventData(companyId, version, "market"));
+            }
+        }
+        for (String companyId : companyIds) {
+            if (subscribers.containsKey(companyId)) {
+                broadcast(companyId, DATA_CHANGED, version, eventData(companyId, version, "company"));
+            }
+        }
+    }
+
+    private void broadcast(String companyId, String eventName, long eventId, Object data) {
+        Set<SseEmitter> emitters = subscribers.get(companyId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        List<SseEmitter> snapshot = new ArrayList<>(emitters);
+        broadcaster.execute(() -> {
+            for (SseEmitter emitter : snapshot) {
+                send(companyId, emitter, eventName, eventId, data);
+            }
+        });
+    }
+
+    private void send(String companyId, SseEmitter emitter, String eventName, long eventId, Object data) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(eventName)
+                    .id(Long.toString(eventId))
+                    .data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the servlet container completes the request
+            logger.debug("Dropping stream for company {}: {}", companyId, e.getMessage());
+            unsubscribe(companyId, emitter);
+        }
+    }
+
+    private void unsubscribe(String companyId, SseEmitter emitter) {
+        subscribers.computeIfPresent(companyId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static Map<String, Object> eventData(String companyId, long version, String scope) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("companyId", companyId);
+        data.put("version", version);
+        data.put("scope", scope);
+        return data;
+    }
+}
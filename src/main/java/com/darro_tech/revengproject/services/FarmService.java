@@ -44,6 +44,9 @@ public class FarmService {
     @Autowired
     private MeterRepository meterRepository;
 
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     /**
      * Get all farms
      */
@@ -85,7 +88,9 @@ public class FarmService {
         farm.setName(name);
         farm.setDisplayName(displayName);
         farm.setTimestamp(Instant.now());
-        return farmRepository.save(farm);
+        Farm saved = farmRepository.save(farm);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     /**
@@ -100,7 +105,9 @@ public class FarmService {
             farm.setName(name);
             farm.setDisplayName(displayName);
             farm.setTimestamp(Instant.now());
-            return farmRepository.save(farm);
+            Farm saved = farmRepository.save(farm);
+            referenceDataService.requestRefresh();
+            return saved;
         }
         throw new RuntimeException("Farm not found with ID: " + id);
     }
@@ -118,6 +125,7 @@ public class FarmService {
 
         // Then delete the farm itself
         farmRepository.deleteById(farmId);
+        referenceDataService.requestRefresh();
         logger.info("✅ Successfully deleted farm: " + farmId);
     }
 
@@ -138,6 +146,7 @@ public class FarmService {
 
         companyFarm.setTimestamp(Instant.now());
         companyFarmRepository.save(companyFarm);
+        referenceDataService.requestRefresh();
     }
 
     /**
@@ -380,7 +389,9 @@ public class FarmService {
             existingFarm.setIsTempSource(farm.getIsTempSource());
             existingFarm.setTempSourceId(farm.getTempSourceId());
             existingFarm.setTimestamp(Instant.now());
-            return farmRepository.save(existingFarm);
+            Farm saved = farmRepository.save(existingFarm);
+            referenceDataService.requestRefresh();
+            return saved;
         }
         throw new RuntimeException("Farm not found with ID: " + farm.getId());
     }
@@ -398,7 +409,9 @@ public class FarmService {
         }
         farm.setTimestamp(Instant.now());
 
-        return farmRepository.save(farm);
+        Farm saved = farmRepository.save(farm);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     /**
@@ -429,7 +442,9 @@ public class FarmService {
                 .orElseThrow(() -> new RuntimeException("Farm not found with ID: " + farmId));
         meter.setFarm(farm);
 
-        return meterRepository.save(meter);
+        Meter saved = meterRepository.save(meter);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     /**
@@ -447,7 +462,9 @@ public class FarmService {
         meter.setIncludeWebsite(includeWebsite);
         meter.setTimestamp(Instant.now());
 
-        return meterRepository.save(meter);
+        Meter saved = meterRepository.save(meter);
+        referenceDataService.requestRefresh();
+        return saved;
     }
 
     /**
@@ -457,5 +474,6 @@ public class FarmService {
     public void deleteMeter(String meterId) {
         logger.info(String.format("🗑️ Deleting meter ID: %s", meterId));
         meterRepository.deleteById(meterId);
+        referenceDataService.requestRefresh();
     }
 }
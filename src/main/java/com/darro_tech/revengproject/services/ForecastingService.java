@@ -1,38 +1,91 @@
 package com.darro_tech.revengproject.services;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.darro_tech.revengproject.models.Ch4Recovery;
+import com.darro_tech.revengproject.dto.TimeSeries;
 import com.darro_tech.revengproject.models.Farm;
 import com.darro_tech.revengproject.models.dto.ForecastDTO;
 import com.darro_tech.revengproject.models.dto.TimeSeriesPointDTO;
-import com.darro_tech.revengproject.repositories.Ch4RecoveryRepository;
 import com.darro_tech.revengproject.repositories.FarmRepository;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+import com.darro_tech.revengproject.utils.HoltWinters;
 
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holt-Winters forecasts with prediction intervals for farm and company
+ * series.
+ *
+ * Each series is fitted with no seasonality, a weekly cycle and an annual
+ * cycle (as far as its length allows) and the best one-step fit wins. The
+ * fitted model is cached per scope (farm or company) and metric; later
+ * requests feed it only the readings newer than the last one it saw, and
+ * it is refitted from scratch once it has taken in as many new readings as
+ * it was fitted on, or when asked about a range ending before its data.
+ */
 @Service
 public class ForecastingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ForecastingService.class);
 
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final int MIN_POINTS = 10;
+
+    // Longest seasonal cycle fitted, in steps; hourly data gets no annual cycle
+    private static final int MAX_PERIOD = 400;
+
+    // Longest forecast, in steps
+    private static final int MAX_HORIZON = 1000;
+
+    public static final double DEFAULT_CONFIDENCE_LEVEL = 0.95;
+
     @Autowired
-    private Ch4RecoveryRepository ch4RecoveryRepository;
+    private TimeSeriesReader timeSeriesReader;
 
     @Autowired
     private FarmRepository farmRepository;
 
+    @Value("${forecast.max-cached-models:5000}")
+    private int maxCachedModels = 5000;
+
+    private Map<String, CachedModel> models;
+
+    @PostConstruct
+    public void init() {
+        models = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedModel> eldest) {
+                return size() > maxCachedModels;
+            }
+        });
+    }
+
     /**
      * Forecasts CH4 recovery for the next 30 days
      */
     public ForecastDTO forecastCh4Recovery(String farmId, Instant startDate, Instant endDate) {
+        return forecastCh4Recovery(farmId, startDate, endDate, 30, DEFAULT_CONFIDENCE_LEVEL);
+    }
+
+    /**
+     * Forecasts CH4 recovery for the given number of days after the last
+     * reading, with prediction intervals at the given confidence level
+     */
+    public ForecastDTO forecastCh4Recovery(String farmId, Instant startDate, Instant endDate,
+            int forecastDays, double confidenceLevel) {
         logger.info("🔮 Starting CH4 Recovery forecasting for farm: {} from {} to {}", farmId, startDate, endDate);
 
         ForecastDTO forecast = new ForecastDTO();
@@ -49,13 +102,12 @@ public class ForecastingService {
         forecast.setMetricType("CH4 Recovery");
 
         // Get historical CH4 recovery data
-        List<Ch4Recovery> historicalData = ch4RecoveryRepository.findByFarmIdAndTimestampBetweenOrderByTimestampAsc(
-                farmId, startDate, endDate);
+        TimeSeries historicalData = timeSeriesReader.read(Metric.CH4_RECOVERY, farmId, startDate, endDate);
 
         logger.info("📊 Retrieved {} historical CH4 recovery data points for forecasting", historicalData.size());
 
-        if (historicalData.size() < 10) {
-            logger.warn("⚠️ Insufficient data for forecasting (need at least 10 points, got {})", historicalData.size());
+        if (historicalData.size() < MIN_POINTS) {
+            logger.warn("⚠️ Insufficient data for forecasting (need at least {} points, got {})", MIN_POINTS, historicalData.size());
             // Not enough data for forecasting, but initialize empty lists
             forecast.setHistoricalData(new ArrayList<>());
             forecast.setForecastData(new ArrayList<>());
@@ -64,45 +116,164 @@ public class ForecastingService {
         }
 
         // Convert historical data to DTOs
-        List<TimeSeriesPointDTO> historicalPoints = historicalData.stream()
-                .map(data -> {
-                    TimeSeriesPointDTO point = new TimeSeriesPointDTO();
-                    point.setTimestamp(data.getTimestamp());
-                    point.setValue(data.getValue());
-                    return point;
-                })
-                .collect(Collectors.toList());
-
+        List<TimeSeriesPointDTO> historicalPoints = new ArrayList<>(historicalData.size());
+        for (int i = 0; i < historicalData.size(); i++) {
+            TimeSeriesPointDTO point = new TimeSeriesPointDTO();
+            point.setTimestamp(historicalData.getInstant(i));
+            point.setValue(historicalData.getValue(i));
+            historicalPoints.add(point);
+        }
         forecast.setHistoricalData(historicalPoints);
 
-        // Perform simple moving average forecasting
-        List<TimeSeriesPointDTO> forecastPoints = new ArrayList<>();
+        Instant lastDate = historicalData.getInstant(historicalData.size() - 1);
+        Instant horizonEnd = lastDate.plusMillis(forecastDays * MILLIS_PER_DAY);
+        List<TimeSeriesPointDTO> forecastPoints = forecast(farmId, Metric.CH4_RECOVERY.name(), historicalData,
+                horizonEnd, confidenceLevel);
 
-        // Use the last 7 data points for the moving average
-        int windowSize = Math.min(7, historicalData.size());
-        double movingAverage = historicalData.subList(historicalData.size() - windowSize, historicalData.size())
-                .stream()
-                .mapToDouble(Ch4Recovery::getValue)
-                .average()
-                .orElse(0.0);
+        forecast.setForecastData(forecastPoints);
+        forecast.setConfidenceLevel(confidenceLevel);
 
-        logger.info("📈 Moving average calculated: {:.2f} (using last {} data points)", movingAverage, windowSize);
+        logger.info("✅ Forecasting completed - Generated {} forecast points with {}% prediction intervals",
+                forecastPoints.size(), String.format("%.1f", confidenceLevel * 100));
 
-        // Generate forecast for the next 30 days
-        Instant lastDate = historicalData.get(historicalData.size() - 1).getTimestamp();
-        for (int i = 1; i <= 30; i++) {
-            TimeSeriesPointDTO point = new TimeSeriesPointDTO();
-            point.setTimestamp(lastDate.plus(i, ChronoUnit.DAYS));
-            point.setValue(movingAverage);
-            forecastPoints.add(point);
+        return forecast;
+    }
+
+    /**
+     * Forecast a series from the step after its last point through
+     * horizonEnd, with lower and upper prediction bounds at the confidence
+     * level.
+     *
+     * @param scopeId farm or company the series belongs to; with the metric
+     * it keys the cached model, so pass the same series shape for a key
+     * @param history readings in timestamp order, at a roughly regular step
+     * @return forecast points, empty when the history is too short or
+     * horizonEnd is not after its last point
+     */
+    public List<TimeSeriesPointDTO> forecast(String scopeId, String metric, TimeSeries history,
+            Instant horizonEnd, double confidenceLevel) {
+        List<TimeSeriesPointDTO> points = new ArrayList<>();
+        if (history.size() < MIN_POINTS) {
+            return points;
         }
 
-        forecast.setForecastData(forecastPoints);
-        forecast.setConfidenceLevel(0.7); // Placeholder confidence level
+        long lastTimestamp = history.getTimestamp(history.size() - 1);
+        long stepMillis = medianStep(history);
+        int steps = (int) Math.min(MAX_HORIZON, (horizonEnd.toEpochMilli() - lastTimestamp) / stepMillis);
+        if (steps <= 0) {
+            return points;
+        }
 
-        logger.info("✅ Forecasting completed - Generated {} forecast points with {:.1f}% confidence",
-                forecastPoints.size(), forecast.getConfidenceLevel() * 100);
+        double z = HoltWinters.zForConfidence(confidenceLevel);
+        CachedModel cached = modelFor(scopeId + "|" + metric, history, stepMillis);
+        synchronized (cached) {
+            for (int step = 1; step <= steps; step++) {
+                double value = cached.model.forecast(step);
+                double halfWidth = cached.model.intervalHalfWidth(step, z);
 
-        return forecast;
+                TimeSeriesPointDTO point = new TimeSeriesPointDTO();
+                point.setTimestamp(Instant.ofEpochMilli(lastTimestamp + step * stepMillis));
+                point.setValue(value);
+                if (!Double.isNaN(halfWidth)) {
+                    point.setLower(value - halfWidth);
+                    point.setUpper(value + halfWidth);
+                }
+                points.add(point);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * The cached model for the key brought up to the end of the history, or
+     * a new fit when there is none or it can no longer be reused
+     */
+    private CachedModel modelFor(String key, TimeSeries history, long stepMillis) {
+        long lastTimestamp = history.getTimestamp(history.size() - 1);
+        CachedModel cached = models.get(key);
+
+        if (cached != null) {
+            synchronized (cached) {
+                boolean reusable = cached.stepMillis == stepMillis
+                        && cached.lastTimestamp <= lastTimestamp
+                        && cached.model.getCount() < 2 * cached.fittedCount;
+                if (reusable) {
+                    int absorbed = 0;
+                    for (int i = 0; i < history.size(); i++) {
+                        if (history.getTimestamp(i) > cached.lastTimestamp) {
+                            cached.model.update(history.getValue(i));
+                            absorbed++;
+                        }
+                    }
+                    cached.lastTimestamp = lastTimestamp;
+                    logger.debug("🔮 Reused model for {} with {} new points: {}", key, absorbed, cached.model);
+                    return cached;
+                }
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        CachedModel fitted = new CachedModel(fitBest(history, stepMillis), stepMillis, lastTimestamp, history.size());
+        logger.info("🔮 Fitted model for {} on {} points in {} ms: {}",
+                key, history.size(), System.currentTimeMillis() - start, fitted.model);
+
+        // A fit on an older range is used for this request but not cached
+        if (cached == null || cached.lastTimestamp <= lastTimestamp) {
+            models.put(key, fitted);
+        }
+        return fitted;
+    }
+
+    /**
+     * Fit without seasonality, with a weekly and with an annual cycle where
+     * the step and length allow, and keep the best one-step fit
+     */
+    private HoltWinters fitBest(TimeSeries history, long stepMillis) {
+        int weekly = (int) Math.round(7.0 * MILLIS_PER_DAY / stepMillis);
+        int annual = (int) Math.round(365.0 * MILLIS_PER_DAY / stepMillis);
+
+        HoltWinters best = HoltWinters.fit(history.getValues(), history.size(), 0);
+        for (int period : new int[]{weekly, annual}) {
+            if (period < 2 || period > MAX_PERIOD || history.size() < HoltWinters.minimumLength(period)) {
+                continue;
+            }
+            HoltWinters candidate = HoltWinters.fit(history.getValues(), history.size(), period);
+            if (candidate.getMeanSquaredError() < best.getMeanSquaredError()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Typical spacing of the readings, a day when they share timestamps
+     */
+    private static long medianStep(TimeSeries history) {
+        long[] steps = new long[history.size() - 1];
+        for (int i = 1; i < history.size(); i++) {
+            steps[i - 1] = history.getTimestamp(i) - history.getTimestamp(i - 1);
+        }
+        Arrays.sort(steps);
+        long median = steps[steps.length / 2];
+        return median > 0 ? median : MILLIS_PER_DAY;
+    }
+
+    int getCachedModelCount() {
+        return models.size();
+    }
+
+    private static final class CachedModel {
+
+        final HoltWinters model;
+        final long stepMillis;
+        final long fittedCount;
+        long lastTimestamp;
+
+        CachedModel(HoltWinters model, long stepMillis, long lastTimestamp, long fittedCount) {
+            this.model = model;
+            this.stepMillis = stepMillis;
+            this.lastTimestamp = lastTimestamp;
+            this.fittedCount = fittedCount;
+        }
     }
 }
@@ -0,0 +1,285 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
+import com.darro_tech.revengproject.utils.Downsampler;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Process-wide copy of the market price tables (LCFS, D3, D5, natural gas),
+ * which are the same for every company, held as primitive columns.
+ *
+ * Both tables are loaded once after startup (or on first use) and then only
+ * appended to: when DataVersionService detects new market rows, rows newer
+ * than the newest timestamp held are read. If the rows already held no
+ * longer match the table (back-filled or deleted rows) the series is
+ * reloaded. Readers work on an immutable view of the columns, so a refresh
+ * never blocks a chart request.
+ */
+@Service
+public class MarketPriceStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketPriceStore.class);
+
+    /**
+     * Series names, in column order, as the charts expect them
+     */
+    public static final String[] SERIES = {"lcfs", "d3", "d5", "natural_gas"};
+
+    public enum Frequency {
+        DAILY("market_prices"),
+        MONTHLY("market_prices_monthly");
+
+        private final String table;
+
+        Frequency(String table) {
+            this.table = table;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    private final Map<Frequency, PriceSeries> prices = new EnumMap<>(Frequency.class);
+
+    @PostConstruct
+    public void init() {
+        for (Frequency frequency : Frequency.values()) {
+            prices.put(frequency, new PriceSeries(frequency));
+        }
+        // Catch up before the new market version is published, so charts
+        // cached under it are never built from the old prices
+        dataVersionService.addRefreshHook((companyIds, marketChanged) -> {
+            if (marketChanged) {
+                refresh();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        for (PriceSeries series : prices.values()) {
+            series.refresh();
+        }
+    }
+
+    /**
+     * Prices between two instants, both inclusive, oldest first. With
+     * maxPoints above zero a longer range is reduced to at most that many
+     * rows, keeping each bucket's lowest and highest price of every series.
+     */
+    public ColumnarTimeline range(Frequency frequency, Instant from, Instant to, int maxPoints) {
+        Columns columns = prices.get(frequency).columns();
+        int start = columns.lowerBound(from.toEpochMilli());
+        int end = columns.upperBound(to.toEpochMilli());
+
+        int[] rows = Downsampler.minMax(columns.values, start, end, maxPoints);
+        ColumnarTimeline timeline = new ColumnarTimeline(rows.length, SERIES);
+        for (int index : rows) {
+            int row = timeline.addRow(columns.timestamps[index]);
+            for (int s = 0; s < SERIES.length; s++) {
+                timeline.setValue(s, row, columns.values[s][index]);
+            }
+        }
+        if (rows.length < end - start) {
+            logger.debug("📉 Downsampled {} {} rows to {}", end - start, frequency.getTable(), rows.length);
+        }
+        return timeline;
+    }
+
+    public int size(Frequency frequency) {
+        return prices.get(frequency).columns().size;
+    }
+
+    /**
+     * Instants are stored in UTC, as Hibernate writes them
+     */
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * One price table and the columns read from it so far
+     */
+    private final class PriceSeries {
+
+        private final Frequency frequency;
+        private volatile Columns columns;
+
+        PriceSeries(Frequency frequency) {
+            this.frequency = frequency;
+        }
+
+        Columns columns() {
+            Columns current = columns;
+            if (current == null) {
+                refresh();
+                current = columns;
+            }
+            return current != null ? current : Columns.EMPTY;
+        }
+
+        synchronized void refresh() {
+            try {
+                long start = System.currentTimeMillis();
+                Columns current = columns;
+                if (current == null || current.size == 0 || !matchesTable(current)) {
+                    columns = read(Columns.EMPTY, null);
+                    logger.info("💹 Loaded {} {} rows in {} ms", columns.size, frequency.getTable(),
+                            System.currentTimeMillis() - start);
+                    return;
+                }
+
+                columns = read(current, current.timestamps[current.size - 1]);
+                if (columns.size > current.size) {
+                    logger.info("💹 Appended {} {} rows", columns.size - current.size, frequency.getTable());
+                }
+            } catch (Exception e) {
+                logger.error("❌ Error refreshing {}: {}", frequency.getTable(), e.getMessage(), e);
+            }
+        }
+
+        // Rows held must still be all the rows up to the newest one held
+        private boolean matchesTable(Columns current) {
+            Integer count = jdbcTemplate.query(
+                    "SELECT COUNT(*) FROM " + frequency.getTable() + " WHERE timestamp <= ?",
+                    ps -> ps.setTimestamp(1, new Timestamp(current.timestamps[current.size - 1]), utcCalendar()),
+                    rs -> rs.next() ? rs.getInt(1) : 0);
+            return count != null && count == current.size;
+        }
+
+        private Columns read(Columns current, Long after) {
+            Calendar utc = utcCalendar();
+            String sql = "SELECT timestamp, lcfs, d3, d5, natural_gas FROM " + frequency.getTable()
+                    + (after != null ? " WHERE timestamp > ?" : "") + " ORDER BY timestamp, id";
+            Columns.Builder builder = current.append();
+            jdbcTemplate.query(sql,
+                    ps -> {
+                        if (after != null) {
+                            ps.setTimestamp(1, new Timestamp(after), utc);
+                        }
+                    },
+                    rs -> {
+                        builder.add(rs.getTimestamp(1, utc).getTime(), price(rs, 2), price(rs, 3),
+                                price(rs, 4), price(rs, 5));
+                    });
+            return builder.build();
+        }
+
+        private double price(ResultSet rs, int column) throws SQLException {
+            double value = rs.getDouble(column);
+            return rs.wasNull() ? Double.NaN : value;
+        }
+    }
+
+    /**
+     * A read-only view of the price columns. Appending writes past size and
+     * publishes a new view, growing the arrays only when full, so rows
+     * below an existing view's size never change.
+     */
+    private static final class Columns {
+
+        static final Columns EMPTY = new Columns(new long[0], new double[SERIES.length][0], 0);
+
+        final long[] timestamps;
+        final double[][] values;
+        final int size;
+
+        Columns(long[] timestamps, double[][] values, int size) {
+            this.timestamps = timestamps;
+            this.values = values;
+            this.size = size;
+        }
+
+        Builder append() {
+            return new Builder(this);
+        }
+
+        // First index with timestamp >= millis
+        int lowerBound(long millis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First index with timestamp > millis
+        int upperBound(long millis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] <= millis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        static final class Builder {
+
+            private long[] timestamps;
+            private final double[][] values;
+            private int size;
+
+            Builder(Columns base) {
+                timestamps = base.timestamps;
+                values = base.values.clone();
+                size = base.size;
+            }
+
+            void add(long timestamp, double... prices) {
+                if (size == timestamps.length) {
+                    int capacity = Math.max(64, timestamps.length * 2);
+                    timestamps = Arrays.copyOf(timestamps, capacity);
+                    for (int s = 0; s < values.length; s++) {
+                        values[s] = Arrays.copyOf(values[s], capacity);
+                    }
+                }
+                timestamps[size] = timestamp;
+                for (int s = 0; s < values.length; s++) {
+                    values[s][size] = prices[s];
+                }
+                size++;
+            }
+
+            Columns build() {
+                return new Columns(timestamps, values, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.darro_tech.revengproject.repositories.MeterHourlyRepository;
+
+/**
+ * Maintains the farm-hour production rollup (see
+ * V11__create_meter_hourly_rollups.sql) from meter_hourly, keeps
+ * meter_daily equal to the sum of each meter's hourly readings for the days
+ * that have all 24 of them, and serves the intraday chart queries.
+ *
+ * New meter_hourly rows are picked up incrementally by id watermark, like
+ * ProductionRollupService does for meter_daily; only the days they touch
+ * are recomputed, and the daily production rollups for those days are
+ * rebuilt in the same transaction.
+ *
+ * Farm intraday views read the farm-hour rollup at hourly resolution;
+ * company views read the company's own meters from meter_hourly, since a
+ * farm's meters can be assigned to different companies. Both read the
+ * daily rollups at daily resolution. Readings are hourly, so there is no
+ * finer resolution than the hour.
+ */
+@Service
+public class MeterHourlyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterHourlyRollupService.class);
+
+    private static final String METER_HOURLY_WATERMARK = "meter_hourly";
+
+    private static final int HOURS_PER_DAY = 24;
+
+    /**
+     * Bucket size of an intraday view
+     */
+    public enum Resolution {
+        HOUR(60),
+        DAY(24 * 60);
+
+        private final int minutes;
+
+        Resolution(int minutes) {
+            this.minutes = minutes;
+        }
+
+        public int getMinutes() {
+            return minutes;
+        }
+
+        /**
+         * Accepts hour or day (case-insensitive), or the enum name
+         *
+         * @throws IllegalArgumentException for anything else, including
+         * 15-minute views, which need sub-hourly readings
+         */
+        public static Resolution parse(String value) {
+            if (value == null || value.isBlank()) {
+                return HOUR;
+            }
+            switch (value.trim().toLowerCase()) {
+                case "15m":
+                case "quarter_hour":
+                case "quarter-hour":
+                    throw new IllegalArgumentException("15-minute resolution is not available, "
+                            + "meter readings are hourly (expected hour or day)");
+                case "1h":
+                case "hour":
+                    return HOUR;
+                case "1d":
+                case "day":
+                    return DAY;
+                default:
+                    throw new IllegalArgumentException("Unknown resolution: " + value + " (expected hour or day)");
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterHourlyRepository meterHourlyRepository;
+
+    @Autowired
+    private ProductionRollupService productionRollupService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${rollup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Recompute the hourly rollup, meter_daily and the daily rollups for
+     * every day that received new meter_hourly rows since the last refresh.
+     *
+     * @return the number of days that were recomputed
+     */
+    @Scheduled(fixedDelayString = "${rollup.hourly-refresh-interval-ms:60000}",
+            initialDelayString = "${rollup.initial-delay-ms:10000}")
+    @Transactional
+    public int refreshIncremental() {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int watermark = readWatermark();
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM meter_hourly", Integer.class);
+
+        if (maxId == null || maxId <= watermark) {
+            logger.debug("Hourly rollups up to date at meter_hourly id {}", watermark);
+            return 0;
+        }
+
+        List<Object[]> meterDays = jdbcTemplate.query(
+                "SELECT DISTINCT meter_id, DATE(timestamp) FROM meter_hourly WHERE id > ? AND id <= ?",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getDate(2).toLocalDate()},
+                watermark, maxId);
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Object[] meterDay : meterDays) {
+            days.add((LocalDate) meterDay[1]);
+        }
+
+        rebuildDays(days);
+        syncMeterDaily(meterDays);
+        productionRollupService.rebuildDays(days);
+
+        // Cached charts for these companies are stale once the rebuilt rollups commit
+        dataVersionService.invalidateCompanies(jdbcTemplate.queryForList(
+                "SELECT DISTINCT cm.company_id FROM meter_hourly mh "
+                + "JOIN company_meters cm ON cm.meter_id = mh.meter_id "
+                + "WHERE mh.id > ? AND mh.id <= ?",
+                String.class, watermark, maxId));
+
+        jdbcTemplate.update(
+                "UPDATE meter_hourly_rollup_state SET last_meter_hourly_id = ?, timestamp = NOW() WHERE name = ?",
+                maxId, METER_HOURLY_WATERMARK);
+
+        logger.info("📊 Refreshed hourly rollups for {} days, {} meter days (meter_hourly ids {}..{}) in {} ms",
+                days.size(), meterDays.size(), watermark + 1, maxId, System.currentTimeMillis() - start);
+        return days.size();
+    }
+
+    /**
+     * Recompute the farm-hour rollup for the given inclusive date range.
+     */
+    @Transactional
+    public void rebuildRange(LocalDate fromDate, LocalDate toDate) {
+        logger.debug("Rebuilding hourly rollups from {} to {}", fromDate, toDate);
+        LocalDateTime fromTime = fromDate.atStartOfDay();
+        LocalDateTime toTime = toDate.plusDays(1).atStartOfDay();
+
+        jdbcTemplate.update("DELETE FROM farm_production_hourly WHERE hour >= ? AND hour < ?", fromTime, toTime);
+        jdbcTemplate.update(
+                "INSERT INTO farm_production_hourly (farm_id, hour, volume, reading_count, timestamp) "
+                + "SELECT m.farm_id, TIMESTAMPADD(HOUR, HOUR(mh.timestamp), CAST(mh.timestamp AS DATE)), SUM(mh.value), COUNT(*), NOW() "
+                + "FROM meter_hourly mh "
+                + "JOIN meters m ON mh.meter_id = m.id "
+                + "WHERE mh.timestamp >= ? AND mh.timestamp < ? "
+                + "GROUP BY m.farm_id, TIMESTAMPADD(HOUR, HOUR(mh.timestamp), CAST(mh.timestamp AS DATE))",
+                fromTime, toTime);
+    }
+
+    /**
+     * Recompute the farm-hour rollup for a set of days, collapsing
+     * consecutive days into a single range rebuild.
+     */
+    @Transactional
+    public void rebuildDays(Collection<LocalDate> days) {
+        TreeSet<LocalDate> sorted = new TreeSet<>(days);
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        for (LocalDate day : sorted) {
+            if (runEnd != null && day.equals(runEnd.plusDays(1))) {
+                runEnd = day;
+                continue;
+            }
+            if (runStart != null) {
+                rebuildRange(runStart, runEnd);
+            }
+            runStart = day;
+            runEnd = day;
+        }
+        if (runStart != null) {
+            rebuildRange(runStart, runEnd);
+        }
+    }
+
+    /**
+     * Set each meter's meter_daily row for the day to the sum of its hourly
+     * readings, inserting the row when there is none and collapsing
+     * duplicates into one. Only days with a reading for every hour are
+     * synced; until then meter_daily keeps whatever daily reading it has,
+     * rather than a partial-day total.
+     */
+    private void syncMeterDaily(List<Object[]> meterDays) {
+        int partial = 0;
+        for (Object[] meterDay : meterDays) {
+            String meterId = (String) meterDay[0];
+            LocalDate day = (LocalDate) meterDay[1];
+            LocalDateTime fromTime = day.atStartOfDay();
+            LocalDateTime toTime = day.plusDays(1).atStartOfDay();
+
+            Object[] coverage = jdbcTemplate.queryForObject(
+                    "SELECT SUM(value), COUNT(DISTINCT timestamp) FROM meter_hourly "
+                    + "WHERE meter_id = ? AND timestamp >= ? AND timestamp < ?",
+                    (rs, rowNum) -> new Object[]{rs.getDouble(1), rs.getInt(2)},
+                    meterId, fromTime, toTime);
+            if (coverage == null || (Integer) coverage[1] < HOURS_PER_DAY) {
+                partial++;
+                continue;
+            }
+            double total = (Double) coverage[0];
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE meter_daily SET value = ? WHERE meter_id = ? AND timestamp >= ? AND timestamp < ?",
+                    total, meterId, fromTime, toTime);
+            if (updated == 1) {
+                continue;
+            }
+            if (updated > 1) {
+                jdbcTemplate.update("DELETE FROM meter_daily WHERE meter_id = ? AND timestamp >= ? AND timestamp < ?",
+                        meterId, fromTime, toTime);
+            }
+            jdbcTemplate.update("INSERT INTO meter_daily (meter_id, value, timestamp) VALUES (?, ?, ?)",
+                    meterId, total, fromTime);
+        }
+        if (partial > 0) {
+            logger.debug("Left meter_daily unchanged for {} meter days without all hourly readings", partial);
+        }
+    }
+
+    /**
+     * Production of all of a farm's meters over an inclusive date range in
+     * buckets of the given resolution.
+     *
+     * @return rows of [bucket start (LocalDateTime), volume (Double)] ordered by time
+     */
+    public List<Object[]> findFarmProduction(String farmId, LocalDate fromDate, LocalDate toDate, Resolution resolution) {
+        LocalDateTime fromTime = fromDate.atStartOfDay();
+        LocalDateTime toTime = toDate.plusDays(1).atStartOfDay();
+
+        switch (resolution) {
+            case HOUR:
+                return jdbcTemplate.query(
+                        "SELECT hour, volume FROM farm_production_hourly "
+                        + "WHERE farm_id = ? AND hour >= ? AND hour < ? ORDER BY hour",
+                        (rs, rowNum) -> new Object[]{rs.getTimestamp(1).toLocalDateTime(), rs.getDouble(2)},
+                        farmId, fromTime, toTime);
+            default:
+                return jdbcTemplate.query(
+                        "SELECT DATE(md.timestamp), SUM(md.value) FROM meters m "
+                        + "JOIN meter_daily md ON md.meter_id = m.id "
+                        + "WHERE m.farm_id = ? AND md.timestamp >= ? AND md.timestamp < ? "
+                        + "GROUP BY DATE(md.timestamp) ORDER BY DATE(md.timestamp)",
+                        (rs, rowNum) -> new Object[]{rs.getDate(1).toLocalDate().atStartOfDay(), rs.getDouble(2)},
+                        farmId, fromTime, toTime);
+        }
+    }
+
+    /**
+     * Production of a company over an inclusive date range in buckets of
+     * the given resolution. Like the daily view, the hourly view sums only
+     * the meters assigned to the company (company_meters), read from
+     * meter_hourly.
+     *
+     * @return rows of [bucket start (LocalDateTime), volume (Double)] ordered by time
+     */
+    public List<Object[]> findCompanyProduction(String companyId, LocalDate fromDate, LocalDate toDate, Resolution resolution) {
+        LocalDateTime fromTime = fromDate.atStartOfDay();
+        LocalDateTime toTime = toDate.plusDays(1).atStartOfDay();
+
+        switch (resolution) {
+            case HOUR:
+                // Not the farm-hour rollup: a farm's meters may belong to other companies
+                Map<Long, Double> hours = new TreeMap<>();
+                meterHourlyRepository.streamByCompany(companyId, fromTime, toTime,
+                        (meterId, timestampMillis, value) -> addToBucket(hours, timestampMillis, value, resolution));
+                return toRows(hours);
+            default:
+                List<Object[]> rows = new ArrayList<>();
+                for (Object[] row : productionRollupService.findDailyProductionForCompanyDateRange(companyId, fromDate, toDate)) {
+                    rows.add(new Object[]{((Date) row[0]).toLocalDate().atStartOfDay(), row[1]});
+                }
+                return rows;
+        }
+    }
+
+    private static void addToBucket(Map<Long, Double> buckets, long timestampMillis, double value, Resolution resolution) {
+        long bucketMillis = resolution.getMinutes() * 60_000L;
+        buckets.merge(Math.floorDiv(timestampMillis, bucketMillis) * bucketMillis, value, Double::sum);
+    }
+
+    private static List<Object[]> toRows(Map<Long, Double> buckets) {
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, Double> bucket : buckets.entrySet()) {
+            // Stream timestamps are wall-clock date-times read in UTC
+            LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(bucket.getKey()), ZoneOffset.UTC);
+            rows.add(new Object[]{start, bucket.getValue()});
+        }
+        return rows;
+    }
+
+    /**
+     * Read the watermark and lock its row until the refresh commits, so
+     * concurrent refreshes (the schedule, an ingest, another instance) run
+     * one after the other and never start from the same watermark
+     */
+    private int readWatermark() {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT last_meter_hourly_id FROM meter_hourly_rollup_state WHERE name = ? FOR UPDATE",
+                Integer.class, METER_HOURLY_WATERMARK);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+
+        logger.warn("⚠️ No hourly rollup watermark found, rollups will be rebuilt from the start of meter_hourly");
+        jdbcTemplate.update(
+                "INSERT INTO meter_hourly_rollup_state (name, last_meter_hourly_id, timestamp) VALUES (?, 0, NOW())",
+                METER_HOURLY_WATERMARK);
+        return 0;
+    }
+}
@@ -0,0 +1,481 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.darro_tech.revengproject.dto.MeterIngestResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk write path for meter_daily and meter_hourly readings.
+ *
+ * The upload is read line by line, so its size is bounded only by the
+ * time it takes to write. Each line is one (meter_id, timestamp, value)
+ * reading, as CSV (with an optional header row) or as one JSON object per
+ * line. Readings for meters that do not exist are rejected against a
+ * cached set of meter ids.
+ *
+ * Accepted readings are written in batches of ingest.batch-size, one
+ * transaction per batch. A reading replaces whatever the table holds for
+ * the same meter and day (meter_daily) or hour (meter_hourly), so uploads
+ * can be repeated safely. Replaced rows get new ids, which is what the
+ * rollup services watch, so a rollup refresh is queued right after the
+ * upload and the affected companies' cached charts are invalidated. The
+ * refresh runs on a background thread, coalescing uploads that arrive
+ * while one is pending, so the upload request never waits for it.
+ */
+@Service
+public class MeterIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterIngestService.class);
+
+    // meter_id, timestamp, value when a CSV upload has no header row
+    private static final int[] DEFAULT_COLUMNS = {0, 1, 2};
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * Format named by a request parameter or content type; CSV unless
+         * it mentions json
+         */
+        public static Format parse(String value) {
+            return value != null && value.toLowerCase().contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    public enum Target {
+        DAILY("meter_daily", ChronoUnit.DAYS),
+        HOURLY("meter_hourly", ChronoUnit.HOURS);
+
+        private final String table;
+        private final ChronoUnit unit;
+
+        Target(String table, ChronoUnit unit) {
+            this.table = table;
+            this.unit = unit;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but daily or hourly
+         */
+        public static Target parse(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("daily")) {
+                return DAILY;
+            }
+            if (value.equalsIgnoreCase("hourly")) {
+                return HOURLY;
+            }
+            throw new IllegalArgumentException("Unknown target '" + value + "', expected daily or hourly");
+        }
+
+        LocalDateTime slot(LocalDateTime timestamp) {
+            return timestamp.truncatedTo(unit);
+        }
+
+        LocalDateTime next(LocalDateTime slot) {
+            return slot.plus(1, unit);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ProductionRollupService productionRollupService;
+
+    @Autowired
+    private MeterHourlyRollupService meterHourlyRollupService;
+
+    @Value("${ingest.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${ingest.meter-cache-ttl-ms:300000}")
+    private long meterCacheTtlMs = 300000;
+
+    @Value("${ingest.max-reported-errors:20}")
+    private int maxReportedErrors = 20;
+
+    private volatile Set<String> meterIds;
+    private volatile long meterIdsLoadedAt;
+
+    private final Set<Target> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService rollupRefresher;
+
+    @PostConstruct
+    public void init() {
+        rollupRefresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingest-rollup-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rollupRefresher.shutdownNow();
+    }
+
+    /**
+     * Read and write every reading in the upload.
+     *
+     * @throws IOException when the upload cannot be read; batches written
+     * before that stay written
+     */
+    public MeterIngestResult ingest(InputStream body, Format format, Target target) throws IOException {
+        long start = System.currentTimeMillis();
+        MeterIngestResult result = new MeterIngestResult();
+        result.setTarget(target.getTable());
+
+        Set<String> known = knownMeterIds(false);
+        boolean reloaded = false;
+        Set<String> unknown = new TreeSet<>();
+        Set<String> touchedMeters = new HashSet<>();
+        Set<LocalDate> days = new TreeSet<>();
+
+        // Keyed by meter and slot so a reading repeated within a batch is written once, last one wins
+        Map<String, Reading> batch = new LinkedHashMap<>();
+        int batchLines = 0;
+        int[] columns = format == Format.CSV ? null : DEFAULT_COLUMNS;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Reading reading;
+            try {
+                if (columns == null) {
+                    columns = csvHeader(line);
+                    if (columns != null) {
+                        continue;
+                    }
+                    columns = DEFAULT_COLUMNS;
+                }
+                reading = format == Format.CSV ? parseCsv(line, columns, target) : parseJson(line, target);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                reject(result, "Line " + lineNumber + ": " + e.getMessage());
+                continue;
+            }
+
+            if (!known.contains(reading.meterId) && !reloaded) {
+                // The meter may have been added since the set was loaded
+                known = knownMeterIds(true);
+                reloaded = true;
+            }
+            if (!known.contains(reading.meterId)) {
+                if (unknown.size() < maxReportedErrors) {
+                    unknown.add(reading.meterId);
+                }
+                result.setRejected(result.getRejected() + 1);
+                continue;
+            }
+
+            batch.put(reading.meterId + '|' + reading.slot, reading);
+            batchLines++;
+            if (batch.size() >= batchSize) {
+                writeBatch(new ArrayList<>(batch.values()), batchLines, target, result, touchedMeters, days);
+                batch.clear();
+                batchLines = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(new ArrayList<>(batch.values()), batchLines, target, result, touchedMeters, days);
+        }
+
+        if (!days.isEmpty()) {
+            queueRollupRefresh(target);
+        }
+
+        Set<String> companyIds = new TreeSet<>();
+        for (String meterId : touchedMeters) {
+            companyIds.addAll(referenceDataService.getCompanyIdsForMeter(meterId));
+        }
+        dataVersionService.invalidateCompanies(companyIds);
+
+        long elapsed = System.currentTimeMillis() - start;
+        result.setUnknownMeterIds(new ArrayList<>(unknown));
+        result.setDays(days.size());
+        result.setCompaniesInvalidated(companyIds.size());
+        result.setElapsedMs(elapsed);
+        result.setRowsPerSecond(result.getAccepted() * 1000 / Math.max(elapsed, 1));
+
+        logger.info("📥 Ingested {} {} rows ({} rejected) in {} batches over {} days in {} ms ({} rows/s), {} companies invalidated",
+                result.getAccepted(), target.getTable(), result.getRejected(), result.getBatches(), days.size(),
+                elapsed, result.getRowsPerSecond(), companyIds.size());
+        return result;
+    }
+
+    /**
+     * Replace the batch's readings in one transaction: delete whatever the
+     * table holds in each reading's slot, then insert the readings.
+     *
+     * @param lines upload lines behind the readings, counted as accepted or
+     * rejected with the batch
+     */
+    private void writeBatch(List<Reading> readings, int lines, Target target, MeterIngestResult result,
+            Set<String> touchedMeters, Set<LocalDate> days) {
+        int batchNumber = result.getBatches() + 1;
+        long start = System.nanoTime();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                        "DELETE FROM " + target.getTable() + " WHERE meter_id = ? AND timestamp >= ? AND timestamp < ?",
+                        readings, readings.size(),
+                        (ps, reading) -> {
+                            ps.setString(1, reading.meterId);
+                            ps.setObject(2, reading.slot);
+                            ps.setObject(3, target.next(reading.slot));
+                        });
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO " + target.getTable() + " (meter_id, value, timestamp) VALUES (?, ?, ?)",
+                        readings, readings.size(),
+                        (ps, reading) -> {
+                            ps.setString(1, reading.meterId);
+                            ps.setDouble(2, reading.value);
+                            ps.setObject(3, reading.slot);
+                        });
+            });
+        } catch (Exception e) {
+            logger.error("❌ Error writing {} batch {} ({} rows): {}",
+                    target.getTable(), batchNumber, readings.size(), e.getMessage(), e);
+            reject(result, "Batch " + batchNumber + " (" + lines + " lines) failed: " + e.getMessage());
+            result.setRejected(result.getRejected() + lines - 1);
+            return;
+        }
+
+        for (Reading reading : readings) {
+            touchedMeters.add(reading.meterId);
+            days.add(reading.slot.toLocalDate());
+        }
+        result.setBatches(batchNumber);
+        result.setAccepted(result.getAccepted() + lines);
+
+        long micros = Math.max((System.nanoTime() - start) / 1000, 1);
+        logger.info("📥 {} batch {}: {} rows in {} ms ({} rows/s)", target.getTable(), batchNumber,
+                readings.size(), micros / 1000, readings.size() * 1_000_000L / micros);
+    }
+
+    /**
+     * Roll the new rows up soon rather than on the next scheduled refresh;
+     * the rollup services find them by id and invalidate the companies they
+     * belong to. One refresh per target is queued at a time, and it picks
+     * up every upload written before it starts.
+     */
+    private void queueRollupRefresh(Target target) {
+        if (!pendingRefreshes.add(target)) {
+            return;
+        }
+        rollupRefresher.execute(() -> {
+            pendingRefreshes.remove(target);
+            try {
+                if (target == Target.HOURLY) {
+                    meterHourlyRollupService.refreshIncremental();
+                } else {
+                    productionRollupService.refreshIncremental();
+                }
+            } catch (Exception e) {
+                logger.error("❌ Error refreshing rollups after {} ingest, it will be retried on schedule: {}",
+                        target.getTable(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Ids of all meters, reloaded when older than ingest.meter-cache-ttl-ms
+     * or when forced
+     */
+    private Set<String> knownMeterIds(boolean forceReload) {
+        Set<String> current = meterIds;
+        if (!forceReload && current != null
+                && System.currentTimeMillis() - meterIdsLoadedAt < meterCacheTtlMs) {
+            return current;
+        }
+
+        synchronized (this) {
+            long start = System.currentTimeMillis();
+            current = Set.copyOf(jdbcTemplate.queryForList("SELECT id FROM meters", String.class));
+            meterIds = current;
+            meterIdsLoadedAt = System.currentTimeMillis();
+            logger.debug("Loaded {} meter ids in {} ms", current.size(), meterIdsLoadedAt - start);
+            return current;
+        }
+    }
+
+    private void reject(MeterIngestResult result, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(error);
+        }
+    }
+
+    /**
+     * Column positions of meter_id, timestamp and value when the line is a
+     * header row, otherwise null
+     */
+    private static int[] csvHeader(String line) {
+        String[] cells = splitCsv(line);
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < cells.length; i++) {
+            String name = cells[i].toLowerCase().replace("_", "");
+            if (name.equals("meterid")) {
+                columns[0] = i;
+            } else if (name.equals("timestamp") || name.equals("date")) {
+                columns[1] = i;
+            } else if (name.equals("value")) {
+                columns[2] = i;
+            }
+        }
+        if (columns[0] < 0 && columns[1] < 0 && columns[2] < 0) {
+            return null;
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("Header must name meter_id, timestamp and value columns");
+        }
+        return columns;
+    }
+
+    private static Reading parseCsv(String line, int[] columns, Target target) {
+        String[] cells = splitCsv(line);
+        int needed = Math.max(columns[0], Math.max(columns[1], columns[2])) + 1;
+        if (cells.length < needed) {
+            throw new IllegalArgumentException("Expected meter_id, timestamp and value");
+        }
+        return reading(cells[columns[0]], parseTimestamp(cells[columns[1]]), parseValue(cells[columns[2]]), target);
+    }
+
+    private Reading parseJson(String line, Target target) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        JsonNode meterId = node.has("meter_id") ? node.get("meter_id") : node.get("meterId");
+        JsonNode timestamp = node.get("timestamp");
+        JsonNode value = node.get("value");
+        if (meterId == null || timestamp == null || value == null) {
+            throw new IllegalArgumentException("Expected meter_id, timestamp and value");
+        }
+
+        LocalDateTime time = timestamp.isNumber()
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp.asLong()), ZoneOffset.UTC)
+                : parseTimestamp(timestamp.asText());
+        double reading = value.isNumber() ? value.asDouble() : parseValue(value.asText());
+        return reading(meterId.asText(), time, reading, target);
+    }
+
+    private static Reading reading(String meterId, LocalDateTime timestamp, double value, Target target) {
+        if (meterId == null || meterId.isBlank()) {
+            throw new IllegalArgumentException("Missing meter_id");
+        }
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Value must be a finite number");
+        }
+        return new Reading(meterId.trim(), target.slot(timestamp), value);
+    }
+
+    /**
+     * A date, a local date-time (T or space separated) taken as UTC, or an
+     * instant with an offset
+     */
+    static LocalDateTime parseTimestamp(String text) {
+        String value = text.trim();
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        String iso = value.replace(' ', 'T');
+        try {
+            return LocalDateTime.parse(iso);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(iso).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        }
+    }
+
+    private static double parseValue(String text) {
+        return Double.parseDouble(text.trim());
+    }
+
+    // Cells of one CSV line, trimmed and without surrounding quotes
+    private static String[] splitCsv(String line) {
+        String[] cells = line.split(",", -1);
+        for (int i = 0; i < cells.length; i++) {
+            String cell = cells[i].trim();
+            if (cell.length() >= 2 && cell.startsWith("\"") && cell.endsWith("\"")) {
+                cell = cell.substring(1, cell.length() - 1).trim();
+            }
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    private static final class Reading {
+
+        final String meterId;
+        final LocalDateTime slot;
+        final double value;
+
+        Reading(String meterId, LocalDateTime slot, double value) {
+            this.meterId = meterId;
+            this.slot = slot;
+            this.value = value;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.time.format.DateTimeFormatter;
 
 import org.springframework.stereotype.Service;
 
+import com.darro_tech.revengproject.dto.BudgetComparison;
 import com.darro_tech.revengproject.dto.DailyReportDTO;
 import com.darro_tech.revengproject.dto.WeeklyReportDTO;
 import com.itextpdf.text.Document;
@@ -25,6 +26,14 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PdfGenerationService {
 
+    // Fonts are only read while rendering, so every render shares one set
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+    private static final Font SECTION_FONT = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
+    private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 12);
+
+    // The reports are a page or two; start the buffer near their size
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+
     private final WeeklyReportService weeklyReportService;
     private final DailyReportService dailyReportService;
 
@@ -44,13 +53,28 @@ public class PdfGenerationService {
     public byte[] generateDailyReportPdf(String companyId, LocalDate reportDate) throws DocumentException {
         log.info("📑 Generating PDF daily report for company: {} as of date: {}", companyId, reportDate);
 
+        DailyReportDTO reportData;
         try {
-            // Get report data
-            DailyReportDTO reportData = dailyReportService.getDailyReport(companyId, reportDate);
+            reportData = dailyReportService.getDailyReport(companyId, reportDate);
+        } catch (Exception e) {
+            log.error("❌ Error getting daily report data: {}", e.getMessage(), e);
+            throw new DocumentException("Failed to generate PDF report: " + e.getMessage());
+        }
+        return renderDailyReportPdf(reportData);
+    }
 
+    /**
+     * Renders an assembled daily report as a PDF
+     *
+     * @param reportData The report to render
+     * @return byte array containing the PDF data
+     * @throws DocumentException if PDF generation fails
+     */
+    public byte[] renderDailyReportPdf(DailyReportDTO reportData) throws DocumentException {
+        try {
             // Create PDF document
             Document document = new Document(PageSize.A4);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(INITIAL_BUFFER_BYTES);
             PdfWriter.getInstance(document, outputStream);
 
             // Open document
@@ -73,10 +97,7 @@ public class PdfGenerationService {
     }
 
     private void addDailyReportHeader(Document document, DailyReportDTO reportData) throws DocumentException {
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
-        Paragraph title = new Paragraph("Daily Production Report", titleFont);
+        Paragraph title = new Paragraph("Daily Production Report", TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         document.add(title);
 
@@ -84,12 +105,12 @@ public class PdfGenerationService {
 
         Paragraph dateInfo = new Paragraph(
                 "Report Date: " + reportData.getReportDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                normalFont
+                NORMAL_FONT
         );
         document.add(dateInfo);
 
         if (reportData.getCompanyName() != null) {
-            Paragraph companyInfo = new Paragraph("Company: " + reportData.getCompanyName(), normalFont);
+            Paragraph companyInfo = new Paragraph("Company: " + reportData.getCompanyName(), NORMAL_FONT);
             document.add(companyInfo);
         }
 
@@ -97,32 +118,29 @@ public class PdfGenerationService {
     }
 
     private void addDailyReportContent(Document document, DailyReportDTO reportData) throws DocumentException {
-        Font sectionFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
         // Add production summary
-        Paragraph summaryTitle = new Paragraph("Production Summary", sectionFont);
+        Paragraph summaryTitle = new Paragraph("Production Summary", SECTION_FONT);
         document.add(summaryTitle);
         document.add(new Paragraph(" "));
 
         // Add daily, MTD, YTD totals
         document.add(new Paragraph(
                 String.format("Daily Total: %.2f", reportData.getDailyTotal()),
-                normalFont
+                NORMAL_FONT
         ));
         document.add(new Paragraph(
                 String.format("Month to Date Total: %.2f", reportData.getMtdTotal()),
-                normalFont
+                NORMAL_FONT
         ));
         document.add(new Paragraph(
                 String.format("Year to Date Total: %.2f", reportData.getYtdTotal()),
-                normalFont
+                NORMAL_FONT
         ));
 
         // Add farm-specific data if available
         if (reportData.getDailyProduction() != null && !reportData.getDailyProduction().isEmpty()) {
             document.add(new Paragraph(" "));
-            Paragraph farmTitle = new Paragraph("Daily Farm Production", sectionFont);
+            Paragraph farmTitle = new Paragraph("Daily Farm Production", SECTION_FONT);
             document.add(farmTitle);
             document.add(new Paragraph(" "));
 
@@ -132,7 +150,7 @@ public class PdfGenerationService {
                                 farmProduction.getFarmName(),
                                 farmProduction.getVolume(),
                                 farmProduction.getPercentOfTotal()),
-                        normalFont
+                        NORMAL_FONT
                 );
                 document.add(farmInfo);
             }
@@ -141,7 +159,7 @@ public class PdfGenerationService {
         // Add farm performance data if available
         if (reportData.getFarmPerformance() != null && !reportData.getFarmPerformance().isEmpty()) {
             document.add(new Paragraph(" "));
-            Paragraph performanceTitle = new Paragraph("Farm Performance", sectionFont);
+            Paragraph performanceTitle = new Paragraph("Farm Performance", SECTION_FONT);
             document.add(performanceTitle);
             document.add(new Paragraph(" "));
 
@@ -152,11 +170,34 @@ public class PdfGenerationService {
                                 farmPerformance.getDailyVolume(),
                                 farmPerformance.getMtdVolume(),
                                 farmPerformance.getYtdVolume()),
-                        normalFont
+                        NORMAL_FONT
                 );
                 document.add(farmInfo);
             }
         }
+
+        // Add budget comparison if available
+        BudgetComparison budget = reportData.getBudgetComparison();
+        if (budget != null) {
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph("Budget Comparison", SECTION_FONT));
+            document.add(new Paragraph(" "));
+            addBudgetLine(document, "Week to Date", budget.getWeeklyActual(), budget.getWeeklyBudget(),
+                    budget.getWeeklyVariancePercent(), budget.getWeeklyForecast());
+            addBudgetLine(document, "Month to Date", budget.getMonthlyActual(), budget.getMonthlyBudget(),
+                    budget.getMonthlyVariancePercent(), budget.getMonthlyForecast());
+            addBudgetLine(document, "Year to Date", budget.getYearlyActual(), budget.getYearlyBudget(),
+                    budget.getYearlyVariancePercent(), budget.getYearlyForecast());
+        }
+    }
+
+    private void addBudgetLine(Document document, String period, double actual, double budget,
+            double variancePercent, double forecast) throws DocumentException {
+        document.add(new Paragraph(
+                String.format("%s - Actual: %.2f, Budget: %.2f (%+.1f%%), Forecast: %.2f",
+                        period, actual, budget, variancePercent, forecast),
+                NORMAL_FONT
+        ));
     }
 
     /**
@@ -170,13 +211,28 @@ public class PdfGenerationService {
     public byte[] generateWeeklyReportPdf(String companyId, LocalDate reportDate) throws DocumentException {
         log.info("📑 Generating PDF weekly report for company: {} as of date: {}", companyId, reportDate);
 
+        WeeklyReportDTO reportData;
         try {
-            // Get report data
-            WeeklyReportDTO reportData = weeklyReportService.getWeeklyReport(companyId, reportDate);
+            reportData = weeklyReportService.getWeeklyReport(companyId, reportDate);
+        } catch (Exception e) {
+            log.error("❌ Error getting weekly report data: {}", e.getMessage(), e);
+            throw new DocumentException("Failed to generate PDF report: " + e.getMessage());
+        }
+        return renderWeeklyReportPdf(reportData);
+    }
 
+    /**
+     * Renders an assembled weekly report as a PDF
+     *
+     * @param reportData The report to render
+     * @return byte array containing the PDF data
+     * @throws DocumentException if PDF generation fails
+     */
+    public byte[] renderWeeklyReportPdf(WeeklyReportDTO reportData) throws DocumentException {
+        try {
             // Create PDF document
             Document document = new Document(PageSize.A4);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(INITIAL_BUFFER_BYTES);
             PdfWriter.getInstance(document, outputStream);
 
             // Open document
@@ -199,10 +255,7 @@ public class PdfGenerationService {
     }
 
     private void addHeader(Document document, WeeklyReportDTO reportData) throws DocumentException {
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
-        Paragraph title = new Paragraph("Weekly Production Report", titleFont);
+        Paragraph title = new Paragraph("Weekly Production Report", TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         document.add(title);
 
@@ -210,12 +263,12 @@ public class PdfGenerationService {
 
         Paragraph dateInfo = new Paragraph(
                 "Report Date: " + reportData.getReportDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                normalFont
+                NORMAL_FONT
         );
         document.add(dateInfo);
 
         if (reportData.getCompanyName() != null) {
-            Paragraph companyInfo = new Paragraph("Company: " + reportData.getCompanyName(), normalFont);
+            Paragraph companyInfo = new Paragraph("Company: " + reportData.getCompanyName(), NORMAL_FONT);
             document.add(companyInfo);
         }
 
@@ -223,11 +276,8 @@ public class PdfGenerationService {
     }
 
     private void addContent(Document document, WeeklyReportDTO reportData) throws DocumentException {
-        Font sectionFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
         // Add production summary
-        Paragraph summaryTitle = new Paragraph("Production Summary", sectionFont);
+        Paragraph summaryTitle = new Paragraph("Production Summary", SECTION_FONT);
         document.add(summaryTitle);
         document.add(new Paragraph(" "));
 
@@ -237,7 +287,7 @@ public class PdfGenerationService {
         // Add farm-specific data if available
         if (reportData.getFarmProductions() != null && !reportData.getFarmProductions().isEmpty()) {
             document.add(new Paragraph(" "));
-            Paragraph farmTitle = new Paragraph("Farm Production Details", sectionFont);
+            Paragraph farmTitle = new Paragraph("Farm Production Details", SECTION_FONT);
             document.add(farmTitle);
             document.add(new Paragraph(" "));
 
@@ -246,7 +296,7 @@ public class PdfGenerationService {
                         String.format("%s: %.2f",
                                 farmProduction.getFarmName(),
                                 farmProduction.getProduction()),
-                        normalFont
+                        NORMAL_FONT
                 );
                 document.add(farmInfo);
             }
@@ -254,24 +304,22 @@ public class PdfGenerationService {
     }
 
     private void addProductionTotals(Document document, WeeklyReportDTO reportData) throws DocumentException {
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
         // Add WTD Total
         document.add(new Paragraph(
                 String.format("Week to Date Total: %.2f", reportData.getWtdTotal()),
-                normalFont
+                NORMAL_FONT
         ));
 
         // Add MTD Total
         document.add(new Paragraph(
                 String.format("Month to Date Total: %.2f", reportData.getMtdTotal()),
-                normalFont
+                NORMAL_FONT
         ));
 
         // Add YTD Total
         document.add(new Paragraph(
                 String.format("Year to Date Total: %.2f", reportData.getYtdTotal()),
-                normalFont
+                NORMAL_FONT
         ));
     }
 }
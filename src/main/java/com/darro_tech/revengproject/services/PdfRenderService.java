@@ -0,0 +1,429 @@
+package com.darro_tech.revengproject.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.PdfRenderJob;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+import com.itextpdf.text.DocumentException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Renders daily and weekly report PDFs on a bounded pool of workers and
+ * keeps what it rendered in a content-addressed cache.
+ *
+ * Each rendered PDF is held once, under the SHA-256 of its bytes, and an
+ * index maps (report type, company, date, company data version) to that
+ * checksum. A download is a cache hit until DataVersionService moves the
+ * company to a new version; concurrent requests for the same report share
+ * one render. Both maps are bounded least-recently-used, by
+ * pdf.render.cache-max-entries and pdf.render.cache-max-bytes.
+ *
+ * Renders can also be queued as jobs and polled by id. A scheduled
+ * pre-render queues every company's reports ahead of the day's downloads.
+ */
+@Service
+public class PdfRenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfRenderService.class);
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${pdf.render.threads:2}")
+    private int renderThreads = 2;
+
+    @Value("${pdf.render.queue-capacity:200}")
+    private int queueCapacity = 200;
+
+    @Value("${pdf.render.timeout-ms:30000}")
+    private long renderTimeoutMillis = 30_000;
+
+    @Value("${pdf.render.cache-max-entries:1000}")
+    private int cacheMaxEntries = 1000;
+
+    @Value("${pdf.render.cache-max-bytes:67108864}")
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    @Value("${pdf.render.job-retention-ms:3600000}")
+    private long jobRetentionMillis = 3_600_000;
+
+    @Value("${pdf.render.prerender.enabled:true}")
+    private boolean prerenderEnabled = true;
+
+    private ThreadPoolExecutor renderExecutor;
+
+    // Rendered PDFs by checksum and the checksum of each report version; guarded by this
+    private final LinkedHashMap<String, byte[]> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+    private long artifactBytes;
+    private final LinkedHashMap<Key, String> checksums = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > cacheMaxEntries;
+        }
+    };
+
+    private final Map<Key, Job> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: a fixed set of workers and queue; overflow renders on the caller
+        renderExecutor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * The report's PDF for the company's current data version, from the
+     * cache or rendered on the worker pool
+     *
+     * @throws DocumentException if rendering fails or takes longer than
+     * pdf.render.timeout-ms
+     */
+    public byte[] getPdf(Kind kind, String companyId, LocalDate reportDate) throws DocumentException {
+        Key key = key(kind, companyId, reportDate);
+        byte[] pdf = cached(key);
+        if (pdf != null) {
+            logger.debug("📑 Rendered PDF cache hit for {}", key);
+            return pdf;
+        }
+
+        Job job = submit(key);
+        String checksum;
+        try {
+            checksum = job.future.get(renderTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentException documentException) {
+                throw documentException;
+            }
+            throw new DocumentException("Failed to render PDF report: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new DocumentException("Timed out rendering PDF report " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentException("Interrupted rendering PDF report " + key);
+        }
+
+        pdf = artifact(checksum);
+        // Evicted between the render and this read; render it here rather than fail
+        return pdf != null ? pdf : render(key);
+    }
+
+    /**
+     * Queue a render of the report for the company's current data version.
+     * A report that is cached or already being rendered is not rendered
+     * again; the returned job reflects that.
+     */
+    public PdfRenderJob submit(Kind kind, String companyId, LocalDate reportDate) {
+        Key key = key(kind, companyId, reportDate);
+        String checksum = cachedChecksum(key);
+        byte[] pdf = checksum != null ? artifact(checksum) : null;
+        if (pdf != null) {
+            Job job = new Job(key);
+            synchronized (job.status) {
+                job.status.setStatus(Status.DONE.name());
+                job.status.setCached(true);
+                job.status.setChecksum(checksum);
+                job.status.setSize(pdf.length);
+            }
+            job.finishedAt = System.currentTimeMillis();
+            jobs.put(job.status.getId(), job);
+            return snapshot(job);
+        }
+        return snapshot(submit(key));
+    }
+
+    /**
+     * Current status of a job submitted in the last pdf.render.job-retention-ms
+     */
+    public Optional<PdfRenderJob> getJob(String jobId) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        return job != null ? Optional.of(snapshot(job)) : Optional.empty();
+    }
+
+    /**
+     * The PDF a finished job rendered, while it is still in the cache
+     */
+    public Optional<byte[]> getJobPdf(String jobId) {
+        Optional<PdfRenderJob> job = getJob(jobId);
+        if (job.isEmpty() || job.get().getChecksum() == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(artifact(job.get().getChecksum()));
+    }
+
+    /**
+     * Queue every company's daily and weekly report for the current day
+     * that is not rendered yet. Runs before the morning's downloads;
+     * completion is logged once the last render finishes.
+     *
+     * @return the number of renders queued
+     */
+    @Scheduled(cron = "${pdf.render.prerender.cron:0 30 5 * * *}")
+    public int prerender() {
+        if (!prerenderEnabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDate reportDate = LocalDate.now();
+        List<CompletableFuture<String>> renders = new ArrayList<>();
+        try {
+            for (Company company : referenceDataService.getAllCompanies()) {
+                for (Kind kind : Kind.values()) {
+                    Key key = key(kind, company.getId(), reportDate);
+                    if (cachedChecksum(key) == null) {
+                        renders.add(submit(key).future);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("❌ Error queueing report pre-render: {}", e.getMessage(), e);
+        }
+
+        logger.info("📑 Queued {} report PDFs for pre-render on {}", renders.size(), reportDate);
+        CompletableFuture.allOf(renders.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            long failed = renders.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            logger.info("✅ Pre-rendered {} report PDFs ({} failed) in {} ms",
+                    renders.size() - failed, failed, System.currentTimeMillis() - start);
+        });
+        return renders.size();
+    }
+
+    private Key key(Kind kind, String companyId, LocalDate reportDate) {
+        return new Key(kind, companyId, reportDate, dataVersionService.companyVersion(companyId));
+    }
+
+    private Job submit(Key key) {
+        purgeJobs();
+        Job[] created = {null};
+        Job job = inFlight.computeIfAbsent(key, k -> created[0] = new Job(k));
+        if (created[0] != null) {
+            jobs.put(job.status.getId(), job);
+            // Outside any lock: a full queue runs the render on this thread
+            renderExecutor.execute(() -> run(job));
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        long start = System.currentTimeMillis();
+        synchronized (job.status) {
+            job.status.setStatus(Status.RUNNING.name());
+            job.status.setWaitMs(start - job.submittedAt);
+        }
+        try {
+            // A render of this version may have finished while the job was queued
+            String checksum = cachedChecksum(job.key);
+            boolean cached = checksum != null;
+            if (!cached) {
+                checksum = store(job.key, generate(job.key));
+            }
+            synchronized (job.status) {
+                job.status.setStatus(Status.DONE.name());
+                job.status.setCached(cached);
+                job.status.setChecksum(checksum);
+                byte[] pdf = artifact(checksum);
+                job.status.setSize(pdf != null ? pdf.length : 0);
+                job.status.setRenderMs(System.currentTimeMillis() - start);
+            }
+            logger.info("📑 Rendered {} in {} ms after {} ms queued",
+                    job.key, System.currentTimeMillis() - start, start - job.submittedAt);
+            job.future.complete(checksum);
+        } catch (Exception e) {
+            logger.error("❌ Error rendering {}: {}", job.key, e.getMessage(), e);
+            synchronized (job.status) {
+                job.status.setStatus(Status.FAILED.name());
+                job.status.setError(e.getMessage());
+                job.status.setRenderMs(System.currentTimeMillis() - start);
+            }
+            job.future.completeExceptionally(e);
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            inFlight.remove(job.key, job);
+        }
+    }
+
+    private byte[] render(Key key) throws DocumentException {
+        byte[] pdf = generate(key);
+        store(key, pdf);
+        return pdf;
+    }
+
+    private byte[] generate(Key key) throws DocumentException {
+        return key.kind == Kind.DAILY
+                ? pdfGenerationService.generateDailyReportPdf(key.companyId, key.reportDate)
+                : pdfGenerationService.generateWeeklyReportPdf(key.companyId, key.reportDate);
+    }
+
+    private byte[] cached(Key key) {
+        String checksum = cachedChecksum(key);
+        return checksum != null ? artifact(checksum) : null;
+    }
+
+    private synchronized String cachedChecksum(Key key) {
+        String checksum = checksums.get(key);
+        // The index can outlive an evicted PDF
+        return checksum != null && artifacts.containsKey(checksum) ? checksum : null;
+    }
+
+    private synchronized byte[] artifact(String checksum) {
+        return artifacts.get(checksum);
+    }
+
+    /**
+     * Add the PDF under its checksum, unless identical bytes are already
+     * held, and point the report version at it
+     */
+    private String store(Key key, byte[] pdf) {
+        String checksum = sha256(pdf);
+        synchronized (this) {
+            if (artifacts.get(checksum) == null) {
+                artifacts.put(checksum, pdf);
+                artifactBytes += pdf.length;
+                Iterator<byte[]> eldest = artifacts.values().iterator();
+                // Keep the newest PDF even if it alone is over the limit
+                while (artifactBytes > cacheMaxBytes && artifacts.size() > 1) {
+                    artifactBytes -= eldest.next().length;
+                    eldest.remove();
+                }
+            }
+            checksums.put(key, checksum);
+        }
+        return checksum;
+    }
+
+    private void purgeJobs() {
+        long cutoff = System.currentTimeMillis() - jobRetentionMillis;
+        jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < cutoff);
+    }
+
+    private static PdfRenderJob snapshot(Job job) {
+        PdfRenderJob copy = new PdfRenderJob();
+        synchronized (job.status) {
+            PdfRenderJob status = job.status;
+            copy.setId(status.getId());
+            copy.setType(status.getType());
+            copy.setCompanyId(status.getCompanyId());
+            copy.setReportDate(status.getReportDate());
+            copy.setDataVersion(status.getDataVersion());
+            copy.setStatus(status.getStatus());
+            copy.setCached(status.isCached());
+            copy.setWaitMs(status.getWaitMs());
+            copy.setRenderMs(status.getRenderMs());
+            copy.setSize(status.getSize());
+            copy.setChecksum(status.getChecksum());
+            copy.setError(status.getError());
+        }
+        return copy;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One report at one data version of its company
+     */
+    private static final class Key {
+
+        final Kind kind;
+        final String companyId;
+        final LocalDate reportDate;
+        final long version;
+
+        Key(Kind kind, String companyId, LocalDate reportDate, long version) {
+            this.kind = kind;
+            this.companyId = companyId;
+            this.reportDate = reportDate;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && kind == key.kind && version == key.version
+                    && Objects.equals(companyId, key.companyId) && reportDate.equals(key.reportDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, companyId, reportDate, version);
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase() + " report " + companyId + "|" + reportDate + "@" + version;
+        }
+    }
+
+    private static final class Job {
+
+        final Key key;
+        final PdfRenderJob status = new PdfRenderJob();
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final long submittedAt = System.currentTimeMillis();
+        volatile long finishedAt;
+
+        Job(Key key) {
+            this.key = key;
+            status.setId(UUID.randomUUID().toString());
+            status.setType(key.kind.name().toLowerCase());
+            status.setCompanyId(key.companyId);
+            status.setReportDate(key.reportDate.toString());
+            status.setDataVersion(key.version);
+            status.setStatus(Status.QUEUED.name());
+        }
+    }
+}
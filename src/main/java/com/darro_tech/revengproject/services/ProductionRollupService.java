@@ -0,0 +1,305 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.darro_tech.revengproject.dto.DateWindow;
+
+/**
+ * Maintains the farm-day, farm-month and company-day production rollups
+ * (see V7__create_production_rollups.sql) and serves chart range queries
+ * from them.
+ *
+ * New meter_daily rows are picked up incrementally by id watermark; only
+ * the days they touch are recomputed. Writers that change existing rows
+ * should call {@link #rebuildRange(LocalDate, LocalDate)} for the affected
+ * days and invalidate the companies in DataVersionService.
+ */
+@Service
+public class ProductionRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductionRollupService.class);
+
+    private static final String METER_DAILY_WATERMARK = "meter_daily";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${rollup.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean available = false;
+
+    /**
+     * Whether the rollup tables exist and have been brought up to date at
+     * least once since startup.
+     */
+    public boolean isAvailable() {
+        return enabled && available;
+    }
+
+    /**
+     * Recompute the rollups for every day that received new meter_daily rows
+     * since the last refresh.
+     *
+     * @return the number of days that were recomputed
+     */
+    @Scheduled(fixedDelayString = "${rollup.refresh-interval-ms:60000}",
+            initialDelayString = "${rollup.initial-delay-ms:10000}")
+    @Transactional
+    public int refreshIncremental() {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int watermark = readWatermark();
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM meter_daily", Integer.class);
+
+        if (maxId == null || maxId <= watermark) {
+            available = true;
+            logger.debug("Production rollups up to date at meter_daily id {}", watermark);
+            return 0;
+        }
+
+        List<LocalDate> days = jdbcTemplate.queryForList(
+                "SELECT DISTINCT DATE(timestamp) FROM meter_daily WHERE id > ? AND id <= ?",
+                LocalDate.class, watermark, maxId);
+        rebuildDays(days);
+
+        // Cached charts for these companies are stale once the rebuilt rollups commit
+        dataVersionService.invalidateCompanies(jdbcTemplate.queryForList(
+                "SELECT DISTINCT cm.company_id FROM meter_daily md "
+                + "JOIN company_meters cm ON cm.meter_id = md.meter_id "
+                + "WHERE md.id > ? AND md.id <= ?",
+                String.class, watermark, maxId));
+
+        jdbcTemplate.update(
+                "UPDATE production_rollup_state SET last_meter_daily_id = ?, timestamp = NOW() WHERE name = ?",
+                maxId, METER_DAILY_WATERMARK);
+        available = true;
+
+        logger.info("📊 Refreshed production rollups for {} days (meter_daily ids {}..{}) in {} ms",
+                days.size(), watermark + 1, maxId, System.currentTimeMillis() - start);
+        return days.size();
+    }
+
+    /**
+     * Recompute all rollups for the given inclusive date range.
+     */
+    @Transactional
+    public void rebuildRange(LocalDate fromDate, LocalDate toDate) {
+        logger.debug("Rebuilding production rollups from {} to {}", fromDate, toDate);
+        LocalDate toExclusive = toDate.plusDays(1);
+
+        jdbcTemplate.update("DELETE FROM farm_production_daily WHERE date >= ? AND date < ?", fromDate, toExclusive);
+        jdbcTemplate.update(
+                "INSERT INTO farm_production_daily (company_id, farm_id, date, volume, reading_count, timestamp) "
+                + "SELECT cm.company_id, m.farm_id, DATE(md.timestamp), SUM(md.value), COUNT(*), NOW() "
+                + "FROM meter_daily md "
+                + "JOIN meters m ON md.meter_id = m.id "
+                + "JOIN company_meters cm ON m.id = cm.meter_id "
+                + "WHERE md.timestamp >= ? AND md.timestamp < ? "
+                + "GROUP BY cm.company_id, m.farm_id, DATE(md.timestamp)",
+                fromDate.atStartOfDay(), toExclusive.atStartOfDay());
+
+        jdbcTemplate.update("DELETE FROM company_production_daily WHERE date >= ? AND date < ?", fromDate, toExclusive);
+        jdbcTemplate.update(
+                "INSERT INTO company_production_daily (company_id, date, volume, timestamp) "
+                + "SELECT company_id, date, SUM(volume), NOW() "
+                + "FROM farm_production_daily "
+                + "WHERE date >= ? AND date < ? "
+                + "GROUP BY company_id, date",
+                fromDate, toExclusive);
+
+        LocalDate firstMonth = fromDate.withDayOfMonth(1);
+        LocalDate monthsEnd = toDate.withDayOfMonth(1).plusMonths(1);
+        jdbcTemplate.update("DELETE FROM farm_production_monthly WHERE month >= ? AND month < ?", firstMonth, monthsEnd);
+        jdbcTemplate.update(
+                "INSERT INTO farm_production_monthly (company_id, farm_id, month, volume, reading_count, timestamp) "
+                + "SELECT company_id, farm_id, DATE_FORMAT(date, '%Y-%m-01'), SUM(volume), SUM(reading_count), NOW() "
+                + "FROM farm_production_daily "
+                + "WHERE date >= ? AND date < ? "
+                + "GROUP BY company_id, farm_id, DATE_FORMAT(date, '%Y-%m-01')",
+                firstMonth, monthsEnd);
+    }
+
+    /**
+     * Recompute the rollups for a set of days, collapsing consecutive days
+     * into a single range rebuild.
+     */
+    @Transactional
+    public void rebuildDays(Collection<LocalDate> days) {
+        TreeSet<LocalDate> sorted = new TreeSet<>(days);
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        for (LocalDate day : sorted) {
+            if (runEnd != null && day.equals(runEnd.plusDays(1))) {
+                runEnd = day;
+                continue;
+            }
+            if (runStart != null) {
+                rebuildRange(runStart, runEnd);
+            }
+            runStart = day;
+            runEnd = day;
+        }
+        if (runStart != null) {
+            rebuildRange(runStart, runEnd);
+        }
+    }
+
+    /**
+     * Total volume per farm for a company over an inclusive date range.
+     * Whole calendar months are read from the monthly rollup and only the
+     * partial months at either end from the daily rollup.
+     *
+     * @return rows of [farmId (String), totalValue (Double)]
+     */
+    public List<Object[]> findTotalVolumeByFarmForDateRange(String companyId, LocalDate fromDate, LocalDate toDate) {
+        LocalDate toExclusive = toDate.plusDays(1);
+        LocalDate monthStart = fromDate.getDayOfMonth() == 1 ? fromDate : fromDate.with(TemporalAdjusters.firstDayOfNextMonth());
+        LocalDate monthEnd = toExclusive.withDayOfMonth(1);
+        if (!monthStart.isBefore(monthEnd)) {
+            // No whole month inside the range, serve it entirely from the daily rollup
+            monthStart = toExclusive;
+            monthEnd = toExclusive;
+        }
+
+        return jdbcTemplate.query(
+                "SELECT farm_id, SUM(volume) FROM ("
+                + "SELECT farm_id, volume FROM farm_production_daily WHERE company_id = ? AND date >= ? AND date < ? "
+                + "UNION ALL "
+                + "SELECT farm_id, volume FROM farm_production_monthly WHERE company_id = ? AND month >= ? AND month < ? "
+                + "UNION ALL "
+                + "SELECT farm_id, volume FROM farm_production_daily WHERE company_id = ? AND date >= ? AND date < ?"
+                + ") v GROUP BY farm_id",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getDouble(2)},
+                companyId, fromDate, monthStart,
+                companyId, monthStart, monthEnd,
+                companyId, monthEnd, toExclusive);
+    }
+
+    /**
+     * Total volume per farm for a company in each of several non-overlapping
+     * date windows, in a single query against the daily rollup.
+     *
+     * @return rows of [farmId (String), windowIndex (Integer), totalValue (Double)]
+     */
+    public List<Object[]> findTotalVolumeByFarmForWindows(String companyId, List<DateWindow> windows) {
+        if (windows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Object> params = new ArrayList<>();
+        String caseExpression = windowCase(windows, params);
+        params.add(companyId);
+        String ranges = windowRanges(windows, params);
+
+        return jdbcTemplate.query(
+                "SELECT farm_id, " + caseExpression + " AS window_index, SUM(volume) "
+                + "FROM farm_production_daily "
+                + "WHERE company_id = ? AND (" + ranges + ") "
+                + "GROUP BY farm_id, window_index",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getInt(2), rs.getDouble(3)},
+                params.toArray());
+    }
+
+    /**
+     * Total volume per company and farm in each of several non-overlapping
+     * date windows, for every company in a single query. Used to build the
+     * reports of all companies from one snapshot.
+     *
+     * @return rows of [companyId (String), farmId (String), windowIndex
+     * (Integer), totalValue (Double)]
+     */
+    public List<Object[]> findTotalVolumeByCompanyFarmForWindows(List<DateWindow> windows) {
+        if (windows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Object> params = new ArrayList<>();
+        String caseExpression = windowCase(windows, params);
+        String ranges = windowRanges(windows, params);
+
+        return jdbcTemplate.query(
+                "SELECT company_id, farm_id, " + caseExpression + " AS window_index, SUM(volume) "
+                + "FROM farm_production_daily "
+                + "WHERE " + ranges + " "
+                + "GROUP BY company_id, farm_id, window_index",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2), rs.getInt(3), rs.getDouble(4)},
+                params.toArray());
+    }
+
+    // CASE mapping a rollup date to the index of its window; adds the parameters
+    private static String windowCase(List<DateWindow> windows, List<Object> params) {
+        StringBuilder caseExpression = new StringBuilder("CASE");
+        for (int i = 0; i < windows.size(); i++) {
+            caseExpression.append(" WHEN date >= ? AND date < ? THEN ").append(i);
+            params.add(windows.get(i).getFrom());
+            params.add(windows.get(i).getTo().plusDays(1));
+        }
+        return caseExpression.append(" END").toString();
+    }
+
+    // Filter on the union of the windows; adds the parameters
+    private static String windowRanges(List<DateWindow> windows, List<Object> params) {
+        StringBuilder ranges = new StringBuilder();
+        for (int i = 0; i < windows.size(); i++) {
+            ranges.append(i == 0 ? "" : " OR ").append("(date >= ? AND date < ?)");
+            params.add(windows.get(i).getFrom());
+            params.add(windows.get(i).getTo().plusDays(1));
+        }
+        return ranges.toString();
+    }
+
+    /**
+     * Daily total production for a company over an inclusive date range.
+     *
+     * @return rows of [date (java.sql.Date), totalValue (Double)] ordered by date
+     */
+    public List<Object[]> findDailyProductionForCompanyDateRange(String companyId, LocalDate fromDate, LocalDate toDate) {
+        return jdbcTemplate.query(
+                "SELECT date, volume FROM company_production_daily "
+                + "WHERE company_id = ? AND date >= ? AND date < ? "
+                + "ORDER BY date",
+                (rs, rowNum) -> new Object[]{rs.getDate(1), rs.getDouble(2)},
+                companyId, fromDate, toDate.plusDays(1));
+    }
+
+    /**
+     * Read the watermark and lock its row until the refresh commits, so
+     * concurrent refreshes (the schedule, an ingest, another instance) run
+     * one after the other and never start from the same watermark
+     */
+    private int readWatermark() {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT last_meter_daily_id FROM production_rollup_state WHERE name = ? FOR UPDATE",
+                Integer.class, METER_DAILY_WATERMARK);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+
+        logger.warn("⚠️ No production rollup watermark found, rollups will be rebuilt from the start of meter_daily");
+        jdbcTemplate.update(
+                "INSERT INTO production_rollup_state (name, last_meter_daily_id, timestamp) VALUES (?, 0, NOW())",
+                METER_DAILY_WATERMARK);
+        return 0;
+    }
+}
@@ -0,0 +1,335 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+
+/**
+ * In-memory directory of companies, farms and the company_farms /
+ * company_meters links, so dashboard requests can resolve names, slugs and
+ * ownership without reading whole tables.
+ *
+ * Lookups go against an immutable snapshot that is swapped out as a whole.
+ * The snapshot is reloaded on a TTL and after any committed write made
+ * through FarmService or CompanyService; writers elsewhere should call
+ * {@link #requestRefresh()}.
+ *
+ * Returned Farm and Company objects are shared, detached copies: read them,
+ * do not modify them.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot snapshot;
+
+    public Optional<Company> getCompanyById(String companyId) {
+        return Optional.ofNullable(snapshot().companiesById.get(companyId));
+    }
+
+    /**
+     * Company by name, ignoring case
+     */
+    public Optional<Company> getCompanyByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot().companiesByName.get(name.toLowerCase()));
+    }
+
+    /**
+     * Company by URL key: exact name, then the name with every space
+     * replaced by a dash, then {@link #companySlug(String)}. All ignore case.
+     */
+    public Optional<Company> getCompanyByKey(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        String lowercaseKey = key.toLowerCase();
+        Snapshot current = snapshot();
+
+        Company company = current.companiesByName.get(lowercaseKey);
+        if (company == null) {
+            company = current.companiesByDashKey.get(lowercaseKey);
+        }
+        if (company == null) {
+            company = current.companiesBySlug.get(lowercaseKey);
+        }
+        return Optional.ofNullable(company);
+    }
+
+    public List<Company> getAllCompanies() {
+        return snapshot().companies;
+    }
+
+    public Optional<Farm> getFarmById(String farmId) {
+        return Optional.ofNullable(snapshot().farmsById.get(farmId));
+    }
+
+    /**
+     * Unmodifiable map of farm ID to farm name for every farm
+     */
+    public Map<String, String> getFarmNames() {
+        return snapshot().farmNames;
+    }
+
+    public List<Farm> getFarmsForCompany(String companyId) {
+        return snapshot().farmsByCompany.getOrDefault(companyId, List.of());
+    }
+
+    public List<String> getCompanyIdsForFarm(String farmId) {
+        return snapshot().companyIdsByFarm.getOrDefault(farmId, List.of());
+    }
+
+    public List<String> getMeterIdsForCompany(String companyId) {
+        return snapshot().meterIdsByCompany.getOrDefault(companyId, List.of());
+    }
+
+    public List<String> getCompanyIdsForMeter(String meterId) {
+        return snapshot().companyIdsByMeter.getOrDefault(meterId, List.of());
+    }
+
+    /**
+     * Reload the directory once the current transaction commits, or right
+     * away when there is no transaction. Several calls within one
+     * transaction cause a single reload.
+     */
+    public void requestRefresh() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+
+        boolean alreadyRegistered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(RefreshAfterCommit.class::isInstance);
+        if (!alreadyRegistered) {
+            TransactionSynchronizationManager.registerSynchronization(new RefreshAfterCommit());
+        }
+    }
+
+    /**
+     * Reload the directory from the database. Also runs on a fixed delay so
+     * writes made outside this application show up eventually.
+     */
+    @Scheduled(fixedDelayString = "${directory.refresh-interval-ms:300000}",
+            initialDelayString = "${directory.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        try {
+            List<Company> companies = jdbcTemplate.query(
+                    "SELECT id, name, display_name, timestamp, logo_url FROM companies ORDER BY name",
+                    (rs, rowNum) -> {
+                        Company company = new Company();
+                        company.setId(rs.getString("id"));
+                        company.setName(rs.getString("name"));
+                        company.setDisplayName(rs.getString("display_name"));
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        company.setTimestamp(timestamp != null ? timestamp.toInstant() : null);
+                        company.setLogoUrl(rs.getString("logo_url"));
+                        return company;
+                    });
+
+            List<Farm> farms = jdbcTemplate.query(
+                    "SELECT id, name, display_name, timestamp, farm_type, temp_source_id, is_temp_source "
+                    + "FROM farms ORDER BY name",
+                    (rs, rowNum) -> {
+                        Farm farm = new Farm();
+                        farm.setId(rs.getString("id"));
+                        farm.setName(rs.getString("name"));
+                        farm.setDisplayName(rs.getString("display_name"));
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        farm.setTimestamp(timestamp != null ? timestamp.toInstant() : null);
+                        farm.setFarmType(rs.getString("farm_type"));
+                        farm.setTempSourceId(rs.getString("temp_source_id"));
+                        farm.setIsTempSource(rs.getBoolean("is_temp_source"));
+                        return farm;
+                    });
+
+            List<String[]> companyFarms = jdbcTemplate.query(
+                    "SELECT company_id, farm_id FROM company_farms",
+                    (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+
+            List<String[]> companyMeters = jdbcTemplate.query(
+                    "SELECT company_id, meter_id FROM company_meters",
+                    (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+
+            snapshot = Snapshot.build(companies, farms, companyFarms, companyMeters);
+            logger.info("📇 Reference data loaded: {} companies, {} farms, {} company meters in {} ms",
+                    companies.size(), farms.size(), companyMeters.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("❌ Error refreshing reference data: {}", e.getMessage(), e);
+            if (snapshot == null) {
+                snapshot = Snapshot.build(List.of(), List.of(), List.of(), List.of());
+            }
+        }
+    }
+
+    /**
+     * URL slug for a company name. Matches the NextJS app's formatCompanyKey,
+     * which lowercases the name and replaces only the FIRST space with a
+     * dash.
+     */
+    public static String companySlug(String name) {
+        if (name == null) {
+            return "";
+        }
+
+        String result = name.toLowerCase();
+        int firstSpaceIndex = result.indexOf(' ');
+        if (firstSpaceIndex >= 0) {
+            result = result.substring(0, firstSpaceIndex)
+                    + "-"
+                    + result.substring(firstSpaceIndex + 1);
+        }
+        return result;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private class RefreshAfterCommit implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            refresh();
+        }
+    }
+
+    /**
+     * One consistent, read-only view of the reference tables. Where several
+     * companies share a name or slug the first by name wins.
+     */
+    static final class Snapshot {
+
+        final List<Company> companies;
+        final Map<String, Company> companiesById;
+        final Map<String, Company> companiesByName;
+        final Map<String, Company> companiesByDashKey;
+        final Map<String, Company> companiesBySlug;
+        final Map<String, Farm> farmsById;
+        final Map<String, String> farmNames;
+        final Map<String, List<Farm>> farmsByCompany;
+        final Map<String, List<String>> companyIdsByFarm;
+        final Map<String, List<String>> meterIdsByCompany;
+        final Map<String, List<String>> companyIdsByMeter;
+
+        private Snapshot(List<Company> companies,
+                Map<String, Company> companiesById,
+                Map<String, Company> companiesByName,
+                Map<String, Company> companiesByDashKey,
+                Map<String, Company> companiesBySlug,
+                Map<String, Farm> farmsById,
+                Map<String, String> farmNames,
+                Map<String, List<Farm>> farmsByCompany,
+                Map<String, List<String>> companyIdsByFarm,
+                Map<String, List<String>> meterIdsByCompany,
+                Map<String, List<String>> companyIdsByMeter) {
+            this.companies = companies;
+            this.companiesById = companiesById;
+            this.companiesByName = companiesByName;
+            this.companiesByDashKey = companiesByDashKey;
+            this.companiesBySlug = companiesBySlug;
+            this.farmsById = farmsById;
+            this.farmNames = farmNames;
+            this.farmsByCompany = farmsByCompany;
+            this.companyIdsByFarm = companyIdsByFarm;
+            this.meterIdsByCompany = meterIdsByCompany;
+            this.companyIdsByMeter = companyIdsByMeter;
+        }
+
+        /**
+         * @param companyFarms rows of [companyId, farmId]
+         * @param companyMeters rows of [companyId, meterId]
+         */
+        static Snapshot build(List<Company> companies, List<Farm> farms,
+                List<String[]> companyFarms, List<String[]> companyMeters) {
+            Map<String, Company> byId = new HashMap<>();
+            Map<String, Company> byName = new HashMap<>();
+            Map<String, Company> byDashKey = new HashMap<>();
+            Map<String, Company> bySlug = new HashMap<>();
+            for (Company company : companies) {
+                byId.put(company.getId(), company);
+                if (company.getName() != null) {
+                    String lowerName = company.getName().toLowerCase();
+                    byName.putIfAbsent(lowerName, company);
+                    byDashKey.putIfAbsent(lowerName.replace(" ", "-"), company);
+                    bySlug.putIfAbsent(companySlug(company.getName()), company);
+                }
+            }
+
+            Map<String, Farm> farmsById = new HashMap<>();
+            Map<String, String> farmNames = new HashMap<>();
+            for (Farm farm : farms) {
+                farmsById.put(farm.getId(), farm);
+                farmNames.put(farm.getId(), farm.getName());
+            }
+
+            Map<String, List<Farm>> farmsByCompany = new LinkedHashMap<>();
+            Map<String, List<String>> companyIdsByFarm = new HashMap<>();
+            for (String[] link : companyFarms) {
+                Farm farm = farmsById.get(link[1]);
+                if (farm != null) {
+                    farmsByCompany.computeIfAbsent(link[0], k -> new ArrayList<>()).add(farm);
+                }
+                companyIdsByFarm.computeIfAbsent(link[1], k -> new ArrayList<>()).add(link[0]);
+            }
+
+            Map<String, List<String>> meterIdsByCompany = new HashMap<>();
+            Map<String, List<String>> companyIdsByMeter = new HashMap<>();
+            for (String[] link : companyMeters) {
+                meterIdsByCompany.computeIfAbsent(link[0], k -> new ArrayList<>()).add(link[1]);
+                companyIdsByMeter.computeIfAbsent(link[1], k -> new ArrayList<>()).add(link[0]);
+            }
+
+            return new Snapshot(
+                    List.copyOf(companies),
+                    Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableMap(byName),
+                    Collections.unmodifiableMap(byDashKey),
+                    Collections.unmodifiableMap(bySlug),
+                    Collections.unmodifiableMap(farmsById),
+                    Collections.unmodifiableMap(farmNames),
+                    freezeLists(farmsByCompany),
+                    freezeLists(companyIdsByFarm),
+                    freezeLists(meterIdsByCompany),
+                    freezeLists(companyIdsByMeter));
+        }
+
+        private static <T> Map<String, List<T>> freezeLists(Map<String, List<T>> map) {
+            Map<String, List<T>> frozen = new HashMap<>();
+            map.forEach((key, values) -> frozen.put(key, List.copyOf(values)));
+            return Collections.unmodifiableMap(frozen);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.darro_tech.revengproject.dto.DailyReportDTO;
+import com.darro_tech.revengproject.dto.DailyReportSnapshot;
+import com.darro_tech.revengproject.dto.ReportBatchStatus;
+import com.darro_tech.revengproject.dto.ReportBatchStatus.ReportTiming;
+import com.darro_tech.revengproject.dto.WeeklyReportDTO;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates the daily or weekly report of every company in one run and
+ * stores the PDFs in daily_report_companies or weekly_report_companies.
+ *
+ * Daily reports are assembled from one snapshot of all companies'
+ * production and budgets (two queries for the whole run) instead of two
+ * queries per company. Reports render on reports.batch.threads workers,
+ * with at most twice that many in flight, and are written in JDBC batches
+ * of reports.batch.insert-size, so only a few PDFs are held at a time. Each
+ * batch replaces the reports its companies already have for the day, so a
+ * rerun leaves one report per company and day. The report catalog is
+ * refreshed once the run has written its reports.
+ *
+ * One run at a time. Progress and per-report timings of the current or
+ * last run are served by the reportbatch Actuator endpoint.
+ */
+@Service
+public class ReportBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportBatchService.class);
+
+    public enum State {
+        RUNNING, DONE, FAILED
+    }
+
+    @Autowired
+    private DailyReportService dailyReportService;
+
+    @Autowired
+    private WeeklyReportService weeklyReportService;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private ReportCatalogService reportCatalogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reports.batch.threads:4}")
+    private int batchThreads = 4;
+
+    @Value("${reports.batch.insert-size:20}")
+    private int insertSize = 20;
+
+    // Runs started from the API go here so the request returns right away
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<ReportBatchStatus> current = new AtomicReference<>();
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Start a run in the background
+     *
+     * @return the run's status
+     * @throws IllegalStateException if a run is in progress
+     */
+    public ReportBatchStatus start(Kind kind, LocalDate reportDate) {
+        ReportBatchStatus status = begin(kind, reportDate);
+        runner.execute(() -> run(kind, reportDate, status));
+        return snapshot(status);
+    }
+
+    /**
+     * Generate every company's report on the calling thread
+     *
+     * @return the finished run's status
+     * @throws IllegalStateException if a run is in progress
+     */
+    public ReportBatchStatus generate(Kind kind, LocalDate reportDate) {
+        ReportBatchStatus status = begin(kind, reportDate);
+        run(kind, reportDate, status);
+        return snapshot(status);
+    }
+
+    /**
+     * Status of the run in progress, or else of the last run
+     */
+    public Optional<ReportBatchStatus> getStatus() {
+        ReportBatchStatus status = current.get();
+        return status != null ? Optional.of(snapshot(status)) : Optional.empty();
+    }
+
+    @Scheduled(cron = "${reports.batch.daily-cron:-}")
+    public void scheduledDailyRun() {
+        scheduledRun(Kind.DAILY);
+    }
+
+    @Scheduled(cron = "${reports.batch.weekly-cron:-}")
+    public void scheduledWeeklyRun() {
+        scheduledRun(Kind.WEEKLY);
+    }
+
+    private void scheduledRun(Kind kind) {
+        try {
+            generate(kind, LocalDate.now());
+        } catch (IllegalStateException e) {
+            logger.warn("⏭️ Skipping scheduled {} report run: {}", kind.name().toLowerCase(), e.getMessage());
+        }
+    }
+
+    private ReportBatchStatus begin(Kind kind, LocalDate reportDate) {
+        if (reportDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot generate reports for future dates");
+        }
+        ReportBatchStatus status = new ReportBatchStatus();
+        status.setId(UUID.randomUUID().toString());
+        status.setType(kind.name().toLowerCase());
+        status.setReportDate(reportDate.toString());
+        status.setState(State.RUNNING.name());
+        status.setStartedAt(Instant.now().toString());
+
+        ReportBatchStatus previous = current.get();
+        if ((previous != null && State.RUNNING.name().equals(snapshot(previous).getState()))
+                || !current.compareAndSet(previous, status)) {
+            throw new IllegalStateException("A report run is already in progress");
+        }
+        return status;
+    }
+
+    private void run(Kind kind, LocalDate reportDate, ReportBatchStatus status) {
+        long start = System.currentTimeMillis();
+        ExecutorService workers = null;
+        try {
+            List<Company> companies = referenceDataService.getAllCompanies();
+            DailyReportSnapshot snapshot = null;
+            if (kind == Kind.DAILY) {
+                snapshot = dailyReportService.loadSnapshot(reportDate).orElse(null);
+            }
+            synchronized (status) {
+                status.setTotal(companies.size());
+                status.setSnapshotMs(System.currentTimeMillis() - start);
+            }
+            logger.info("📚 Generating {} {} reports for {}", companies.size(), status.getType(), reportDate);
+
+            AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(batchThreads, runnable -> {
+                Thread thread = new Thread(runnable, "report-batch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            CompletionService<Rendered> completion = new ExecutorCompletionService<>(workers);
+            ReportDay day = new ReportDay(reportDate);
+
+            // Keep a bounded number of rendered PDFs between the workers and the inserts
+            DailyReportSnapshot shared = snapshot;
+            Iterator<Company> pending = companies.iterator();
+            List<Rendered> unwritten = new ArrayList<>();
+            int inFlight = 0;
+            while (pending.hasNext() || inFlight > 0) {
+                while (pending.hasNext() && inFlight < batchThreads * 2) {
+                    String companyId = pending.next().getId();
+                    completion.submit(() -> render(kind, companyId, reportDate, shared));
+                    inFlight++;
+                }
+
+                Rendered rendered = completion.take().get();
+                inFlight--;
+                synchronized (status) {
+                    status.setCompleted(status.getCompleted() + 1);
+                    if (rendered.pdf == null) {
+                        status.setFailed(status.getFailed() + 1);
+                    }
+                    status.getReports().add(rendered.timing);
+                }
+                if (rendered.pdf != null) {
+                    unwritten.add(rendered);
+                }
+                if (unwritten.size() >= insertSize) {
+                    write(kind, unwritten, day, status);
+                }
+            }
+            write(kind, unwritten, day, status);
+
+            if (status.getWritten() > 0) {
+                reportCatalogService.refresh();
+            }
+            finish(status, State.DONE, null, start);
+            logger.info("✅ Generated {} {} reports for {} ({} failed) in {} ms", status.getWritten(),
+                    status.getType(), reportDate, status.getFailed(), System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(status, State.FAILED, "Interrupted", start);
+        } catch (Exception e) {
+            logger.error("❌ Error generating {} reports for {}: {}", status.getType(), reportDate, e.getMessage(), e);
+            finish(status, State.FAILED, e.getMessage(), start);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Assemble and render one company's report; failures are recorded in
+     * the timing rather than thrown
+     */
+    private Rendered render(Kind kind, String companyId, LocalDate reportDate, DailyReportSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        long assembled = start;
+        try {
+            byte[] pdf;
+            if (kind == Kind.DAILY) {
+                DailyReportDTO report = snapshot != null
+                        ? dailyReportService.getDailyReport(companyId, snapshot)
+                        : dailyReportService.getDailyReport(companyId, reportDate);
+                assembled = System.currentTimeMillis();
+                pdf = pdfGenerationService.renderDailyReportPdf(report);
+            } else {
+                WeeklyReportDTO report = weeklyReportService.getWeeklyReport(companyId, reportDate);
+                assembled = System.currentTimeMillis();
+                pdf = pdfGenerationService.renderWeeklyReportPdf(report);
+            }
+            long end = System.currentTimeMillis();
+            return new Rendered(companyId, pdf,
+                    new ReportTiming(companyId, true, assembled - start, end - assembled, pdf.length, null));
+        } catch (Exception e) {
+            logger.error("❌ Error generating {} report for company {}: {}", kind.name().toLowerCase(), companyId,
+                    e.getMessage(), e);
+            long end = System.currentTimeMillis();
+            return new Rendered(companyId, null,
+                    new ReportTiming(companyId, false, assembled - start, end - assembled, 0, e.getMessage()));
+        }
+    }
+
+    /**
+     * Replace the companies' reports for the day with the rendered ones in
+     * one transaction, and clear the list
+     */
+    private void write(Kind kind, List<Rendered> rendered, ReportDay day, ReportBatchStatus status) {
+        if (rendered.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(transaction -> {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM " + kind.getTable() + " WHERE company_id = ? AND timestamp >= ? AND timestamp < ?",
+                    rendered, rendered.size(),
+                    (ps, report) -> {
+                        ps.setString(1, report.companyId);
+                        ps.setTimestamp(2, day.start, utc);
+                        ps.setTimestamp(3, day.end, utc);
+                    });
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + kind.getTable() + " (company_id, pdf, timestamp) VALUES (?, ?, ?)",
+                    rendered, rendered.size(),
+                    (ps, report) -> {
+                        ps.setString(1, report.companyId);
+                        ps.setBytes(2, report.pdf);
+                        ps.setTimestamp(3, day.timestamp, utc);
+                    });
+        });
+        synchronized (status) {
+            status.setWritten(status.getWritten() + rendered.size());
+        }
+        logger.debug("💾 Wrote {} {} rows in {} ms", rendered.size(), kind.getTable(),
+                System.currentTimeMillis() - start);
+        rendered.clear();
+    }
+
+    private static void finish(ReportBatchStatus status, State state, String error, long start) {
+        synchronized (status) {
+            status.setState(state.name());
+            status.setError(error);
+            status.setFinishedAt(Instant.now().toString());
+            status.setElapsedMs(System.currentTimeMillis() - start);
+        }
+    }
+
+
+    private static ReportBatchStatus snapshot(ReportBatchStatus status) {
+        ReportBatchStatus copy = new ReportBatchStatus();
+        synchronized (status) {
+            copy.setId(status.getId());
+            copy.setType(status.getType());
+            copy.setReportDate(status.getReportDate());
+            copy.setState(status.getState());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setTotal(status.getTotal());
+            copy.setCompleted(status.getCompleted());
+            copy.setFailed(status.getFailed());
+            copy.setWritten(status.getWritten());
+            copy.setSnapshotMs(status.getSnapshotMs());
+            copy.setElapsedMs(status.getState().equals(State.RUNNING.name()) && status.getStartedAt() != null
+                    ? System.currentTimeMillis() - Instant.parse(status.getStartedAt()).toEpochMilli()
+                    : status.getElapsedMs());
+            copy.setError(status.getError());
+            copy.setReports(new ArrayList<>(status.getReports()));
+        }
+        return copy;
+    }
+
+    /**
+     * Reports are filed under the day of their timestamp: now for today's
+     * reports, the last second of the day for earlier days
+     */
+    private static final class ReportDay {
+
+        final Timestamp start;
+        final Timestamp end;
+        final Timestamp timestamp;
+
+        ReportDay(LocalDate reportDate) {
+            Instant dayStart = reportDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Instant dayEnd = reportDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Instant now = Instant.now();
+            this.start = Timestamp.from(dayStart);
+            this.end = Timestamp.from(dayEnd);
+            this.timestamp = Timestamp.from(now.isBefore(dayEnd) ? now : dayEnd.minusSeconds(1));
+        }
+    }
+
+    private static final class Rendered {
+
+        final String companyId;
+        final byte[] pdf;
+        final ReportTiming timing;
+
+        Rendered(String companyId, byte[] pdf, ReportTiming timing) {
+            this.companyId = companyId;
+            this.pdf = pdf;
+            this.timing = timing;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.StoredReport;
+
+/**
+ * Read path for the stored daily and weekly report PDFs.
+ *
+ * Looking a report up reads only its id, timestamp and PDF length. The PDF
+ * is then read in chunks of reports.pdf-chunk-bytes with SUBSTRING, so a
+ * download holds one chunk on the heap however large the report is, and a
+ * Range request reads only the chunks it covers.
+ *
+ * {@link #resource(Kind, StoredReport)} wraps a report as a Spring
+ * Resource. Returned from a controller in a ResponseEntity, Spring sets
+ * Content-Length and Accept-Ranges and answers Range requests with 206.
+ */
+@Service
+public class ReportBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportBlobStore.class);
+
+    public enum Kind {
+        DAILY("daily_report_companies", "daily-report"),
+        WEEKLY("weekly_report_companies", "weekly-report");
+
+        private final String table;
+        private final String filePrefix;
+
+        Kind(String table, String filePrefix) {
+            this.table = table;
+            this.filePrefix = filePrefix;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${reports.pdf-chunk-bytes:262144}")
+    private int chunkBytes = 262144;
+
+    /**
+     * The newest of a company's reports with a timestamp in [from, to)
+     */
+    public Optional<StoredReport> findLatest(Kind kind, String companyId, Instant from, Instant to) {
+        Calendar utc = utcCalendar();
+        List<StoredReport> reports = jdbcTemplate.query(
+                "SELECT id, company_id, timestamp, LENGTH(pdf) FROM " + kind.getTable()
+                + " WHERE company_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp DESC, id DESC LIMIT 1",
+                ps -> {
+                    ps.setString(1, companyId);
+                    ps.setTimestamp(2, Timestamp.from(from), utc);
+                    ps.setTimestamp(3, Timestamp.from(to), utc);
+                },
+                (rs, rowNum) -> {
+                    Timestamp timestamp = rs.getTimestamp(3, utc);
+                    return new StoredReport(rs.getInt(1), rs.getString(2),
+                            timestamp != null ? timestamp.toInstant() : null, rs.getLong(4));
+                });
+        return reports.stream().findFirst();
+    }
+
+    /**
+     * Reports with an id above afterId, oldest first, at most limit of them
+     */
+    public List<StoredReport> findAfter(Kind kind, int afterId, int limit) {
+        Calendar utc = utcCalendar();
+        return jdbcTemplate.query(
+                "SELECT id, company_id, timestamp, LENGTH(pdf) FROM " + kind.getTable()
+                + " WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> {
+                    Timestamp timestamp = rs.getTimestamp(3, utc);
+                    return new StoredReport(rs.getInt(1), rs.getString(2),
+                            timestamp != null ? timestamp.toInstant() : null, rs.getLong(4));
+                },
+                afterId, limit);
+    }
+
+    /**
+     * Hex SHA-256 of the report's PDF, read a chunk at a time
+     */
+    public String checksum(Kind kind, StoredReport report) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = resource(kind, report).getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The report's PDF as a Resource whose input stream reads the blob a
+     * chunk at a time and skips without reading
+     */
+    public Resource resource(Kind kind, StoredReport report) {
+        return new ReportResource(kind, report);
+    }
+
+    /**
+     * Instants are stored in UTC, as Hibernate writes them
+     */
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    private byte[] readChunk(Kind kind, int id, long offset, int length) {
+        List<byte[]> chunks = jdbcTemplate.query(
+                "SELECT SUBSTRING(pdf, ?, ?) FROM " + kind.getTable() + " WHERE id = ?",
+                (rs, rowNum) -> rs.getBytes(1),
+                offset + 1, length, id);
+        return chunks.isEmpty() ? null : chunks.get(0);
+    }
+
+    private final class ReportResource extends AbstractResource {
+
+        private final Kind kind;
+        private final StoredReport report;
+
+        ReportResource(Kind kind, StoredReport report) {
+            this.kind = kind;
+            this.report = report;
+        }
+
+        @Override
+        public String getDescription() {
+            return kind.getTable() + " #" + report.getId();
+        }
+
+        @Override
+        public String getFilename() {
+            return kind.filePrefix + ".pdf";
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return report.getSize();
+        }
+
+        @Override
+        public long lastModified() {
+            return report.getTimestamp() != null ? report.getTimestamp().toEpochMilli() : 0;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ChunkedBlobInputStream(kind, report);
+        }
+    }
+
+    /**
+     * Sequential reader over one PDF blob. Only the current chunk is held,
+     * and skip moves the position without reading.
+     */
+    private final class ChunkedBlobInputStream extends InputStream {
+
+        private final Kind kind;
+        private final StoredReport report;
+        private long position;
+        private byte[] chunk;
+        private long chunkStart;
+
+        ChunkedBlobInputStream(Kind kind, StoredReport report) {
+            this.kind = kind;
+            this.report = report;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[(int) (position++ - chunkStart)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int index = (int) (position - chunkStart);
+            int count = Math.min(length, chunk.length - index);
+            System.arraycopy(chunk, index, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, report.getSize() - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk != null && position >= chunkStart && position < chunkStart + chunk.length
+                    ? (int) (chunkStart + chunk.length - position)
+                    : 0;
+        }
+
+        // Make the chunk cover position; false at the end of the PDF
+        private boolean fill() throws IOException {
+            if (position >= report.getSize()) {
+                return false;
+            }
+            if (chunk != null && position >= chunkStart && position < chunkStart + chunk.length) {
+                return true;
+            }
+
+            int length = (int) Math.min(chunkBytes, report.getSize() - position);
+            byte[] bytes = readChunk(kind, report.getId(), position, length);
+            if (bytes == null || bytes.length == 0) {
+                logger.warn("❌ {} #{} changed while streaming at byte {} of {}",
+                        kind.getTable(), report.getId(), position, report.getSize());
+                throw new IOException("Report " + report.getId() + " changed while it was being read");
+            }
+            chunk = bytes;
+            chunkStart = position;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.ReportCatalogEntry;
+import com.darro_tech.revengproject.dto.StoredReport;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+
+/**
+ * Metadata of every stored daily and weekly report, so timestamp checks,
+ * existence checks and report calendars never read a PDF column.
+ *
+ * The report_catalog table holds one row per report with the day it
+ * covers, its size and the SHA-256 of its PDF. A scheduled refresh
+ * catalogs reports added since the last refresh (reading each new PDF
+ * once, a chunk at a time, for its checksum), re-catalogs reports updated
+ * in place (a new timestamp or company) and drops rows of deleted reports.
+ * Only the id, timestamp and company columns are compared, never the PDFs,
+ * so a writer replacing a PDF in place must also set a new timestamp. The
+ * whole catalog is then held in memory as a per-company index of report
+ * days, swapped out as a whole; writers of report rows should call
+ * {@link #refresh()} so their reports show up right away.
+ *
+ * The first scheduled refresh, shortly after startup, backfills the
+ * catalog on the scheduler thread. Requests never wait for it: until it
+ * succeeds, lookups are answered from the report tables' timestamp and
+ * company columns instead.
+ */
+@Service
+public class ReportCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCatalogService.class);
+
+    // New reports catalogued per query
+    private static final int CATALOG_BATCH = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportBlobStore reportBlobStore;
+
+    @Value("${reports.catalog.enabled:true}")
+    private boolean enabled = true;
+
+    private volatile Index index;
+
+    public boolean isAvailable() {
+        return enabled && index != null;
+    }
+
+    /**
+     * Catalog new reports, drop deleted ones and reload the index when
+     * anything changed.
+     *
+     * @return the number of catalog rows added, updated or removed
+     */
+    @Scheduled(fixedDelayString = "${reports.catalog.refresh-interval-ms:30000}",
+            initialDelayString = "${reports.catalog.initial-delay-ms:5000}")
+    public synchronized int refresh() {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            int changed = 0;
+            for (Kind kind : Kind.values()) {
+                changed += catalogNewReports(kind);
+                changed += recatalogChangedReports(kind);
+                changed += jdbcTemplate.update(
+                        "DELETE FROM report_catalog WHERE kind = ? AND report_id NOT IN (SELECT id FROM "
+                        + kind.getTable() + ")",
+                        kind.name());
+            }
+
+            if (changed > 0 || index == null) {
+                index = loadIndex();
+                logger.info("🗂️ Report catalog loaded: {} reports ({} changed) in {} ms",
+                        index.size, changed, System.currentTimeMillis() - start);
+            }
+            return changed;
+        } catch (Exception e) {
+            logger.error("❌ Error refreshing report catalog: {}", e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * The newest of a company's reports for a day
+     */
+    public Optional<StoredReport> findLatest(Kind kind, String companyId, LocalDate date) {
+        Index current = index;
+        if (current == null) {
+            return reportBlobStore.findLatest(kind, companyId, startOf(date), startOf(date.plusDays(1)));
+        }
+        Day day = current.days(kind, companyId).get(date);
+        return day != null ? Optional.of(day.latest) : Optional.empty();
+    }
+
+    /**
+     * Number of a company's reports for a day and the newest timestamp,
+     * the validator for conditional report requests
+     */
+    public DataStamp getStamp(Kind kind, String companyId, LocalDate date) {
+        Index current = index;
+        if (current == null) {
+            Calendar utc = utcCalendar();
+            List<DataStamp> stamps = jdbcTemplate.query(
+                    "SELECT COUNT(*), MAX(timestamp) FROM " + kind.getTable()
+                    + " WHERE company_id = ? AND timestamp >= ? AND timestamp < ?",
+                    ps -> {
+                        ps.setString(1, companyId);
+                        ps.setTimestamp(2, Timestamp.from(startOf(date)), utc);
+                        ps.setTimestamp(3, Timestamp.from(startOf(date.plusDays(1))), utc);
+                    },
+                    (rs, rowNum) -> {
+                        Timestamp latest = rs.getTimestamp(2, utc);
+                        return new DataStamp(rs.getLong(1), latest != null ? latest.toInstant() : null);
+                    });
+            return stamps.isEmpty() ? new DataStamp(0, null) : stamps.get(0);
+        }
+        Day day = current.days(kind, companyId).get(date);
+        return day != null ? new DataStamp(day.count, day.latest.getTimestamp()) : new DataStamp(0, null);
+    }
+
+    /**
+     * Days in an inclusive range that have a report for the company,
+     * oldest first
+     */
+    public List<LocalDate> findReportDates(Kind kind, String companyId, LocalDate fromDate, LocalDate toDate) {
+        Index current = index;
+        if (current == null) {
+            Calendar utc = utcCalendar();
+            return jdbcTemplate.query(
+                    "SELECT timestamp FROM " + kind.getTable()
+                    + " WHERE company_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp",
+                    ps -> {
+                        ps.setString(1, companyId);
+                        ps.setTimestamp(2, Timestamp.from(startOf(fromDate)), utc);
+                        ps.setTimestamp(3, Timestamp.from(startOf(toDate.plusDays(1))), utc);
+                    },
+                    (rs, rowNum) -> dateOf(rs.getTimestamp(1, utc).toInstant()))
+                    .stream().distinct().toList();
+        }
+        return new ArrayList<>(current.days(kind, companyId).subMap(fromDate, true, toDate, true).keySet());
+    }
+
+    /**
+     * Add catalog rows for reports above the highest report id catalogued
+     */
+    private int catalogNewReports(Kind kind) throws Exception {
+        Integer watermark = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(report_id), 0) FROM report_catalog WHERE kind = ?", Integer.class, kind.name());
+        int added = 0;
+        List<StoredReport> reports;
+        while (!(reports = reportBlobStore.findAfter(kind, watermark, CATALOG_BATCH)).isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(reports.size());
+            for (StoredReport report : reports) {
+                String checksum = reportBlobStore.checksum(kind, report);
+                rows.add(new Object[]{kind.name(), report.getId(), report.getCompanyId(),
+                    dateOf(report.getTimestamp()), Timestamp.from(report.getTimestamp()), report.getSize(), checksum});
+                watermark = report.getId();
+            }
+            Calendar utc = utcCalendar();
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO report_catalog (kind, report_id, company_id, report_date, report_timestamp, size, checksum, timestamp) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, NOW())",
+                    rows, rows.size(),
+                    (ps, row) -> {
+                        ps.setString(1, (String) row[0]);
+                        ps.setInt(2, (Integer) row[1]);
+                        ps.setString(3, (String) row[2]);
+                        ps.setObject(4, row[3]);
+                        ps.setTimestamp(5, (Timestamp) row[4], utc);
+                        ps.setLong(6, (Long) row[5]);
+                        ps.setString(7, (String) row[6]);
+                    });
+            added += rows.size();
+        }
+        if (added > 0) {
+            logger.info("🗂️ Catalogued {} new {} rows", added, kind.getTable());
+        }
+        return added;
+    }
+
+    /**
+     * Update the catalog rows of reports whose timestamp or company no
+     * longer match, reading only those PDFs again. The match is on the
+     * report tables' plain columns; the PDF lengths are read for the
+     * changed rows alone.
+     */
+    private int recatalogChangedReports(Kind kind) throws Exception {
+        Calendar utc = utcCalendar();
+        List<StoredReport> changed = jdbcTemplate.query(
+                "SELECT r.id, r.company_id, r.timestamp, LENGTH(r.pdf) FROM " + kind.getTable() + " r "
+                + "JOIN report_catalog c ON c.kind = ? AND c.report_id = r.id "
+                + "WHERE r.timestamp <> c.report_timestamp OR r.company_id <> c.company_id",
+                (rs, rowNum) -> new StoredReport(rs.getInt(1), rs.getString(2),
+                        rs.getTimestamp(3, utc).toInstant(), rs.getLong(4)),
+                kind.name());
+        for (StoredReport report : changed) {
+            String checksum = reportBlobStore.checksum(kind, report);
+            jdbcTemplate.update(
+                    "UPDATE report_catalog SET company_id = ?, report_date = ?, report_timestamp = ?, size = ?, "
+                    + "checksum = ?, timestamp = NOW() WHERE kind = ? AND report_id = ?",
+                    ps -> {
+                        ps.setString(1, report.getCompanyId());
+                        ps.setObject(2, dateOf(report.getTimestamp()));
+                        ps.setTimestamp(3, Timestamp.from(report.getTimestamp()), utc);
+                        ps.setLong(4, report.getSize());
+                        ps.setString(5, checksum);
+                        ps.setString(6, kind.name());
+                        ps.setInt(7, report.getId());
+                    });
+        }
+        if (!changed.isEmpty()) {
+            logger.info("🗂️ Re-catalogued {} updated {} rows", changed.size(), kind.getTable());
+        }
+        return changed.size();
+    }
+
+    private Index loadIndex() {
+        Calendar utc = utcCalendar();
+        Map<Kind, Map<String, NavigableMap<LocalDate, Day>>> days = new EnumMap<>(Kind.class);
+        int[] size = {0};
+        jdbcTemplate.query(
+                "SELECT kind, report_id, company_id, report_date, report_timestamp, size, checksum FROM report_catalog",
+                rs -> {
+                    Kind kind = Kind.valueOf(rs.getString(1));
+                    ReportCatalogEntry entry = new ReportCatalogEntry(rs.getInt(2), rs.getString(3),
+                            rs.getDate(4).toLocalDate(), rs.getTimestamp(5, utc).toInstant(), rs.getLong(6),
+                            rs.getString(7));
+                    days.computeIfAbsent(kind, k -> new HashMap<>())
+                            .computeIfAbsent(entry.getCompanyId(), k -> new TreeMap<>())
+                            .merge(entry.getReportDate(), new Day(entry), Day::merge);
+                    size[0]++;
+                });
+        return new Index(days, size[0]);
+    }
+
+    /**
+     * Report days are the days of the default zone, as the report pages ask
+     * for them
+     */
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static LocalDate dateOf(Instant timestamp) {
+        return LocalDate.ofInstant(timestamp, ZoneId.systemDefault());
+    }
+
+    /**
+     * Instants are stored in UTC, as Hibernate writes them
+     */
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * A company's reports for one day: the newest and how many there are
+     */
+    private static final class Day {
+
+        final ReportCatalogEntry latest;
+        final int count;
+
+        Day(ReportCatalogEntry entry) {
+            this(entry, 1);
+        }
+
+        private Day(ReportCatalogEntry latest, int count) {
+            this.latest = latest;
+            this.count = count;
+        }
+
+        Day merge(Day other) {
+            boolean newer = other.latest.getTimestamp().isAfter(latest.getTimestamp())
+                    || (other.latest.getTimestamp().equals(latest.getTimestamp())
+                    && other.latest.getId() > latest.getId());
+            return new Day(newer ? other.latest : latest, count + other.count);
+        }
+    }
+
+    /**
+     * The catalog per report kind and company, keyed by day
+     */
+    private static final class Index {
+
+        final Map<Kind, Map<String, NavigableMap<LocalDate, Day>>> days;
+        final int size;
+
+        Index(Map<Kind, Map<String, NavigableMap<LocalDate, Day>>> days, int size) {
+            this.days = days;
+            this.size = size;
+        }
+
+        NavigableMap<LocalDate, Day> days(Kind kind, String companyId) {
+            return days.getOrDefault(kind, Map.of()).getOrDefault(companyId, Collections.emptyNavigableMap());
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.darro_tech.revengproject.services;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.darro_tech.revengproject.models.Role;
 import com.darro_tech.revengproject.models.User;
 import com.darro_tech.revengproject.repositories.UserRepository;
+import com.darro_tech.revengproject.security.SessionPrincipal;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -19,14 +26,41 @@ public class SessionManagementService {
 
     private static final Logger logger = Logger.getLogger(SessionManagementService.class.getName());
 
+    private static final String PRINCIPAL_SESSION_KEY = "userPrincipal";
+
     @Autowired
     private CompanyService companyService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private CompanyAccessService companyAccessService;
+
+    @Autowired
+    private UserVersionService userVersionService;
+
+    private final Map<String, CachedUser> userCache;
+
+    public SessionManagementService(@Value("${user-cache.max-size:500}") int userCacheMaxSize) {
+        this.userCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > userCacheMaxSize;
+            }
+        });
+    }
+
     /**
      * Get the currently authenticated user from the session
+     *
+     * The session normally holds only the user ID; the User is served from a
+     * bounded cache and reloaded once UserVersionService reports a newer
+     * version for that user. The returned User is shared between requests,
+     * so read it only, and load a fresh copy before modifying and saving it.
      */
     public User getUserFromSession(HttpSession session) {
         if (session == null) {
@@ -37,22 +71,27 @@ public class SessionManagementService {
         Object userAttr = session.getAttribute("user");
 
         if (userAttr == null) {
-            logger.warning("⚠️ No user attribute found in session");
+            logger.fine("No user attribute found in session");
             return null;
         }
 
-        logger.info("🔍 Retrieved user attribute from session of type: " + userAttr.getClass().getName());
-
         // Handle the case when the attribute is a String (user ID)
         if (userAttr instanceof String userId) {
-            logger.info("🔄 Converting user ID to User object: " + userId);
+            long version = userVersionService.currentVersion(userId);
+            CachedUser cached = userCache.get(userId);
+            if (cached != null && cached.version == version) {
+                return cached.user;
+            }
+
+            logger.fine("🔄 Loading User for session user ID: " + userId);
             Optional<User> userOpt = userRepository.findById(userId);
 
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
-                logger.info("✅ Successfully retrieved User from repository: " + user.getUsername());
+                userCache.put(userId, new CachedUser(user, version));
                 return user;
             } else {
+                userCache.remove(userId);
                 logger.severe("❌ User with ID not found in database: " + userId);
                 return null;
             }
@@ -60,7 +99,6 @@ public class SessionManagementService {
 
         // Handle the case when the attribute is already a User object
         if (userAttr instanceof User user) {
-            logger.info("✅ User object already in session: " + user.getUsername());
             return user;
         }
 
@@ -69,6 +107,45 @@ public class SessionManagementService {
         return null;
     }
 
+    /**
+     * Get the session principal for the logged-in user, building it if the
+     * session has none or it predates the user's current version
+     *
+     * @return the principal, or null if no user is logged in
+     */
+    public SessionPrincipal getPrincipal(HttpSession session) {
+        User user = getUserFromSession(session);
+        if (user == null) {
+            return null;
+        }
+
+        Object principalAttr = session.getAttribute(PRINCIPAL_SESSION_KEY);
+        if (principalAttr instanceof SessionPrincipal principal
+                && principal.getId().equals(user.getId())
+                && principal.getVersion() == userVersionService.currentVersion(user.getId())) {
+            return principal;
+        }
+
+        // Read the version first so a change that lands while building makes this principal stale
+        long version = userVersionService.currentVersion(user.getId());
+        List<String> roleNames = userRoleService.getUserRoles(user).stream()
+                .map(Role::getName)
+                .toList();
+        SessionPrincipal principal = new SessionPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getFirstName(),
+                user.getLastName(),
+                roleNames,
+                userRoleService.isAdmin(user),
+                companyAccessService.getGrant(session, user),
+                version);
+
+        session.setAttribute(PRINCIPAL_SESSION_KEY, principal);
+        logger.info("🔑 Built session principal for user: " + user.getUsername());
+        return principal;
+    }
+
     /**
      * Set the currently authenticated user in the session Store only the user
      * ID to prevent serialization issues
@@ -145,6 +222,7 @@ public class SessionManagementService {
                     + (userAttr != null ? userAttr.getClass().getName() : "null"));
 
             session.removeAttribute("user");
+            session.removeAttribute(PRINCIPAL_SESSION_KEY);
             session.removeAttribute("selectedCompanyId");
             session.removeAttribute("selectedFarmKey");
             logger.info("🧹 User session cleared successfully");
@@ -152,4 +230,18 @@ public class SessionManagementService {
             logger.warning("⚠️ Unable to clear user session - session is null");
         }
     }
+
+    /**
+     * A User loaded at a given UserVersionService version
+     */
+    private static final class CachedUser {
+
+        private final User user;
+        private final long version;
+
+        private CachedUser(User user, long version) {
+            this.user = user;
+            this.version = version;
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.darro_tech.revengproject.dto.TimeSeries;
+
+/**
+ * Reads farm metric readings as (epoch millis, value) pairs straight from
+ * JDBC into {@link TimeSeries} buffers, for the analytics and chart code
+ * that only needs timestamp and value.
+ *
+ * The repository finders for the same tables hydrate a full entity with a
+ * lazy Farm proxy per row; this path reads two columns and allocates
+ * nothing per row. Rows are streamed with a fetch size of
+ * timeseries.fetch-size, which MySQL Connector/J honours when the
+ * datasource URL has useCursorFetch=true. Null values are skipped.
+ */
+@Service
+public class TimeSeriesReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesReader.class);
+
+    /**
+     * Metric tables that share the (farm_id, timestamp, value) layout
+     */
+    public enum Metric {
+        CH4_RECOVERY("CH4 Recovery", "ch4_recovery"),
+        TEMPERATURE("Temperature", "temperature"),
+        MASS_BALANCE("Mass Balance", "mass_balance"),
+        LAGOON_LEVEL("Lagoon Level", "lagoon_levels"),
+        POPULATION("Population", "population");
+
+        private final String label;
+        private final String table;
+
+        Metric(String label, String table) {
+            this.label = label;
+            this.table = table;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${timeseries.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * Readings of one farm between two instants, both inclusive, oldest first
+     */
+    public TimeSeries read(Metric metric, String farmId, Instant startDate, Instant endDate) {
+        String sql = "SELECT timestamp, value FROM " + metric.table
+                + " WHERE farm_id = ? AND timestamp >= ? AND timestamp <= ?"
+                + " ORDER BY timestamp";
+
+        Calendar utc = utcCalendar();
+        TimeSeries series = new TimeSeries(256);
+        jdbcTemplate.query(sql, ps -> {
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, farmId);
+            ps.setTimestamp(2, Timestamp.from(startDate), utc);
+            ps.setTimestamp(3, Timestamp.from(endDate), utc);
+        }, rs -> {
+            addRow(series, rs, 1, utc);
+        });
+
+        logger.debug("📊 Read {} {} readings for farm {}", series.size(), metric.label, farmId);
+        return series;
+    }
+
+    /**
+     * The newest {@code limit} readings of one farm at or before an instant,
+     * oldest first; the context a rolling baseline needs before new readings
+     */
+    public TimeSeries readLast(Metric metric, String farmId, Instant atOrBefore, int limit) {
+        String sql = "SELECT timestamp, value FROM " + metric.table
+                + " WHERE farm_id = ? AND timestamp <= ? AND value IS NOT NULL"
+                + " ORDER BY timestamp DESC LIMIT ?";
+
+        Calendar utc = utcCalendar();
+        TimeSeries newestFirst = new TimeSeries(limit);
+        jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, farmId);
+            ps.setTimestamp(2, Timestamp.from(atOrBefore), utc);
+            ps.setInt(3, limit);
+        }, rs -> {
+            addRow(newestFirst, rs, 1, utc);
+        });
+
+        TimeSeries series = new TimeSeries(newestFirst.size());
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            series.add(newestFirst.getTimestamp(i), newestFirst.getValue(i));
+        }
+        return series;
+    }
+
+    /**
+     * Newest reading timestamp of every farm with readings of the metric
+     */
+    public Map<String, Instant> readLatestTimestamps(Metric metric) {
+        Calendar utc = utcCalendar();
+        Map<String, Instant> latest = new HashMap<>();
+        jdbcTemplate.query("SELECT farm_id, MAX(timestamp) FROM " + metric.table + " GROUP BY farm_id", rs -> {
+            Timestamp timestamp = rs.getTimestamp(2, utc);
+            if (timestamp != null) {
+                latest.put(rs.getString(1), timestamp.toInstant());
+            }
+        });
+        return latest;
+    }
+
+    /**
+     * Number of non-null readings of one farm between two instants, both
+     * inclusive, to check a cached copy against
+     */
+    public long count(Metric metric, String farmId, Instant startDate, Instant endDate) {
+        String sql = "SELECT COUNT(value) FROM " + metric.table
+                + " WHERE farm_id = ? AND timestamp >= ? AND timestamp <= ?";
+
+        Calendar utc = utcCalendar();
+        Long count = jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, farmId);
+            ps.setTimestamp(2, Timestamp.from(startDate), utc);
+            ps.setTimestamp(3, Timestamp.from(endDate), utc);
+        }, rs -> rs.next() ? rs.getLong(1) : 0L);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Readings of several farms in one query, keyed by farm ID. Farms with
+     * no readings in the range are absent from the map.
+     */
+    public Map<String, TimeSeries> readForFarms(Metric metric, Collection<String> farmIds,
+            Instant startDate, Instant endDate) {
+        Map<String, TimeSeries> seriesByFarm = new HashMap<>();
+        if (farmIds.isEmpty()) {
+            return seriesByFarm;
+        }
+
+        String placeholders = farmIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "SELECT farm_id, timestamp, value FROM " + metric.table
+                + " WHERE farm_id IN (" + placeholders + ") AND timestamp >= ? AND timestamp <= ?"
+                + " ORDER BY farm_id, timestamp";
+
+        Calendar utc = utcCalendar();
+        jdbcTemplate.query(sql, ps -> {
+            ps.setFetchSize(fetchSize);
+            int index = 1;
+            for (String farmId : farmIds) {
+                ps.setString(index++, farmId);
+            }
+            ps.setTimestamp(index++, Timestamp.from(startDate), utc);
+            ps.setTimestamp(index, Timestamp.from(endDate), utc);
+        }, rs -> {
+            addRow(seriesByFarm.computeIfAbsent(rs.getString(1), id -> new TimeSeries(256)), rs, 2, utc);
+        });
+
+        logger.debug("📊 Read {} readings for {} of {} farms", metric.label, seriesByFarm.size(), farmIds.size());
+        return seriesByFarm;
+    }
+
+    /**
+     * Total daily production of one farm's meters, one point per day at
+     * UTC midnight, for days in [fromDate, toDate]
+     */
+    public TimeSeries readDailyProduction(String farmId, LocalDate fromDate, LocalDate toDate) {
+        String sql = "SELECT DATE(md.timestamp) AS day, SUM(md.value) FROM meters m"
+                + " JOIN meter_daily md ON md.meter_id = m.id"
+                + " WHERE m.farm_id = ? AND md.timestamp >= ? AND md.timestamp < ?"
+                + " GROUP BY DATE(md.timestamp) ORDER BY day";
+
+        TimeSeries series = new TimeSeries(Math.max((int) ChronoUnit.DAYS.between(fromDate, toDate) + 1, 1));
+        Calendar utc = utcCalendar();
+        jdbcTemplate.query(sql, ps -> {
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, farmId);
+            ps.setTimestamp(2, Timestamp.from(fromDate.atStartOfDay(ZoneOffset.UTC).toInstant()), utc);
+            ps.setTimestamp(3, Timestamp.from(toDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()), utc);
+        }, rs -> {
+            double value = rs.getDouble(2);
+            if (!rs.wasNull()) {
+                long day = rs.getDate(1).toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                series.add(day, value);
+            }
+        });
+
+        logger.debug("📊 Read {} days of production for farm {}", series.size(), farmId);
+        return series;
+    }
+
+    private static void addRow(TimeSeries series, ResultSet rs, int timestampColumn, Calendar utc) throws SQLException {
+        double value = rs.getDouble(timestampColumn + 1);
+        if (rs.wasNull()) {
+            return;
+        }
+        series.add(rs.getTimestamp(timestampColumn, utc).getTime(), value);
+    }
+
+    /**
+     * Instants are stored in UTC, as Hibernate writes them
+     */
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
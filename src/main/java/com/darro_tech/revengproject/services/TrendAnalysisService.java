@@ -1,38 +1,85 @@
 package com.darro_tech.revengproject.services;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.darro_tech.revengproject.models.Ch4Recovery;
+import com.darro_tech.revengproject.dto.TimeSeries;
 import com.darro_tech.revengproject.models.Farm;
 import com.darro_tech.revengproject.models.dto.TrendDTO;
-import com.darro_tech.revengproject.repositories.Ch4RecoveryRepository;
 import com.darro_tech.revengproject.repositories.FarmRepository;
-
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+import com.darro_tech.revengproject.utils.PrefixRegression;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Linear trends of farm metrics over arbitrary windows.
+ *
+ * Each farm and metric keeps its regression sums in memory as prefix sums
+ * ({@link PrefixRegression}), so a windowed trend is a subtraction rather
+ * than a pass over the readings. When DataVersionService reports new data
+ * for the farm, only readings after the newest one held are read and
+ * appended; if the readings already held no longer match the table (rows
+ * corrected or back-filled) the sums are rebuilt.
+ */
 @Service
 public class TrendAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(TrendAnalysisService.class);
 
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final int MIN_POINTS = 5;
+
+    // Windows compared by compareWindows, in days
+    public static final int[] COMPARISON_WINDOWS = {7, 30, 90, 365};
+
     @Autowired
-    private Ch4RecoveryRepository ch4RecoveryRepository;
+    private TimeSeriesReader timeSeriesReader;
 
     @Autowired
     private FarmRepository farmRepository;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${trend.max-cached-series:1000}")
+    private int maxCachedSeries = 1000;
+
+    private Map<String, SeriesSums> store;
+
+    @PostConstruct
+    public void init() {
+        store = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SeriesSums> eldest) {
+                return size() > maxCachedSeries;
+            }
+        });
+    }
+
     /**
      * Analyzes trends in CH4 recovery data
      */
     public TrendDTO analyzeCh4RecoveryTrend(String farmId, Instant startDate, Instant endDate) {
-        logger.info("📈 Starting CH4 Recovery trend analysis for farm: {} from {} to {}", farmId, startDate, endDate);
+        return analyzeTrend(farmId, Metric.CH4_RECOVERY, startDate, endDate);
+    }
+
+    /**
+     * Analyzes the trend of any farm metric over a window
+     */
+    public TrendDTO analyzeTrend(String farmId, Metric metric, Instant startDate, Instant endDate) {
+        logger.info("📈 Starting {} trend analysis for farm: {} from {} to {}", metric.getLabel(), farmId, startDate, endDate);
 
         TrendDTO trend = new TrendDTO();
 
@@ -45,52 +92,74 @@ public class TrendAnalysisService {
 
         trend.setFarmId(farmId);
         trend.setFarmName(farm.getName());
-        trend.setMetricType("CH4 Recovery");
-
-        // Get CH4 recovery data for the specified period
-        List<Ch4Recovery> ch4Data = ch4RecoveryRepository.findByFarmIdAndTimestampBetweenOrderByTimestampAsc(
-                farmId, startDate, endDate);
+        trend.setMetricType(metric.getLabel());
 
-        logger.info("📊 Retrieved {} CH4 recovery data points for trend analysis", ch4Data.size());
+        PrefixRegression sums = sumsFor(farmId, metric, startDate, endDate);
+        describe(trend, metric, sums.fit(startDate.toEpochMilli(), endDate.toEpochMilli()));
 
-        if (ch4Data.size() < 5) {
-            logger.warn("⚠️ Insufficient data for trend analysis (need at least 5 points, got {})", ch4Data.size());
-            trend.setInterpretation("Insufficient data for trend analysis");
-            return trend;
-        }
+        logger.info("✅ Trend analysis completed - Direction: {}, R²: {}", trend.getDirection(), trend.getR2Value());
+        return trend;
+    }
 
-        // Convert to x (days from start) and y (values) for linear regression
-        Instant firstDay = ch4Data.get(0).getTimestamp();
+    /**
+     * Trends over the last 7, 30, 90 and 365 days up to endDate, shortest
+     * window first, all answered from one set of sums
+     */
+    public List<TrendDTO> compareWindows(String farmId, Metric metric, Instant endDate) {
+        logger.info("📈 Comparing {} trend windows for farm: {} up to {}", metric.getLabel(), farmId, endDate);
 
-        List<Double> xValues = ch4Data.stream()
-                .map(data -> (double) ChronoUnit.DAYS.between(firstDay, data.getTimestamp()))
-                .collect(Collectors.toList());
+        List<TrendDTO> trends = new ArrayList<>();
+        Farm farm = farmRepository.findById(farmId).orElse(null);
+        if (farm == null) {
+            logger.warn("❌ Farm not found for ID: {}", farmId);
+            return trends;
+        }
 
-        List<Double> yValues = ch4Data.stream()
-                .map(Ch4Recovery::getValue)
-                .collect(Collectors.toList());
+        int longest = COMPARISON_WINDOWS[COMPARISON_WINDOWS.length - 1];
+        PrefixRegression sums = sumsFor(farmId, metric, endDate.minusMillis(longest * MILLIS_PER_DAY), endDate);
+        for (int days : COMPARISON_WINDOWS) {
+            TrendDTO trend = new TrendDTO();
+            trend.setFarmId(farmId);
+            trend.setFarmName(farm.getName());
+            trend.setMetricType(metric.getLabel());
+            trend.setWindowDays(days);
+            describe(trend, metric, sums.fit(endDate.toEpochMilli() - days * MILLIS_PER_DAY, endDate.toEpochMilli()));
+            trends.add(trend);
+        }
+        return trends;
+    }
 
-        // Perform linear regression
-        double[] regressionParams = performLinearRegression(xValues, yValues);
-        double slope = regressionParams[0];
-        double intercept = regressionParams[1];
-        double r2 = regressionParams[2];
+    /**
+     * Fill in slope, R², direction and interpretation from a fit
+     */
+    private void describe(TrendDTO trend, Metric metric, PrefixRegression.Fit fit) {
+        if (fit.getCount() < MIN_POINTS || Double.isNaN(fit.getSlope())) {
+            logger.warn("⚠️ Insufficient data for trend analysis (need at least {} points, got {})", MIN_POINTS, fit.getCount());
+            trend.setInterpretation("Insufficient data for trend analysis");
+            return;
+        }
 
-        logger.info("📊 Linear regression results - Slope: {:.4f}, Intercept: {:.2f}, R²: {:.3f}", slope, intercept, r2);
+        double slope = fit.getSlope();
+        double r2 = fit.getR2();
+        logger.info("📊 Linear regression results - Points: {}, Slope: {}, Intercept: {}, R²: {}",
+                fit.getCount(), String.format("%.4f", slope), String.format("%.2f", fit.getIntercept()),
+                String.format("%.3f", r2));
 
         trend.setSlope(slope);
         trend.setR2Value(r2);
 
         // Determine direction and interpretation
+        String subject = metric == Metric.CH4_RECOVERY ? "CH4 recovery" : metric.getLabel().toLowerCase();
+        String capitalized = Character.toUpperCase(subject.charAt(0)) + subject.substring(1);
         if (Math.abs(slope) < 0.01) {
             trend.setDirection("Stable");
-            trend.setInterpretation("CH4 recovery is stable over the analyzed period");
+            trend.setInterpretation(capitalized + " is stable over the analyzed period");
         } else if (slope > 0) {
             trend.setDirection("Increasing");
-            trend.setInterpretation("CH4 recovery is showing an increasing trend");
+            trend.setInterpretation(capitalized + " is showing an increasing trend");
         } else {
             trend.setDirection("Decreasing");
-            trend.setInterpretation("CH4 recovery is showing a decreasing trend");
+            trend.setInterpretation(capitalized + " is showing a decreasing trend");
         }
 
         // Add confidence based on R² value
@@ -101,44 +170,79 @@ public class TrendAnalysisService {
         } else {
             trend.setInterpretation(trend.getInterpretation() + " (high confidence)");
         }
-
-        logger.info("✅ Trend analysis completed - Direction: {}, R²: {:.3f}", trend.getDirection(), r2);
-        return trend;
     }
 
     /**
-     * Performs linear regression and returns [slope, intercept, R²]
+     * Sums covering at least [startDate, endDate], loaded or topped up as
+     * needed
      */
-    private double[] performLinearRegression(List<Double> x, List<Double> y) {
-        int n = x.size();
-
-        // Calculate means
-        double meanX = x.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double meanY = y.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-
-        // Calculate slope and intercept
-        double numerator = IntStream.range(0, n)
-                .mapToDouble(i -> (x.get(i) - meanX) * (y.get(i) - meanY))
-                .sum();
-
-        double denominator = x.stream()
-                .mapToDouble(xi -> Math.pow(xi - meanX, 2))
-                .sum();
+    private PrefixRegression sumsFor(String farmId, Metric metric, Instant startDate, Instant endDate) {
+        SeriesSums entry = store.computeIfAbsent(farmId + "|" + metric.name(), key -> new SeriesSums());
+        long version = dataVersionService.farmVersion(farmId);
+
+        synchronized (entry) {
+            if (entry.sums == null || startDate.isBefore(entry.loadedFrom)) {
+                rebuild(entry, farmId, metric, startDate, max(endDate, entry.loadedTo), version);
+                return entry.sums;
+            }
+
+            Instant loadedTo = max(endDate, entry.loadedTo);
+            if (version != entry.version && entry.sums.size() > 0) {
+                // Rows held must still be all the rows up to the newest one held
+                Instant newest = Instant.ofEpochMilli(entry.sums.getLastTimestamp());
+                if (timeSeriesReader.count(metric, farmId, entry.loadedFrom, newest) != entry.sums.size()) {
+                    logger.info("🔄 {} readings changed for farm {}, rebuilding trend sums", metric.getLabel(), farmId);
+                    rebuild(entry, farmId, metric, entry.loadedFrom, loadedTo, version);
+                    return entry.sums;
+                }
+                append(entry, farmId, metric, newest.plusMillis(1), loadedTo);
+            } else if (version != entry.version) {
+                append(entry, farmId, metric, entry.loadedFrom, loadedTo);
+            } else if (endDate.isAfter(entry.loadedTo)) {
+                append(entry, farmId, metric, entry.loadedTo.plusMillis(1), endDate);
+            }
+            entry.loadedTo = loadedTo;
+            entry.version = version;
+            return entry.sums;
+        }
+    }
 
-        double slope = numerator / denominator;
-        double intercept = meanY - slope * meanX;
+    private void rebuild(SeriesSums entry, String farmId, Metric metric, Instant from, Instant to, long version) {
+        TimeSeries series = timeSeriesReader.read(metric, farmId, from, to);
+        PrefixRegression sums = new PrefixRegression(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            sums.append(series.getTimestamp(i), series.getValue(i));
+        }
+        entry.sums = sums;
+        entry.loadedFrom = from;
+        entry.loadedTo = to;
+        entry.version = version;
+        logger.debug("📊 Loaded {} {} readings into trend sums for farm {}", sums.size(), metric.getLabel(), farmId);
+    }
 
-        // Calculate R²
-        double totalSumSquares = IntStream.range(0, n)
-                .mapToDouble(i -> Math.pow(y.get(i) - meanY, 2))
-                .sum();
+    private void append(SeriesSums entry, String farmId, Metric metric, Instant from, Instant to) {
+        if (from.isAfter(to)) {
+            return;
+        }
+        TimeSeries series = timeSeriesReader.read(metric, farmId, from, to);
+        for (int i = 0; i < series.size(); i++) {
+            entry.sums.append(series.getTimestamp(i), series.getValue(i));
+        }
+        logger.debug("📊 Appended {} {} readings to trend sums for farm {}", series.size(), metric.getLabel(), farmId);
+    }
 
-        double residualSumSquares = IntStream.range(0, n)
-                .mapToDouble(i -> Math.pow(y.get(i) - (intercept + slope * x.get(i)), 2))
-                .sum();
+    private static Instant max(Instant a, Instant b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
 
-        double r2 = 1 - (residualSumSquares / totalSumSquares);
+    /**
+     * Prefix sums of one farm metric and the time range read into them
+     */
+    private static final class SeriesSums {
 
-        return new double[]{slope, intercept, r2};
+        PrefixRegression sums;
+        Instant loadedFrom;
+        Instant loadedTo;
+        long version;
     }
 }
@@ -46,6 +46,9 @@ public class UserManagementService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private UserVersionService userVersionService;
+
     @Autowired
     private UserContactTypeRepository userContactTypeRepository;
 
@@ -346,6 +349,7 @@ public class UserManagementService {
 
             // Save the user entity with explicit flush
             userRepository.save(user);
+            userVersionService.invalidate(user.getId());
             logger.info("✅ Basic user info updated for user: " + user.getUsername());
 
             try {
@@ -479,6 +483,7 @@ public class UserManagementService {
 
             // Use the dedicated helper class to safely update roles
             UserRoleUpdateHelper.updateUserRolesSafely(jdbcTemplate, userId, roleIds);
+            userVersionService.invalidate(userId);
 
             logger.info("✅ User roles updated successfully");
         } catch (Exception e) {
@@ -499,6 +504,7 @@ public class UserManagementService {
             // Delete existing company associations
             jdbcTemplate.update("DELETE FROM company_users WHERE user_id = ?", userId);
             logger.info("✅ Deleted existing company associations for user: " + userId);
+            userVersionService.invalidate(userId);
 
             // Add new company associations
             if (companyIds != null && !companyIds.isEmpty()) {
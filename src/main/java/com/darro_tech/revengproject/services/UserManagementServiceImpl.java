@@ -60,6 +60,9 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private UserVersionService userVersionService;
+
     /**
      * Get all users with their roles and companies
      *
@@ -497,6 +500,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
             user.setLastName(userUpdateDTO.getLastName());
 
             userRepository.save(user);
+            userVersionService.invalidate(userId);
             logger.info("✅ Updated basic user info for user: " + userId);
 
             // Update user email - with exception handling
@@ -595,6 +599,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
 
             // Finally delete the user
             userRepository.deleteById(userId);
+            userVersionService.invalidate(userId);
             logger.info("✅ Successfully deleted user with ID: " + userId);
 
             return true;
@@ -700,6 +705,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
             // Set the password (User.setPassword already handles hashing)
             user.setPassword(newPassword);
             userRepository.save(user);
+            userVersionService.invalidate(userId);
 
             logger.info("🔐 Updated password for user: " + userId);
             return true;
@@ -955,6 +961,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
 
             // Use the new helper class to safely update roles
             UserRoleUpdateHelper.updateUserRolesSafely(jdbcTemplate, userId, roleIds);
+            userVersionService.invalidate(userId);
 
             logger.info("✅ User roles updated successfully");
         } catch (Exception e) {
@@ -975,6 +982,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
             // Delete existing company associations with direct SQL for immediate execution
             int deletedCount = jdbcTemplate.update("DELETE FROM company_users WHERE user_id = ?", userId);
             logger.info("🗑️ Deleted " + deletedCount + " existing company associations for user: " + userId);
+            userVersionService.invalidate(userId);
 
             // Add new company associations
             if (companyIds != null && !companyIds.isEmpty()) {
@@ -1417,6 +1425,7 @@ public class UserManagementServiceImpl implements UserManagementServiceInterface
 
             // Save updated user
             userRepository.save(user);
+            userVersionService.invalidate(userId);
             logger.info("✅ Updated basic user info for: " + userId);
 
             // Update email if provided
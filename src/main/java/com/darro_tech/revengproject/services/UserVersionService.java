@@ -0,0 +1,61 @@
+package com.darro_tech.revengproject.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tracks a version number per user that changes whenever the user's
+ * profile, roles or company memberships are modified. Session-held copies
+ * of user data (the cached User, SessionPrincipal, CompanyAccessGrant)
+ * record the version they were built at and are rebuilt once it moves on.
+ */
+@Service
+public class UserVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserVersionService.class);
+
+    // Versions start at the boot time so data restored from a previous run never matches
+    private final long initialVersion = System.currentTimeMillis();
+
+    private final AtomicLong versionCounter = new AtomicLong(initialVersion);
+
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+
+    public long currentVersion(String userId) {
+        return userVersions.getOrDefault(userId, initialVersion);
+    }
+
+    /**
+     * Move the user to a new version once the current transaction commits,
+     * or right away outside a transaction
+     */
+    public void invalidate(String userId) {
+        if (userId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    private void bump(String userId) {
+        userVersions.put(userId, versionCounter.incrementAndGet());
+        logger.info("🔄 Cached session data invalidated for user: {}", userId);
+    }
+}
@@ -3,6 +3,7 @@ package com.darro_tech.revengproject.services;
 import java.util.List;
 import java.util.Optional;
 
+import com.darro_tech.revengproject.dto.DataStamp;
 import com.darro_tech.revengproject.dto.WebsiteAlertDTO;
 import com.darro_tech.revengproject.dto.WebsiteAlertRequest;
 
@@ -49,4 +50,12 @@ public interface WebsiteAlertService {
      * @return List of active alerts for the company
      */
     List<WebsiteAlertDTO> getActiveAlertsByCompanyId(String companyId);
+
+    /**
+     * Get the alert count and latest update time, without loading the
+     * alerts. Used as the validator for conditional requests.
+     *
+     * @return The stamp of the website_alerts table
+     */
+    DataStamp getAlertStamp();
 }
@@ -1,19 +1,20 @@
 package com.darro_tech.revengproject.services;
 
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.StoredReport;
 import com.darro_tech.revengproject.dto.WeeklyReportDTO;
-import com.darro_tech.revengproject.models.WeeklyReportCompany;
-import com.darro_tech.revengproject.repositories.WeeklyReportCompanyRepository;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -21,7 +22,10 @@ import java.util.List;
 public class WeeklyReportService {
 
     @Autowired
-    private WeeklyReportCompanyRepository weeklyReportRepository;
+    private ReportBlobStore reportBlobStore;
+
+    @Autowired
+    private ReportCatalogService reportCatalogService;
 
     /**
      * Get the latest timestamp for a weekly report
@@ -33,73 +37,70 @@ public class WeeklyReportService {
     public Date getLatestTimestamp(String companyId, LocalDate date) {
         log.info("🕒 Getting latest timestamp for company {} on date {}", companyId, date);
 
-        try {
-            // Convert LocalDate to Instant for the start of the day
-            Instant startOfDay = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant startOfNextDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
-
-            // Find reports for the given date range
-            List<WeeklyReportCompany> reports = weeklyReportRepository.findByCompanyIdAndDateBetween(
-                    companyId, startOfDay, startOfNextDay);
-
-            if (reports.isEmpty()) {
-                log.info("❌ No reports found for company {} on date {}", companyId, date);
-                return null;
-            }
+        DataStamp stamp = getReportStamp(companyId, date);
+        if (stamp.isEmpty()) {
+            log.info("❌ No reports found for company {} on date {}", companyId, date);
+            return null;
+        }
 
-            // Get the first report's timestamp
-            WeeklyReportCompany report = reports.get(0);
-            Instant timestamp = report.getTimestamp();
+        log.info("✅ Successfully retrieved timestamp for company {} on date {}: {}", companyId, date, stamp.getLatestTimestamp());
+        return Date.from(stamp.getLatestTimestamp());
+    }
 
-            log.info("✅ Successfully retrieved timestamp for company {} on date {}: {}", companyId, date, timestamp);
-            return Date.from(timestamp);
+    /**
+     * Get the number of reports and the latest report timestamp for a date,
+     * without loading the PDFs. Used as the validator for conditional requests.
+     * 
+     * @param companyId The ID of the company
+     * @param date The date to find the reports for
+     * @return The report stamp, empty if no report is found or on error
+     */
+    public DataStamp getReportStamp(String companyId, LocalDate date) {
+        try {
+            return reportCatalogService.getStamp(Kind.WEEKLY, companyId, date);
         } catch (Exception e) {
-            log.error("❌ Error getting timestamp", e);
-            return null;
+            log.error("❌ Error getting report stamp", e);
+            return new DataStamp(0, null);
         }
     }
 
     /**
-     * Get the PDF data for a weekly report
+     * Find the stored PDF of a weekly report without loading it
      * 
      * @param companyId The ID of the company
      * @param date The date to find the report for
-     * @return The PDF data as a byte array, or an empty array if no report is found
+     * @return The newest report of that day with a non-empty PDF, or empty if
+     * there is none or on error
      */
-    public byte[] getPdfData(String companyId, LocalDate date) {
-        log.info("📊 Getting PDF data for company {} on date {}", companyId, date);
+    public Optional<StoredReport> findPdf(String companyId, LocalDate date) {
+        log.info("📊 Finding PDF for company {} on date {}", companyId, date);
 
         try {
-            // Convert LocalDate to Instant for the start of the day
-            Instant startOfDay = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
-            Instant startOfNextDay = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
-
-            // Find reports for the given date range
-            List<WeeklyReportCompany> reports = weeklyReportRepository.findByCompanyIdAndDateBetween(
-                    companyId, startOfDay, startOfNextDay);
-
-            if (reports.isEmpty()) {
+            Optional<StoredReport> report = reportCatalogService.findLatest(Kind.WEEKLY, companyId, date);
+            if (report.isEmpty()) {
                 log.info("❌ No reports found for company {} on date {}", companyId, date);
-                return new byte[0];
+                return Optional.empty();
             }
-
-            // Get the first report's PDF data
-            WeeklyReportCompany report = reports.get(0);
-            byte[] pdfData = report.getPdf();
-
-            if (pdfData == null || pdfData.length == 0) {
-                log.warn("❌ PDF data is null or empty for report ID: {}", report.getId());
-                return new byte[0];
+            if (report.get().isEmpty()) {
+                log.warn("❌ PDF data is empty for report ID: {}", report.get().getId());
+                return Optional.empty();
             }
 
-            log.info("✅ Successfully retrieved PDF data for company {} on date {}", companyId, date);
-            return pdfData;
+            log.info("✅ Found {} byte PDF for company {} on date {}", report.get().getSize(), companyId, date);
+            return report;
         } catch (Exception e) {
-            log.error("❌ Error getting PDF data", e);
-            return new byte[0];
+            log.error("❌ Error finding PDF", e);
+            return Optional.empty();
         }
     }
 
+    /**
+     * The stored PDF as a Resource that streams from the database
+     */
+    public Resource getPdfResource(StoredReport report) {
+        return reportBlobStore.resource(Kind.WEEKLY, report);
+    }
+
     public WeeklyReportDTO getWeeklyReport(String companyId, LocalDate reportDate) {
         log.info("📊 Generating weekly report for company {} on date {}", companyId, reportDate);
 
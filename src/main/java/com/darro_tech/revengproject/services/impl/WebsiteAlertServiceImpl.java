@@ -10,10 +10,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.darro_tech.revengproject.dto.DataStamp;
 import com.darro_tech.revengproject.dto.WebsiteAlertDTO;
 import com.darro_tech.revengproject.dto.WebsiteAlertRequest;
 import com.darro_tech.revengproject.models.WebsiteAlert;
 import com.darro_tech.revengproject.repositories.WebsiteAlertRepository;
+import com.darro_tech.revengproject.services.EventStreamService;
 import com.darro_tech.revengproject.services.WebsiteAlertService;
 
 @Service
@@ -21,10 +23,13 @@ public class WebsiteAlertServiceImpl implements WebsiteAlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebsiteAlertServiceImpl.class);
     private final WebsiteAlertRepository websiteAlertRepository;
+    private final EventStreamService eventStreamService;
 
     @Autowired
-    public WebsiteAlertServiceImpl(WebsiteAlertRepository websiteAlertRepository) {
+    public WebsiteAlertServiceImpl(WebsiteAlertRepository websiteAlertRepository,
+            EventStreamService eventStreamService) {
         this.websiteAlertRepository = websiteAlertRepository;
+        this.eventStreamService = eventStreamService;
     }
 
     @Override
@@ -78,6 +83,7 @@ public class WebsiteAlertServiceImpl implements WebsiteAlertService {
         // Save to database
         WebsiteAlert savedAlert = websiteAlertRepository.save(alert);
         logger.info("📢 Successfully saved website alert with ID: {}", savedAlert.getId());
+        eventStreamService.publishWebsiteAlertChange(savedAlert.getCompanyIds());
 
         return convertToDTO(savedAlert);
     }
@@ -85,9 +91,11 @@ public class WebsiteAlertServiceImpl implements WebsiteAlertService {
     @Override
     public boolean deleteAlert(Integer id) {
         logger.info("📢 Deleting website alert with ID: {}", id);
-        if (websiteAlertRepository.existsById(id)) {
+        Optional<WebsiteAlert> alert = websiteAlertRepository.findById(id);
+        if (alert.isPresent()) {
             websiteAlertRepository.deleteById(id);
             logger.info("📢 Successfully deleted website alert with ID: {}", id);
+            eventStreamService.publishWebsiteAlertChange(alert.get().getCompanyIds());
             return true;
         }
         logger.warn("📢 Attempted to delete non-existent website alert with ID: {}", id);
@@ -103,6 +111,12 @@ public class WebsiteAlertServiceImpl implements WebsiteAlertService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public DataStamp getAlertStamp() {
+        List<Object[]> rows = websiteAlertRepository.findStamp();
+        return DataStamp.fromRow(rows.isEmpty() ? null : rows.get(0));
+    }
+
     /**
      * Convert a WebsiteAlert entity to a WebsiteAlertDTO
      *
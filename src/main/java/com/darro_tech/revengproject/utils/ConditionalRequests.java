@@ -0,0 +1,85 @@
+package com.darro_tech.revengproject.utils;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.darro_tech.revengproject.dto.DataStamp;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ETag / Last-Modified handling shared by the polled API endpoints.
+ *
+ * Spring's WebRequest.checkNotModified answers POST requests with 412
+ * instead of 304, and most chart endpoints are POSTs, so the comparison is
+ * done here for every method.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Quoted ETag made of the version parts and a hash of the resource, so
+     * two different resources at the same version never share a tag
+     */
+    public static String etag(String resource, long... versionParts) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (long part : versionParts) {
+            tag.append(Long.toHexString(part)).append('-');
+        }
+        return tag.append(Integer.toHexString(resource.hashCode())).append('"').toString();
+    }
+
+    /**
+     * Validators for a resource backed by the stamped rows
+     */
+    public static boolean checkNotModified(ServletWebRequest webRequest, String resource, DataStamp stamp) {
+        return checkNotModified(webRequest,
+                etag(resource, stamp.getRowCount(), stamp.getLastModifiedMillis()),
+                stamp.getLastModifiedMillis());
+    }
+
+    /**
+     * Set ETag, Last-Modified and Cache-Control on the response and check
+     * the request's If-None-Match, falling back to If-Modified-Since when
+     * there is no If-None-Match
+     *
+     * @return true if the client's copy is current and a 304 should be sent
+     */
+    public static boolean checkNotModified(ServletWebRequest webRequest, String etag, long lastModifiedMillis) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (lastModifiedMillis > 0) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModifiedMillis);
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (lastModifiedMillis <= 0) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = webRequest.getRequest().getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP dates have whole-second precision
+            return ifModifiedSince >= 0 && lastModifiedMillis / 1000 * 1000 <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
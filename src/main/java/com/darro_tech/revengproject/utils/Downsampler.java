@@ -0,0 +1,326 @@
+package com.darro_tech.revengproject.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
+
+/**
+ * Picks the rows of a long time-ordered series worth drawing when a chart
+ * cannot show every point. Rows are returned as ascending indexes into the
+ * caller's arrays, so the values drawn are always real readings.
+ *
+ * The timeline endpoints reduce their rows through
+ * {@link #downsample(List, Integer, Mode)} and
+ * {@link #downsample(ColumnarTimeline, Integer, Mode)}. Chart rows are
+ * picked by their value field alone; a columnar timeline keeps the extremes
+ * of each of its series.
+ */
+public final class Downsampler {
+
+    // Field that chart rows carry their reading in, ahead of any other number
+    private static final String VALUE_FIELD = "value";
+
+    /**
+     * How rows are picked when a timeline is longer than maxPoints
+     */
+    public enum Mode {
+        /**
+         * Largest-Triangle-Three-Buckets: one row per bucket, the one that
+         * best preserves the visual shape of the line
+         */
+        LTTB,
+        /**
+         * The lowest and highest row per bucket, so no peak or dip is lost;
+         * used for meter volumes
+         */
+        MIN_MAX
+    }
+
+    private Downsampler() {
+    }
+
+    /**
+     * Chart rows (maps with a "timestamp" or "date" key and numeric series)
+     * reduced to at most maxPoints rows. The rows are returned unchanged
+     * when maxPoints is null or not positive, or when they already fit.
+     */
+    public static List<Map<String, Object>> downsample(List<Map<String, Object>> rows, Integer maxPoints, Mode mode) {
+        if (rows == null || maxPoints == null || maxPoints <= 0 || rows.size() <= maxPoints) {
+            return rows;
+        }
+
+        String field = valueField(rows);
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(rows.get(i).get(field));
+        }
+
+        double[] times = rowTimes(rows);
+        int[] picked = mode == Mode.MIN_MAX
+                ? minMax(new double[][]{values}, 0, values.length, maxPoints)
+                : lttb(times, values, 0, values.length, maxPoints);
+        List<Map<String, Object>> result = new ArrayList<>(picked.length);
+        for (int row : picked) {
+            result.add(rows.get(row));
+        }
+        return result;
+    }
+
+    /**
+     * A columnar timeline reduced to at most maxPoints rows, or the same
+     * timeline when it already fits. MIN_MAX keeps the extremes of every
+     * series; LTTB follows the first series.
+     */
+    public static ColumnarTimeline downsample(ColumnarTimeline timeline, Integer maxPoints, Mode mode) {
+        if (timeline == null || maxPoints == null || maxPoints <= 0 || timeline.size() <= maxPoints) {
+            return timeline;
+        }
+
+        int count = timeline.size();
+        double[] times = new double[count];
+        double[][] series = new double[timeline.getSeriesCount()][count];
+        for (int row = 0; row < count; row++) {
+            times[row] = timeline.getTimestamp(row);
+            for (int s = 0; s < series.length; s++) {
+                series[s][row] = timeline.getValue(s, row);
+            }
+        }
+        if (mode == Mode.MIN_MAX || series.length == 0) {
+            return timeline.select(minMax(series, 0, count, maxPoints));
+        }
+        return timeline.select(lttb(times, series[0], 0, count, maxPoints));
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets over rows [from, to): the first and
+     * last rows are kept and each of maxPoints - 2 buckets in between
+     * contributes the row forming the largest triangle with the row kept
+     * before it and the average of the next bucket. NaN values never win a
+     * bucket unless the whole bucket is NaN. Below three points only the
+     * first row, or the first and last, are kept.
+     */
+    public static int[] lttb(double[] x, double[] y, int from, int to, int maxPoints) {
+        int count = Math.max(0, to - from);
+        if (maxPoints <= 0 || count <= maxPoints) {
+            return allRows(from, count);
+        }
+        int points = Math.max(maxPoints, 3);
+
+        int[] rows = new int[points];
+        int size = 0;
+        rows[size++] = from;
+        int previous = from;
+        double bucketSize = (double) (count - 2) / (points - 2);
+
+        for (int b = 0; b < points - 2; b++) {
+            int start = from + 1 + (int) (b * bucketSize);
+            int end = from + 1 + (int) ((b + 1) * bucketSize);
+
+            // Average of the next bucket, or the last row after the final bucket
+            int nextStart = end;
+            int nextEnd = b == points - 3 ? to : Math.min(from + 1 + (int) ((b + 2) * bucketSize), to);
+            double avgX = 0;
+            double avgY = 0;
+            int valid = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                if (!Double.isNaN(y[i])) {
+                    avgX += x[i];
+                    avgY += y[i];
+                    valid++;
+                }
+            }
+            if (valid > 0) {
+                avgX /= valid;
+                avgY /= valid;
+            } else {
+                avgX = x[nextEnd - 1];
+                avgY = Double.isNaN(y[previous]) ? 0 : y[previous];
+            }
+
+            double previousX = x[previous];
+            double previousY = Double.isNaN(y[previous]) ? avgY : y[previous];
+            int best = start;
+            double bestArea = -1;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previousX - avgX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (avgY - previousY));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+            rows[size++] = best;
+            previous = best;
+        }
+        rows[size++] = to - 1;
+        return limit(rows, size, maxPoints);
+    }
+
+    /**
+     * Min/max per bucket over several series sharing one timestamp column:
+     * rows [from, to) are split into equal buckets and, in each, the rows
+     * holding the minimum and maximum of every series are kept. Spikes in
+     * any series survive, and at most maxPoints rows are returned; when
+     * maxPoints cannot hold two rows per series, the extremes of the single
+     * bucket are thinned evenly. NaN values are ignored. All rows are
+     * returned when they already fit.
+     */
+    public static int[] minMax(double[][] series, int from, int to, int maxPoints) {
+        int count = Math.max(0, to - from);
+        if (maxPoints <= 0 || count <= maxPoints) {
+            return allRows(from, count);
+        }
+
+        int perBucket = 2 * Math.max(series.length, 1);
+        int buckets = Math.max(1, maxPoints / perBucket);
+        int[] rows = new int[buckets * perBucket];
+        int size = 0;
+        int[] bucketRows = new int[perBucket];
+
+        for (int b = 0; b < buckets; b++) {
+            int start = from + (int) ((long) count * b / buckets);
+            int end = from + (int) ((long) count * (b + 1) / buckets);
+            int found = 0;
+            for (double[] values : series) {
+                int min = -1;
+                int max = -1;
+                for (int i = start; i < end; i++) {
+                    double value = values[i];
+                    if (Double.isNaN(value)) {
+                        continue;
+                    }
+                    if (min < 0 || value < values[min]) {
+                        min = i;
+                    }
+                    if (max < 0 || value > values[max]) {
+                        max = i;
+                    }
+                }
+                if (min >= 0) {
+                    bucketRows[found++] = min;
+                    bucketRows[found++] = max;
+                }
+            }
+            if (found == 0) {
+                bucketRows[found++] = start;
+            }
+
+            // Rows in order, each once
+            Arrays.sort(bucketRows, 0, found);
+            for (int i = 0; i < found; i++) {
+                if (size == 0 || rows[size - 1] != bucketRows[i]) {
+                    rows[size++] = bucketRows[i];
+                }
+            }
+        }
+        return limit(rows, size, maxPoints);
+    }
+
+    /**
+     * Epoch millis of each row, or the row index when any row has no
+     * parseable time
+     */
+    private static double[] rowTimes(List<Map<String, Object>> rows) {
+        double[] times = new double[rows.size()];
+        for (int i = 0; i < times.length; i++) {
+            Map<String, Object> row = rows.get(i);
+            Object time = row.containsKey("timestamp") ? row.get("timestamp") : row.get("date");
+            Long millis = toMillis(time);
+            if (millis == null) {
+                for (int j = 0; j < times.length; j++) {
+                    times[j] = j;
+                }
+                return times;
+            }
+            times[i] = millis;
+        }
+        return times;
+    }
+
+    private static Long toMillis(Object time) {
+        if (time instanceof Number number) {
+            return number.longValue();
+        }
+        if (time instanceof Instant instant) {
+            return instant.toEpochMilli();
+        }
+        if (time instanceof LocalDate date) {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        if (!(time instanceof String text)) {
+            return null;
+        }
+        try {
+            if (text.length() == 7) {
+                return YearMonth.parse(text).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            if (text.endsWith("Z")) {
+                return Instant.parse(text).toEpochMilli();
+            }
+            return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * "value" when any row has a numeric one, otherwise the first numeric
+     * field (by name) of the first row that has one
+     */
+    private static String valueField(List<Map<String, Object>> rows) {
+        String fallback = null;
+        for (Map<String, Object> row : rows) {
+            if (row.get(VALUE_FIELD) instanceof Number) {
+                return VALUE_FIELD;
+            }
+            if (fallback == null) {
+                fallback = row.entrySet().stream()
+                        .filter(entry -> entry.getValue() instanceof Number)
+                        .map(Map.Entry::getKey)
+                        .sorted()
+                        .findFirst()
+                        .orElse(null);
+            }
+        }
+        return fallback == null ? VALUE_FIELD : fallback;
+    }
+
+    private static double value(Object value) {
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * The first size picked rows, evenly thinned to at most maxPoints while
+     * keeping the first and last
+     */
+    private static int[] limit(int[] rows, int size, int maxPoints) {
+        if (size <= maxPoints) {
+            return Arrays.copyOf(rows, size);
+        }
+        int[] limited = new int[maxPoints];
+        for (int i = 0; i < maxPoints; i++) {
+            limited[i] = rows[maxPoints == 1 ? 0 : (int) ((long) i * (size - 1) / (maxPoints - 1))];
+        }
+        return limited;
+    }
+
+    private static int[] allRows(int from, int count) {
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = from + i;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,222 @@
+package com.darro_tech.revengproject.utils;
+
+/**
+ * Additive Holt-Winters exponential smoothing: level, trend and an optional
+ * seasonal cycle of {@code period} steps.
+ *
+ * {@link #fit(double[], int, int)} picks the smoothing parameters by a grid
+ * search on one-step-ahead squared error. After that the model can absorb
+ * new observations one at a time with {@link #update(double)}, keeping the
+ * parameters, so a cached model never has to replay its history. The
+ * one-step errors also give the residual variance behind the prediction
+ * intervals. A period below 2 fits Holt's linear trend without seasonality.
+ */
+public final class HoltWinters {
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.7, 0.9};
+    private static final double[] BETAS = {0.0, 0.01, 0.05, 0.1, 0.2};
+    private static final double[] GAMMAS = {0.01, 0.05, 0.1, 0.3, 0.5};
+    private static final double[] NO_GAMMA = {0.0};
+
+    private final int period;
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private double level;
+    private double trend;
+    private final double[] seasonals;
+    // Index into seasonals of the next step
+    private int seasonIndex;
+
+    private long count;
+    private double sumSquaredErrors;
+    private long errorCount;
+
+    private HoltWinters(int period, double alpha, double beta, double gamma) {
+        this.period = period < 2 ? 0 : period;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.seasonals = new double[Math.max(this.period, 1)];
+    }
+
+    /**
+     * Smallest series a model with this period can be fitted to
+     */
+    public static int minimumLength(int period) {
+        return period < 2 ? 3 : 2 * period + 1;
+    }
+
+    /**
+     * Fit a model to the first {@code length} values, choosing alpha, beta
+     * and gamma from a fixed grid by one-step-ahead squared error
+     */
+    public static HoltWinters fit(double[] values, int length, int period) {
+        if (length < minimumLength(period)) {
+            throw new IllegalArgumentException("Need at least " + minimumLength(period)
+                    + " values for period " + period + ", got " + length);
+        }
+
+        HoltWinters best = null;
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                for (double gamma : period < 2 ? NO_GAMMA : GAMMAS) {
+                    HoltWinters candidate = new HoltWinters(period, alpha, beta, gamma);
+                    candidate.initialize(values);
+                    for (int i = candidate.initialLength(); i < length; i++) {
+                        candidate.update(values[i]);
+                    }
+                    if (best == null || candidate.getMeanSquaredError() < best.getMeanSquaredError()) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Level, trend and seasonals from the first two seasons (or, without
+     * seasonality, the first two values). The variance is only measured on
+     * the values after these.
+     */
+    private void initialize(double[] values) {
+        if (period == 0) {
+            level = values[1];
+            trend = values[1] - values[0];
+            count = 2;
+            return;
+        }
+
+        double firstMean = mean(values, 0, period);
+        double secondMean = mean(values, period, 2 * period);
+        trend = (secondMean - firstMean) / period;
+        for (int i = 0; i < period; i++) {
+            seasonals[i] = ((values[i] - firstMean) + (values[i + period] - secondMean)) / 2;
+        }
+        // Level at the end of the second season
+        level = secondMean + trend * (period - 1) / 2.0;
+        seasonIndex = 0;
+        count = 2L * period;
+    }
+
+    private int initialLength() {
+        return period == 0 ? 2 : 2 * period;
+    }
+
+    /**
+     * Absorb the next observation, one step after the last
+     */
+    public void update(double value) {
+        double seasonal = seasonals[seasonIndex];
+        double error = value - (level + trend + (period == 0 ? 0 : seasonal));
+        sumSquaredErrors += error * error;
+        errorCount++;
+
+        double previousLevel = level;
+        level = alpha * (value - (period == 0 ? 0 : seasonal)) + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+        if (period > 0) {
+            seasonals[seasonIndex] = gamma * (value - level) + (1 - gamma) * seasonal;
+            seasonIndex = (seasonIndex + 1) % period;
+        }
+        count++;
+    }
+
+    /**
+     * Point forecast {@code steps} steps (1 or more) after the last observation
+     */
+    public double forecast(int steps) {
+        double value = level + steps * trend;
+        if (period > 0) {
+            value += seasonals[(seasonIndex + steps - 1) % period];
+        }
+        return value;
+    }
+
+    /**
+     * Half-width of the prediction interval {@code steps} ahead for a normal
+     * quantile z (1.96 for 95%), using the additive Holt-Winters variance
+     * sigma² (1 + sum over j &lt; steps of (alpha (1 + j beta) + gamma (1 - alpha) [j mod period = 0])²).
+     * The seasonal term is gamma (1 - alpha) because {@link #update(double)}
+     * smooths the seasonal against the new level, not the previous one.
+     */
+    public double intervalHalfWidth(int steps, double z) {
+        double factor = 1;
+        for (int j = 1; j < steps; j++) {
+            double c = alpha * (1 + j * beta) + (period > 0 && j % period == 0 ? gamma * (1 - alpha) : 0);
+            factor += c * c;
+        }
+        return z * Math.sqrt(getMeanSquaredError() * factor);
+    }
+
+    /**
+     * Two-sided normal quantile for a confidence level in (0, 1), e.g. 1.96
+     * for 0.95, by Acklam's rational approximation (relative error below 1.2e-9)
+     */
+    public static double zForConfidence(double confidenceLevel) {
+        double p = 1 - (1 - confidenceLevel) / 2;
+        if (!(p > 0.5 && p < 1)) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1: " + confidenceLevel);
+        }
+        double pHigh = 1 - 0.02425;
+        if (p <= pHigh) {
+            double q = p - 0.5;
+            double r = q * q;
+            return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                    + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                    / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                    + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+        }
+        double q = Math.sqrt(-2 * Math.log(1 - p));
+        return -(((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                + 3.754408661907416e+00) * q + 1);
+    }
+
+    /**
+     * Mean one-step-ahead squared error, NaN before any error was measured
+     */
+    public double getMeanSquaredError() {
+        return errorCount > 0 ? sumSquaredErrors / errorCount : Double.NaN;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public double getGamma() {
+        return gamma;
+    }
+
+    /**
+     * Number of observations the model has seen, fitting included
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "HoltWinters[period=" + period + ", alpha=" + alpha + ", beta=" + beta + ", gamma=" + gamma
+                + ", mse=" + getMeanSquaredError() + "]";
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+}
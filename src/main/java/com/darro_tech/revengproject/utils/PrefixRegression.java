@@ -0,0 +1,186 @@
+package com.darro_tech.revengproject.utils;
+
+import java.util.Arrays;
+
+/**
+ * Running least-squares sums (Σx, Σy, Σxy, Σx², Σy²) over a time-ordered
+ * series, kept as prefix sums so a linear fit over any time window costs
+ * two binary searches and a subtraction instead of a pass over the points.
+ *
+ * x is measured in days from the first appended timestamp, so slopes are
+ * per day. Points must be appended in timestamp order.
+ */
+public final class PrefixRegression {
+
+    private static final double MILLIS_PER_DAY = 24.0 * 60 * 60 * 1000;
+
+    private long[] timestamps;
+    // Prefix sums: index k holds the sum over the first k points
+    private double[] sumX;
+    private double[] sumY;
+    private double[] sumXY;
+    private double[] sumXX;
+    private double[] sumYY;
+    private int size;
+
+    public PrefixRegression() {
+        this(64);
+    }
+
+    public PrefixRegression(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        timestamps = new long[capacity];
+        sumX = new double[capacity + 1];
+        sumY = new double[capacity + 1];
+        sumXY = new double[capacity + 1];
+        sumXX = new double[capacity + 1];
+        sumYY = new double[capacity + 1];
+    }
+
+    public void append(long timestampMillis, double value) {
+        if (size > 0 && timestampMillis < timestamps[size - 1]) {
+            throw new IllegalArgumentException("Points must be appended in timestamp order");
+        }
+        if (size == timestamps.length) {
+            int capacity = timestamps.length * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            sumX = Arrays.copyOf(sumX, capacity + 1);
+            sumY = Arrays.copyOf(sumY, capacity + 1);
+            sumXY = Arrays.copyOf(sumXY, capacity + 1);
+            sumXX = Arrays.copyOf(sumXX, capacity + 1);
+            sumYY = Arrays.copyOf(sumYY, capacity + 1);
+        }
+        timestamps[size] = timestampMillis;
+        double x = (timestampMillis - timestamps[0]) / MILLIS_PER_DAY;
+        sumX[size + 1] = sumX[size] + x;
+        sumY[size + 1] = sumY[size] + value;
+        sumXY[size + 1] = sumXY[size] + x * value;
+        sumXX[size + 1] = sumXX[size] + x * x;
+        sumYY[size + 1] = sumYY[size] + value * value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getFirstTimestamp() {
+        return timestamps[0];
+    }
+
+    public long getLastTimestamp() {
+        return timestamps[size - 1];
+    }
+
+    /**
+     * Number of points with timestamps in [fromMillis, toMillis]
+     */
+    public int count(long fromMillis, long toMillis) {
+        return Math.max(0, upperBound(toMillis) - lowerBound(fromMillis));
+    }
+
+    /**
+     * Least-squares line through the points with timestamps in
+     * [fromMillis, toMillis]
+     */
+    public Fit fit(long fromMillis, long toMillis) {
+        int from = lowerBound(fromMillis);
+        int to = upperBound(toMillis);
+        int n = Math.max(0, to - from);
+        if (n < 2) {
+            return new Fit(n, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        double sx = sumX[to] - sumX[from];
+        double sy = sumY[to] - sumY[from];
+        double sxy = sumXY[to] - sumXY[from];
+        double sxx = sumXX[to] - sumXX[from];
+        double syy = sumYY[to] - sumYY[from];
+
+        double meanX = sx / n;
+        double meanY = sy / n;
+        double varX = sxx - sx * meanX;
+        double covXY = sxy - sx * meanY;
+        double varY = syy - sy * meanY;
+
+        double slope = varX > 0 ? covXY / varX : Double.NaN;
+        // Intercept at the first point of the window, as days from it
+        double firstX = (timestamps[from] - timestamps[0]) / MILLIS_PER_DAY;
+        double intercept = meanY - slope * (meanX - firstX);
+        double r2;
+        if (!(varX > 0)) {
+            r2 = Double.NaN;
+        } else if (varY > 0) {
+            r2 = Math.min(1.0, covXY * covXY / (varX * varY));
+        } else {
+            // A flat series is fitted exactly by the flat line
+            r2 = 1.0;
+        }
+        return new Fit(n, slope, intercept, r2);
+    }
+
+    // First index with timestamp >= millis
+    private int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index with timestamp > millis
+    private int upperBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Slope per day, intercept at the window's first point and R² of a fit;
+     * NaN where fewer than two distinct timestamps make it undefined
+     */
+    public static final class Fit {
+
+        private final int count;
+        private final double slope;
+        private final double intercept;
+        private final double r2;
+
+        private Fit(int count, double slope, double intercept, double r2) {
+            this.count = count;
+            this.slope = slope;
+            this.intercept = intercept;
+            this.r2 = r2;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getSlope() {
+            return slope;
+        }
+
+        public double getIntercept() {
+            return intercept;
+        }
+
+        public double getR2() {
+            return r2;
+        }
+    }
+}
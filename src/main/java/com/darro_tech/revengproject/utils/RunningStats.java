@@ -0,0 +1,152 @@
+package com.darro_tech.revengproject.utils;
+
+/**
+ * One-pass mean and variance over primitive doubles (Welford's algorithm).
+ *
+ * Values can be added one at a time, or swapped out of a fixed-size window
+ * with {@link #replace(double, double)}, which is what the rolling baselines
+ * use. Variance is the population variance, matching how the anomaly
+ * detectors have always measured spread.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Swap one value already in the stats for another, keeping the count
+     */
+    public void replace(double oldValue, double newValue) {
+        if (count == 0) {
+            add(newValue);
+            return;
+        }
+        double oldMean = mean;
+        mean += (newValue - oldValue) / count;
+        m2 += (newValue - oldValue) * (newValue - mean + oldValue - oldMean);
+        if (m2 < 0) {
+            // Rounding after many replacements of near-equal values
+            m2 = 0;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    public double getVariance() {
+        return count > 0 ? m2 / count : Double.NaN;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Standard score of a value against these stats, or NaN when there are
+     * fewer than two values to judge against. Without spread any deviation
+     * is infinitely far off: +/-Infinity, or 0 for the mean itself.
+     */
+    public double zScore(double value) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return standardScore(value - mean, getStdDev());
+    }
+
+    private static double standardScore(double deviation, double stdDev) {
+        if (stdDev > 0) {
+            return deviation / stdDev;
+        }
+        return deviation == 0 ? 0 : Math.copySign(Double.POSITIVE_INFINITY, deviation);
+    }
+
+    public static RunningStats of(double[] values, int from, int to) {
+        RunningStats stats = new RunningStats();
+        for (int i = from; i < to; i++) {
+            stats.add(values[i]);
+        }
+        return stats;
+    }
+
+    /**
+     * Baseline mean and standard deviation for every point of a series.
+     *
+     * Each point from index {@code window} on is judged against the
+     * {@code window} points before it; the first {@code window} points share
+     * the stats of that first window. A series no longer than the window gets
+     * a single baseline over the whole series.
+     */
+    public static Baseline rolling(double[] values, int length, int window) {
+        double[] means = new double[length];
+        double[] stdDevs = new double[length];
+        int size = Math.max(1, Math.min(window, length));
+
+        RunningStats stats = of(values, 0, size);
+        for (int i = 0; i < size; i++) {
+            means[i] = stats.getMean();
+            stdDevs[i] = stats.getStdDev();
+        }
+        for (int i = size; i < length; i++) {
+            means[i] = stats.getMean();
+            stdDevs[i] = stats.getStdDev();
+            // Slide the window forward to include this point for the next one
+            stats.replace(values[i - size], values[i]);
+        }
+        return new Baseline(values, means, stdDevs, size);
+    }
+
+    /**
+     * Per-point baseline from {@link #rolling(double[], int, int)}
+     */
+    public static final class Baseline {
+
+        private final double[] values;
+        private final double[] means;
+        private final double[] stdDevs;
+        private final int window;
+
+        private Baseline(double[] values, double[] means, double[] stdDevs, int window) {
+            this.values = values;
+            this.means = means;
+            this.stdDevs = stdDevs;
+            this.window = window;
+        }
+
+        public double mean(int i) {
+            return means[i];
+        }
+
+        public double stdDev(int i) {
+            return stdDevs[i];
+        }
+
+        /**
+         * Standard score of point i against its baseline, NaN when the
+         * baseline is a single point and +/-Infinity when it has no spread
+         * but the point deviates from it
+         */
+        public double zScore(int i) {
+            if (window < 2) {
+                return Double.NaN;
+            }
+            return standardScore(values[i] - means[i], stdDevs[i]);
+        }
+
+        public int size() {
+            return means.length;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Findings of the background anomaly sweep (AnomalySweepService)
+
+-- HQ.anomalies definition
+CREATE TABLE IF NOT EXISTS `anomalies` (
+    `id` bigint(20) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `metric_type` varchar(32) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    `value` double NOT NULL,
+    `expected_value` double NOT NULL,
+    `deviation_percent` double NOT NULL,
+    `severity` varchar(16) NOT NULL,
+    `detected_at` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `anomalies_farm_metric_timestamp` (`farm_id`,`metric_type`,`timestamp`),
+    KEY `anomalies_farm_timestamp` (`farm_id`,`timestamp`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Anomalous farm metric readings found by the background sweep';
+
+-- HQ.anomaly_sweep_state definition
+CREATE TABLE IF NOT EXISTS `anomaly_sweep_state` (
+    `farm_id` varchar(36) NOT NULL,
+    `metric_type` varchar(32) NOT NULL,
+    `first_timestamp` datetime NOT NULL,
+    `last_timestamp` datetime NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`farm_id`,`metric_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Reading range each farm metric has been swept over';
@@ -0,0 +1,54 @@
+-- Hourly meter readings and the pre-aggregates maintained by MeterHourlyRollupService
+
+-- HQ.meter_hourly definition
+CREATE TABLE IF NOT EXISTS `meter_hourly` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `meter_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `meter_hourly_meter_id` (`meter_id`) USING BTREE,
+    CONSTRAINT `meter_hourly_meter_id` FOREIGN KEY (`meter_id`) REFERENCES `meters` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Hourly meter value';
+
+-- Range scan per meter on timestamp and read value without touching the row
+CREATE INDEX IF NOT EXISTS meter_hourly_covering ON meter_hourly (meter_id, timestamp, value);
+
+-- Range scan across all meters for a day (rollup refreshes)
+CREATE INDEX IF NOT EXISTS meter_hourly_timestamp ON meter_hourly (timestamp);
+
+-- HQ.farm_production_hourly definition
+CREATE TABLE IF NOT EXISTS `farm_production_hourly` (
+    `farm_id` varchar(36) NOT NULL,
+    `hour` datetime NOT NULL,
+    `volume` double NOT NULL,
+    `reading_count` int(11) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`farm_id`,`hour`),
+    KEY `farm_production_hourly_hour` (`hour`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Hourly meter volume summed per farm';
+
+-- HQ.meter_hourly_rollup_state definition
+CREATE TABLE IF NOT EXISTS `meter_hourly_rollup_state` (
+    `name` varchar(64) NOT NULL,
+    `last_meter_hourly_id` int(11) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Watermark for incremental hourly rollup refreshes';
+
+-- Backfill the hourly rollup from the existing meter_hourly rows
+INSERT INTO `farm_production_hourly` (farm_id, hour, volume, reading_count, timestamp)
+SELECT
+    m.farm_id,
+    TIMESTAMPADD(HOUR, HOUR(mh.timestamp), CAST(mh.timestamp AS DATE)),
+    SUM(mh.value),
+    COUNT(*),
+    NOW()
+FROM
+    meter_hourly mh
+    JOIN meters m ON mh.meter_id = m.id
+GROUP BY
+    m.farm_id, TIMESTAMPADD(HOUR, HOUR(mh.timestamp), CAST(mh.timestamp AS DATE));
+
+INSERT INTO `meter_hourly_rollup_state` (name, last_meter_hourly_id, timestamp)
+SELECT 'meter_hourly', COALESCE(MAX(id), 0), NOW() FROM meter_hourly;
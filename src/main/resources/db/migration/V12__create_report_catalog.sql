@@ -0,0 +1,17 @@
+-- Metadata of the stored report PDFs, maintained by ReportCatalogService so
+-- report lookups never read the pdf columns. The service fills it on its
+-- first refresh, reading each existing PDF once for its checksum.
+
+-- HQ.report_catalog definition
+CREATE TABLE IF NOT EXISTS `report_catalog` (
+    `kind` varchar(16) NOT NULL,
+    `report_id` int(11) NOT NULL,
+    `company_id` varchar(36) NOT NULL,
+    `report_date` date NOT NULL,
+    `report_timestamp` datetime NOT NULL,
+    `size` bigint(20) NOT NULL,
+    `checksum` char(64) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`kind`,`report_id`),
+    KEY `report_catalog_company_date` (`company_id`,`kind`,`report_date`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Date, size and SHA-256 of each daily and weekly report PDF';
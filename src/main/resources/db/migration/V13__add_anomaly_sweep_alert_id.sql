@@ -0,0 +1,5 @@
+-- Website alert each farm metric's critical anomalies were last reported in,
+-- so a later sweep updates that alert while it is still active instead of
+-- raising another one (AnomalySweepService)
+
+ALTER TABLE anomaly_sweep_state ADD COLUMN IF NOT EXISTS alert_id int(11) NULL;
@@ -0,0 +1,4 @@
+-- An anomaly off a flat zero baseline has no deviation percentage, so the
+-- sweep stores NULL for it (AnomalySweepService)
+
+ALTER TABLE anomalies MODIFY COLUMN deviation_percent double NULL;
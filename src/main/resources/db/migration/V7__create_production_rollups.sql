@@ -0,0 +1,86 @@
+-- Pre-aggregated production rollups maintained by ProductionRollupService
+
+-- HQ.farm_production_daily definition
+CREATE TABLE IF NOT EXISTS `farm_production_daily` (
+    `company_id` varchar(36) NOT NULL,
+    `farm_id` varchar(36) NOT NULL,
+    `date` date NOT NULL,
+    `volume` double NOT NULL,
+    `reading_count` int(11) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`company_id`,`date`,`farm_id`),
+    KEY `farm_production_daily_date` (`date`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Daily meter volume summed per company and farm';
+
+-- HQ.farm_production_monthly definition
+CREATE TABLE IF NOT EXISTS `farm_production_monthly` (
+    `company_id` varchar(36) NOT NULL,
+    `farm_id` varchar(36) NOT NULL,
+    `month` date NOT NULL,
+    `volume` double NOT NULL,
+    `reading_count` int(11) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`company_id`,`month`,`farm_id`),
+    KEY `farm_production_monthly_month` (`month`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Monthly meter volume summed per company and farm';
+
+-- HQ.company_production_daily definition
+CREATE TABLE IF NOT EXISTS `company_production_daily` (
+    `company_id` varchar(36) NOT NULL,
+    `date` date NOT NULL,
+    `volume` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`company_id`,`date`),
+    KEY `company_production_daily_date` (`date`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Daily meter volume summed per company';
+
+-- HQ.production_rollup_state definition
+CREATE TABLE IF NOT EXISTS `production_rollup_state` (
+    `name` varchar(64) NOT NULL,
+    `last_meter_daily_id` int(11) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Watermarks for incremental rollup refreshes';
+
+-- Backfill the rollups from the existing meter_daily rows
+INSERT INTO `farm_production_daily` (company_id, farm_id, date, volume, reading_count, timestamp)
+SELECT
+    cm.company_id,
+    m.farm_id,
+    DATE(md.timestamp),
+    SUM(md.value),
+    COUNT(*),
+    NOW()
+FROM
+    meter_daily md
+    JOIN meters m ON md.meter_id = m.id
+    JOIN company_meters cm ON m.id = cm.meter_id
+GROUP BY
+    cm.company_id, m.farm_id, DATE(md.timestamp);
+
+INSERT INTO `farm_production_monthly` (company_id, farm_id, month, volume, reading_count, timestamp)
+SELECT
+    company_id,
+    farm_id,
+    DATE_FORMAT(date, '%Y-%m-01'),
+    SUM(volume),
+    SUM(reading_count),
+    NOW()
+FROM
+    farm_production_daily
+GROUP BY
+    company_id, farm_id, DATE_FORMAT(date, '%Y-%m-01');
+
+INSERT INTO `company_production_daily` (company_id, date, volume, timestamp)
+SELECT
+    company_id,
+    date,
+    SUM(volume),
+    NOW()
+FROM
+    farm_production_daily
+GROUP BY
+    company_id, date;
+
+INSERT INTO `production_rollup_state` (name, last_meter_daily_id, timestamp)
+SELECT 'meter_daily', COALESCE(MAX(id), 0), NOW() FROM meter_daily;
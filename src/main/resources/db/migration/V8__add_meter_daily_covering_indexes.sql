@@ -0,0 +1,10 @@
+-- Covering indexes for the company_meters -> meters -> meter_daily chart joins
+
+-- Resolve a company's meters from the index alone
+CREATE INDEX IF NOT EXISTS company_meters_company_meter ON company_meters (company_id, meter_id);
+
+-- Range scan per meter on timestamp and read value without touching the row
+CREATE INDEX IF NOT EXISTS meter_daily_covering ON meter_daily (meter_id, timestamp, value);
+
+-- Range scan across all meters for a day (rollup refreshes)
+CREATE INDEX IF NOT EXISTS meter_daily_timestamp ON meter_daily (timestamp);
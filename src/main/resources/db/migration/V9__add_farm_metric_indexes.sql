@@ -0,0 +1,10 @@
+-- Covering indexes for the company anomaly scan, which reads one metric for
+-- all of a company's farms at once (farm_id IN (...) AND timestamp range)
+
+CREATE INDEX IF NOT EXISTS ch4_recovery_farm_timestamp ON ch4_recovery (farm_id, timestamp, value);
+
+CREATE INDEX IF NOT EXISTS temperature_farm_timestamp ON temperature (farm_id, timestamp, value);
+
+CREATE INDEX IF NOT EXISTS mass_balance_farm_timestamp ON mass_balance (farm_id, timestamp, value);
+
+CREATE INDEX IF NOT EXISTS lagoon_levels_farm_timestamp ON lagoon_levels (farm_id, timestamp, value);
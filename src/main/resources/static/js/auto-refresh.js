@@ -1,6 +1,7 @@
 /**
  * Auto-Refresh functionality
- * - Automatically refreshes data every 30 seconds
+ * - Listens on the company event stream and refreshes data when it changes
+ * - Falls back to refreshing every 30 seconds when the stream is unavailable
  * - Updates UI without page reload
  * - Provides seamless data updates
  */
@@ -11,16 +12,26 @@
     
     // Configuration
     const REFRESH_INTERVAL = 30000; // 30 seconds
+    const EVENT_DEBOUNCE = 1000; // Coalesce bursts of change events into one refresh
     let refreshTimer = null;
     let lastRefreshTime = new Date();
+
+    // Event stream state
+    let eventSource = null;
+    let streamInterrupted = false;
+    let pendingRefresh = null;
     
     // Page type detection
     let currentPageType = 'unknown';
+
+    // ETag / Last-Modified of the last response per request, for conditional polling
+    const validators = new Map();
     
     // Initialize when DOM is ready
     document.addEventListener('DOMContentLoaded', function() {
         detectPageType();
         initAutoRefresh();
+        openEventStream();
         
         console.log(`✅ Auto-refresh initialized for ${currentPageType} page`);
     });
@@ -87,6 +98,112 @@
         console.log(`⏱️ Auto-refresh timer set for ${REFRESH_INTERVAL/1000} seconds`);
     }
     
+    /**
+     * Subscribe to the company's event stream. While it is connected the
+     * polling timer is stopped and data is refreshed only when the server
+     * reports a change; if the stream drops, polling resumes until the
+     * browser reconnects.
+     */
+    function openEventStream() {
+        const companyId = document.body.getAttribute('data-company-id');
+        if (!window.EventSource || !companyId || companyId === 'default') {
+            console.log('ℹ️ Event stream unavailable, using timed refresh');
+            return;
+        }
+
+        eventSource = new EventSource(`/api/stream/company/${encodeURIComponent(companyId)}`);
+
+        eventSource.addEventListener('connected', function() {
+            if (refreshTimer) {
+                clearInterval(refreshTimer);
+                refreshTimer = null;
+            }
+            console.log('📡 Event stream connected, timed refresh stopped');
+
+            // Catch up on anything that changed while disconnected
+            if (streamInterrupted) {
+                streamInterrupted = false;
+                scheduleRefresh();
+            }
+        });
+
+        eventSource.addEventListener('data-changed', function(event) {
+            console.log('📡 Data changed:', event.data);
+            scheduleRefresh();
+        });
+
+        eventSource.addEventListener('website-alert', function(event) {
+            console.log('📡 Website alerts changed:', event.data);
+            if (typeof window.refreshWebsiteAlerts === 'function') {
+                window.refreshWebsiteAlerts();
+            }
+        });
+
+        eventSource.onerror = function() {
+            if (!refreshTimer) {
+                console.warn('⚠️ Event stream interrupted, resuming timed refresh');
+                streamInterrupted = true;
+                initAutoRefresh();
+            }
+        };
+    }
+
+    function scheduleRefresh() {
+        if (pendingRefresh) {
+            clearTimeout(pendingRefresh);
+        }
+        pendingRefresh = setTimeout(function() {
+            pendingRefresh = null;
+            refreshData();
+            lastRefreshTime = new Date();
+        }, EVENT_DEBOUNCE);
+    }
+
+    /**
+     * fetch() that remembers the ETag and Last-Modified of each successful
+     * response and, when options.revalidate is set, sends them back as
+     * If-None-Match / If-Modified-Since. The server answers 304 with no body
+     * when nothing changed, so callers must check response.status === 304 and
+     * keep what they already show.
+     *
+     * Validators are only sent on revalidation so a first render never gets
+     * an empty 304.
+     *
+     * @param {string} url - The request URL
+     * @param {Object} options - fetch options, plus an optional revalidate flag
+     * @returns {Promise<Response>}
+     */
+    function conditionalFetch(url, options = {}) {
+        const { revalidate, ...fetchOptions } = options;
+        const method = (fetchOptions.method || 'GET').toUpperCase();
+        const key = `${method} ${url} ${typeof fetchOptions.body === 'string' ? fetchOptions.body : ''}`;
+        const headers = new Headers(fetchOptions.headers || {});
+
+        const known = validators.get(key);
+        if (revalidate && known) {
+            if (known.etag) {
+                headers.set('If-None-Match', known.etag);
+            } else if (known.lastModified) {
+                headers.set('If-Modified-Since', known.lastModified);
+            }
+        }
+
+        // Bypass the browser cache so a 304 reaches the caller instead of a replayed body
+        return fetch(url, { ...fetchOptions, headers, cache: 'no-store' })
+            .then(response => {
+                if (response.ok) {
+                    const etag = response.headers.get('ETag');
+                    const lastModified = response.headers.get('Last-Modified');
+                    if (etag || lastModified) {
+                        validators.set(key, { etag, lastModified });
+                    }
+                } else if (response.status === 304) {
+                    console.log(`✅ Not modified: ${method} ${url}`);
+                }
+                return response;
+            });
+    }
+
     /**
      * Refresh data based on page type
      */
@@ -110,6 +227,8 @@
                     console.log('📈 Refreshing chart data...');
                     if (typeof window.refreshChartData === 'function') {
                         window.refreshChartData();
+                    } else {
+                        refreshChartData();
                     }
                     break;
 
@@ -142,7 +261,7 @@
         // Check for YTD Volume chart
         if (document.getElementById('ytdVolumeChart') && window.updateChart) {
             console.log('📊 Refreshing YTD Volume chart');
-            window.updateChart();
+            window.updateChart({ refresh: true });
         }
         
         // Check for Weekly Report charts
@@ -242,9 +361,12 @@
         // Construct the API URL
         const apiUrl = `/api/reports/daily-pdf/${companyName}?company_id=${companyId}&date=${date}`;
         
-        // Fetch the report data
-        fetch(apiUrl)
+        // Fetch the report data, keeping the current PDF when it has not changed
+        conditionalFetch(apiUrl, { revalidate: true })
             .then(response => {
+                if (response.status === 304) {
+                    return null;
+                }
                 if (!response.ok) {
                     if (response.headers.get('content-type').includes('application/json')) {
                         return response.json().then(errorData => {
@@ -256,6 +378,11 @@
                 return response.blob();
             })
             .then(blob => {
+                if (!blob) {
+                    console.log('✅ Report unchanged, keeping current PDF');
+                    return;
+                }
+
                 // Create object URL for the PDF
                 const pdfUrl = URL.createObjectURL(blob);
                 
@@ -294,7 +421,9 @@
     window.autoRefresh = {
         refreshNow: refreshData,
         getLastRefreshTime: function() { return lastRefreshTime; },
-        getRefreshInterval: function() { return REFRESH_INTERVAL; }
+        getRefreshInterval: function() { return REFRESH_INTERVAL; },
+        isStreaming: function() { return !!eventSource && eventSource.readyState === EventSource.OPEN && !refreshTimer; },
+        conditionalFetch: conditionalFetch
     };
     
     console.log('✅ auto-refresh.js fully initialized');
@@ -564,6 +564,37 @@ function safelyFormatChartData(data, nameKey = 'name', valueKey = 'value') {
         .filter(([name, value]) => name && value >= 0);
 }
 
+/**
+ * Add format=columnar to a chart API URL so timeline endpoints answer with
+ * parallel arrays ({timestamps: [...], series: {name: [...]}}) instead of
+ * one object per data point
+ * @param {string} url - Chart API URL
+ * @returns {string} URL asking for the columnar format
+ */
+function withColumnarFormat(url) {
+    return url + (url.includes('?') ? '&' : '?') + 'format=columnar';
+}
+
+/**
+ * Turn one series of a columnar timeline response into Highcharts [x, y] pairs
+ * @param {Object} columnar - Columnar response body
+ * @param {string} seriesName - Name of the series to read
+ * @returns {Array} Array of [timestampMillis, value] pairs, empty if the response has no data
+ */
+function columnarSeriesData(columnar, seriesName) {
+    if (!columnar || !Array.isArray(columnar.timestamps) || !columnar.series) {
+        return [];
+    }
+
+    const timestamps = columnar.timestamps;
+    const values = columnar.series[seriesName] || [];
+    const points = new Array(timestamps.length);
+    for (let i = 0; i < timestamps.length; i++) {
+        points[i] = [timestamps[i], values[i] ?? null];
+    }
+    return points;
+}
+
 /**
  * Create a safe Highcharts chart configuration
  * @param {string} containerId - Chart container ID
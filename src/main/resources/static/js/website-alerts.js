@@ -123,6 +123,22 @@ function initWebsiteAlerts() {
     }
 }
 
+/**
+ * Reload the alert list after the event stream reports an alert change,
+ * using the role found when the alerts were first loaded
+ */
+function refreshWebsiteAlerts() {
+    const companyId = document.body.getAttribute('data-company-id');
+    const isAdmin = document.body.getAttribute('data-is-admin') === 'true' ||
+        document.body.getAttribute('data-is-super-admin') === 'true';
+
+    if (isAdmin) {
+        fetchAllActiveAlerts();
+    } else if (companyId) {
+        fetchActiveAlerts(companyId);
+    }
+}
+
 /**
  * Fetch all active alerts (for admin users)
  */
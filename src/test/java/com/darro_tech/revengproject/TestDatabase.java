@@ -0,0 +1,137 @@
+package com.darro_tech.revengproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * In-memory H2 database (MySQL mode) with the production schema: the HQ
+ * tables that predate the migrations (db/hq/hq_tables.sql) followed by every
+ * db/migration script in version order, so tests run against the same DDL
+ * Flyway applies. Foreign keys are not enforced, so a test only seeds the
+ * rows it reads.
+ */
+public final class TestDatabase {
+
+    private static final Pattern VERSION = Pattern.compile("V(\\d+)__");
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (?:IF NOT EXISTS )?`(\\w+)`");
+    private static final Pattern KEY = Pattern.compile("KEY `(\\w+)` \\(");
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Creates and migrates a database named {@code name}; it is dropped when
+     * the returned data source is destroyed.
+     */
+    public static SingleConnectionDataSource create(String name) {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,HOUR,MONTH,YEAR",
+                "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // MySQL functions the migrations call that H2 does not have
+        jdbcTemplate.execute("CREATE ALIAS DATE_FORMAT FOR \"" + TestDatabase.class.getName() + ".dateFormat\"");
+        jdbcTemplate.execute("CREATE ALIAS LOAD_FILE FOR \"" + TestDatabase.class.getName() + ".loadFile\"");
+
+        run(jdbcTemplate, new ClassPathResource("db/hq/hq_tables.sql"));
+        for (Resource migration : migrations()) {
+            run(jdbcTemplate, migration);
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        return dataSource;
+    }
+
+    private static Resource[] migrations() {
+        try {
+            Resource[] migrations = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath:db/migration/V*__*.sql");
+            Arrays.sort(migrations, Comparator.comparingInt(TestDatabase::version));
+            return migrations;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int version(Resource migration) {
+        Matcher matcher = VERSION.matcher(migration.getFilename());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Not a versioned migration: " + migration.getFilename());
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static void run(JdbcTemplate jdbcTemplate, Resource script) {
+        String sql;
+        try {
+            sql = script.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String statement : sql.split(";")) {
+            String stripped = stripComments(statement);
+            if (!stripped.isBlank()) {
+                jdbcTemplate.execute(scopeIndexNames(stripped));
+            }
+        }
+    }
+
+    // MySQL index names are per table, H2 ones per schema
+    private static String scopeIndexNames(String statement) {
+        Matcher table = CREATE_TABLE.matcher(statement);
+        if (!table.find()) {
+            return statement;
+        }
+        String prefix = table.group(1) + "_";
+        Matcher key = KEY.matcher(statement);
+        StringBuilder sql = new StringBuilder();
+        while (key.find()) {
+            String name = key.group(1).startsWith(prefix) ? key.group(1) : prefix + key.group(1);
+            key.appendReplacement(sql, Matcher.quoteReplacement("KEY `" + name + "` ("));
+        }
+        key.appendTail(sql);
+        return sql.toString();
+    }
+
+    private static String stripComments(String statement) {
+        StringBuilder sql = new StringBuilder();
+        for (String line : statement.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * MySQL DATE_FORMAT for the specifiers the migrations use.
+     */
+    public static String dateFormat(Timestamp value, String format) {
+        if (value == null) {
+            return null;
+        }
+        String pattern = format.replace("%Y", "yyyy").replace("%m", "MM").replace("%d", "dd")
+                .replace("%H", "HH").replace("%i", "mm").replace("%s", "ss");
+        return value.toLocalDateTime().format(DateTimeFormatter.ofPattern(pattern));
+    }
+
+    /**
+     * MySQL LOAD_FILE returns NULL when the server cannot read the file,
+     * which is always the case here.
+     */
+    public static byte[] loadFile(String path) {
+        return null;
+    }
+}
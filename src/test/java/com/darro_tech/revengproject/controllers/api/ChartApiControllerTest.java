@@ -1,10 +1,13 @@
 package com.darro_tech.revengproject.controllers.api;
 
 import com.darro_tech.revengproject.controllers.AuthenticationController;
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
 import com.darro_tech.revengproject.dto.FarmVolumeData;
 import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.services.ChartCacheService;
 import com.darro_tech.revengproject.services.ChartService;
 import com.darro_tech.revengproject.services.CompanyService;
+import com.darro_tech.revengproject.services.DataVersionService;
 import com.darro_tech.revengproject.services.FarmService;
 import com.darro_tech.revengproject.services.UserRoleService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
@@ -27,8 +31,11 @@ import jakarta.servlet.http.HttpSession;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,12 +58,17 @@ class ChartApiControllerTest {
     @Mock
     private FarmService farmService;
 
+    @Mock
+    private DataVersionService dataVersionService;
+
     @InjectMocks
     private ChartApiController chartApiController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(chartApiController, "chartCacheService",
+                new ChartCacheService(dataVersionService, 100, 60_000));
 
         // Mock AuthenticationController behavior
         when(authenticationController.getUserFromSession(any(HttpSession.class))).thenReturn(null);
@@ -409,4 +421,75 @@ class ChartApiControllerTest {
                 .andExpect(jsonPath("$.data[1].timestamp").value("2023-01-02T00:00:00Z"))
                 .andExpect(jsonPath("$.data[1].lcfs").value(151.0));
     }
+
+    @Test
+    void getCompanyProductionTimeline_WhenColumnarRequested_ShouldReturnParallelArrays() throws Exception {
+        // Given
+        ColumnarTimeline timeline = new ColumnarTimeline("value");
+        timeline.setValue(0, timeline.addRow(1672531200000L), 1200.5);
+        timeline.addRow(1672617600000L);
+
+        when(chartService.getCompanyProductionTimelineColumnar(anyString(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(timeline);
+
+        // When & Then
+        mockMvc.perform(post("/api/charts/company/production-timeline")
+                .param("format", "columnar")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"company_id\":\"1\",\"from\":\"2023-01-01\",\"to\":\"2023-01-02\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.format").value("columnar"))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.timestamps[0]").value(1672531200000L))
+                .andExpect(jsonPath("$.timestamps[1]").value(1672617600000L))
+                .andExpect(jsonPath("$.series.value[0]").value(1200.5))
+                .andExpect(jsonPath("$.series.value[1]").doesNotExist())
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void getCompanyPopulationTimeline_ShouldServeRepeatsFromCacheAndAnswer304ForCurrentETag() throws Exception {
+        // Given
+        Map<String, Object> data = new java.util.HashMap<>();
+        data.put("timestamp", "2023-01-01");
+        data.put("value", 5000);
+        when(chartService.getCompanyPopulationTimeline(anyString(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(data));
+        when(dataVersionService.companyVersion("1")).thenReturn(1672531200000L);
+        String body = "{\"company_id\":\"1\",\"from\":\"2023-01-01\",\"to\":\"2023-01-31\"}";
+
+        // When
+        String etag = mockMvc.perform(post("/api/charts/company/population-timeline")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/api/charts/company/population-timeline")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].value").value(5000));
+
+        // Then
+        mockMvc.perform(post("/api/charts/company/population-timeline")
+                .header("If-None-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isNotModified());
+
+        verify(chartService, times(1)).getCompanyPopulationTimeline(anyString(), any(LocalDate.class), any(LocalDate.class));
+
+        // A new data version invalidates both the ETag and the cached result
+        when(dataVersionService.companyVersion("1")).thenReturn(1672531260000L);
+        mockMvc.perform(post("/api/charts/company/population-timeline")
+                .header("If-None-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk());
+
+        verify(chartService, times(2)).getCompanyPopulationTimeline(anyString(), any(LocalDate.class), any(LocalDate.class));
+    }
 }
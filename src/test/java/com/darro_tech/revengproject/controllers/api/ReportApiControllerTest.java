@@ -0,0 +1,140 @@
+package com.darro_tech.revengproject.controllers.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.darro_tech.revengproject.controllers.AuthenticationController;
+import com.darro_tech.revengproject.dto.PdfRenderJob;
+import com.darro_tech.revengproject.models.User;
+import com.darro_tech.revengproject.security.CompanyAccessGrant;
+import com.darro_tech.revengproject.services.CompanyAccessService;
+import com.darro_tech.revengproject.services.PdfRenderService;
+import com.darro_tech.revengproject.services.ReferenceDataService;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+import com.darro_tech.revengproject.services.ReportCatalogService;
+import com.darro_tech.revengproject.services.SessionManagementService;
+
+import jakarta.servlet.http.HttpSession;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Report dates and render jobs are only served to users with access to the
+ * report's company
+ */
+class ReportApiControllerTest {
+
+    private MockMvc mockMvc;
+    private final MockHttpSession session = new MockHttpSession();
+
+    @Mock
+    private ReportCatalogService reportCatalogService;
+
+    @Mock
+    private PdfRenderService pdfRenderService;
+
+    @Mock
+    private AuthenticationController authenticationController;
+
+    @Mock
+    private CompanyAccessService companyAccessService;
+
+    @Mock
+    private SessionManagementService sessionManagementService;
+
+    @Mock
+    private ReferenceDataService referenceDataService;
+
+    @InjectMocks
+    private ReportApiController reportApiController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        // Signed in with access to c1 only
+        User user = new User();
+        user.setUsername("member");
+        when(authenticationController.getUserFromSession(any(HttpSession.class))).thenReturn(user);
+        when(companyAccessService.getGrant(any(HttpSession.class), any(User.class)))
+                .thenReturn(new CompanyAccessGrant("u1", false, List.of("c1"), 1));
+
+        when(pdfRenderService.getJob("job-c2")).thenReturn(Optional.of(job("job-c2", "c2")));
+        when(pdfRenderService.getJob("job-all")).thenReturn(Optional.of(job("job-all", null)));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(reportApiController).build();
+    }
+
+    @Test
+    void submitRender_ShouldRejectCompaniesTheUserCannotAccess() throws Exception {
+        mockMvc.perform(post("/api/reports/render").session(session).param("company_id", "c2"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.success").value(false));
+
+        // Without a company the report covers every company
+        mockMvc.perform(post("/api/reports/render").session(session))
+                .andExpect(status().isForbidden());
+        verify(pdfRenderService, never()).submit(any(), any(), any());
+
+        when(pdfRenderService.submit(Kind.DAILY, "c1", LocalDate.now())).thenReturn(job("job-c1", "c1"));
+        mockMvc.perform(post("/api/reports/render").session(session).param("company_id", "c1"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.job.id").value("job-c1"));
+    }
+
+    @Test
+    void renderJobs_ShouldOnlyBeReadByUsersWithAccessToTheJobsCompany() throws Exception {
+        mockMvc.perform(get("/api/reports/render/job-c2").session(session))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/render/job-c2/pdf").session(session))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/render/job-all/pdf").session(session))
+                .andExpect(status().isForbidden());
+        verify(pdfRenderService, never()).getJobPdf(anyString());
+    }
+
+    @Test
+    void getReportDates_ShouldRejectCompaniesTheUserCannotAccess() throws Exception {
+        mockMvc.perform(get("/api/reports/dates").session(session).param("company_id", "c2"))
+                .andExpect(status().isForbidden());
+        verify(reportCatalogService, never()).findReportDates(any(), anyString(), any(), any());
+    }
+
+    @Test
+    void reports_ShouldRequireASignedInUser() throws Exception {
+        when(authenticationController.getUserFromSession(any(HttpSession.class))).thenReturn(null);
+
+        mockMvc.perform(post("/api/reports/render").param("company_id", "c1"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/reports/dates").param("company_id", "c1"))
+                .andExpect(status().isUnauthorized());
+        verify(pdfRenderService, never()).submit(any(), any(), any());
+    }
+
+    private static PdfRenderJob job(String id, String companyId) {
+        PdfRenderJob job = new PdfRenderJob();
+        job.setId(id);
+        job.setCompanyId(companyId);
+        job.setType("daily");
+        job.setStatus(PdfRenderService.Status.DONE.name());
+        return job;
+    }
+}
@@ -0,0 +1,184 @@
+package com.darro_tech.revengproject.repositories;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN for every native query in MeterDailyRepository against an
+ * in-memory H2 database in MySQL mode, with the meter tables indexed as in
+ * the V2 and V8 migrations, and fails if meter_daily would be scanned instead
+ * of range-read through an index on timestamp.
+ */
+class MeterDailyRepositoryExplainTest {
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:meter_daily_explain;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE farms (id varchar(36) NOT NULL PRIMARY KEY, name varchar(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE meters (id varchar(36) NOT NULL PRIMARY KEY, farm_id varchar(36) NOT NULL, "
+                + "name varchar(255) NOT NULL, include_website boolean DEFAULT TRUE)");
+        jdbcTemplate.execute("CREATE INDEX meters_farm_id ON meters (farm_id)");
+        jdbcTemplate.execute("CREATE TABLE company_meters (id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "company_id varchar(36) NOT NULL, meter_id varchar(36) NOT NULL, timestamp datetime NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX company_meters_company_id ON company_meters (company_id)");
+        jdbcTemplate.execute("CREATE TABLE meter_daily (id int NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "meter_id varchar(36) NOT NULL, value double NOT NULL, timestamp datetime NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX meter_daily_meter_id ON meter_daily (meter_id)");
+        jdbcTemplate.execute("CREATE INDEX meter_daily_indexes ON meter_daily (meter_id, timestamp)");
+
+        String migration = new ClassPathResource("db/migration/V8__add_meter_daily_covering_indexes.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        for (String statement : migration.split(";")) {
+            String sql = stripComments(statement);
+            if (!sql.isBlank()) {
+                jdbcTemplate.execute(sql);
+            }
+        }
+
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void everyNativeQuery_ShouldRangeReadMeterDailyByTimestamp() {
+        List<Method> queries = nativeQueries();
+        assertFalse(queries.isEmpty(), "MeterDailyRepository has no native queries to check");
+
+        for (Method method : queries) {
+            String plan = explain(method.getAnnotation(Query.class).value());
+            String meterDailyAccess = tableAccess(plan, "meter_daily");
+
+            assertFalse(meterDailyAccess.contains("tablescan"),
+                    method.getName() + " scans meter_daily:\n" + plan);
+            assertTrue(meterDailyAccess.contains("timestamp >="),
+                    method.getName() + " does not range-read meter_daily by timestamp:\n" + plan);
+        }
+    }
+
+    @Test
+    void timeWindowQuery_ShouldRangeReadMeterDailyByTimestamp() {
+        List<String> window = List.of("TIMESTAMP '2024-03-01 00:00:00'", "TIMESTAMP '2024-03-08 00:00:00'");
+        List<String> params = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            params.addAll(window);
+        }
+        params.add("'company-0'");
+        for (int i = 0; i < 3; i++) {
+            params.addAll(window);
+        }
+
+        String sql = MeterDailyRepositoryImpl.buildTimeWindowSql(3);
+        for (String param : params) {
+            sql = sql.replaceFirst("\\?", param);
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        String meterDailyAccess = tableAccess(plan, "meter_daily");
+
+        assertFalse(meterDailyAccess.contains("tablescan"), "Time window query scans meter_daily:\n" + plan);
+        assertTrue(meterDailyAccess.contains("meter_id ="), "Time window query does not seek meter_daily by meter:\n" + plan);
+    }
+
+    @Test
+    void dateWrappedTimestamp_ShouldBeFlaggedByThePlanCheck() {
+        String plan = explain(
+                "SELECT m.farm_id, SUM(md.value) "
+                + "FROM company_meters cm "
+                + "JOIN meters m ON m.id = cm.meter_id "
+                + "JOIN meter_daily md ON md.meter_id = m.id "
+                + "WHERE cm.company_id = :companyId "
+                + "AND DATE(md.timestamp) >= :fromTime "
+                + "AND DATE(md.timestamp) < :toTime "
+                + "GROUP BY m.farm_id");
+
+        assertFalse(tableAccess(plan, "meter_daily").contains("timestamp >="),
+                "Expected DATE(md.timestamp) to defeat the timestamp range read:\n" + plan);
+    }
+
+    private static List<Method> nativeQueries() {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : MeterDailyRepository.class.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query != null && query.nativeQuery()) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private static String explain(String sql) {
+        String bound = sql
+                .replace(":companyId", "'company-0'")
+                .replace(":fromTime", "TIMESTAMP '2024-03-01 00:00:00'")
+                .replace(":toTime", "TIMESTAMP '2024-03-08 00:00:00'");
+        return jdbcTemplate.queryForObject("EXPLAIN " + bound, String.class);
+    }
+
+    /**
+     * Returns the plan fragment H2 prints for how a table is read, e.g.
+     * {@code /* public.meter_daily_covering: meter_id = m.id AND timestamp >= ... *}{@code /}
+     */
+    private static String tableAccess(String plan, String table) {
+        String lower = plan.toLowerCase(Locale.ROOT);
+        int tableAt = lower.indexOf("\"public\".\"" + table + "\"");
+        assertTrue(tableAt >= 0, "Plan does not read " + table + ":\n" + plan);
+        int start = lower.indexOf("/*", tableAt);
+        int end = lower.indexOf("*/", start);
+        return lower.substring(start, end);
+    }
+
+    private static String stripComments(String statement) {
+        StringBuilder sql = new StringBuilder();
+        for (String line : statement.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        return sql.toString().trim();
+    }
+
+    private static void seed() {
+        List<Object[]> readings = new ArrayList<>();
+        LocalDateTime firstDay = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int farm = 0; farm < 10; farm++) {
+            jdbcTemplate.update("INSERT INTO farms (id, name) VALUES (?, ?)", "farm-" + farm, "Farm " + farm);
+            for (int meter = 0; meter < 5; meter++) {
+                String meterId = "meter-" + farm + "-" + meter;
+                jdbcTemplate.update("INSERT INTO meters (id, farm_id, name) VALUES (?, ?, ?)",
+                        meterId, "farm-" + farm, meterId);
+                jdbcTemplate.update("INSERT INTO company_meters (company_id, meter_id, timestamp) VALUES (?, ?, NOW())",
+                        "company-" + (farm % 5), meterId);
+                for (int day = 0; day < 730; day++) {
+                    readings.add(new Object[]{meterId, 100.0 + day % 50, firstDay.plusDays(day)});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO meter_daily (meter_id, value, timestamp) VALUES (?, ?, ?)", readings);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,141 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.models.dto.AnomalyDTO;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Scans a 50-farm company with a year of daily readings per farm and metric
+ * held in the migrated in-memory database (see TestDatabase).
+ */
+class AnomalyDetectionServiceCompanyScanTest {
+
+    private static final int FARMS = 50;
+    private static final int DAYS = 365;
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+    private static final String[] TABLES = {"ch4_recovery", "temperature", "mass_balance", "lagoon_levels"};
+
+    private static SingleConnectionDataSource dataSource;
+    private static TimeSeriesReader timeSeriesReader;
+    private static AnomalyDetectionService service;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = TestDatabase.create("company_scan");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<Company> companies = new ArrayList<>();
+        Company company = new Company();
+        company.setId("c1");
+        company.setName("Scan Co");
+        companies.add(company);
+
+        List<Farm> farms = new ArrayList<>();
+        List<String[]> links = new ArrayList<>();
+        for (int f = 0; f < FARMS; f++) {
+            Farm farm = new Farm();
+            farm.setId("f" + f);
+            farm.setName("Farm " + f);
+            farms.add(farm);
+            links.add(new String[]{"c1", farm.getId()});
+        }
+
+        Random random = new Random(7);
+        for (String table : TABLES) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int f = 0; f < FARMS; f++) {
+                for (int d = 0; d < DAYS; d++) {
+                    rows.add(new Object[]{"f" + f, 100 + random.nextGaussian(),
+                            Timestamp.from(START.plus(d, ChronoUnit.DAYS))});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (farm_id, value, timestamp) VALUES (?, ?, ?)", rows);
+        }
+        // One obvious CH4 recovery spike
+        jdbcTemplate.update("UPDATE ch4_recovery SET value = 200 WHERE farm_id = 'f7' AND timestamp = ?",
+                Timestamp.from(START.plus(200, ChronoUnit.DAYS)));
+
+        ReferenceDataService referenceDataService = new ReferenceDataService();
+        ReflectionTestUtils.setField(referenceDataService, "snapshot",
+                ReferenceDataService.Snapshot.build(companies, farms, links, List.of()));
+
+        TimeSeriesReader reader = new TimeSeriesReader();
+        ReflectionTestUtils.setField(reader, "jdbcTemplate", jdbcTemplate);
+        timeSeriesReader = spy(reader);
+
+        service = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(service, "timeSeriesReader", timeSeriesReader);
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+        service.init();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        service.shutdown();
+        dataSource.destroy();
+    }
+
+    @Test
+    void scanCompany_ShouldCoverAllFarmsAndMetricsWithMostSevereFirst() {
+        List<AnomalyDTO> anomalies = service.scanCompany("c1", START, START.plus(DAYS, ChronoUnit.DAYS));
+
+        assertFalse(anomalies.isEmpty());
+        AnomalyDTO first = anomalies.get(0);
+        assertEquals("f7", first.getFarmId());
+        assertEquals("CH4 Recovery", first.getMetricType());
+        assertEquals("Critical", first.getSeverity());
+        assertEquals(200.0, first.getValue());
+
+        boolean seenWarning = false;
+        for (AnomalyDTO anomaly : anomalies) {
+            seenWarning |= "Warning".equals(anomaly.getSeverity());
+            assertFalse(seenWarning && "Critical".equals(anomaly.getSeverity()), "Critical after Warning");
+        }
+        assertEquals(4, anomalies.stream().map(AnomalyDTO::getMetricType).distinct().count());
+        assertEquals(FARMS, anomalies.stream().map(AnomalyDTO::getFarmId).distinct().count());
+    }
+
+    @Test
+    void scanCompany_ShouldReadEachMetricOnceForAllFarms() {
+        clearInvocations(timeSeriesReader);
+
+        service.scanCompany("c1", START, START.plus(DAYS, ChronoUnit.DAYS));
+
+        // One query per metric, never one per farm
+        verify(timeSeriesReader, times(Metric.values().length)).readForFarms(any(), anyCollection(), any(), any());
+        verify(timeSeriesReader, never()).read(any(), anyString(), any(), any());
+    }
+
+    @Test
+    void scanCompany_ShouldReturnNothingForCompanyWithoutFarms() {
+        assertTrue(service.scanCompany("unknown", START, START.plus(1, ChronoUnit.DAYS)).isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.dto.TimeSeries;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.models.dto.AnomalyDTO;
+import com.darro_tech.revengproject.repositories.FarmRepository;
+import com.darro_tech.revengproject.services.TimeSeriesReader.Metric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnomalyDetectionServiceTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void detectCh4RecoveryAnomalies_ShouldFlagASpikeAfterAFlatRun() {
+        // 40 identical daily readings with one spike: the baseline before it has no spread
+        TimeSeries series = new TimeSeries();
+        for (int d = 0; d < 40; d++) {
+            series.add(START.plus(d, ChronoUnit.DAYS).toEpochMilli(), d == 35 ? 130 : 100);
+        }
+        Instant end = START.plus(40, ChronoUnit.DAYS);
+        TimeSeriesReader timeSeriesReader = mock(TimeSeriesReader.class);
+        when(timeSeriesReader.read(Metric.CH4_RECOVERY, "f1", START, end)).thenReturn(series);
+
+        Farm farm = new Farm();
+        farm.setId("f1");
+        farm.setName("Flat Farm");
+        FarmRepository farmRepository = mock(FarmRepository.class);
+        when(farmRepository.findById("f1")).thenReturn(Optional.of(farm));
+
+        AnomalyDetectionService service = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(service, "timeSeriesReader", timeSeriesReader);
+        ReflectionTestUtils.setField(service, "farmRepository", farmRepository);
+
+        List<AnomalyDTO> anomalies = service.detectCh4RecoveryAnomalies("f1", START, end);
+
+        assertEquals(1, anomalies.size());
+        assertEquals(130.0, anomalies.get(0).getValue());
+        assertEquals(100.0, anomalies.get(0).getExpectedValue());
+        assertEquals("Critical", anomalies.get(0).getSeverity());
+        assertEquals(START.plus(35, ChronoUnit.DAYS), anomalies.get(0).getTimestamp());
+    }
+}
@@ -0,0 +1,223 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.dto.WebsiteAlertDTO;
+import com.darro_tech.revengproject.dto.WebsiteAlertRequest;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.models.dto.AnomalyDTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sweeps 120 days of daily CH4 recovery readings of three farms held in the
+ * migrated in-memory database (see TestDatabase).
+ */
+class AnomalySweepServiceTest {
+
+    private static final int FARMS = 3;
+    private static final int DAYS = 120;
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private WebsiteAlertService websiteAlertService;
+    private AnomalyDetectionService anomalyDetectionService;
+    private AnomalySweepService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("anomaly_sweep");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<Company> companies = new ArrayList<>();
+        Company company = new Company();
+        company.setId("c1");
+        company.setName("Sweep Co");
+        companies.add(company);
+
+        List<Farm> farms = new ArrayList<>();
+        List<String[]> links = new ArrayList<>();
+        Random random = new Random(11);
+        List<Object[]> rows = new ArrayList<>();
+        for (int f = 0; f < FARMS; f++) {
+            Farm farm = new Farm();
+            farm.setId("f" + f);
+            farm.setName("Farm " + f);
+            farms.add(farm);
+            links.add(new String[]{"c1", farm.getId()});
+            for (int d = 0; d < DAYS; d++) {
+                rows.add(new Object[]{"f" + f, 100 + random.nextGaussian(), Timestamp.from(START.plus(d, ChronoUnit.DAYS))});
+            }
+        }
+        insertCh4Recovery(rows);
+        // One obvious spike inside the first sweep's 90 days
+        jdbcTemplate.update("UPDATE ch4_recovery SET value = 200 WHERE farm_id = 'f1' AND timestamp = ?",
+                Timestamp.from(START.plus(100, ChronoUnit.DAYS)));
+
+        ReferenceDataService referenceDataService = new ReferenceDataService();
+        ReflectionTestUtils.setField(referenceDataService, "snapshot",
+                ReferenceDataService.Snapshot.build(companies, farms, links, List.of()));
+
+        TimeSeriesReader timeSeriesReader = new TimeSeriesReader();
+        ReflectionTestUtils.setField(timeSeriesReader, "jdbcTemplate", jdbcTemplate);
+
+        anomalyDetectionService = new AnomalyDetectionService();
+        ReflectionTestUtils.setField(anomalyDetectionService, "timeSeriesReader", timeSeriesReader);
+        ReflectionTestUtils.setField(anomalyDetectionService, "referenceDataService", referenceDataService);
+        anomalyDetectionService.init();
+
+        websiteAlertService = mock(WebsiteAlertService.class);
+
+        service = new AnomalySweepService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "timeSeriesReader", timeSeriesReader);
+        ReflectionTestUtils.setField(service, "anomalyDetectionService", anomalyDetectionService);
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+        ReflectionTestUtils.setField(service, "websiteAlertService", websiteAlertService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        anomalyDetectionService.shutdown();
+        dataSource.destroy();
+    }
+
+    @Test
+    void sweep_ShouldStoreAnomaliesOnceAndAlertOnCriticalOnes() {
+        assertTrue(service.sweep() > 0);
+        int stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM anomalies", Integer.class);
+
+        // Nothing new to sweep
+        assertEquals(0, service.sweep());
+        assertEquals(stored, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM anomalies", Integer.class));
+        ArgumentCaptor<WebsiteAlertRequest> alerts = ArgumentCaptor.forClass(WebsiteAlertRequest.class);
+        verify(websiteAlertService, atLeastOnce()).upsertAlert(alerts.capture());
+        assertTrue(alerts.getAllValues().stream().anyMatch(alert -> alert.getMessage().contains("Farm 1")
+                && alert.getCompanyIds().equals(List.of("c1"))));
+
+        List<AnomalyDTO> anomalies = service.findStoredAnomalies(List.of("f1"), START, START.plus(DAYS, ChronoUnit.DAYS));
+        assertFalse(anomalies.isEmpty());
+        AnomalyDTO first = anomalies.get(0);
+        assertEquals("CH4 Recovery", first.getMetricType());
+        assertEquals("Critical", first.getSeverity());
+        assertEquals(START.plus(100, ChronoUnit.DAYS), first.getTimestamp());
+        assertEquals(200.0, first.getValue());
+    }
+
+    @Test
+    void sweep_ShouldOnlyReadReadingsAfterTheWatermark() {
+        service.sweep();
+        int stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM anomalies", Integer.class);
+        clearInvocations(websiteAlertService);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"f2", 300.0, Timestamp.from(START.plus(DAYS, ChronoUnit.DAYS))});
+        insertCh4Recovery(rows);
+
+        assertEquals(1, service.sweep());
+        assertEquals(stored + 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM anomalies", Integer.class));
+        ArgumentCaptor<WebsiteAlertRequest> alert = ArgumentCaptor.forClass(WebsiteAlertRequest.class);
+        verify(websiteAlertService, times(1)).upsertAlert(alert.capture());
+        assertTrue(alert.getValue().getMessage().contains("Farm 2"));
+    }
+
+    @Test
+    void sweep_ShouldUpdateTheFarmMetricsAlertWhileItIsActive() {
+        WebsiteAlertDTO raised = new WebsiteAlertDTO();
+        raised.setId(7);
+        raised.setIsActive(true);
+        when(websiteAlertService.upsertAlert(any())).thenReturn(raised);
+        when(websiteAlertService.getAlertById(7)).thenReturn(Optional.of(raised));
+        service.sweep();
+        clearInvocations(websiteAlertService);
+
+        addSpike("f1", DAYS);
+        service.sweep();
+
+        ArgumentCaptor<WebsiteAlertRequest> update = ArgumentCaptor.forClass(WebsiteAlertRequest.class);
+        verify(websiteAlertService, times(1)).upsertAlert(update.capture());
+        assertEquals(7, update.getValue().getId());
+
+        // Once an admin deactivates it, the next findings raise a new alert
+        raised.setIsActive(false);
+        clearInvocations(websiteAlertService);
+        addSpike("f1", DAYS + 1);
+        service.sweep();
+
+        ArgumentCaptor<WebsiteAlertRequest> created = ArgumentCaptor.forClass(WebsiteAlertRequest.class);
+        verify(websiteAlertService, times(1)).upsertAlert(created.capture());
+        assertNull(created.getValue().getId());
+    }
+
+    @Test
+    void sweep_ShouldStoreASpikeOffAFlatZeroBaselineWithoutAPercentage() {
+        jdbcTemplate.update("UPDATE ch4_recovery SET value = 0 WHERE farm_id = 'f0'");
+        service.sweep();
+        clearInvocations(websiteAlertService);
+
+        addSpike("f0", DAYS);
+        assertEquals(1, service.sweep());
+        assertEquals(0, service.sweep());
+
+        Instant spike = START.plus(DAYS, ChronoUnit.DAYS);
+        AnomalyDTO stored = service.findStoredAnomalies(List.of("f0"), spike, spike).get(0);
+        assertEquals("Critical", stored.getSeverity());
+        assertEquals(300.0, stored.getValue());
+        assertEquals(0.0, stored.getExpectedValue());
+        assertNull(stored.getDeviationPercent());
+
+        ArgumentCaptor<WebsiteAlertRequest> alert = ArgumentCaptor.forClass(WebsiteAlertRequest.class);
+        verify(websiteAlertService, times(1)).upsertAlert(alert.capture());
+        assertTrue(alert.getValue().getMessage().contains("300.00 against an expected 0.00"));
+        assertFalse(alert.getValue().getMessage().contains("%"));
+    }
+
+    @Test
+    void isCovered_ShouldOnlyHoldFromTheFirstSweptReading() {
+        Instant firstSwept = START.plus(DAYS - 1, ChronoUnit.DAYS).minus(90, ChronoUnit.DAYS);
+        assertFalse(service.isCovered(List.of("f0"), firstSwept));
+
+        service.sweep();
+
+        assertTrue(service.isCovered(List.of("f0", "f1"), firstSwept));
+        assertFalse(service.isCovered(List.of("f0"), START));
+        assertFalse(service.isCovered(List.of("unknown"), firstSwept));
+    }
+
+    private void addSpike(String farmId, int day) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{farmId, 300.0, Timestamp.from(START.plus(day, ChronoUnit.DAYS))});
+        insertCh4Recovery(rows);
+    }
+
+    private void insertCh4Recovery(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO ch4_recovery (farm_id, value, timestamp) VALUES (?, ?, ?)", rows);
+    }
+}
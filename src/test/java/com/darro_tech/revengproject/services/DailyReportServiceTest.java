@@ -0,0 +1,170 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.dto.BudgetComparison;
+import com.darro_tech.revengproject.dto.DailyReportDTO;
+import com.darro_tech.revengproject.dto.DateWindow;
+import com.darro_tech.revengproject.dto.FarmVolumeData;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Assembles a daily report from mocked windowed farm volumes and budgets
+ * held in the migrated in-memory database (see TestDatabase).
+ */
+class DailyReportServiceTest {
+
+    // A Wednesday: the week, month and year windows all differ
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 13);
+    private static final double DELTA = 1e-9;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DailyReportService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("daily_report");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO company_farms (company_id, farm_id, timestamp) "
+                + "VALUES ('c1', 'f1', NOW()), ('c1', 'f2', NOW()), ('c1', 'f3', NOW()), ('c2', 'f9', NOW())");
+        insertBudget("f1", 50, DAY.atTime(12, 0));
+        insertBudget("f2", 100, LocalDate.of(2024, 2, 1).atStartOfDay());
+        insertBudget("f9", 1000, DAY.atStartOfDay());
+        insertBudget("f1", 1000, DAY.plusDays(1).atStartOfDay());
+
+        ReferenceDataService referenceDataService = mock(ReferenceDataService.class);
+        when(referenceDataService.getFarmNames()).thenReturn(Map.of("f1", "Alpha", "f2", "Bravo", "f3", "Charlie"));
+        when(referenceDataService.getFarmsForCompany("c1")).thenReturn(List.of(farm("f3", "Charlie"), farm("f1", "Alpha")));
+        Company company = new Company();
+        company.setName("Acme");
+        when(referenceDataService.getCompanyById("c1")).thenReturn(Optional.of(company));
+
+        ChartService chartService = mock(ChartService.class);
+        when(chartService.getVolumeByFarmForDateWindows(eq("c1"), anyList())).thenAnswer(invocation -> {
+            List<DateWindow> windows = invocation.getArgument(1);
+            // f1: 10 on the day, 20 earlier in the week, 30 earlier in the month, 40 earlier in the year
+            double[] f1 = {10, 20, 30, 40};
+            Map<String, List<FarmVolumeData>> results = new LinkedHashMap<>();
+            for (int i = 0; i < windows.size(); i++) {
+                results.put(windows.get(i).getLabel(), i == 0
+                        ? List.of(volume("f1", f1[i]), volume("f2", 30))
+                        : List.of(volume("f1", f1[i])));
+            }
+            return results;
+        });
+
+        service = new DailyReportService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "chartService", chartService);
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void reportWindows_ShouldSplitTheYearToDateAtTheWeekMonthAndYearStarts() {
+        List<DateWindow> windows = DailyReportService.reportWindows(DAY);
+
+        assertEquals(4, windows.size());
+        assertEquals(List.of(DAY, LocalDate.of(2024, 3, 11), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 1, 1)),
+                windows.stream().map(DateWindow::getFrom).toList());
+        assertEquals(List.of(DAY, LocalDate.of(2024, 3, 12), LocalDate.of(2024, 3, 10), LocalDate.of(2024, 2, 29)),
+                windows.stream().map(DateWindow::getTo).toList());
+
+        // On January 1st every period is the one day
+        assertEquals(1, DailyReportService.reportWindows(LocalDate.of(2024, 1, 1)).size());
+    }
+
+    @Test
+    void getDailyReport_ShouldTotalEachFarmPerPeriodAndCompareWithBudget() {
+        DailyReportDTO report = service.getDailyReport("c1", DAY);
+
+        assertEquals("Acme", report.getCompanyName());
+        assertEquals(40, report.getDailyTotal(), DELTA);
+        assertEquals(90, report.getMtdTotal(), DELTA);
+        assertEquals(130, report.getYtdTotal(), DELTA);
+
+        // Every farm of the company by name, including the one without production
+        assertEquals(List.of("Alpha", "Bravo", "Charlie"),
+                report.getFarmPerformance().stream().map(DailyReportDTO.FarmPerformance::getFarmName).toList());
+        DailyReportDTO.FarmPerformance alpha = report.getFarmPerformance().get(0);
+        assertEquals(10, alpha.getDailyVolume(), DELTA);
+        assertEquals(60, alpha.getMtdVolume(), DELTA);
+        assertEquals(100, alpha.getYtdVolume(), DELTA);
+        assertEquals(25, report.getDailyProduction().get(0).getPercentOfTotal(), DELTA);
+        assertEquals(75, report.getDailyProduction().get(1).getPercentOfTotal(), DELTA);
+        assertEquals(0, report.getDailyProduction().get(2).getPercentOfTotal(), DELTA);
+        assertEquals(60 / 90.0 * 100, report.getMtdProduction().get(0).getPercentOfTotal(), DELTA);
+
+        BudgetComparison budget = report.getBudgetComparison();
+        assertEquals(60, budget.getWeeklyActual(), DELTA);
+        assertEquals(50, budget.getWeeklyBudget(), DELTA);
+        assertEquals(20, budget.getWeeklyVariancePercent(), DELTA);
+        assertEquals(50, budget.getMonthlyBudget(), DELTA);
+        assertEquals(40, budget.getMonthlyVariance(), DELTA);
+        assertEquals(90 / 13.0 * 31, budget.getMonthlyForecast(), DELTA);
+        assertEquals(150, budget.getYearlyBudget(), DELTA);
+        assertEquals(-20, budget.getYearlyVariance(), DELTA);
+    }
+
+    @Test
+    void getDailyReport_ShouldCutBudgetDaysOnUtcWhateverTheServerZone() {
+        // Still February in Chicago, already March in UTC like the production rollups
+        insertBudget("f9", 7, LocalDate.of(2024, 3, 1).atTime(2, 0));
+
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Chicago"));
+        try {
+            BudgetComparison budget = service.getDailyReport("c2", DAY).getBudgetComparison();
+
+            assertEquals(1007, budget.getMonthlyBudget(), DELTA);
+            assertEquals(1000, budget.getWeeklyBudget(), DELTA);
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    // Budget timestamps are instants stored in UTC, and report days are UTC days
+    private void insertBudget(String farmId, double value, LocalDateTime utc) {
+        jdbcTemplate.update("INSERT INTO budget (farm_id, value, timestamp) VALUES (?, ?, ?)", farmId, value, utc);
+    }
+
+    private static Farm farm(String id, String name) {
+        Farm farm = new Farm();
+        farm.setId(id);
+        farm.setName(name);
+        return farm;
+    }
+
+    private static FarmVolumeData volume(String farmId, double volume) {
+        FarmVolumeData data = new FarmVolumeData();
+        data.setFarm_id(farmId);
+        data.setVolume(volume);
+        return data;
+    }
+}
@@ -0,0 +1,167 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens thousands of streams against the hub and checks one market-data
+ * change reaches each of them exactly once. Emitters record events instead
+ * of writing to sockets.
+ *
+ * The "load" test measures heap per stream and the time for the change to
+ * reach the streams, the hub's own cost rather than Tomcat's per-connection
+ * buffers. The figures depend on the machine, so they are printed, not
+ * asserted, and the test only runs with `gradle loadTest`.
+ */
+class EventStreamServiceLoadTest {
+
+    private static final int COMPANIES = 50;
+    private static final int STREAMS_PER_COMPANY = 100;
+    private static final int STREAMS = COMPANIES * STREAMS_PER_COMPANY;
+
+    private final List<RecordingEmitter> emitters = Collections.synchronizedList(new ArrayList<>());
+
+    private DataVersionService dataVersionService;
+    private EventStreamService hub;
+
+    private volatile CountDownLatch delivered = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService();
+        hub = new EventStreamService() {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(hub, "dataVersionService", dataVersionService);
+        hub.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void marketChange_ShouldReachEveryOneOfThousandsOfStreamsOnce() throws Exception {
+        for (int c = 0; c < COMPANIES; c++) {
+            for (int s = 0; s < STREAMS_PER_COMPANY; s++) {
+                hub.subscribe("company-" + c);
+            }
+        }
+
+        assertEquals(STREAMS, hub.getSubscriberCount());
+        assertEquals(COMPANIES, hub.getCompanyCount());
+
+        delivered = new CountDownLatch(STREAMS);
+        dataVersionService.invalidateMarketData();
+        assertTrue(delivered.await(10, TimeUnit.SECONDS), "every stream should get the change");
+
+        for (RecordingEmitter emitter : emitters) {
+            assertEquals(1, emitter.dataChangedCount.get());
+        }
+        assertEquals(STREAMS, hub.getSubscriberCount());
+    }
+
+    @Test
+    @Tag("load")
+    void marketChange_ShouldReportHeapPerStreamAndBroadcastLatency() throws Exception {
+        long heapBefore = usedHeap();
+        for (int c = 0; c < COMPANIES; c++) {
+            for (int s = 0; s < STREAMS_PER_COMPANY; s++) {
+                hub.subscribe("company-" + c);
+            }
+        }
+        long heapAfter = usedHeap();
+        long bytesPerStream = Math.max(0, heapAfter - heapBefore) / STREAMS;
+
+        delivered = new CountDownLatch(STREAMS);
+        long start = System.nanoTime();
+        dataVersionService.invalidateMarketData();
+        assertTrue(delivered.await(60, TimeUnit.SECONDS), "every stream should get the change");
+
+        List<Long> latencies = new ArrayList<>();
+        for (RecordingEmitter emitter : emitters) {
+            latencies.add(emitter.dataChangedAt - start);
+        }
+        Collections.sort(latencies);
+        double p50 = latencies.get(STREAMS / 2) / 1e6;
+        double p99 = latencies.get(STREAMS * 99 / 100) / 1e6;
+        double max = latencies.get(STREAMS - 1) / 1e6;
+
+        System.out.printf("📡 %d streams: ~%d bytes/stream, broadcast p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                STREAMS, bytesPerStream, p50, p99, max);
+    }
+
+    @Test
+    void companyChange_ShouldOnlyReachThatCompanyAndDropClosedStreams() throws Exception {
+        hub.subscribe("c1");
+        hub.subscribe("c1");
+        hub.subscribe("c2");
+        RecordingEmitter open = emitters.get(0);
+        RecordingEmitter closed = emitters.get(1);
+        RecordingEmitter otherCompany = emitters.get(2);
+        closed.closed = true;
+
+        delivered = new CountDownLatch(1);
+        dataVersionService.invalidateCompany("c1");
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+        // The same broadcast task drops the closed stream
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (hub.getSubscriberCount() > 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, open.dataChangedCount.get());
+        assertEquals(0, otherCompany.dataChangedCount.get());
+        assertEquals(2, hub.getSubscriberCount());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private class RecordingEmitter extends SseEmitter {
+
+        volatile boolean closed;
+        volatile long dataChangedAt;
+        final AtomicInteger dataChangedCount = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (closed) {
+                throw new IOException("Broken pipe");
+            }
+            String event = builder.build().iterator().next().getData().toString();
+            if (event.startsWith("event:" + EventStreamService.DATA_CHANGED)) {
+                dataChangedAt = System.nanoTime();
+                dataChangedCount.incrementAndGet();
+                delivered.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.dto.TimeSeries;
+import com.darro_tech.revengproject.models.dto.TimeSeriesPointDTO;
+import com.darro_tech.revengproject.utils.HoltWinters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Reuses, refits and evicts the cached Holt-Winters models, counting the
+ * real fits made.
+ */
+class ForecastingServiceTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+    private static final double CONFIDENCE = 0.95;
+
+    private MockedStatic<HoltWinters> holtWinters;
+    private final AtomicInteger fits = new AtomicInteger();
+    private ForecastingService service;
+
+    @BeforeEach
+    void setUp() {
+        holtWinters = mockStatic(HoltWinters.class, CALLS_REAL_METHODS);
+        holtWinters.when(() -> HoltWinters.fit(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            fits.incrementAndGet();
+            return invocation.callRealMethod();
+        });
+
+        service = new ForecastingService();
+        ReflectionTestUtils.setField(service, "maxCachedModels", 2);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        holtWinters.close();
+    }
+
+    @Test
+    void forecast_ShouldReuseTheCachedModelForNewerReadings() {
+        List<TimeSeriesPointDTO> first = forecast("f1", daily(60), 7);
+        int fitted = fits.get();
+        assertTrue(fitted > 0);
+        assertEquals(7, first.size());
+
+        // Same history, then ten more days: fed to the cached model, not refitted
+        forecast("f1", daily(60), 7);
+        List<TimeSeriesPointDTO> extended = forecast("f1", daily(70), 7);
+
+        assertEquals(fitted, fits.get());
+        assertEquals(START.plus(76, ChronoUnit.DAYS), extended.get(6).getTimestamp());
+    }
+
+    @Test
+    void forecast_ShouldRefitOnceTheModelHasTakenInAsManyReadingsAsItWasFittedOn() {
+        forecast("f1", daily(60), 7);
+        int fitted = fits.get();
+
+        // Takes the model to 120 readings, twice what it was fitted on
+        forecast("f1", daily(120), 7);
+        assertEquals(fitted, fits.get());
+
+        forecast("f1", daily(121), 7);
+        assertEquals(2 * fitted, fits.get());
+    }
+
+    @Test
+    void forecast_ShouldFitAnOlderRangeWithoutReplacingTheCachedModel() {
+        forecast("f1", daily(60), 7);
+        int fitted = fits.get();
+
+        forecast("f1", daily(40), 7);
+        assertEquals(2 * fitted, fits.get());
+
+        // The newer model is still cached
+        forecast("f1", daily(61), 7);
+        assertEquals(2 * fitted, fits.get());
+    }
+
+    @Test
+    void forecast_ShouldKeepAtMostMaxCachedModels() {
+        forecast("f1", daily(60), 7);
+        forecast("f2", daily(60), 7);
+        forecast("f1", daily(60), 7);
+        forecast("f3", daily(60), 7);
+
+        assertEquals(2, service.getCachedModelCount());
+
+        // f2 was the least recently used, so only it is fitted again
+        int fitted = fits.get();
+        forecast("f1", daily(60), 7);
+        assertEquals(fitted, fits.get());
+        forecast("f2", daily(60), 7);
+        assertTrue(fits.get() > fitted);
+    }
+
+    private List<TimeSeriesPointDTO> forecast(String farmId, TimeSeries history, int days) {
+        Instant last = Instant.ofEpochMilli(history.getTimestamp(history.size() - 1));
+        return service.forecast(farmId, "CH4_RECOVERY", history, last.plus(days, ChronoUnit.DAYS), CONFIDENCE);
+    }
+
+    // The same weekly pattern for every call, so a longer history extends a shorter one
+    private static TimeSeries daily(int days) {
+        TimeSeries series = new TimeSeries();
+        for (int d = 0; d < days; d++) {
+            series.add(START.plus(d, ChronoUnit.DAYS).toEpochMilli(), 100 + d * 0.1 + 5 * Math.sin(d * 2 * Math.PI / 7));
+        }
+        return series;
+    }
+}
@@ -0,0 +1,80 @@
+package com.darro_tech.revengproject.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.services.MarketPriceStore.Frequency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keeps the market price copy in step with the market data version, over
+ * the migrated in-memory database (see TestDatabase).
+ */
+class MarketPriceStoreTest {
+
+    private static final Instant DAY = Instant.parse("2024-03-01T00:00:00Z");
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataVersionService dataVersionService;
+    private MarketPriceStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("market_price_store");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        dataVersionService = new DataVersionService();
+        store = new MarketPriceStore();
+        ReflectionTestUtils.setField(store, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(store, "dataVersionService", dataVersionService);
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void invalidateMarketData_ShouldPublishTheNewVersionOnlyOnceTheNewPricesAreHeld() throws Exception {
+        insertPrice(DAY, 100);
+        store.refresh();
+        assertEquals(1, store.size(Frequency.DAILY));
+
+        // A chart request seeing the new version must be served the new row,
+        // or it would be cached (and ETagged) under that version with stale prices
+        long before = dataVersionService.marketVersion();
+        AtomicInteger sizeAtNewVersion = new AtomicInteger(-1);
+        Thread request = new Thread(() -> {
+            while (dataVersionService.marketVersion() == before) {
+                Thread.onSpinWait();
+            }
+            sizeAtNewVersion.set(store.size(Frequency.DAILY));
+        });
+        request.start();
+
+        insertPrice(DAY.plusSeconds(86_400), 101);
+        dataVersionService.invalidateMarketData();
+        request.join(5_000);
+
+        assertEquals(2, sizeAtNewVersion.get());
+    }
+
+    private void insertPrice(Instant timestamp, double lcfs) {
+        jdbcTemplate.update("INSERT INTO market_prices (lcfs, d3, d5, natural_gas, timestamp) VALUES (?, 1, 2, 3, ?)",
+                lcfs, Timestamp.valueOf(LocalDateTime.ofInstant(timestamp, ZoneOffset.UTC)));
+    }
+}
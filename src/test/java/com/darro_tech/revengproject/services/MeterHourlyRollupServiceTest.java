@@ -0,0 +1,147 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.repositories.MeterHourlyRepository;
+import com.darro_tech.revengproject.repositories.MeterHourlyRepositoryImpl;
+import com.darro_tech.revengproject.services.MeterHourlyRollupService.Resolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Rolls two days of hourly readings from two meters of one farm up into
+ * meter_daily and the farm-hour rollup in the migrated in-memory database
+ * (see TestDatabase).
+ */
+class MeterHourlyRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ProductionRollupService productionRollupService;
+    private MeterHourlyRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("meter_hourly_rollup");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("INSERT INTO meters (id, farm_id, name, timestamp) "
+                + "VALUES ('m1', 'f1', 'Meter 1', NOW()), ('m2', 'f1', 'Meter 2', NOW())");
+        // One farm, its two meters assigned to different companies
+        jdbcTemplate.update("INSERT INTO company_meters (company_id, meter_id, timestamp) "
+                + "VALUES ('c1', 'm1', NOW()), ('c2', 'm2', NOW())");
+        // A stale daily total the hourly readings replace
+        jdbcTemplate.update("INSERT INTO meter_daily (meter_id, value, timestamp) VALUES ('m1', 5, ?)", DAY.atStartOfDay());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int hour = 0; hour < 48; hour++) {
+            LocalDateTime timestamp = DAY.atStartOfDay().plusHours(hour);
+            rows.add(new Object[]{"m1", 10.0, timestamp});
+            rows.add(new Object[]{"m2", 1.0, timestamp});
+        }
+        // The third day has only its first three hours so far
+        jdbcTemplate.update("INSERT INTO meter_daily (meter_id, value, timestamp) VALUES ('m1', 7, ?)",
+                DAY.plusDays(2).atStartOfDay());
+        for (int hour = 0; hour < 3; hour++) {
+            rows.add(new Object[]{"m1", 10.0, DAY.plusDays(2).atTime(hour, 0)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO meter_hourly (meter_id, value, timestamp) VALUES (?, ?, ?)", rows);
+
+        MeterHourlyRepositoryImpl streams = new MeterHourlyRepositoryImpl();
+        ReflectionTestUtils.setField(streams, "jdbcTemplate", jdbcTemplate);
+        MeterHourlyRepository meterHourlyRepository = mock(MeterHourlyRepository.class);
+        doAnswer(invocation -> {
+            streams.streamByFarm(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                    invocation.getArgument(3));
+            return null;
+        }).when(meterHourlyRepository).streamByFarm(anyString(), any(), any(), any());
+        doAnswer(invocation -> {
+            streams.streamByCompany(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                    invocation.getArgument(3));
+            return null;
+        }).when(meterHourlyRepository).streamByCompany(anyString(), any(), any(), any());
+
+        productionRollupService = mock(ProductionRollupService.class);
+
+        service = new MeterHourlyRollupService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "meterHourlyRepository", meterHourlyRepository);
+        ReflectionTestUtils.setField(service, "productionRollupService", productionRollupService);
+        ReflectionTestUtils.setField(service, "dataVersionService", mock(DataVersionService.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void refreshIncremental_ShouldKeepMeterDailyEqualToTheHourlySumsOfCompleteDays() {
+        assertEquals(3, service.refreshIncremental());
+
+        List<Double> m1 = jdbcTemplate.queryForList(
+                "SELECT value FROM meter_daily WHERE meter_id = 'm1' ORDER BY timestamp", Double.class);
+        List<Double> m2 = jdbcTemplate.queryForList(
+                "SELECT value FROM meter_daily WHERE meter_id = 'm2' ORDER BY timestamp", Double.class);
+        // The partial day keeps its daily reading
+        assertEquals(List.of(240.0, 240.0, 7.0), m1);
+        assertEquals(List.of(24.0, 24.0), m2);
+        verify(productionRollupService).rebuildDays(anyCollection());
+
+        // Nothing new to roll up
+        assertEquals(0, service.refreshIncremental());
+    }
+
+    @Test
+    void findFarmProduction_ShouldServeEachResolution() {
+        service.refreshIncremental();
+
+        List<Object[]> hourly = service.findFarmProduction("f1", DAY, DAY, Resolution.HOUR);
+        assertEquals(24, hourly.size());
+        assertEquals(DAY.atTime(13, 0), hourly.get(13)[0]);
+        assertEquals(11.0, (Double) hourly.get(13)[1], 1e-9);
+
+        List<Object[]> daily = service.findFarmProduction("f1", DAY, DAY.plusDays(1), Resolution.DAY);
+        assertEquals(2, daily.size());
+        assertEquals(264.0, (Double) daily.get(0)[1], 1e-9);
+    }
+
+    @Test
+    void findCompanyProduction_ShouldSumOnlyTheCompanysMetersPerHour() {
+        service.refreshIncremental();
+
+        List<Object[]> hourly = service.findCompanyProduction("c1", DAY, DAY, Resolution.HOUR);
+        assertEquals(24, hourly.size());
+        assertEquals(DAY.atTime(13, 0), hourly.get(13)[0]);
+        assertEquals(10.0, (Double) hourly.get(13)[1], 1e-9);
+    }
+
+    @Test
+    void parse_ShouldRejectResolutionsFinerThanTheReadings() {
+        assertEquals(Resolution.HOUR, Resolution.parse(null));
+        assertEquals(Resolution.DAY, Resolution.parse("Day"));
+        assertThrows(IllegalArgumentException.class, () -> Resolution.parse("15m"));
+        assertThrows(IllegalArgumentException.class, () -> Resolution.parse("5m"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.dto.MeterIngestResult;
+import com.darro_tech.revengproject.services.MeterIngestService.Format;
+import com.darro_tech.revengproject.services.MeterIngestService.Target;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Uploads CSV and NDJSON readings into the migrated in-memory database
+ * (see TestDatabase) in batches of two.
+ */
+class MeterIngestServiceTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataVersionService dataVersionService;
+    private ProductionRollupService productionRollupService;
+    private MeterHourlyRollupService meterHourlyRollupService;
+    private MeterIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("meter_ingest");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("INSERT INTO meters (id, farm_id, name, timestamp) "
+                + "VALUES ('m1', 'f1', 'Meter 1', NOW()), ('m2', 'f2', 'Meter 2', NOW())");
+        jdbcTemplate.update("INSERT INTO meter_daily (meter_id, value, timestamp) VALUES ('m1', 5, '2024-03-01 00:00:00')");
+
+        ReferenceDataService referenceDataService = mock(ReferenceDataService.class);
+        when(referenceDataService.getCompanyIdsForMeter("m1")).thenReturn(List.of("c1"));
+        when(referenceDataService.getCompanyIdsForMeter("m2")).thenReturn(List.of("c2"));
+        dataVersionService = mock(DataVersionService.class);
+        productionRollupService = mock(ProductionRollupService.class);
+        meterHourlyRollupService = mock(MeterHourlyRollupService.class);
+
+        service = new MeterIngestService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+        ReflectionTestUtils.setField(service, "dataVersionService", dataVersionService);
+        ReflectionTestUtils.setField(service, "productionRollupService", productionRollupService);
+        ReflectionTestUtils.setField(service, "meterHourlyRollupService", meterHourlyRollupService);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        dataSource.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestCsv_ShouldReplaceDailyReadingsAndRejectBadLines() throws Exception {
+        String csv = "meter_id,timestamp,value\n"
+                + "m1,2024-03-01,10\n"
+                + "m1,2024-03-01T12:00:00,11\n"
+                + "m2,\"2024-03-02 00:00:00\",7\n"
+                + "m9,2024-03-02,1\n"
+                + "m2,not-a-date,1\n"
+                + "m2,2024-03-03,8\n";
+
+        MeterIngestResult result = ingest(csv, Format.CSV, Target.DAILY);
+
+        assertEquals(4, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getBatches());
+        assertEquals(List.of("m9"), result.getUnknownMeterIds());
+        assertEquals(3, result.getDays());
+
+        // The repeated m1 reading replaced the old row and the first reading of the batch
+        assertEquals(List.of(11.0), jdbcTemplate.queryForList(
+                "SELECT value FROM meter_daily WHERE meter_id = 'm1'", Double.class));
+        assertEquals(List.of(7.0, 8.0), jdbcTemplate.queryForList(
+                "SELECT value FROM meter_daily WHERE meter_id = 'm2' ORDER BY timestamp", Double.class));
+
+        // Queued on the background refresher
+        verify(productionRollupService, timeout(5_000)).refreshIncremental();
+        ArgumentCaptor<Collection<String>> companies = ArgumentCaptor.forClass(Collection.class);
+        verify(dataVersionService).invalidateCompanies(companies.capture());
+        assertEquals(List.of("c1", "c2"), List.copyOf(companies.getValue()));
+    }
+
+    @Test
+    void ingestNdjson_ShouldTruncateHourlyReadingsToTheHour() throws Exception {
+        String ndjson = "{\"meter_id\":\"m1\",\"timestamp\":\"2024-03-01T05:20:00Z\",\"value\":3}\n"
+                + "{\"meterId\":\"m1\",\"timestamp\":\"2024-03-01T05:40:00+00:00\",\"value\":4}\n"
+                + "{\"meter_id\":\"m2\",\"timestamp\":1709269200000,\"value\":\"2.5\"}\n"
+                + "{broken\n";
+
+        MeterIngestResult result = ingest(ndjson, Format.NDJSON, Target.HOURLY);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of(4.0), jdbcTemplate.queryForList(
+                "SELECT value FROM meter_hourly WHERE meter_id = 'm1' AND timestamp = '2024-03-01 05:00:00'",
+                Double.class));
+        assertEquals(List.of(2.5), jdbcTemplate.queryForList(
+                "SELECT value FROM meter_hourly WHERE meter_id = 'm2' AND timestamp = '2024-03-01 05:00:00'",
+                Double.class));
+        verify(meterHourlyRollupService, timeout(5_000)).refreshIncremental();
+    }
+
+    private MeterIngestResult ingest(String body, Format format, Target target) throws Exception {
+        return service.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, target);
+    }
+}
@@ -0,0 +1,99 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.dto.PdfRenderJob;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+import com.itextpdf.text.DocumentException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Renders report PDFs through the worker pool with a mocked generator and
+ * checks they are cached per company data version.
+ */
+class PdfRenderServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final byte[] PDF = {'%', 'P', 'D', 'F'};
+
+    private PdfGenerationService pdfGenerationService;
+    private DataVersionService dataVersionService;
+    private PdfRenderService service;
+
+    @BeforeEach
+    void setUp() {
+        pdfGenerationService = mock(PdfGenerationService.class);
+        dataVersionService = mock(DataVersionService.class);
+        when(dataVersionService.companyVersion("c1")).thenReturn(1L);
+
+        service = new PdfRenderService();
+        ReflectionTestUtils.setField(service, "pdfGenerationService", pdfGenerationService);
+        ReflectionTestUtils.setField(service, "dataVersionService", dataVersionService);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void getPdf_ShouldRenderOncePerDataVersion() throws Exception {
+        when(pdfGenerationService.generateDailyReportPdf("c1", DAY)).thenReturn(PDF);
+
+        assertArrayEquals(PDF, service.getPdf(Kind.DAILY, "c1", DAY));
+        assertArrayEquals(PDF, service.getPdf(Kind.DAILY, "c1", DAY));
+        verify(pdfGenerationService, times(1)).generateDailyReportPdf("c1", DAY);
+
+        // New data for the company: rendered again
+        when(dataVersionService.companyVersion("c1")).thenReturn(2L);
+        assertArrayEquals(PDF, service.getPdf(Kind.DAILY, "c1", DAY));
+        verify(pdfGenerationService, times(2)).generateDailyReportPdf("c1", DAY);
+    }
+
+    @Test
+    void submit_ShouldRunTheJobInTheBackgroundAndKeepItsPdf() throws Exception {
+        when(pdfGenerationService.generateWeeklyReportPdf("c1", DAY)).thenReturn(PDF);
+        when(pdfGenerationService.generateDailyReportPdf("c1", DAY)).thenThrow(new DocumentException("broken"));
+
+        PdfRenderJob job = service.submit(Kind.WEEKLY, "c1", DAY);
+        assertEquals("DONE", awaitFinished(job.getId()).getStatus());
+        assertEquals(PDF.length, service.getJob(job.getId()).orElseThrow().getSize());
+        assertArrayEquals(PDF, service.getJobPdf(job.getId()).orElseThrow());
+
+        // Already rendered for this version: done without another render
+        PdfRenderJob again = service.submit(Kind.WEEKLY, "c1", DAY);
+        assertEquals("DONE", again.getStatus());
+        assertTrue(again.isCached());
+        verify(pdfGenerationService, times(1)).generateWeeklyReportPdf("c1", DAY);
+
+        PdfRenderJob failed = service.submit(Kind.DAILY, "c1", DAY);
+        assertEquals("FAILED", awaitFinished(failed.getId()).getStatus());
+        assertTrue(service.getJobPdf(failed.getId()).isEmpty());
+        assertThrows(DocumentException.class, () -> service.getPdf(Kind.DAILY, "c1", DAY));
+    }
+
+    private PdfRenderJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PdfRenderJob job = service.getJob(jobId).orElseThrow();
+        while (("QUEUED".equals(job.getStatus()) || "RUNNING".equals(job.getStatus())) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = service.getJob(jobId).orElseThrow();
+        }
+        return job;
+    }
+}
@@ -0,0 +1,76 @@
+package com.darro_tech.revengproject.services;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceDataServiceTest {
+
+    private ReferenceDataService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReferenceDataService();
+        ReflectionTestUtils.setField(service, "snapshot", ReferenceDataService.Snapshot.build(
+                List.of(company("c1", "Tuls"), company("c2", "Blue Sky Farms"), company("c3", "Blue-Sky Farms")),
+                List.of(farm("f1", "North"), farm("f2", "South")),
+                List.of(new String[]{"c2", "f1"}, new String[]{"c2", "f2"}, new String[]{"c3", "f2"}),
+                List.of(new String[]{"c2", "m1"}, new String[]{"c3", "m1"})));
+    }
+
+    @Test
+    void companySlug_ShouldReplaceOnlyTheFirstSpace() {
+        assertEquals("blue-sky farms", ReferenceDataService.companySlug("Blue Sky Farms"));
+        assertEquals("tuls", ReferenceDataService.companySlug("TULS"));
+        assertEquals("", ReferenceDataService.companySlug(null));
+    }
+
+    @Test
+    void getCompanyByKey_ShouldPreferExactNameOverDashedAndSlugMatches() {
+        // "blue-sky farms" is both c3's name and c2's slug
+        assertEquals("c3", service.getCompanyByKey("Blue-Sky Farms").orElseThrow().getId());
+        assertEquals("c2", service.getCompanyByKey("blue-sky-farms").orElseThrow().getId());
+        assertEquals("c1", service.getCompanyByKey("TULS").orElseThrow().getId());
+        assertFalse(service.getCompanyByKey("dashboard").isPresent());
+    }
+
+    @Test
+    void links_ShouldResolveInBothDirections() {
+        assertEquals(List.of("f1", "f2"), service.getFarmsForCompany("c2").stream().map(Farm::getId).toList());
+        assertEquals(List.of("c2", "c3"), service.getCompanyIdsForFarm("f2"));
+        assertEquals(List.of("c2", "c3"), service.getCompanyIdsForMeter("m1"));
+        assertEquals(List.of("m1"), service.getMeterIdsForCompany("c3"));
+        assertTrue(service.getFarmsForCompany("c1").isEmpty());
+        assertEquals("South", service.getFarmNames().get("f2"));
+    }
+
+    @Test
+    void snapshot_ShouldBeReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> service.getFarmNames().put("f3", "East"));
+        assertThrows(UnsupportedOperationException.class, () -> service.getCompanyIdsForFarm("f2").add("c1"));
+    }
+
+    private static Company company(String id, String name) {
+        Company company = new Company();
+        company.setId(id);
+        company.setName(name);
+        return company;
+    }
+
+    private static Farm farm(String id, String name) {
+        Farm farm = new Farm();
+        farm.setId(id);
+        farm.setName(name);
+        return farm;
+    }
+}
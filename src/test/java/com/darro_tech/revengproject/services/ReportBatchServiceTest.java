@@ -0,0 +1,211 @@
+package com.darro_tech.revengproject.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.dto.DailyReportDTO;
+import com.darro_tech.revengproject.dto.ReportBatchStatus;
+import com.darro_tech.revengproject.models.Company;
+import com.darro_tech.revengproject.models.Farm;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+import com.itextpdf.text.DocumentException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Generates the daily reports of several companies from one snapshot of
+ * the production rollups and budgets, over the migrated in-memory database
+ * (see TestDatabase), with mocked rendering.
+ */
+class ReportBatchServiceTest {
+
+    // A Wednesday: the week, month and year windows all differ
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 13);
+    private static final double DELTA = 1e-9;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DailyReportService dailyReportService;
+    private ReportCatalogService reportCatalogService;
+    private ReportBatchService service;
+    private final Map<String, DailyReportDTO> rendered = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("report_batch");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // c1 runs f1 and f2, c2 runs f3; c3 fails to render and c4 has no farms
+        jdbcTemplate.update("INSERT INTO company_farms (company_id, farm_id, timestamp) "
+                + "VALUES ('c1', 'f1', NOW()), ('c1', 'f2', NOW()), ('c2', 'f3', NOW())");
+        insertProduction("c1", "f1", DAY, 10);
+        insertProduction("c1", "f1", DAY.minusDays(1), 20);
+        insertProduction("c1", "f2", DAY, 5);
+        insertProduction("c1", "f2", LocalDate.of(2024, 2, 1), 100);
+        insertProduction("c2", "f3", DAY, 7);
+        insertProduction("c2", "f3", LocalDate.of(2024, 3, 1), 3);
+        // Outside every window of the report
+        insertProduction("c2", "f3", DAY.plusDays(1), 1000);
+        insertProduction("c2", "f3", LocalDate.of(2023, 12, 31), 1000);
+        insertBudget("f1", 40, DAY.atTime(12, 0));
+        insertBudget("f2", 60, LocalDate.of(2024, 1, 15).atStartOfDay());
+        insertBudget("f3", 8, DAY.atStartOfDay());
+
+        ReferenceDataService referenceDataService = mock(ReferenceDataService.class);
+        when(referenceDataService.getAllCompanies()).thenReturn(List.of(
+                company("c1"), company("c2"), company("c3"), company("c4")));
+        when(referenceDataService.getFarmNames()).thenReturn(Map.of("f1", "Alpha", "f2", "Bravo", "f3", "Charlie"));
+        when(referenceDataService.getFarmsForCompany(anyString())).thenReturn(List.of());
+        when(referenceDataService.getFarmsForCompany("c1")).thenReturn(List.of(farm("f1", "Alpha"), farm("f2", "Bravo")));
+        when(referenceDataService.getCompanyById(anyString())).thenReturn(Optional.empty());
+
+        ProductionRollupService productionRollupService = new ProductionRollupService();
+        ReflectionTestUtils.setField(productionRollupService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(productionRollupService, "enabled", true);
+        ReflectionTestUtils.setField(productionRollupService, "available", true);
+
+        dailyReportService = spy(new DailyReportService());
+        ReflectionTestUtils.setField(dailyReportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dailyReportService, "productionRollupService", productionRollupService);
+        ReflectionTestUtils.setField(dailyReportService, "referenceDataService", referenceDataService);
+
+        PdfGenerationService pdfGenerationService = mock(PdfGenerationService.class);
+        when(pdfGenerationService.renderDailyReportPdf(any())).thenAnswer(invocation -> {
+            DailyReportDTO report = invocation.getArgument(0);
+            if ("c3".equals(report.getCompanyId())) {
+                throw new DocumentException("broken");
+            }
+            rendered.put(report.getCompanyId(), report);
+            return ("%PDF " + report.getCompanyId()).getBytes();
+        });
+
+        reportCatalogService = mock(ReportCatalogService.class);
+
+        service = new ReportBatchService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "dailyReportService", dailyReportService);
+        ReflectionTestUtils.setField(service, "pdfGenerationService", pdfGenerationService);
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+        ReflectionTestUtils.setField(service, "reportCatalogService", reportCatalogService);
+        ReflectionTestUtils.setField(service, "batchThreads", 2);
+        ReflectionTestUtils.setField(service, "insertSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        dataSource.destroy();
+    }
+
+    @Test
+    void generate_ShouldRenderEveryCompanyFromOneSnapshotAndInsertTheReports() {
+        ReportBatchStatus status = service.generate(Kind.DAILY, DAY);
+
+        assertEquals("DONE", status.getState());
+        assertEquals(4, status.getTotal());
+        assertEquals(4, status.getCompleted());
+        assertEquals(1, status.getFailed());
+        assertEquals(3, status.getWritten());
+        assertEquals(4, status.getReports().size());
+        assertEquals(List.of("c1", "c2", "c4"), jdbcTemplate.queryForList(
+                "SELECT company_id FROM daily_report_companies ORDER BY company_id", String.class));
+        assertEquals("%PDF c2", new String(jdbcTemplate.queryForObject(
+                "SELECT pdf FROM daily_report_companies WHERE company_id = 'c2'", byte[].class)));
+
+        // Assembled from the snapshot, never company by company
+        verify(dailyReportService, never()).getDailyReport(anyString(), any(LocalDate.class));
+        verify(reportCatalogService).refresh();
+        assertEquals("DONE", service.getStatus().orElseThrow().getState());
+    }
+
+    @Test
+    void generate_ShouldTotalEachCompanysOwnProductionAndBudget() {
+        service.generate(Kind.DAILY, DAY);
+
+        DailyReportDTO c1 = rendered.get("c1");
+        assertEquals(15, c1.getDailyTotal(), DELTA);
+        assertEquals(35, c1.getMtdTotal(), DELTA);
+        assertEquals(135, c1.getYtdTotal(), DELTA);
+        assertEquals(List.of("Alpha", "Bravo"),
+                c1.getFarmPerformance().stream().map(DailyReportDTO.FarmPerformance::getFarmName).toList());
+        assertEquals(30, c1.getFarmPerformance().get(0).getMtdVolume(), DELTA);
+        assertEquals(40, c1.getBudgetComparison().getMonthlyBudget(), DELTA);
+        assertEquals(100, c1.getBudgetComparison().getYearlyBudget(), DELTA);
+
+        DailyReportDTO c2 = rendered.get("c2");
+        assertEquals(7, c2.getDailyTotal(), DELTA);
+        assertEquals(10, c2.getMtdTotal(), DELTA);
+        assertEquals(10, c2.getYtdTotal(), DELTA);
+        assertEquals(8, c2.getBudgetComparison().getMonthlyBudget(), DELTA);
+
+        DailyReportDTO c4 = rendered.get("c4");
+        assertEquals(0, c4.getYtdTotal(), DELTA);
+        assertEquals(0, c4.getBudgetComparison().getYearlyBudget(), DELTA);
+    }
+
+    @Test
+    void generate_ShouldReplaceTheReportsOfARerunDay() {
+        jdbcTemplate.update("INSERT INTO daily_report_companies (company_id, pdf, timestamp) VALUES ('c1', ?, ?)",
+                "%PDF old".getBytes(), DAY.atTime(6, 0));
+        jdbcTemplate.update("INSERT INTO daily_report_companies (company_id, pdf, timestamp) VALUES ('c1', ?, ?)",
+                "%PDF day before".getBytes(), DAY.minusDays(1).atTime(6, 0));
+
+        service.generate(Kind.DAILY, DAY);
+        service.generate(Kind.DAILY, DAY);
+
+        assertEquals(List.of("c1", "c1", "c2", "c4"), jdbcTemplate.queryForList(
+                "SELECT company_id FROM daily_report_companies ORDER BY company_id", String.class));
+        assertEquals(List.of("%PDF c1", "%PDF day before"), jdbcTemplate.queryForList(
+                "SELECT pdf FROM daily_report_companies WHERE company_id = 'c1' ORDER BY timestamp DESC", byte[].class)
+                .stream().map(String::new).toList());
+    }
+
+    @Test
+    void generate_ShouldRejectFutureDates() {
+        assertThrows(IllegalArgumentException.class, () -> service.generate(Kind.DAILY, LocalDate.now().plusDays(1)));
+    }
+
+    private void insertProduction(String companyId, String farmId, LocalDate date, double volume) {
+        jdbcTemplate.update("INSERT INTO farm_production_daily (company_id, farm_id, date, volume, reading_count, timestamp) "
+                + "VALUES (?, ?, ?, ?, 1, NOW())", companyId, farmId, date, volume);
+    }
+
+    private void insertBudget(String farmId, double value, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO budget (farm_id, value, timestamp) VALUES (?, ?, ?)", farmId, value, timestamp);
+    }
+
+    private static Company company(String id) {
+        Company company = new Company();
+        company.setId(id);
+        return company;
+    }
+
+    private static Farm farm(String id, String name) {
+        Farm farm = new Farm();
+        farm.setId(id);
+        farm.setName(name);
+        return farm;
+    }
+}
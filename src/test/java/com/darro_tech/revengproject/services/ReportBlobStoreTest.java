@@ -0,0 +1,126 @@
+package com.darro_tech.revengproject.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.controllers.DailyReportController;
+import com.darro_tech.revengproject.dto.DataStamp;
+import com.darro_tech.revengproject.dto.StoredReport;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams a stored report PDF out of the migrated in-memory database (see
+ * TestDatabase) in 1 KB chunks, in full and by byte range.
+ */
+class ReportBlobStoreTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-03-01T06:00:00Z");
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ReportBlobStore store;
+    private byte[] pdf;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("report_blob_store");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        pdf = new byte[5000];
+        for (int i = 0; i < pdf.length; i++) {
+            pdf[i] = (byte) (i * 31);
+        }
+        jdbcTemplate.update("INSERT INTO daily_report_companies (company_id, pdf, timestamp) VALUES (?, ?, ?)",
+                "c1", new byte[]{1}, "2024-03-01 01:00:00");
+        jdbcTemplate.update("INSERT INTO daily_report_companies (company_id, pdf, timestamp) VALUES (?, ?, ?)",
+                "c1", pdf, "2024-03-01 06:00:00");
+
+        store = new ReportBlobStore();
+        ReflectionTestUtils.setField(store, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(store, "chunkBytes", 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void findLatest_ShouldReadTheNewestReportsSizeAndStreamItInChunks() throws Exception {
+        StoredReport report = latest().orElseThrow();
+        assertEquals(pdf.length, report.getSize());
+        assertEquals(TIMESTAMP, report.getTimestamp());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = store.resource(Kind.DAILY, report).getInputStream()) {
+            in.transferTo(out);
+        }
+        assertArrayEquals(pdf, out.toByteArray());
+
+        // Skipping reads nothing and lands mid-chunk
+        try (InputStream in = store.resource(Kind.DAILY, report).getInputStream()) {
+            assertEquals(3000, in.skip(3000));
+            assertEquals(pdf[3000] & 0xff, in.read());
+        }
+    }
+
+    @Test
+    void getDailyPdf_ShouldAnswerRangeRequestsWithPartialContent() throws Exception {
+        StoredReport report = latest().orElseThrow();
+        DailyReportService dailyReportService = mock(DailyReportService.class);
+        when(dailyReportService.getReportStamp(anyString(), any())).thenReturn(new DataStamp(1, TIMESTAMP));
+        when(dailyReportService.findPdf(anyString(), any())).thenReturn(Optional.of(report));
+        when(dailyReportService.getPdfResource(report)).thenReturn(store.resource(Kind.DAILY, report));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new DailyReportController(mock(PdfRenderService.class), dailyReportService)).build();
+
+        byte[] full = mockMvc.perform(get("/api/daily-reports/pdf/acme").param("company_id", "c1")
+                        .param("date", LocalDate.of(2024, 3, 1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", String.valueOf(pdf.length)))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(pdf, full);
+
+        byte[] part = mockMvc.perform(get("/api/daily-reports/pdf/acme").param("company_id", "c1")
+                        .param("date", "2024-03-01").header("Range", "bytes=1000-2999"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1000-2999/" + pdf.length))
+                .andExpect(content().contentType("application/pdf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(2000, part.length);
+        for (int i = 0; i < part.length; i++) {
+            assertTrue(part[i] == pdf[1000 + i]);
+        }
+    }
+
+    private Optional<StoredReport> latest() {
+        return store.findLatest(Kind.DAILY, "c1", Instant.parse("2024-03-01T00:00:00Z"),
+                Instant.parse("2024-03-02T00:00:00Z"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.darro_tech.revengproject.services;
+
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.darro_tech.revengproject.TestDatabase;
+import com.darro_tech.revengproject.dto.ReportCatalogEntry;
+import com.darro_tech.revengproject.services.ReportBlobStore.Kind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Catalogs daily reports held in the migrated in-memory database (see
+ * TestDatabase) and answers lookups from the in-memory index.
+ */
+class ReportCatalogServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ReportCatalogService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("report_catalog");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        insertReport("c1", new byte[]{1, 2, 3}, DAY.atTime(6, 0));
+        insertReport("c1", new byte[]{4, 5, 6, 7}, DAY.atTime(7, 0));
+        insertReport("c1", new byte[]{8}, DAY.plusDays(2).atTime(6, 0));
+        insertReport("c2", new byte[]{9}, DAY.atTime(6, 0));
+
+        ReportBlobStore store = new ReportBlobStore();
+        ReflectionTestUtils.setField(store, "jdbcTemplate", jdbcTemplate);
+        service = new ReportCatalogService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "reportBlobStore", store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void refresh_ShouldCatalogEachReportOnceWithItsSizeAndChecksum() throws Exception {
+        assertEquals(4, service.refresh());
+        assertEquals(0, service.refresh());
+
+        ReportCatalogEntry latest = (ReportCatalogEntry) service.findLatest(Kind.DAILY, "c1", DAY).orElseThrow();
+        assertEquals(2, latest.getId());
+        assertEquals(4, latest.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(new byte[]{4, 5, 6, 7})),
+                latest.getChecksum());
+        assertEquals(2, service.getStamp(Kind.DAILY, "c1", DAY).getRowCount());
+
+        assertEquals(List.of(DAY, DAY.plusDays(2)), service.findReportDates(Kind.DAILY, "c1", DAY, DAY.plusDays(7)));
+        assertTrue(service.findReportDates(Kind.WEEKLY, "c1", DAY, DAY.plusDays(7)).isEmpty());
+    }
+
+    @Test
+    void refresh_ShouldPickUpAddedAndDeletedReports() {
+        service.refresh();
+        insertReport("c2", new byte[]{10}, DAY.plusDays(1).atTime(6, 0));
+        jdbcTemplate.update("DELETE FROM daily_report_companies WHERE company_id = 'c2' AND id = 4");
+
+        assertEquals(2, service.refresh());
+        assertFalse(service.findLatest(Kind.DAILY, "c2", DAY).isPresent());
+        assertTrue(service.findLatest(Kind.DAILY, "c2", DAY.plusDays(1)).isPresent());
+    }
+
+    @Test
+    void refresh_ShouldRecatalogReportsUpdatedInPlace() throws Exception {
+        service.refresh();
+        jdbcTemplate.update("UPDATE daily_report_companies SET pdf = ?, timestamp = ? WHERE id = 1",
+                new byte[]{1, 2, 3, 4, 5}, utc(DAY.atTime(8, 0)));
+
+        assertEquals(1, service.refresh());
+        ReportCatalogEntry latest = (ReportCatalogEntry) service.findLatest(Kind.DAILY, "c1", DAY).orElseThrow();
+        assertEquals(1, latest.getId());
+        assertEquals(5, latest.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(new byte[]{1, 2, 3, 4, 5})),
+                latest.getChecksum());
+        assertEquals(0, service.refresh());
+
+        // Only plain columns are compared: a PDF rewritten under the same timestamp is not read again
+        jdbcTemplate.update("UPDATE daily_report_companies SET pdf = ? WHERE id = 1", new byte[]{6});
+        assertEquals(0, service.refresh());
+    }
+
+    @Test
+    void lookups_ShouldFallBackToTheReportTablesUntilTheFirstRefresh() {
+        assertEquals(2, service.findLatest(Kind.DAILY, "c1", DAY).orElseThrow().getId());
+        assertEquals(2, service.getStamp(Kind.DAILY, "c1", DAY).getRowCount());
+        assertEquals(List.of(DAY, DAY.plusDays(2)), service.findReportDates(Kind.DAILY, "c1", DAY, DAY.plusDays(7)));
+
+        // Cataloguing is left to the scheduled refresh
+        assertFalse(service.isAvailable());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM report_catalog", Integer.class));
+    }
+
+    // Report timestamps are instants stored in UTC; the test days are days of the default zone
+    private void insertReport(String companyId, byte[] pdf, LocalDateTime localTime) {
+        jdbcTemplate.update("INSERT INTO daily_report_companies (company_id, pdf, timestamp) VALUES (?, ?, ?)",
+                companyId, pdf, utc(localTime));
+    }
+
+    private static LocalDateTime utc(LocalDateTime localTime) {
+        return LocalDateTime.ofInstant(localTime.atZone(ZoneId.systemDefault()).toInstant(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,84 @@
+package com.darro_tech.revengproject.utils;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.darro_tech.revengproject.dto.DataStamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalRequestsTest {
+
+    private static final Instant MODIFIED = Instant.parse("2024-03-01T06:00:00.250Z");
+
+    @Test
+    void etag_ShouldDifferPerResourceAndVersion() {
+        String tag = ConditionalRequests.etag("company/c1", 3, 7);
+
+        assertTrue(tag.startsWith("\"3-7-") && tag.endsWith("\""), tag);
+        assertEquals(tag, ConditionalRequests.etag("company/c1", 3, 7));
+        assertNotEquals(tag, ConditionalRequests.etag("company/c2", 3, 7));
+        assertNotEquals(tag, ConditionalRequests.etag("company/c1", 4, 7));
+    }
+
+    @Test
+    void checkNotModified_ShouldMatchIfNoneMatchForPostsToo() {
+        String etag = ConditionalRequests.etag("company/c1", 3);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(ConditionalRequests.checkNotModified(
+                request("POST", HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag, response), etag, 0));
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("private, no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        assertTrue(ConditionalRequests.checkNotModified(
+                request("GET", HttpHeaders.IF_NONE_MATCH, "*", new MockHttpServletResponse()), etag, 0));
+        assertFalse(ConditionalRequests.checkNotModified(
+                request("POST", HttpHeaders.IF_NONE_MATCH, ConditionalRequests.etag("company/c1", 4),
+                        new MockHttpServletResponse()), etag, 0));
+    }
+
+    @Test
+    void checkNotModified_ShouldPreferIfNoneMatchOverIfModifiedSince() {
+        DataStamp stamp = new DataStamp(2, MODIFIED);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/alerts");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED.toEpochMilli());
+
+        assertFalse(ConditionalRequests.checkNotModified(
+                new ServletWebRequest(request, new MockHttpServletResponse()), "alerts", stamp));
+    }
+
+    @Test
+    void checkNotModified_ShouldCompareIfModifiedSinceToTheSecond() {
+        DataStamp stamp = new DataStamp(2, MODIFIED);
+        long second = MODIFIED.toEpochMilli() / 1000 * 1000;
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(ConditionalRequests.checkNotModified(
+                request("GET", HttpHeaders.IF_MODIFIED_SINCE, second, response), "alerts", stamp));
+        assertEquals(second, response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertFalse(ConditionalRequests.checkNotModified(
+                request("GET", HttpHeaders.IF_MODIFIED_SINCE, second - 1000, new MockHttpServletResponse()),
+                "alerts", stamp));
+
+        // Nothing stored yet: no Last-Modified to compare with
+        assertFalse(ConditionalRequests.checkNotModified(
+                request("GET", HttpHeaders.IF_MODIFIED_SINCE, second, new MockHttpServletResponse()),
+                "alerts", new DataStamp(0, null)));
+    }
+
+    private static ServletWebRequest request(String method, String header, Object value, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/charts");
+        request.addHeader(header, value);
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,161 @@
+package com.darro_tech.revengproject.utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.darro_tech.revengproject.dto.ColumnarTimeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+    @Test
+    void minMax_ShouldKeepEverySeriesExtremeWithinMaxPoints() {
+        Random random = new Random(5);
+        double[][] series = new double[4][3650];
+        for (double[] values : series) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 100 + random.nextGaussian();
+            }
+        }
+        series[1][1234] = 500;
+        series[3][3000] = -50;
+        series[2][10] = Double.NaN;
+
+        int[] rows = Downsampler.minMax(series, 0, 3650, 400);
+
+        assertTrue(rows.length <= 400, "kept " + rows.length + " rows");
+        for (int i = 1; i < rows.length; i++) {
+            assertTrue(rows[i] > rows[i - 1], "rows out of order");
+        }
+        assertTrue(contains(rows, 1234));
+        assertTrue(contains(rows, 3000));
+    }
+
+    @Test
+    void minMax_ShouldReturnAllRowsWhenTheyFit() {
+        double[][] series = {{1, 2, 3, 4, 5}};
+
+        assertArrayEquals(new int[]{1, 2, 3}, Downsampler.minMax(series, 1, 4, 10));
+        assertArrayEquals(new int[]{1, 2, 3}, Downsampler.minMax(series, 1, 4, 0));
+        assertEquals(0, Downsampler.minMax(series, 3, 3, 10).length);
+    }
+
+    @Test
+    void minMax_ShouldNeverReturnMoreThanMaxPoints() {
+        double[][] series = {
+            {5, 1, 9, 2, 8, 3, 7, 4, 6, 0},
+            {0, 6, 4, 7, 3, 8, 2, 9, 1, 5}
+        };
+
+        // Four rows hold the extremes of both series
+        assertEquals(4, Downsampler.minMax(series, 0, 10, 4).length);
+        assertEquals(3, Downsampler.minMax(series, 0, 10, 3).length);
+        assertEquals(1, Downsampler.minMax(series, 0, 10, 1).length);
+    }
+
+    @Test
+    void lttb_ShouldKeepEndpointsAndPeaks() {
+        int count = 5000;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i * 3_600_000.0;
+            y[i] = Math.sin(i / 200.0);
+        }
+        y[2500] = 10;
+
+        int[] rows = Downsampler.lttb(x, y, 0, count, 800);
+
+        assertEquals(800, rows.length);
+        assertEquals(0, rows[0]);
+        assertEquals(count - 1, rows[rows.length - 1]);
+        assertTrue(contains(rows, 2500));
+    }
+
+    @Test
+    void lttb_ShouldNeverReturnMoreThanMaxPoints() {
+        double[] x = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        double[] y = {5, 1, 9, 2, 8, 3, 7, 4, 6, 0};
+
+        assertArrayEquals(new int[]{0}, Downsampler.lttb(x, y, 0, 10, 1));
+        assertArrayEquals(new int[]{0, 9}, Downsampler.lttb(x, y, 0, 10, 2));
+        assertEquals(3, Downsampler.lttb(x, y, 0, 10, 3).length);
+    }
+
+    @Test
+    void downsample_ShouldPickChartRowsByTheirTimestamps() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("timestamp", start.plusDays(i).toString());
+            row.put("value", i == 1500 ? 1000.0 : 100.0 + i % 7);
+            rows.add(row);
+        }
+
+        List<Map<String, Object>> lttb = Downsampler.downsample(rows, 500, Downsampler.Mode.LTTB);
+        List<Map<String, Object>> envelope = Downsampler.downsample(rows, 500, Downsampler.Mode.MIN_MAX);
+
+        assertEquals(500, lttb.size());
+        assertTrue(lttb.contains(rows.get(1500)));
+        assertTrue(envelope.size() <= 500);
+        assertTrue(envelope.contains(rows.get(1500)));
+        assertSame(rows, Downsampler.downsample(rows, null, Downsampler.Mode.LTTB));
+    }
+
+    @Test
+    void downsample_ShouldPickChartRowsByTheirValueAlone() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("timestamp", start.plusDays(i).toString());
+            row.put("value", i == 1500 ? 1000.0 : 100.0);
+            // An unrelated series swinging far wider than the values
+            row.put("budget", i % 2 == 0 ? 0.0 : 1_000_000.0);
+            rows.add(row);
+        }
+
+        assertTrue(Downsampler.downsample(rows, 500, Downsampler.Mode.MIN_MAX).contains(rows.get(1500)));
+        assertTrue(Downsampler.downsample(rows, 500, Downsampler.Mode.LTTB).contains(rows.get(1500)));
+    }
+
+    @Test
+    void downsample_ShouldKeepTheExtremesOfEveryColumnarSeries() {
+        ColumnarTimeline timeline = new ColumnarTimeline("lcfs", "d3");
+        for (int i = 0; i < 3000; i++) {
+            int row = timeline.addRow(i * 86_400_000L);
+            // Opposite moves on the same day cancel out in the row total
+            timeline.setValue(0, row, i == 100 ? 900.0 : 100.0);
+            timeline.setValue(1, row, i == 100 ? -799.0 : 1.0);
+        }
+
+        ColumnarTimeline reduced = Downsampler.downsample(timeline, 200, Downsampler.Mode.MIN_MAX);
+
+        assertTrue(reduced.size() <= 200);
+        List<Long> times = new ArrayList<>();
+        for (int row = 0; row < reduced.size(); row++) {
+            times.add(reduced.getTimestamp(row));
+        }
+        assertTrue(times.contains(100 * 86_400_000L));
+    }
+
+    private static boolean contains(int[] rows, int row) {
+        for (int candidate : rows) {
+            if (candidate == row) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
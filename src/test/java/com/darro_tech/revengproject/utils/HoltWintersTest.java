@@ -0,0 +1,80 @@
+package com.darro_tech.revengproject.utils;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoltWintersTest {
+
+    private static final double[] WEEK = {5, 3, 0, -1, -2, 0, 4};
+
+    private static double[] weeklySeries(int length, double noise) {
+        Random random = new Random(11);
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = 100 + 0.5 * i + WEEK[i % 7] + random.nextGaussian() * noise;
+        }
+        return values;
+    }
+
+    @Test
+    void fit_ShouldFollowTrendAndWeeklyCycle() {
+        double[] values = weeklySeries(140, 0.1);
+        HoltWinters model = HoltWinters.fit(values, 126, 7);
+
+        for (int step = 1; step <= 14; step++) {
+            int i = 125 + step;
+            double expected = 100 + 0.5 * i + WEEK[i % 7];
+            assertEquals(expected, model.forecast(step), 1.0, "step " + step);
+        }
+    }
+
+    @Test
+    void update_ShouldCarryTheFitForwardWithoutRefitting() {
+        double[] values = weeklySeries(140, 0.1);
+        HoltWinters model = HoltWinters.fit(values, 126, 7);
+        for (int i = 126; i < 133; i++) {
+            model.update(values[i]);
+        }
+
+        assertEquals(133, model.getCount());
+        double expected = 100 + 0.5 * 133 + WEEK[133 % 7];
+        assertEquals(expected, model.forecast(1), 1.0);
+    }
+
+    @Test
+    void intervals_ShouldWidenWithTheHorizon() {
+        HoltWinters model = HoltWinters.fit(weeklySeries(140, 2.0), 140, 7);
+        double z = HoltWinters.zForConfidence(0.95);
+
+        assertEquals(1.959964, z, 1e-6);
+        assertEquals(1.0, HoltWinters.zForConfidence(0.6826895), 1e-6);
+        assertTrue(model.intervalHalfWidth(1, z) > 0);
+        assertTrue(model.intervalHalfWidth(30, z) > model.intervalHalfWidth(1, z));
+    }
+
+    @Test
+    void intervalHalfWidth_ShouldWeighTheSeasonalLagByGammaTimesOneMinusAlpha() {
+        HoltWinters model = HoltWinters.fit(weeklySeries(140, 2.0), 140, 7);
+        double a = model.getAlpha();
+        double b = model.getBeta();
+        double g = model.getGamma();
+        assertTrue(g > 0);
+
+        // Eight steps ahead: lags 1 to 6, then lag 7, one full season
+        double factor = 1;
+        for (int j = 1; j <= 6; j++) {
+            factor += Math.pow(a * (1 + j * b), 2);
+        }
+        factor += Math.pow(a * (1 + 7 * b) + g * (1 - a), 2);
+        double expected = 1.96 * Math.sqrt(model.getMeanSquaredError() * factor);
+
+        assertEquals(expected, model.intervalHalfWidth(8, 1.96), 1e-9);
+        // Up to the seasonal lag only the level and trend terms count
+        assertEquals(1.96 * Math.sqrt(model.getMeanSquaredError() * (1 + Math.pow(a * (1 + b), 2))),
+                model.intervalHalfWidth(2, 1.96), 1e-9);
+    }
+}
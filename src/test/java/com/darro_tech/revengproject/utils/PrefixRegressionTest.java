@@ -0,0 +1,76 @@
+package com.darro_tech.revengproject.utils;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixRegressionTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Test
+    void fit_ShouldMatchADirectRegressionOverTheWindow() {
+        Random random = new Random(3);
+        long[] timestamps = new long[3650];
+        double[] values = new double[3650];
+        PrefixRegression sums = new PrefixRegression();
+        for (int i = 0; i < values.length; i++) {
+            timestamps[i] = 1_600_000_000_000L + i * DAY;
+            values[i] = 80 + (i < 3600 ? 0.01 * i : -0.2 * i) + random.nextGaussian();
+            sums.append(timestamps[i], values[i]);
+        }
+
+        // The last 30 days, far from the first point
+        long from = timestamps[3620];
+        long to = timestamps[3649];
+        PrefixRegression.Fit fit = sums.fit(from, to);
+
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 3620; i < 3650; i++) {
+            meanX += (timestamps[i] - from) / (double) DAY;
+            meanY += values[i];
+        }
+        meanX /= 30;
+        meanY /= 30;
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 3620; i < 3650; i++) {
+            double dx = (timestamps[i] - from) / (double) DAY - meanX;
+            double dy = values[i] - meanY;
+            sxy += dx * dy;
+            sxx += dx * dx;
+            syy += dy * dy;
+        }
+
+        assertEquals(30, fit.getCount());
+        assertEquals(sxy / sxx, fit.getSlope(), 1e-6);
+        assertEquals(meanY - sxy / sxx * meanX, fit.getIntercept(), 1e-4);
+        assertEquals(sxy * sxy / (sxx * syy), fit.getR2(), 1e-6);
+        assertTrue(fit.getSlope() < 0);
+    }
+
+    @Test
+    void fit_ShouldBeUndefinedWithFewerThanTwoPoints() {
+        PrefixRegression sums = new PrefixRegression(1);
+        sums.append(0, 1);
+        sums.append(DAY, 2);
+
+        assertEquals(1, sums.fit(0, DAY - 1).getCount());
+        assertTrue(Double.isNaN(sums.fit(0, DAY - 1).getSlope()));
+        assertEquals(1.0, sums.fit(0, DAY).getSlope(), 1e-12);
+        assertEquals(0, sums.count(5 * DAY, 6 * DAY));
+    }
+
+    @Test
+    void append_ShouldRejectOutOfOrderPoints() {
+        PrefixRegression sums = new PrefixRegression();
+        sums.append(DAY, 1);
+        assertThrows(IllegalArgumentException.class, () -> sums.append(0, 1));
+    }
+}
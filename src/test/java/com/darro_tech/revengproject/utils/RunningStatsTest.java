@@ -0,0 +1,47 @@
+package com.darro_tech.revengproject.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunningStatsTest {
+
+    @Test
+    void of_ShouldMatchTwoPassPopulationStats() {
+        double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+        RunningStats stats = RunningStats.of(values, 0, values.length);
+
+        assertEquals(8, stats.getCount());
+        assertEquals(5.0, stats.getMean(), 1e-12);
+        assertEquals(2.0, stats.getStdDev(), 1e-12);
+        assertEquals(2.0, stats.zScore(9), 1e-12);
+    }
+
+    @Test
+    void rolling_ShouldJudgeEachPointAgainstThePrecedingWindow() {
+        double[] values = {10, 12, 10, 12, 10, 12, 30, 12, 10, 12};
+        RunningStats.Baseline baseline = RunningStats.rolling(values, values.length, 4);
+
+        // Index 6 is compared with 10, 12, 10, 12 only
+        assertEquals(11.0, baseline.mean(6), 1e-12);
+        assertEquals(1.0, baseline.stdDev(6), 1e-12);
+        assertEquals(19.0, baseline.zScore(6), 1e-12);
+
+        // Index 9 is compared with 12, 30, 12, 10, matching a fresh computation
+        RunningStats expected = RunningStats.of(values, 5, 9);
+        assertEquals(expected.getMean(), baseline.mean(9), 1e-9);
+        assertEquals(expected.getStdDev(), baseline.stdDev(9), 1e-9);
+    }
+
+    @Test
+    void zScore_ShouldBeInfiniteForADeviationWithoutSpread() {
+        double[] values = {5, 5, 5, 5, 9, 1, 5};
+        RunningStats.Baseline baseline = RunningStats.rolling(values, values.length, 4);
+
+        assertEquals(Double.POSITIVE_INFINITY, baseline.zScore(4));
+        assertEquals(0.0, baseline.zScore(3));
+        assertEquals(Double.NEGATIVE_INFINITY, RunningStats.of(values, 0, 4).zScore(1));
+        assertTrue(Double.isNaN(new RunningStats().zScore(1)));
+    }
+}
@@ -0,0 +1,121 @@
+-- HQ tables the application reads that predate the Flyway migrations, as
+-- they exist in production. TestDatabase runs this before db/migration so
+-- the migrations find them, like they do on the real database.
+
+-- HQ.meters definition
+CREATE TABLE `meters` (
+    `id` varchar(36) NOT NULL,
+    `farm_id` varchar(36) NOT NULL,
+    `name` varchar(255) NOT NULL,
+    `display_name` varchar(255) DEFAULT NULL,
+    `timestamp` datetime NOT NULL,
+    `include_website` tinyint(1) DEFAULT 1,
+    `is_archived` tinyint(1) NOT NULL DEFAULT 0,
+    PRIMARY KEY (`id`),
+    KEY `meters_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='List of all meters related to farms';
+
+-- HQ.company_meters definition
+CREATE TABLE `company_meters` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `company_id` varchar(36) NOT NULL,
+    `meter_id` varchar(36) NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `company_meters_company_id` (`company_id`) USING BTREE,
+    KEY `company_meters_meter_id` (`meter_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Linking meters to companies';
+
+-- HQ.budget definition
+CREATE TABLE `budget` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `budget_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Monthly production budget per farm';
+
+-- HQ.meter_monthly_forecast definition
+CREATE TABLE `meter_monthly_forecast` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `meter_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `meter_monthly_forecast_meter_id` (`meter_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Monthly meter forecast';
+
+-- HQ.ch4_recovery definition
+CREATE TABLE `ch4_recovery` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `ch4_recovery_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='CH4 recovery per farm';
+
+-- HQ.temperature definition
+CREATE TABLE `temperature` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `temperature_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Temperature per farm';
+
+-- HQ.mass_balance definition
+CREATE TABLE `mass_balance` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `mass_balance_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Mass balance per farm';
+
+-- HQ.lagoon_levels definition
+CREATE TABLE `lagoon_levels` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `lagoon_levels_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Lagoon level per farm';
+
+-- HQ.population definition
+CREATE TABLE `population` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `farm_id` varchar(36) NOT NULL,
+    `value` double NOT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `population_farm_id` (`farm_id`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Animal population per farm';
+
+-- HQ.market_prices definition
+CREATE TABLE `market_prices` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `lcfs` double DEFAULT NULL,
+    `d3` double DEFAULT NULL,
+    `d5` double DEFAULT NULL,
+    `natural_gas` double DEFAULT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `market_prices_timestamp` (`timestamp`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Daily market prices';
+
+-- HQ.market_prices_monthly definition
+CREATE TABLE `market_prices_monthly` (
+    `id` int(11) NOT NULL AUTO_INCREMENT,
+    `lcfs` double DEFAULT NULL,
+    `d3` double DEFAULT NULL,
+    `d5` double DEFAULT NULL,
+    `natural_gas` double DEFAULT NULL,
+    `timestamp` datetime NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `market_prices_monthly_timestamp` (`timestamp`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1 COMMENT='Monthly market prices';